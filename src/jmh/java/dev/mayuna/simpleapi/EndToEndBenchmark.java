@@ -0,0 +1,86 @@
+package dev.mayuna.simpleapi;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end throughput of {@link ApiRequest#send()} and {@link ApiRequest#sendAsync()} against an in-process
+ * {@link com.sun.net.httpserver.HttpServer} on the loopback interface, so it works offline.
+ */
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    private static final int ASYNC_BATCH_SIZE = 64;
+
+    /**
+     * Number of items in the response payload
+     */
+    @Param({"1", "100"})
+    public int itemCount;
+
+    private HttpServer httpServer;
+    private ExecutorService serverExecutor;
+    private BenchmarkApi api;
+    private ApiRequest<BenchmarkApi.ItemsResponse> apiRequest;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        byte[] payload = BenchmarkApi.createPayload(itemCount).getBytes(StandardCharsets.UTF_8);
+
+        serverExecutor = Executors.newFixedThreadPool(8);
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        httpServer.setExecutor(serverExecutor);
+        httpServer.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(payload);
+            }
+        });
+        httpServer.start();
+
+        api = new BenchmarkApi("http://" + httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort());
+        apiRequest = api.createRequestBuilder(BenchmarkApi.ItemsResponse.class).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        api.shutdown();
+        httpServer.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public BenchmarkApi.ItemsResponse send() throws Exception {
+        return apiRequest.send();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ASYNC_BATCH_SIZE)
+    public void sendAsync() {
+        CompletableFuture<?>[] futures = new CompletableFuture[ASYNC_BATCH_SIZE];
+
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = apiRequest.sendAsync();
+        }
+
+        CompletableFuture.allOf(futures).join();
+    }
+}
@@ -0,0 +1,60 @@
+package dev.mayuna.simpleapi;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.http.HttpRequest;
+
+/**
+ * Benchmarks of the request side of the hot path - building of {@link ApiRequest}, endpoint computation, header application and creation of
+ * {@link HttpRequest}, compared with binding of {@link PreparedApiRequest}.
+ */
+@State(Scope.Benchmark)
+public class RequestBenchmark {
+
+    private BenchmarkApi api;
+    private ApiRequestBuilder<BenchmarkApi.EmptyResponse> apiRequestBuilder;
+    private ApiRequest<BenchmarkApi.EmptyResponse> apiRequest;
+    private PreparedApiRequest<BenchmarkApi.EmptyResponse> preparedApiRequest;
+    private PathParameter[] pathParameters;
+    private RequestQuery[] requestQueries;
+
+    @Setup
+    public void setup() {
+        api = new BenchmarkApi("http://localhost:8080");
+        apiRequestBuilder = api.createRequestBuilder(BenchmarkApi.EmptyResponse.class);
+        apiRequest = apiRequestBuilder.build();
+        preparedApiRequest = apiRequestBuilder.copy().withoutPathParameters().withoutRequestQueries().prepare();
+        pathParameters = apiRequest.getPathParameters();
+        requestQueries = apiRequest.getRequestQueries();
+    }
+
+    @Benchmark
+    public ApiRequest<BenchmarkApi.EmptyResponse> buildApiRequest() {
+        return apiRequestBuilder.build();
+    }
+
+    @Benchmark
+    public String computeEndpoint() {
+        return apiRequest.getComputedEndpoint();
+    }
+
+    @Benchmark
+    public HttpRequest.Builder applyHeaders() {
+        HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder();
+        apiRequest.applyHeadersToHttpRequestBuilder(httpRequestBuilder, apiRequest.getRequestHeaders());
+        return httpRequestBuilder;
+    }
+
+    @Benchmark
+    public HttpRequest createHttpRequest() {
+        return apiRequest.createHttpRequest();
+    }
+
+    @Benchmark
+    public HttpRequest bindPreparedRequest() {
+        return preparedApiRequest.bind(pathParameters, requestQueries).createHttpRequest();
+    }
+}
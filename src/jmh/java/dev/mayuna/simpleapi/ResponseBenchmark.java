@@ -0,0 +1,55 @@
+package dev.mayuna.simpleapi;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the response side of the hot path - instantiation of the response class and deserialization of payloads of various sizes.
+ */
+@State(Scope.Benchmark)
+public class ResponseBenchmark {
+
+    /**
+     * Number of items in the payload - roughly 100 B, 10 KB and 1 MB
+     */
+    @Param({"1", "100", "10000"})
+    public int itemCount;
+
+    private ApiRequest<BenchmarkApi.EmptyResponse> emptyApiRequest;
+    private ApiRequest<BenchmarkApi.ItemsResponse> itemsApiRequest;
+    private BenchmarkApi.InMemoryHttpResponse emptyHttpResponse;
+    private BenchmarkApi.InMemoryHttpResponse itemsHttpResponse;
+
+    @Setup
+    public void setup() {
+        BenchmarkApi api = new BenchmarkApi("http://localhost:8080");
+
+        emptyApiRequest = api.createRequestBuilder(BenchmarkApi.EmptyResponse.class).build();
+        itemsApiRequest = api.createRequestBuilder(BenchmarkApi.ItemsResponse.class).build();
+        emptyHttpResponse = new BenchmarkApi.InMemoryHttpResponse(emptyApiRequest.createHttpRequest(), "");
+        itemsHttpResponse = new BenchmarkApi.InMemoryHttpResponse(itemsApiRequest.createHttpRequest(), BenchmarkApi.createPayload(itemCount));
+    }
+
+    @Benchmark
+    public BenchmarkApi.EmptyResponse instantiateResponse() throws Exception {
+        return emptyApiRequest.createInstanceOfResponseClass();
+    }
+
+    @Benchmark
+    public BenchmarkApi.EmptyResponse handleEmptyResponse() throws Exception {
+        return emptyApiRequest.handleResponse(emptyHttpResponse);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return itemsApiRequest.createInstanceOfResponseClass().deserialize(itemsApiRequest, itemsHttpResponse);
+    }
+
+    @Benchmark
+    public BenchmarkApi.ItemsResponse handleResponse() throws Exception {
+        return itemsApiRequest.handleResponse(itemsHttpResponse);
+    }
+}
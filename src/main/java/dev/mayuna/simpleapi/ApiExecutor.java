@@ -0,0 +1,460 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link Executor} used by {@link WrappedApi#runAsync(Runnable)}. Runs at most {@link #getMaxConcurrency()} tasks at once, other tasks wait in a
+ * bounded queue. When the queue is full, the {@link RejectionPolicy} is applied.<br>Requests sent by {@link WrappedApi#sendAsync(ApiRequest)} are
+ * bounded the same way using {@link #executeAsync(Supplier)} - at most {@link #getMaxConcurrency()} of them are in flight at once, other requests
+ * wait in their own bounded queue. In-flight requests do not occupy any thread, so they are counted separately from the running tasks.<br>Use one of
+ * the factory methods to create it:
+ * <ul>
+ *     <li>{@link #virtualThreads(int, int, RejectionPolicy)} - virtual thread per task (Java 21+)</li>
+ *     <li>{@link #boundedPool(int, int, RejectionPolicy)} - bounded pool of platform threads</li>
+ *     <li>{@link #of(Executor, int, int, RejectionPolicy)} - your own {@link Executor}</li>
+ * </ul>
+ */
+public class ApiExecutor implements Executor, AutoCloseable {
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final Executor executor;
+    private final ExecutorService ownedExecutorService;
+    private final @Getter int maxConcurrency;
+    private final @Getter int queueCapacity;
+    private final @Getter RejectionPolicy rejectionPolicy;
+
+    private final BlockingQueue<Runnable> queue;
+    private final AtomicInteger running = new AtomicInteger();
+    private final BlockingQueue<AsyncTask<?>> asyncQueue;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile @Getter boolean closed;
+
+    /**
+     * Creates {@link ApiExecutor}
+     *
+     * @param executor             Non-null executor which runs the tasks
+     * @param ownedExecutorService Nullable executor service which is shut down when this {@link ApiExecutor} is closed
+     * @param maxConcurrency       Maximum number of tasks running at once, must be positive
+     * @param queueCapacity        Capacity of the queue for waiting tasks, must not be negative
+     * @param rejectionPolicy      Non-null {@link RejectionPolicy}
+     */
+    protected ApiExecutor(@NonNull Executor executor, ExecutorService ownedExecutorService, int maxConcurrency, int queueCapacity, @NonNull RejectionPolicy rejectionPolicy) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive, currently is: " + maxConcurrency);
+        }
+
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity must not be negative, currently is: " + queueCapacity);
+        }
+
+        this.executor = executor;
+        this.ownedExecutorService = ownedExecutorService;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+        this.queue = queueCapacity == 0 ? new LinkedBlockingQueue<>(1) : new ArrayBlockingQueue<>(queueCapacity);
+        this.asyncQueue = queueCapacity == 0 ? new LinkedBlockingQueue<>(1) : new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Creates {@link ApiExecutor} which runs each task in a new virtual thread. Virtual threads are available since Java 21, on older versions a
+     * bounded pool of platform threads with {@code maxConcurrency} threads is used instead.
+     *
+     * @param maxConcurrency  Maximum number of tasks running at once
+     * @param queueCapacity   Capacity of the queue for waiting tasks
+     * @param rejectionPolicy Non-null {@link RejectionPolicy}
+     *
+     * @return Non-null {@link ApiExecutor}
+     */
+    public static ApiExecutor virtualThreads(int maxConcurrency, int queueCapacity, @NonNull RejectionPolicy rejectionPolicy) {
+        ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+
+        if (virtualThreadExecutor == null) {
+            return boundedPool(maxConcurrency, queueCapacity, rejectionPolicy);
+        }
+
+        return new ApiExecutor(virtualThreadExecutor, virtualThreadExecutor, maxConcurrency, queueCapacity, rejectionPolicy);
+    }
+
+    /**
+     * Creates {@link ApiExecutor} with bounded pool of daemon platform threads. Idle threads are stopped after 60 seconds.
+     *
+     * @param threads         Maximum number of threads, which is also the maximum number of tasks running at once
+     * @param queueCapacity   Capacity of the queue for waiting tasks
+     * @param rejectionPolicy Non-null {@link RejectionPolicy}
+     *
+     * @return Non-null {@link ApiExecutor}
+     */
+    public static ApiExecutor boundedPool(int threads, int queueCapacity, @NonNull RejectionPolicy rejectionPolicy) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive, currently is: " + threads);
+        }
+
+        int poolNumber = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "simple-api-" + poolNumber + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        // The queue of the pool is used only briefly by queued asynchronous tasks, which are started in the pool, see drainAsyncQueue()
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        return new ApiExecutor(threadPoolExecutor, threadPoolExecutor, threads, queueCapacity, rejectionPolicy);
+    }
+
+    /**
+     * Creates {@link ApiExecutor} which runs the tasks in the given {@link Executor}. The executor is not shut down when this {@link ApiExecutor} is
+     * closed.
+     *
+     * @param executor        Non-null {@link Executor}
+     * @param maxConcurrency  Maximum number of tasks running at once
+     * @param queueCapacity   Capacity of the queue for waiting tasks
+     * @param rejectionPolicy Non-null {@link RejectionPolicy}
+     *
+     * @return Non-null {@link ApiExecutor}
+     */
+    public static ApiExecutor of(@NonNull Executor executor, int maxConcurrency, int queueCapacity, @NonNull RejectionPolicy rejectionPolicy) {
+        return new ApiExecutor(executor, null, maxConcurrency, queueCapacity, rejectionPolicy);
+    }
+
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method method = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the task, queues it if {@link #getMaxConcurrency()} tasks are already running, or applies the {@link RejectionPolicy} if the queue is
+     * full.
+     *
+     * @param task The task to run.
+     *
+     * @throws RejectedExecutionException If this {@link ApiExecutor} is closed, if the queue is full with {@link RejectionPolicy#FAIL_FAST} or if
+     *                                    the thread was interrupted while waiting with {@link RejectionPolicy#BLOCK}.
+     */
+    @Override
+    public void execute(@NonNull Runnable task) {
+        if (closed) {
+            throw new RejectedExecutionException("ApiExecutor is closed");
+        }
+
+        if (tryAcquireSlot()) {
+            dispatch(task);
+            return;
+        }
+
+        if (queueCapacity == 0 || !queue.offer(task)) {
+            switch (rejectionPolicy) {
+                case FAIL_FAST:
+                    throw new RejectedExecutionException("ApiExecutor queue is full (" + queueCapacity + " tasks waiting, " + maxConcurrency + " running)");
+                case CALLER_RUNS:
+                    task.run();
+                    return;
+                case BLOCK:
+                    if (queueCapacity == 0) {
+                        throw new RejectedExecutionException("ApiExecutor cannot block without a queue");
+                    }
+
+                    try {
+                        queue.put(task);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for space in the queue", exception);
+                    }
+                    break;
+            }
+        }
+
+        // Some task could have finished between the slot check and queueing
+        drainQueue();
+    }
+
+    /**
+     * Starts the asynchronous task, e.g. a request sent by {@link WrappedApi#sendAsync(ApiRequest)}, which is in flight until its future completes.
+     * If {@link #getMaxConcurrency()} asynchronous tasks are already in flight, the task is queued, or the {@link RejectionPolicy} is applied if the
+     * queue is full - {@link RejectionPolicy#CALLER_RUNS} starts the task right away, without waiting for the other tasks.<br>Queued tasks are
+     * started in the underlying executor, not in the thread which completed the previous task - usually the {@link java.net.http.HttpClient}'s
+     * thread - and without applying the {@link RejectionPolicy}. Queued tasks are completed exceptionally with {@link RejectedExecutionException}
+     * when this {@link ApiExecutor} is closed.
+     *
+     * @param task The task to start.
+     * @param <T>  The type of the result.
+     *
+     * @return Non-null {@link CompletableFuture} completed with the result of the task's future.
+     *
+     * @throws RejectedExecutionException If this {@link ApiExecutor} is closed, if the queue is full with {@link RejectionPolicy#FAIL_FAST} or if
+     *                                    the thread was interrupted while waiting with {@link RejectionPolicy#BLOCK}.
+     */
+    public <T> CompletableFuture<T> executeAsync(@NonNull Supplier<CompletableFuture<T>> task) {
+        if (closed) {
+            throw new RejectedExecutionException("ApiExecutor is closed");
+        }
+
+        AsyncTask<T> asyncTask = new AsyncTask<>(task);
+
+        if (tryAcquireSlot(inFlight)) {
+            asyncTask.start(true);
+            return asyncTask.future;
+        }
+
+        if (queueCapacity == 0 || !asyncQueue.offer(asyncTask)) {
+            switch (rejectionPolicy) {
+                case FAIL_FAST:
+                    throw new RejectedExecutionException("ApiExecutor async queue is full (" + queueCapacity + " tasks waiting, " + maxConcurrency + " in flight)");
+                case CALLER_RUNS:
+                    asyncTask.start(false);
+                    return asyncTask.future;
+                case BLOCK:
+                    if (queueCapacity == 0) {
+                        throw new RejectedExecutionException("ApiExecutor cannot block without a queue");
+                    }
+
+                    try {
+                        asyncQueue.put(asyncTask);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for space in the async queue", exception);
+                    }
+                    break;
+            }
+        }
+
+        // Some task could have completed between the slot check and queueing
+        drainAsyncQueue();
+        return asyncTask.future;
+    }
+
+    /**
+     * Gets the number of currently running tasks.
+     *
+     * @return Number of running tasks.
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * Gets the number of tasks waiting in the queue.
+     *
+     * @return Number of queued tasks.
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of asynchronous tasks in flight, started by {@link #executeAsync(Supplier)}.
+     *
+     * @return Number of in-flight asynchronous tasks.
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the number of asynchronous tasks waiting in the queue.
+     *
+     * @return Number of queued asynchronous tasks.
+     */
+    public int getQueuedAsyncCount() {
+        return asyncQueue.size();
+    }
+
+    private boolean tryAcquireSlot() {
+        return tryAcquireSlot(running);
+    }
+
+    private boolean tryAcquireSlot(AtomicInteger slots) {
+        while (true) {
+            int current = slots.get();
+
+            if (current >= maxConcurrency) {
+                return false;
+            }
+
+            if (slots.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            executor.execute(() -> runWorker(task));
+        } catch (RejectedExecutionException exception) {
+            running.decrementAndGet();
+            throw exception;
+        }
+    }
+
+    private void runWorker(Runnable firstTask) {
+        Runnable task = firstTask;
+
+        try {
+            while (task != null) {
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, throwable);
+                }
+
+                task = queue.poll();
+            }
+        } finally {
+            running.decrementAndGet();
+        }
+
+        drainQueue();
+    }
+
+    private void drainQueue() {
+        while (!queue.isEmpty() && tryAcquireSlot()) {
+            Runnable task = queue.poll();
+
+            if (task == null) {
+                running.decrementAndGet();
+                continue;
+            }
+
+            try {
+                dispatch(task);
+            } catch (RejectedExecutionException exception) {
+                // Executor was shut down, the queued tasks are run in the current thread instead of being lost
+                running.incrementAndGet();
+                runWorker(task);
+                return;
+            }
+        }
+    }
+
+    private void drainAsyncQueue() {
+        while (!asyncQueue.isEmpty() && tryAcquireSlot(inFlight)) {
+            AsyncTask<?> asyncTask = asyncQueue.poll();
+
+            if (asyncTask == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+
+            try {
+                // Not started in the current thread, which may be the HttpClient's thread completing another request. The underlying executor is
+                // used directly, so the thread is neither blocked nor used to run the task by the RejectionPolicy.
+                executor.execute(() -> asyncTask.start(true));
+            } catch (RejectedExecutionException exception) {
+                inFlight.decrementAndGet();
+                asyncTask.future.completeExceptionally(exception);
+            }
+        }
+
+        if (closed) {
+            rejectQueuedAsyncTasks();
+        }
+    }
+
+    private void rejectQueuedAsyncTasks() {
+        AsyncTask<?> asyncTask;
+
+        while ((asyncTask = asyncQueue.poll()) != null) {
+            asyncTask.future.completeExceptionally(new RejectedExecutionException("ApiExecutor is closed"));
+        }
+    }
+
+    /**
+     * Closes this {@link ApiExecutor}. New tasks are rejected, already queued tasks are still run by the running workers. Queued asynchronous tasks,
+     * which were not started yet, are completed exceptionally with {@link RejectedExecutionException}, in-flight ones are not affected. If the
+     * executor was created by this class, it is shut down.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        rejectQueuedAsyncTasks();
+
+        if (ownedExecutorService != null) {
+            ownedExecutorService.shutdown();
+        }
+    }
+
+    /**
+     * Asynchronous task started by {@link #executeAsync(Supplier)}
+     *
+     * @param <T> The type of the result.
+     */
+    private final class AsyncTask<T> {
+
+        private final Supplier<CompletableFuture<T>> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private AsyncTask(Supplier<CompletableFuture<T>> task) {
+            this.task = task;
+        }
+
+        /**
+         * Starts the task and completes {@link #future} with its result.
+         *
+         * @param holdsSlot True if the task holds an in-flight slot, which is released when the task's future completes.
+         */
+        private void start(boolean holdsSlot) {
+            CompletableFuture<T> taskFuture;
+
+            try {
+                taskFuture = future.isDone() ? CompletableFuture.completedFuture(null) : task.get();
+            } catch (Throwable throwable) {
+                taskFuture = CompletableFuture.failedFuture(throwable);
+            }
+
+            taskFuture.whenComplete((result, throwable) -> {
+                if (holdsSlot) {
+                    inFlight.decrementAndGet();
+                    drainAsyncQueue();
+                }
+
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                } else {
+                    future.complete(result);
+                }
+            });
+        }
+    }
+
+    /**
+     * Determines what happens with a task when the queue is full
+     */
+    public enum RejectionPolicy {
+        /**
+         * The calling thread waits until there is space in the queue
+         */
+        BLOCK,
+        /**
+         * {@link RejectedExecutionException} is thrown
+         */
+        FAIL_FAST,
+        /**
+         * The task is run in the calling thread
+         */
+        CALLER_RUNS
+    }
+}
@@ -0,0 +1,223 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and throughput metrics of {@link WrappedApi}, recorded per endpoint template (e.g. <code>/users/{id}</code>) and response status class
+ * (<code>2xx</code>, <code>4xx</code>, ...). Override {@link WrappedApi#createApiMetrics()} to enable them.<br>Network time (from sending the request
+ * until the response is received by the body handler) and deserialization time (handling of the response) are recorded separately. Every attempt of
+ * retried request is recorded. Recording uses {@link LongAdder}s and {@link LatencyHistogram}s, so it is cheap enough to be always enabled.
+ * <pre>{@code
+ * for (ApiMetrics.EndpointSnapshot endpoint : api.getApiMetrics().getSnapshot()) {
+ *     LatencyHistogram.Snapshot latency = endpoint.getStatusClasses().get("2xx").getNetworkLatency();
+ *     System.out.println(endpoint.getEndpoint() + " p99: " + latency.getPercentile(99));
+ * }
+ * }</pre>
+ */
+public class ApiMetrics {
+
+    private static final String[] STATUS_CLASSES = {"other", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Creates empty {@link ApiMetrics}
+     */
+    public ApiMetrics() {
+    }
+
+    /**
+     * Gets the metrics of the endpoint, creating them if they do not exist yet.
+     *
+     * @param endpoint Nullable endpoint template
+     *
+     * @return Non-null {@link EndpointMetrics}
+     */
+    EndpointMetrics getEndpointMetrics(String endpoint) {
+        String key = endpoint != null ? endpoint : "";
+        EndpointMetrics endpointMetrics = endpoints.get(key);
+
+        if (endpointMetrics == null) {
+            endpointMetrics = endpoints.computeIfAbsent(key, EndpointMetrics::new);
+        }
+
+        return endpointMetrics;
+    }
+
+    /**
+     * Creates snapshots of all endpoints. Concurrent recording may be partially included.
+     *
+     * @return Non-null list of {@link EndpointSnapshot}s
+     */
+    public List<EndpointSnapshot> getSnapshot() {
+        List<EndpointSnapshot> snapshots = new ArrayList<>(endpoints.size());
+
+        for (EndpointMetrics endpointMetrics : endpoints.values()) {
+            snapshots.add(endpointMetrics.getSnapshot());
+        }
+
+        return snapshots;
+    }
+
+    /**
+     * Removes all recorded metrics.
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static int getStatusClassIndex(int statusCode) {
+        int statusClass = statusCode / 100;
+        return statusClass >= 1 && statusClass <= 5 ? statusClass : 0;
+    }
+
+    /**
+     * Metrics of a single endpoint
+     */
+    static final class EndpointMetrics {
+
+        private final String endpoint;
+        private final LongAdder inFlight = new LongAdder();
+        private final LongAdder networkErrors = new LongAdder();
+        private final LongAdder deserializationErrors = new LongAdder();
+        private final StatusClassMetrics[] statusClasses = new StatusClassMetrics[STATUS_CLASSES.length];
+
+        private EndpointMetrics(String endpoint) {
+            this.endpoint = endpoint;
+
+            for (int i = 0; i < statusClasses.length; i++) {
+                statusClasses[i] = new StatusClassMetrics();
+            }
+        }
+
+        void onExchangeStarted() {
+            inFlight.increment();
+        }
+
+        void onExchangeCompleted(long networkNanos, int statusCode) {
+            inFlight.decrement();
+
+            StatusClassMetrics statusClassMetrics = statusClasses[getStatusClassIndex(statusCode)];
+            statusClassMetrics.requests.increment();
+            statusClassMetrics.networkLatency.record(networkNanos);
+        }
+
+        void onExchangeFailed() {
+            inFlight.decrement();
+            networkErrors.increment();
+        }
+
+        void onDeserialized(long deserializationNanos, int statusCode) {
+            statusClasses[getStatusClassIndex(statusCode)].deserializationLatency.record(deserializationNanos);
+        }
+
+        void onDeserializationFailed() {
+            deserializationErrors.increment();
+        }
+
+        private EndpointSnapshot getSnapshot() {
+            Map<String, StatusClassSnapshot> statusClassSnapshots = new LinkedHashMap<>();
+
+            for (int i = 0; i < statusClasses.length; i++) {
+                StatusClassMetrics statusClassMetrics = statusClasses[i];
+                long requests = statusClassMetrics.requests.sum();
+
+                if (requests > 0) {
+                    statusClassSnapshots.put(STATUS_CLASSES[i], new StatusClassSnapshot(requests, statusClassMetrics.networkLatency.getSnapshot(),
+                                                                                        statusClassMetrics.deserializationLatency.getSnapshot()
+                    ));
+                }
+            }
+
+            return new EndpointSnapshot(endpoint, inFlight.sum(), networkErrors.sum(), deserializationErrors.sum(),
+                                        Collections.unmodifiableMap(statusClassSnapshots)
+            );
+        }
+    }
+
+    private static final class StatusClassMetrics {
+
+        private final LongAdder requests = new LongAdder();
+        private final LatencyHistogram networkLatency = new LatencyHistogram();
+        private final LatencyHistogram deserializationLatency = new LatencyHistogram();
+    }
+
+    /**
+     * Snapshot of the metrics of a single endpoint
+     */
+    public static final class EndpointSnapshot {
+
+        private final @Getter String endpoint;
+        private final @Getter long inFlight;
+        private final @Getter long networkErrorCount;
+        private final @Getter long deserializationErrorCount;
+        private final @Getter Map<String, StatusClassSnapshot> statusClasses;
+
+        private EndpointSnapshot(String endpoint, long inFlight, long networkErrorCount, long deserializationErrorCount, Map<String, StatusClassSnapshot> statusClasses) {
+            this.endpoint = endpoint;
+            this.inFlight = inFlight;
+            this.networkErrorCount = networkErrorCount;
+            this.deserializationErrorCount = deserializationErrorCount;
+            this.statusClasses = statusClasses;
+        }
+
+        /**
+         * Gets the number of received responses of all status classes.
+         *
+         * @return Number of responses.
+         */
+        public long getRequestCount() {
+            long requestCount = 0;
+
+            for (StatusClassSnapshot statusClass : statusClasses.values()) {
+                requestCount += statusClass.getRequestCount();
+            }
+
+            return requestCount;
+        }
+
+        /**
+         * Gets the number of errors - requests which failed to be sent or whose response failed to be handled.
+         *
+         * @return Number of errors.
+         */
+        public long getErrorCount() {
+            return networkErrorCount + deserializationErrorCount;
+        }
+
+        @Override
+        public String toString() {
+            return "ApiMetrics.EndpointSnapshot{endpoint='" + endpoint + "', inFlight=" + inFlight + ", networkErrors=" + networkErrorCount +
+                    ", deserializationErrors=" + deserializationErrorCount + ", statusClasses=" + statusClasses + "}";
+        }
+    }
+
+    /**
+     * Snapshot of the metrics of responses with the same status class
+     */
+    public static final class StatusClassSnapshot {
+
+        private final @Getter long requestCount;
+        private final @Getter LatencyHistogram.Snapshot networkLatency;
+        private final @Getter LatencyHistogram.Snapshot deserializationLatency;
+
+        private StatusClassSnapshot(long requestCount, LatencyHistogram.Snapshot networkLatency, LatencyHistogram.Snapshot deserializationLatency) {
+            this.requestCount = requestCount;
+            this.networkLatency = networkLatency;
+            this.deserializationLatency = deserializationLatency;
+        }
+
+        @Override
+        public String toString() {
+            return "{requests=" + requestCount + ", network=" + networkLatency + ", deserialization=" + deserializationLatency + "}";
+        }
+    }
+}
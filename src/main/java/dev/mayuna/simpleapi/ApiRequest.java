@@ -6,9 +6,11 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -31,6 +33,19 @@ public interface ApiRequest<T> {
         return ApiRequestBuilder.ofResponse(wrappedApi, responseClass);
     }
 
+    /**
+     * Creates a new {@link ApiRequestBuilder} for the given {@link WrappedApi} and generic {@link ResponseType}.
+     *
+     * @param wrappedApi   The {@link WrappedApi} to use.
+     * @param responseType The {@link ResponseType} of the response.
+     * @param <T>          The type of the response.
+     *
+     * @return The created {@link ApiRequestBuilder}.
+     */
+    static <T> ApiRequestBuilder<T> builder(WrappedApi wrappedApi, ResponseType<T> responseType) {
+        return ApiRequestBuilder.ofResponse(wrappedApi, responseType);
+    }
+
     /**
      * Gets the {@link WrappedApi} of this {@link ApiRequest}.
      *
@@ -45,6 +60,16 @@ public interface ApiRequest<T> {
      */
     @NotNull Class<T> getResponseClass();
 
+    /**
+     * Gets the {@link Type} of the response. It differs from {@link #getResponseClass()} only for generic responses created with
+     * {@link ResponseType}.
+     *
+     * @return The {@link Type} of the response.
+     */
+    default @NotNull Type getResponseType() {
+        return getResponseClass();
+    }
+
     /**
      * Gets the URL of this {@link ApiRequest}.
      *
@@ -66,6 +91,15 @@ public interface ApiRequest<T> {
      */
     @NotNull RequestMethod getRequestMethod();
 
+    /**
+     * Gets the {@link RetryPolicy} of this {@link ApiRequest}. By default, it is the {@link WrappedApi#getRetryPolicy()}.
+     *
+     * @return Nullable {@link RetryPolicy}. If null, the request is not retried.
+     */
+    default @Nullable RetryPolicy getRetryPolicy() {
+        return getWrappedApi().getRetryPolicy();
+    }
+
     /**
      * Gets the {@link PathParameter}s of this {@link ApiRequest}.
      *
@@ -102,13 +136,53 @@ public interface ApiRequest<T> {
         return HttpRequest.BodyPublishers.noBody();
     }
 
+    /**
+     * Gets the {@link FileDownload} of this {@link ApiRequest}.
+     *
+     * @return The {@link FileDownload} of this {@link ApiRequest}, or null if the response is not downloaded into a file.
+     */
+    default @Nullable FileDownload getFileDownload() {
+        return null;
+    }
+
+    /**
+     * Gets the {@link RequestPriority} of this {@link ApiRequest}, used by {@link WrappedApi#getRequestScheduler()}.
+     *
+     * @return The {@link RequestPriority} of this {@link ApiRequest}. Defaults to {@link RequestPriority#NORMAL}.
+     */
+    default @NotNull RequestPriority getPriority() {
+        return RequestPriority.NORMAL;
+    }
+
+    /**
+     * Gets the deadline of this {@link ApiRequest} - the maximum time it may wait in the queue of {@link WrappedApi#getRequestScheduler()} after it
+     * was sent. Requests not dispatched within the deadline fail with {@link RequestDeadlineExceededException}.
+     *
+     * @return The deadline of this {@link ApiRequest}, or null if it may wait indefinitely.
+     */
+    default @Nullable Duration getDeadline() {
+        return null;
+    }
+
     /**
      * Gets the {@link HttpResponse.BodyHandler} of this {@link ApiRequest}.
      *
-     * @return The {@link HttpResponse.BodyHandler} of this {@link ApiRequest}.
+     * @return The {@link HttpResponse.BodyHandler} of this {@link ApiRequest}. Defaults to the handler writing into the file of
+     * {@link #getFileDownload()}, to {@link HttpResponse.BodyHandlers#ofInputStream()} for {@link StreamingApiResponse}s, otherwise to
+     * {@link WrappedApi#getDefaultBodyHandler()}.
      */
     default @NotNull HttpResponse.BodyHandler<?> getBodyHandler() {
-        return HttpResponse.BodyHandlers.ofString();
+        FileDownload fileDownload = getFileDownload();
+
+        if (fileDownload != null) {
+            return fileDownload.getBodyHandler();
+        }
+
+        if (ResponseFactory.of(getResponseClass()).isStreamingApiResponse()) {
+            return HttpResponse.BodyHandlers.ofInputStream();
+        }
+
+        return getWrappedApi().getDefaultBodyHandler();
     }
 
     /**
@@ -131,9 +205,9 @@ public interface ApiRequest<T> {
     }
 
     /**
-     * Creates a new {@link HttpClient} instance.
+     * Gets the {@link HttpClient} instance used for sending this request. By default, it is the shared client of the {@link WrappedApi}.
      *
-     * @return The created {@link HttpClient} instance.
+     * @return The {@link HttpClient} instance.
      */
     default HttpClient createHttpClientInstance() {
         return getWrappedApi().createHttpClientInstance();
@@ -148,6 +222,15 @@ public interface ApiRequest<T> {
         return getWrappedApi().createHttpRequestBuilderInstance();
     }
 
+    /**
+     * Creates the {@link HttpRequest} of this {@link ApiRequest}.
+     *
+     * @return The created {@link HttpRequest}.
+     */
+    default HttpRequest createHttpRequest() {
+        return getWrappedApi().createHttpRequest(this);
+    }
+
     /**
      * Creates a new instance of the response class.
      *
@@ -179,22 +262,13 @@ public interface ApiRequest<T> {
     }
 
     /**
-     * Sends the request asynchronously using {@link WrappedApi#runAsync(Runnable)}.
+     * Sends the request asynchronously using {@link WrappedApi#sendAsync(ApiRequest)}. No thread is blocked while waiting for the response.<br>If
+     * {@link #send()} is overridden, it is run using {@link WrappedApi#runAsync(Runnable)} instead.
      *
      * @return A {@link CompletableFuture} that will be completed with the instance of response class.
      */
     default CompletableFuture<T> sendAsync() {
-        CompletableFuture<T> completableFuture = new CompletableFuture<>();
-
-        getWrappedApi().runAsync(() -> {
-            try {
-                completableFuture.complete(send());
-            } catch (Throwable throwable) {
-                completableFuture.completeExceptionally(throwable);
-            }
-        });
-
-        return completableFuture;
+        return getWrappedApi().sendAsync(this);
     }
 
     /**
@@ -5,8 +5,12 @@ import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Type;
+import java.net.URI;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -19,6 +23,7 @@ public class ApiRequestBuilder<T> {
 
     private final @Getter WrappedApi wrappedApi;
     private final @Getter Class<T> responseClass;
+    private final @Getter Type responseType;
 
     private String url;
     private String endpoint;
@@ -27,11 +32,18 @@ public class ApiRequestBuilder<T> {
     private List<RequestQuery> requestQueries = new ArrayList<>();
     private List<RequestHeader> requestHeaders = new ArrayList<>();
     private HttpRequest.BodyPublisher bodyPublisher;
+    private Object body;
+    private String bodyMediaType;
     private HttpResponse.BodyHandler<?> bodyHandler;
+    private RetryPolicy retryPolicy;
+    private FileDownload fileDownload;
+    private RequestPriority priority;
+    private Duration deadline;
 
-    private ApiRequestBuilder(WrappedApi wrappedApi, Class<T> responseClass) {
+    private ApiRequestBuilder(WrappedApi wrappedApi, Class<T> responseClass, Type responseType) {
         this.wrappedApi = wrappedApi;
         this.responseClass = responseClass;
+        this.responseType = responseType;
     }
 
     /**
@@ -44,7 +56,44 @@ public class ApiRequestBuilder<T> {
      * @return The created {@link ApiRequestBuilder}.
      */
     public static <T> ApiRequestBuilder<T> ofResponse(WrappedApi wrappedApi, Class<T> responseClass) {
-        return new ApiRequestBuilder<>(wrappedApi, responseClass);
+        return new ApiRequestBuilder<>(wrappedApi, responseClass, responseClass);
+    }
+
+    /**
+     * Creates a new {@link ApiRequestBuilder} for the given {@link WrappedApi} and generic {@link ResponseType}, e.g. <code>List&lt;Foo&gt;</code>.
+     *
+     * @param wrappedApi   The {@link WrappedApi} to use.
+     * @param responseType The {@link ResponseType} of the response.
+     * @param <T>          The type of the response.
+     *
+     * @return The created {@link ApiRequestBuilder}.
+     */
+    public static <T> ApiRequestBuilder<T> ofResponse(WrappedApi wrappedApi, @NonNull ResponseType<T> responseType) {
+        return new ApiRequestBuilder<>(wrappedApi, responseType.getRawType(), responseType.getType());
+    }
+
+    /**
+     * Creates a copy of this {@link ApiRequestBuilder}. Changes of the copy do not affect this builder.
+     *
+     * @return The copy of this {@link ApiRequestBuilder}.
+     */
+    public ApiRequestBuilder<T> copy() {
+        ApiRequestBuilder<T> copy = new ApiRequestBuilder<>(wrappedApi, responseClass, responseType);
+        copy.url = url;
+        copy.endpoint = endpoint;
+        copy.requestMethod = requestMethod;
+        copy.pathParameters = new ArrayList<>(pathParameters);
+        copy.requestQueries = new ArrayList<>(requestQueries);
+        copy.requestHeaders = new ArrayList<>(requestHeaders);
+        copy.bodyPublisher = bodyPublisher;
+        copy.body = body;
+        copy.bodyMediaType = bodyMediaType;
+        copy.bodyHandler = bodyHandler;
+        copy.retryPolicy = retryPolicy;
+        copy.fileDownload = fileDownload;
+        copy.priority = priority;
+        copy.deadline = deadline;
+        return copy;
     }
 
     /**
@@ -161,6 +210,38 @@ public class ApiRequestBuilder<T> {
         return this;
     }
 
+    /**
+     * Removes all {@link RequestQuery}s with the given name from the request.
+     *
+     * @param name The name of the {@link RequestQuery}s to remove.
+     *
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withoutRequestQuery(@NonNull String name) {
+        this.requestQueries.removeIf(requestQuery -> name.equals(requestQuery.getName()));
+        return this;
+    }
+
+    /**
+     * Removes all {@link RequestQuery}s from the request.
+     *
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withoutRequestQueries() {
+        this.requestQueries.clear();
+        return this;
+    }
+
+    /**
+     * Removes all {@link PathParameter}s from the request.
+     *
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withoutPathParameters() {
+        this.pathParameters.clear();
+        return this;
+    }
+
     /**
      * Adds a {@link RequestHeader} to the request.
      *
@@ -200,6 +281,32 @@ public class ApiRequestBuilder<T> {
      */
     public ApiRequestBuilder<T> withBodyPublisher(@NonNull HttpRequest.BodyPublisher bodyPublisher) {
         this.bodyPublisher = bodyPublisher;
+        this.body = null;
+        this.bodyMediaType = null;
+        return this;
+    }
+
+    /**
+     * Sets the body of the request, which is encoded by the default {@link Codec} of {@link WrappedApi#getCodecRegistry()} when the request is
+     * built, e.g. as JSON. The <code>Content-Type</code> header is set to its media type, unless the request already has one.
+     * @param body The body to encode.
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withBody(@NonNull Object body) {
+        return withBody(body, null);
+    }
+
+    /**
+     * Sets the body of the request, which is encoded by the {@link Codec} of the media type when the request is built. The
+     * <code>Content-Type</code> header is set to the media type, unless the request already has one.
+     * @param body      The body to encode.
+     * @param mediaType The media type, e.g. {@link MessagePackCodec#MEDIA_TYPE}. If null, the default {@link Codec} is used.
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withBody(@NonNull Object body, String mediaType) {
+        this.body = body;
+        this.bodyMediaType = mediaType;
+        this.bodyPublisher = null;
         return this;
     }
 
@@ -213,17 +320,205 @@ public class ApiRequestBuilder<T> {
         return this;
     }
 
+    /**
+     * Streams the response of the request - sets {@link HttpResponse.BodyHandlers#ofInputStream()} as the {@link HttpResponse.BodyHandler}, so the
+     * response is deserialized while being read, without buffering the whole body in memory.
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withStreamingResponse() {
+        this.bodyHandler = HttpResponse.BodyHandlers.ofInputStream();
+        return this;
+    }
+
+    /**
+     * Downloads the response body into a file, the response class should be {@link FileResponse}. Overrides the body handler.
+     *
+     * @param fileDownload The {@link FileDownload}.
+     *
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withFileDownload(@NonNull FileDownload fileDownload) {
+        this.fileDownload = fileDownload;
+        this.bodyHandler = null;
+        return this;
+    }
+
+    /**
+     * Uploads the file as the request body. The file is memory-mapped, so it is not copied on the heap, see
+     * {@link FileBodyPublishers#ofMappedFile(Path)}.
+     *
+     * @param path The path of the file.
+     *
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withFileUpload(@NonNull Path path) {
+        return withBodyPublisher(FileBodyPublishers.ofMappedFile(path));
+    }
+
+    /**
+     * Sets the streaming <code>multipart/form-data</code> body and its <code>Content-Type</code> header.
+     *
+     * @param multipartBody The {@link MultipartBody}.
+     *
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withMultipartBody(@NonNull MultipartBody multipartBody) {
+        requestHeaders.removeIf(requestHeader -> requestHeader.getKey().equalsIgnoreCase("Content-Type"));
+        return withRequestHeader(RequestHeader.ofContentType(multipartBody.getContentType())).withBodyPublisher(multipartBody.createBodyPublisher());
+    }
+
+    /**
+     * Sets the {@link RetryPolicy} of the request. This will override the {@link WrappedApi#getRetryPolicy()}.
+     * @param retryPolicy The {@link RetryPolicy} to set.
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withRetryPolicy(@NonNull RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the {@link RequestPriority} of the request, used by {@link WrappedApi#getRequestScheduler()}.
+     * @param priority The {@link RequestPriority} to set.
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withPriority(@NonNull RequestPriority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Sets the deadline of the request - the maximum time it may wait in the queue of {@link WrappedApi#getRequestScheduler()} after it is sent.
+     * Requests not dispatched within the deadline fail with {@link RequestDeadlineExceededException}.
+     * @param deadline The deadline to set.
+     * @return The {@link ApiRequestBuilder} instance.
+     */
+    public ApiRequestBuilder<T> withDeadline(@NonNull Duration deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    /**
+     * Paginates the request - sends the request of the first page and derives the request of each next page from the previous response using the
+     * {@link PaginationStrategy}. One next page is prefetched while the current page is processed.
+     *
+     * @param paginationStrategy The {@link PaginationStrategy} to use.
+     *
+     * @return Lazy {@link Paginator} of the pages. No request is sent until it is iterated.
+     */
+    public Paginator<T> paginate(@NonNull PaginationStrategy<T> paginationStrategy) {
+        return paginate(paginationStrategy, 1);
+    }
+
+    /**
+     * Paginates the request - sends the request of the first page and derives the request of each next page from the previous response using the
+     * {@link PaginationStrategy}. Up to {@code prefetchDepth} next pages are prefetched while the current page is processed.
+     *
+     * @param paginationStrategy The {@link PaginationStrategy} to use.
+     * @param prefetchDepth      Number of pages to prefetch ahead of the current page, zero disables prefetching.
+     *
+     * @return Lazy {@link Paginator} of the pages. No request is sent until it is iterated.
+     */
+    public Paginator<T> paginate(@NonNull PaginationStrategy<T> paginationStrategy, int prefetchDepth) {
+        return new Paginator<>(copy(), paginationStrategy, prefetchDepth);
+    }
+
     /**
      * Builds the {@link ApiRequest}.
      * @return The built {@link ApiRequest}.
+     * @throws IllegalStateException If the endpoint contains a parameter without {@link PathParameter}, some {@link PathParameter} is not used in
+     *                               the endpoint or no {@link Codec} can encode the body.
      */
     public ApiRequest<T> build() {
+        if (endpoint != null) {
+            try {
+                EndpointTemplate.of(endpoint).validate(pathParameters.toArray(new PathParameter[0]));
+            } catch (IllegalArgumentException exception) {
+                throw new IllegalStateException(exception.getMessage(), exception);
+            }
+        }
+
+        return createApiRequest();
+    }
+
+    /**
+     * Prepares the immutable request template. The varying {@link PathParameter}s, {@link RequestQuery}s and body are bound per call using
+     * {@link PreparedApiRequest#bind(PathParameter...)}.<br>Path parameters which are the same for all calls may be set on this builder, the rest of
+     * them must be bound.
+     *
+     * @return The {@link PreparedApiRequest}.
+     */
+    public PreparedApiRequest<T> prepare() {
+        // Prepared once, usually on startup, so the type can be pre-warmed, unlike requests built per call
+        wrappedApi.registerResponseTypes(responseType);
+        return new PreparedApiRequest<>(createApiRequest());
+    }
+
+    /**
+     * Computes the URI of the request currently described by this builder.
+     *
+     * @return The computed {@link URI}.
+     *
+     * @throws IllegalArgumentException If the URL or endpoint is not valid or the endpoint contains a parameter without {@link PathParameter}.
+     */
+    URI computeUri() {
+        String requestUrl = url != null ? url : wrappedApi.getDefaultUrl();
+
+        if (endpoint != null) {
+            requestUrl += EndpointTemplate.of(endpoint).render(pathParameters.toArray(new PathParameter[0]), requestQueries.toArray(new RequestQuery[0]));
+        }
+
+        return URI.create(requestUrl);
+    }
+
+    /**
+     * Creates the {@link ApiRequest} from a snapshot of this builder, so later changes of the builder do not affect it.
+     *
+     * @return The created {@link ApiRequest}.
+     */
+    private ApiRequest<T> createApiRequest() {
+        String url = this.url;
+        String endpoint = this.endpoint;
+        RequestMethod requestMethod = this.requestMethod;
+        PathParameter[] pathParameters = this.pathParameters.isEmpty() ? null : this.pathParameters.toArray(new PathParameter[0]);
+        RequestQuery[] requestQueries = this.requestQueries.isEmpty() ? null : this.requestQueries.toArray(new RequestQuery[0]);
+        List<RequestHeader> requestHeaderList = this.requestHeaders;
+        HttpRequest.BodyPublisher encodedBody = null;
+
+        if (body != null) {
+            CodecRegistry codecRegistry = wrappedApi.getCodecRegistry();
+
+            if (codecRegistry == null) {
+                throw new IllegalStateException("Cannot encode body of type " + body.getClass().getName() + ", WrappedApi#createCodecRegistry() returned null");
+            }
+
+            encodedBody = codecRegistry.encode(body, bodyMediaType);
+
+            if (requestHeaderList.stream().noneMatch(requestHeader -> requestHeader.getKey().equalsIgnoreCase("Content-Type"))) {
+                requestHeaderList = new ArrayList<>(requestHeaderList);
+                requestHeaderList.add(RequestHeader.ofContentType(bodyMediaType != null ? bodyMediaType : codecRegistry.getDefaultCodec().getMediaType()));
+            }
+        }
+
+        RequestHeader[] requestHeaders = requestHeaderList.isEmpty() ? null : requestHeaderList.toArray(new RequestHeader[0]);
+        HttpRequest.BodyPublisher bodyPublisher = encodedBody != null ? encodedBody : this.bodyPublisher;
+        HttpResponse.BodyHandler<?> bodyHandler = this.bodyHandler;
+        RetryPolicy retryPolicy = this.retryPolicy;
+        FileDownload fileDownload = this.fileDownload;
+        RequestPriority priority = this.priority;
+        Duration deadline = this.deadline;
+
         return new ApiRequest<>() {
             @Override
             public @NotNull Class<T> getResponseClass() {
                 return responseClass;
             }
 
+            @Override
+            public @NotNull Type getResponseType() {
+                return responseType;
+            }
+
             @Override
             public @NotNull WrappedApi getWrappedApi() {
                 return wrappedApi;
@@ -245,30 +540,23 @@ public class ApiRequestBuilder<T> {
             }
 
             @Override
-            public @Nullable PathParameter[] getPathParameters() {
-                if (pathParameters.isEmpty()) {
-                    return null;
-                }
+            public @Nullable RetryPolicy getRetryPolicy() {
+                return retryPolicy != null ? retryPolicy : ApiRequest.super.getRetryPolicy();
+            }
 
-                return pathParameters.toArray(new PathParameter[0]);
+            @Override
+            public @Nullable PathParameter[] getPathParameters() {
+                return pathParameters;
             }
 
             @Override
             public @Nullable RequestQuery[] getRequestQueries() {
-                if (requestQueries.isEmpty()) {
-                    return null;
-                }
-
-                return requestQueries.toArray(new RequestQuery[0]);
+                return requestQueries;
             }
 
             @Override
             public @Nullable RequestHeader[] getRequestHeaders() {
-                if (requestHeaders.isEmpty()) {
-                    return null;
-                }
-
-                return requestHeaders.toArray(new RequestHeader[0]);
+                return requestHeaders;
             }
 
             @Override
@@ -280,6 +568,21 @@ public class ApiRequestBuilder<T> {
             public @NonNull HttpResponse.BodyHandler<?> getBodyHandler() {
                 return Objects.requireNonNullElseGet(bodyHandler, ApiRequest.super::getBodyHandler);
             }
+
+            @Override
+            public @Nullable FileDownload getFileDownload() {
+                return fileDownload;
+            }
+
+            @Override
+            public @NotNull RequestPriority getPriority() {
+                return priority != null ? priority : ApiRequest.super.getPriority();
+            }
+
+            @Override
+            public @Nullable Duration getDeadline() {
+                return deadline;
+            }
         };
     }
 }
@@ -3,6 +3,9 @@ package dev.mayuna.simpleapi;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.lang.ref.WeakReference;
+import java.net.http.HttpHeaders;
+
 /**
  * An abstract class to represent an API response. Your class <strong>must have a constructor without any arguments</strong>.
  * @param <T> The type of the wrapped API.
@@ -10,8 +13,50 @@ import lombok.Setter;
 public abstract class ApiResponse<T extends WrappedApi> {
 
     private transient @Getter @Setter int httpStatusCode = -1;
-    private transient @Getter @Setter T wrappedApi = null;
+    private transient T wrappedApi = null;
+    private transient WeakReference<T> weakWrappedApi = null;
+    private transient @Getter @Setter HttpHeaders httpHeaders = null;
 
     public ApiResponse() {
     }
+
+    /**
+     * Gets the {@link WrappedApi} which received this response.
+     *
+     * @return The {@link WrappedApi}, or null if it was not set, or if the response is cached by {@link ResponseCache} and the {@link WrappedApi}
+     * was already garbage collected.
+     */
+    public T getWrappedApi() {
+        T currentWrappedApi = wrappedApi;
+
+        if (currentWrappedApi != null) {
+            return currentWrappedApi;
+        }
+
+        WeakReference<T> currentWeakWrappedApi = weakWrappedApi;
+        return currentWeakWrappedApi != null ? currentWeakWrappedApi.get() : null;
+    }
+
+    /**
+     * Sets the {@link WrappedApi} which received this response.
+     *
+     * @param wrappedApi The {@link WrappedApi}.
+     */
+    public void setWrappedApi(T wrappedApi) {
+        this.wrappedApi = wrappedApi;
+        this.weakWrappedApi = null;
+    }
+
+    /**
+     * Keeps only a weak reference to the {@link WrappedApi}, so the response may be held by resources of the {@link WrappedApi}, e.g. by
+     * {@link ResponseCache}, without preventing it from being garbage collected.
+     */
+    void holdWrappedApiWeakly() {
+        T currentWrappedApi = wrappedApi;
+
+        if (currentWrappedApi != null) {
+            weakWrappedApi = new WeakReference<>(currentWrappedApi);
+            wrappedApi = null;
+        }
+    }
 }
@@ -0,0 +1,347 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+
+import java.lang.ref.Cleaner;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Pool of {@link ByteBuffer}s for response bodies. Override {@link WrappedApi#createBufferPool()} to enable it - responses are then received by
+ * {@link #bodyHandler()} as {@link PooledBody}, which is released back to the pool after the response is handled. So bodies are not copied into
+ * short-lived <code>byte[]</code>s and {@link String}s before deserialization.
+ * <pre>{@code
+ * public BufferPool createBufferPool() {
+ *     return new BufferPool().withDirect(true).withLeakDetection(debug);
+ * }
+ * }</pre>
+ * Buffers are pooled in power-of-two size classes from {@link #MIN_BUFFER_SIZE} to {@link #MAX_BUFFER_SIZE}, larger bodies are allocated outside
+ * the pool. With leak detection, each {@link PooledBody} remembers where it was created and bodies garbage collected without being released are
+ * reported - it is meant for debugging, since capturing the stack trace is not free. This class is thread-safe.
+ */
+public class BufferPool {
+
+    /**
+     * Size of the smallest size class in bytes
+     */
+    public static final int MIN_BUFFER_SIZE = 4 * 1024;
+
+    /**
+     * Size of the largest size class in bytes
+     */
+    public static final int MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private static final int MIN_SIZE_SHIFT = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    private static final int SIZE_CLASS_COUNT = Integer.numberOfTrailingZeros(MAX_BUFFER_SIZE) - MIN_SIZE_SHIFT + 1;
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+    private static final System.Logger LOGGER = System.getLogger(BufferPool.class.getName());
+
+    private final Queue<ByteBuffer>[] sizeClasses;
+    private final AtomicInteger[] sizeClassCounts;
+
+    private volatile @Getter boolean direct;
+    private volatile @Getter int maxBuffersPerSizeClass = 32;
+    private volatile @Getter boolean leakDetection;
+    private volatile Consumer<Throwable> leakListener;
+
+    private final LongAdder allocatedCount = new LongAdder();
+    private final LongAdder reusedCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final AtomicInteger outstandingCount = new AtomicInteger();
+
+    /**
+     * Creates empty {@link BufferPool} of heap buffers
+     */
+    @SuppressWarnings("unchecked")
+    public BufferPool() {
+        this.sizeClasses = new Queue[SIZE_CLASS_COUNT];
+        this.sizeClassCounts = new AtomicInteger[SIZE_CLASS_COUNT];
+
+        for (int i = 0; i < SIZE_CLASS_COUNT; i++) {
+            sizeClasses[i] = new ConcurrentLinkedQueue<>();
+            sizeClassCounts[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Sets if direct buffers should be allocated. Direct buffers are outside the heap, so pooling them does not grow the old generation, but the
+     * deserializers can read them only through the {@link ByteBuffer} API.
+     *
+     * @param direct True for direct buffers. Defaults to false.
+     *
+     * @return This {@link BufferPool}
+     */
+    public BufferPool withDirect(boolean direct) {
+        this.direct = direct;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of idle buffers kept in each size class. Released buffers above the limit are left to the garbage collector.
+     *
+     * @param maxBuffersPerSizeClass Maximum number of idle buffers. Defaults to 32.
+     *
+     * @return This {@link BufferPool}
+     */
+    public BufferPool withMaxBuffersPerSizeClass(int maxBuffersPerSizeClass) {
+        this.maxBuffersPerSizeClass = maxBuffersPerSizeClass;
+        return this;
+    }
+
+    /**
+     * Sets if {@link PooledBody}s garbage collected without being released should be detected. Applies to bodies created afterwards.
+     *
+     * @param leakDetection True to detect leaks. Defaults to false.
+     *
+     * @return This {@link BufferPool}
+     */
+    public BufferPool withLeakDetection(boolean leakDetection) {
+        this.leakDetection = leakDetection;
+        return this;
+    }
+
+    /**
+     * Sets the listener of detected leaks, which receives the stack trace of where the leaked {@link PooledBody} was created. It is called from the
+     * cleaner thread. By default, leaks are logged using {@link System.Logger}.
+     *
+     * @param leakListener Nullable listener
+     *
+     * @return This {@link BufferPool}
+     */
+    public BufferPool withLeakListener(Consumer<Throwable> leakListener) {
+        this.leakListener = leakListener;
+        return this;
+    }
+
+    /**
+     * Creates the body handler, which aggregates the response body into buffers of this pool. The body of the {@link HttpResponse} is
+     * {@link PooledBody}, which must be released using {@link PooledBody#close()} - {@link WrappedApi#handleResponse(ApiRequest, HttpResponse)} and
+     * the default request pipeline do it after the response is handled.
+     *
+     * @return Non-null body handler
+     */
+    public HttpResponse.BodyHandler<PooledBody> bodyHandler() {
+        return responseInfo -> new PooledBodySubscriber(this, responseInfo.headers().firstValueAsLong("Content-Length").orElse(-1));
+    }
+
+    /**
+     * Gets the number of buffers allocated because no idle buffer of the size class was available, including buffers larger than
+     * {@link #MAX_BUFFER_SIZE}.
+     *
+     * @return Number of buffers
+     */
+    public long getAllocatedCount() {
+        return allocatedCount.sum();
+    }
+
+    /**
+     * Gets the number of buffers reused from the pool.
+     *
+     * @return Number of buffers
+     */
+    public long getReusedCount() {
+        return reusedCount.sum();
+    }
+
+    /**
+     * Gets the number of {@link PooledBody}s which were not released yet.
+     *
+     * @return Number of bodies
+     */
+    public int getOutstandingCount() {
+        return outstandingCount.get();
+    }
+
+    /**
+     * Gets the number of detected leaks. Leaks are detected only if {@link #isLeakDetection()} is enabled.
+     *
+     * @return Number of leaked {@link PooledBody}s
+     */
+    public long getLeakCount() {
+        return leakCount.sum();
+    }
+
+    /**
+     * Gets the number of idle buffers in the pool.
+     *
+     * @return Number of buffers
+     */
+    public int getIdleCount() {
+        int idleCount = 0;
+
+        for (AtomicInteger sizeClassCount : sizeClassCounts) {
+            idleCount += sizeClassCount.get();
+        }
+
+        return idleCount;
+    }
+
+    /**
+     * Removes all idle buffers from the pool.
+     */
+    public void clear() {
+        for (int i = 0; i < SIZE_CLASS_COUNT; i++) {
+            while (sizeClasses[i].poll() != null) {
+                sizeClassCounts[i].decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Acquires a cleared buffer with at least the capacity.
+     *
+     * @param capacity Minimal capacity in bytes
+     *
+     * @return Non-null buffer of the size class, or of the exact capacity if it is larger than {@link #MAX_BUFFER_SIZE}.
+     */
+    ByteBuffer acquire(int capacity) {
+        if (capacity == 0) {
+            return EMPTY_BUFFER;
+        }
+
+        int sizeClass = getSizeClass(capacity);
+
+        if (sizeClass < 0) {
+            allocatedCount.increment();
+            return allocate(capacity);
+        }
+
+        ByteBuffer byteBuffer = sizeClasses[sizeClass].poll();
+
+        if (byteBuffer != null) {
+            sizeClassCounts[sizeClass].decrementAndGet();
+            reusedCount.increment();
+            return byteBuffer.clear();
+        }
+
+        allocatedCount.increment();
+        return allocate(MIN_BUFFER_SIZE << sizeClass);
+    }
+
+    /**
+     * Returns the buffer to the pool. The buffer must not be used afterwards.
+     *
+     * @param byteBuffer Non-null buffer acquired from this pool
+     */
+    void release(ByteBuffer byteBuffer) {
+        int capacity = byteBuffer.capacity();
+
+        if (capacity < MIN_BUFFER_SIZE || capacity > MAX_BUFFER_SIZE || Integer.bitCount(capacity) != 1 || byteBuffer.isDirect() != direct) {
+            // Outside the pool, or the pool was reconfigured
+            return;
+        }
+
+        int sizeClass = getSizeClass(capacity);
+
+        if (sizeClassCounts[sizeClass].incrementAndGet() > maxBuffersPerSizeClass) {
+            sizeClassCounts[sizeClass].decrementAndGet();
+            return;
+        }
+
+        sizeClasses[sizeClass].offer(byteBuffer);
+    }
+
+    /**
+     * Creates the {@link PooledBody} of the buffer, registering it for leak detection if enabled.
+     *
+     * @param byteBuffer Non-null flipped buffer
+     *
+     * @return Non-null {@link PooledBody}
+     */
+    PooledBody createBody(ByteBuffer byteBuffer) {
+        outstandingCount.incrementAndGet();
+
+        if (!leakDetection) {
+            return new PooledBody(this, byteBuffer, null);
+        }
+
+        LeakTracker leakTracker = new LeakTracker(this, new Throwable("PooledBody was created here and garbage collected without being released"));
+        PooledBody pooledBody = new PooledBody(this, byteBuffer, leakTracker);
+        leakTracker.cleanable = CleanerHolder.CLEANER.register(pooledBody, leakTracker);
+        return pooledBody;
+    }
+
+    /**
+     * Is called when the {@link PooledBody} is released
+     */
+    void onReleased() {
+        outstandingCount.decrementAndGet();
+    }
+
+    private void onLeak(Throwable allocationTrace) {
+        leakCount.increment();
+        outstandingCount.decrementAndGet();
+
+        Consumer<Throwable> leakListener = this.leakListener;
+
+        if (leakListener != null) {
+            leakListener.accept(allocationTrace);
+        } else {
+            LOGGER.log(System.Logger.Level.WARNING, "Leaked PooledBody, it was not released using PooledBody#close()", allocationTrace);
+        }
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Gets the size class of the capacity.
+     *
+     * @param capacity Positive capacity
+     *
+     * @return Index of the size class, or -1 if the capacity is larger than {@link #MAX_BUFFER_SIZE}.
+     */
+    private static int getSizeClass(int capacity) {
+        if (capacity > MAX_BUFFER_SIZE) {
+            return -1;
+        }
+
+        if (capacity <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SIZE_SHIFT;
+    }
+
+    /**
+     * Reports the {@link PooledBody} as leaked when it is garbage collected, unless it was released. Must not reference the {@link PooledBody}.
+     */
+    static final class LeakTracker implements Runnable {
+
+        private final BufferPool bufferPool;
+        private final Throwable allocationTrace;
+        private volatile boolean released;
+        private Cleaner.Cleanable cleanable;
+
+        private LeakTracker(BufferPool bufferPool, Throwable allocationTrace) {
+            this.bufferPool = bufferPool;
+            this.allocationTrace = allocationTrace;
+        }
+
+        /**
+         * Marks the body as released, so it is not reported.
+         */
+        void release() {
+            released = true;
+            cleanable.clean();
+        }
+
+        @Override
+        public void run() {
+            if (!released) {
+                bufferPool.onLeak(allocationTrace);
+            }
+        }
+    }
+
+    private static final class CleanerHolder {
+
+        private static final Cleaner CLEANER = Cleaner.create();
+    }
+}
@@ -0,0 +1,115 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link WrappedApi#sendAll(java.util.Collection)}. Holds one {@link Item} per request, in the same order as the requests were given.
+ * Failure of one request does not fail the whole batch, it is reported in its {@link Item}.
+ *
+ * @param <T> The type of the responses.
+ */
+public class BulkResult<T> {
+
+    private final @Getter List<Item<T>> items;
+
+    BulkResult(List<Item<T>> items) {
+        this.items = Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Gets the responses in the order of the requests. Failed and cancelled requests have null response.
+     *
+     * @return Non-null list of nullable responses
+     */
+    public List<T> getResponses() {
+        List<T> responses = new ArrayList<>(items.size());
+
+        for (Item<T> item : items) {
+            responses.add(item.getResponse());
+        }
+
+        return responses;
+    }
+
+    /**
+     * Gets the items of failed requests, excluding cancelled ones.
+     *
+     * @return Non-null list of {@link Item}s
+     */
+    public List<Item<T>> getFailures() {
+        List<Item<T>> failures = new ArrayList<>();
+
+        for (Item<T> item : items) {
+            if (item.isFailure()) {
+                failures.add(item);
+            }
+        }
+
+        return failures;
+    }
+
+    /**
+     * Determines if all requests succeeded.
+     *
+     * @return True if no request failed or was cancelled.
+     */
+    public boolean isAllSuccessful() {
+        for (Item<T> item : items) {
+            if (!item.isSuccess()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Result of a single request of the batch
+     *
+     * @param <T> The type of the response.
+     */
+    public static final class Item<T> {
+
+        private final @Getter int index;
+        private final @Getter ApiRequest<T> apiRequest;
+        private final @Getter T response;
+        private final @Getter Throwable throwable;
+        private final @Getter boolean cancelled;
+
+        Item(int index, ApiRequest<T> apiRequest, T response, Throwable throwable, boolean cancelled) {
+            this.index = index;
+            this.apiRequest = apiRequest;
+            this.response = response;
+            this.throwable = throwable;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * Determines if the request succeeded. Note that requests of {@link WrappedApi} which does not {@linkplain WrappedApi#rethrowExceptions()
+         * rethrow exceptions} succeed with null response.
+         *
+         * @return True if the request succeeded.
+         */
+        public boolean isSuccess() {
+            return throwable == null && !cancelled;
+        }
+
+        /**
+         * Determines if the request failed with an exception.
+         *
+         * @return True if the request failed.
+         */
+        public boolean isFailure() {
+            return throwable != null && !cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return "BulkResult.Item{index=" + index + ", response=" + response + ", throwable=" + throwable + ", cancelled=" + cancelled + "}";
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package dev.mayuna.simpleapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Default implementation of {@link WrappedApi#sendAllAsync(java.util.Collection, int, boolean)}. Requests are sent using
+ * {@link ApiRequest#sendAsync()}, at most {@code maxParallelism} at once, and next request is sent when one of the in-flight requests completes.
+ *
+ * @param <T> The type of the responses.
+ */
+final class BulkSender<T> {
+
+    private final List<ApiRequest<T>> apiRequests;
+    private final boolean failFast;
+
+    private final AtomicReferenceArray<CompletableFuture<T>> futures;
+    private final AtomicReferenceArray<BulkResult.Item<T>> items;
+    private final AtomicInteger permits;
+    private final AtomicInteger drainInProgress = new AtomicInteger();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final CompletableFuture<BulkResult<T>> result = new CompletableFuture<>();
+
+    private volatile boolean stopped;
+    private int nextIndex;
+
+    BulkSender(List<ApiRequest<T>> apiRequests, int maxParallelism, boolean failFast) {
+        this.apiRequests = apiRequests;
+        this.failFast = failFast;
+        this.futures = new AtomicReferenceArray<>(apiRequests.size());
+        this.items = new AtomicReferenceArray<>(apiRequests.size());
+        this.permits = new AtomicInteger(maxParallelism);
+    }
+
+    /**
+     * Starts sending the requests.
+     *
+     * @return Future of the result. Cancelling it cancels the remaining requests.
+     */
+    CompletableFuture<BulkResult<T>> start() {
+        if (apiRequests.isEmpty()) {
+            result.complete(new BulkResult<>(new ArrayList<>()));
+            return result;
+        }
+
+        result.whenComplete((bulkResult, throwable) -> {
+            if (result.isCancelled()) {
+                stop();
+            }
+        });
+
+        drain();
+        return result;
+    }
+
+    private void drain() {
+        if (drainInProgress.getAndIncrement() != 0) {
+            return;
+        }
+
+        // Requests completed synchronously re-enter drain(), the loop prevents deep recursion
+        do {
+            while (nextIndex < apiRequests.size()) {
+                int index = nextIndex;
+
+                if (stopped) {
+                    nextIndex++;
+                    complete(index, null, new CancellationException("Bulk send was stopped"));
+                    continue;
+                }
+
+                if (permits.get() <= 0) {
+                    break;
+                }
+
+                permits.decrementAndGet();
+                nextIndex++;
+                send(index);
+            }
+        } while (drainInProgress.decrementAndGet() != 0);
+    }
+
+    private void send(int index) {
+        CompletableFuture<T> future;
+
+        try {
+            future = apiRequests.get(index).sendAsync();
+        } catch (Throwable throwable) {
+            future = CompletableFuture.failedFuture(throwable);
+        }
+
+        futures.set(index, future);
+
+        if (stopped) {
+            future.cancel(false);
+        }
+
+        future.whenComplete((response, throwable) -> {
+            complete(index, response, throwable);
+            permits.incrementAndGet();
+            drain();
+        });
+    }
+
+    private void complete(int index, T response, Throwable throwable) {
+        Throwable cause = throwable != null ? RequestPipeline.unwrap(throwable) : null;
+        boolean cancelled = cause instanceof CancellationException;
+
+        if (!items.compareAndSet(index, null, new BulkResult.Item<>(index, apiRequests.get(index), response, cause, cancelled))) {
+            return;
+        }
+
+        futures.set(index, null);
+
+        if (cause != null && !cancelled && failFast) {
+            stop();
+        }
+
+        if (completedCount.incrementAndGet() == apiRequests.size()) {
+            List<BulkResult.Item<T>> completedItems = new ArrayList<>(apiRequests.size());
+
+            for (int i = 0; i < apiRequests.size(); i++) {
+                completedItems.add(items.get(i));
+            }
+
+            result.complete(new BulkResult<>(completedItems));
+        }
+    }
+
+    /**
+     * Stops sending - cancels in-flight requests and marks remaining requests as cancelled. Cancelled in-flight requests are not waited for, their
+     * HTTP exchanges may still complete in the background.
+     */
+    private void stop() {
+        if (stopped) {
+            return;
+        }
+
+        stopped = true;
+
+        for (int i = 0; i < futures.length(); i++) {
+            CompletableFuture<T> future = futures.get(i);
+
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        drain();
+    }
+}
@@ -0,0 +1,52 @@
+package dev.mayuna.simpleapi;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link InputStream} reading the remaining bytes of a {@link ByteBuffer}, which may be direct or read-only. Not thread-safe.
+ */
+final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer byteBuffer;
+
+    ByteBufferInputStream(ByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer;
+    }
+
+    @Override
+    public int read() {
+        return byteBuffer.hasRemaining() ? byteBuffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (length == 0) {
+            return 0;
+        }
+
+        if (!byteBuffer.hasRemaining()) {
+            return -1;
+        }
+
+        int readLength = Math.min(length, byteBuffer.remaining());
+        byteBuffer.get(bytes, offset, readLength);
+        return readLength;
+    }
+
+    @Override
+    public long skip(long count) {
+        int skippedLength = (int) Math.max(0, Math.min(count, byteBuffer.remaining()));
+        byteBuffer.position(byteBuffer.position() + skippedLength);
+        return skippedLength;
+    }
+
+    @Override
+    public int available() {
+        return byteBuffer.remaining();
+    }
+}
@@ -0,0 +1,80 @@
+package dev.mayuna.simpleapi;
+
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.util.Arrays;
+
+/**
+ * Growable {@link OutputStream} which is turned into the request body without copying - unlike {@link java.io.ByteArrayOutputStream}, the written
+ * bytes are published from the internal buffer. Not thread-safe.
+ */
+final class ByteBufferOutputStream extends OutputStream {
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private byte[] buffer;
+    private int count;
+
+    /**
+     * Creates {@link ByteBufferOutputStream}
+     *
+     * @param initialCapacity Initial size of the buffer in bytes.
+     */
+    ByteBufferOutputStream(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    @Override
+    public void write(int value) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) value;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureCapacity(count + length);
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    /**
+     * Gets the number of written bytes.
+     *
+     * @return Number of bytes
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Copies the written bytes.
+     *
+     * @return Non-null array
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Creates the body publisher of the written bytes, of known length. Nothing should be written afterwards.
+     *
+     * @return Non-null {@link HttpRequest.BodyPublisher}
+     */
+    HttpRequest.BodyPublisher toBodyPublisher() {
+        return HttpRequest.BodyPublishers.ofByteArray(buffer, 0, count);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity < 0 || capacity > MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError("Request body is too large");
+        }
+
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_ARRAY_SIZE, Math.max(capacity, buffer.length * 2L)));
+        }
+    }
+}
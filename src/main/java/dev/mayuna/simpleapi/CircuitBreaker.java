@@ -0,0 +1,431 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntPredicate;
+
+/**
+ * Circuit breaker of the requests. It records results of the last calls in a count-based sliding window and when the failure rate or the slow
+ * call rate reaches the threshold, it opens - requests fail fast with {@link CircuitBreakerOpenException} without being sent. After the open
+ * duration, it becomes half-open and lets a few probe requests through - if they succeed, it closes, otherwise it opens again.<br>A call is a
+ * failure if the request throws an exception or the response status code matches {@link #withFailureStatusCodes(IntPredicate)}, by default
+ * <code>5xx</code>. A call is slow if it takes at least {@link #withSlowCallDuration(Duration)}.<br>Each call holds a {@link Permit} of the state
+ * in which it was started. Results of calls started before the last state transition are ignored, e.g. a slow call started while closed does not
+ * decide about closing of the half-open circuit breaker.
+ * <pre>{@code
+ * public class MyApi implements WrappedApi {
+ *
+ *     @Override
+ *     public CircuitBreaker createHostCircuitBreaker(String host) {
+ *         return new CircuitBreaker(host).withFailureRateThreshold(0.3)
+ *                                        .withOpenDuration(Duration.ofSeconds(10));
+ *     }
+ * }
+ * }</pre>
+ */
+public class CircuitBreaker {
+
+    private final @Getter String name;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private @Getter double failureRateThreshold = 0.5;
+    private @Getter double slowCallRateThreshold = 1;
+    private @Getter Duration slowCallDuration = Duration.ofSeconds(5);
+    private @Getter int slidingWindowSize = 100;
+    private @Getter int minimumNumberOfCalls = 20;
+    private @Getter Duration openDuration = Duration.ofSeconds(30);
+    private @Getter int permittedCallsInHalfOpenState = 5;
+    private @Getter IntPredicate failureStatusCodes = statusCode -> statusCode >= 500;
+
+    private State state = State.CLOSED;
+    private byte[] window = new byte[slidingWindowSize];
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+    private int slowCallCount;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private long generation;
+
+    /**
+     * Creates {@link CircuitBreaker} with default values - opens when at least 50 % of last 100 calls failed (evaluated after 20 calls), stays open
+     * for 30 seconds and lets 5 probe calls through in half-open state.
+     *
+     * @param name Non-null name of the circuit breaker, e.g. the host or the endpoint.
+     */
+    public CircuitBreaker(@NonNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Sets the failure rate at which the circuit breaker opens. Defaults to 0.5.
+     *
+     * @param failureRateThreshold Rate between 0 (exclusive) and 1 (inclusive).
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public CircuitBreaker withFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = checkRate(failureRateThreshold);
+        return this;
+    }
+
+    /**
+     * Sets the slow call rate at which the circuit breaker opens. Defaults to 1, so it opens only when all calls are slow.
+     *
+     * @param slowCallRateThreshold Rate between 0 (exclusive) and 1 (inclusive).
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public CircuitBreaker withSlowCallRateThreshold(double slowCallRateThreshold) {
+        this.slowCallRateThreshold = checkRate(slowCallRateThreshold);
+        return this;
+    }
+
+    /**
+     * Sets the duration after which a call is considered slow. Defaults to 5 seconds.
+     *
+     * @param slowCallDuration Non-null duration
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public CircuitBreaker withSlowCallDuration(@NonNull Duration slowCallDuration) {
+        this.slowCallDuration = slowCallDuration;
+        return this;
+    }
+
+    /**
+     * Sets the number of last calls from which the rates are computed. Defaults to 100. Resets the recorded calls.
+     *
+     * @param slidingWindowSize Positive number of calls.
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public synchronized CircuitBreaker withSlidingWindowSize(int slidingWindowSize) {
+        if (slidingWindowSize <= 0) {
+            throw new IllegalArgumentException("Sliding window size must be positive, currently is: " + slidingWindowSize);
+        }
+
+        this.slidingWindowSize = slidingWindowSize;
+        this.window = new byte[slidingWindowSize];
+        clearWindow();
+        return this;
+    }
+
+    /**
+     * Sets the minimum number of recorded calls before the rates are evaluated. Defaults to 20.
+     *
+     * @param minimumNumberOfCalls Positive number of calls.
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public CircuitBreaker withMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        if (minimumNumberOfCalls <= 0) {
+            throw new IllegalArgumentException("Minimum number of calls must be positive, currently is: " + minimumNumberOfCalls);
+        }
+
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        return this;
+    }
+
+    /**
+     * Sets how long the circuit breaker stays open before it becomes half-open. Defaults to 30 seconds.
+     *
+     * @param openDuration Non-null duration
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public CircuitBreaker withOpenDuration(@NonNull Duration openDuration) {
+        this.openDuration = openDuration;
+        return this;
+    }
+
+    /**
+     * Sets the number of probe calls permitted in half-open state. Defaults to 5.
+     *
+     * @param permittedCallsInHalfOpenState Positive number of calls.
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public CircuitBreaker withPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        if (permittedCallsInHalfOpenState <= 0) {
+            throw new IllegalArgumentException("Permitted calls in half-open state must be positive, currently is: " + permittedCallsInHalfOpenState);
+        }
+
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        return this;
+    }
+
+    /**
+     * Sets which response status codes are failures. Defaults to <code>5xx</code>.
+     *
+     * @param failureStatusCodes Non-null predicate of the status code
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public CircuitBreaker withFailureStatusCodes(@NonNull IntPredicate failureStatusCodes) {
+        this.failureStatusCodes = failureStatusCodes;
+        return this;
+    }
+
+    /**
+     * Adds a {@link Listener} which is called when the state of the circuit breaker changes.
+     *
+     * @param listener Non-null {@link Listener}
+     *
+     * @return The {@link CircuitBreaker} instance.
+     */
+    public CircuitBreaker withListener(@NonNull Listener listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    /**
+     * Tries to acquire permission to send a request. Open circuit breaker becomes half-open after the open duration.<br>Every acquired permission
+     * must be followed by {@link #onResult(Permit, long, boolean)} or {@link #release(Permit)}.
+     *
+     * @return Nullable {@link Permit}, null if the request should fail fast.
+     */
+    public Permit tryAcquire() {
+        State previousState;
+        State newState;
+        Permit permit;
+
+        synchronized (this) {
+            previousState = state;
+
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAtNanos < Deadlines.toNanos(openDuration)) {
+                    return null;
+                }
+
+                transitionTo(State.HALF_OPEN);
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits <= 0) {
+                    // Might have transitioned to half-open above, so the listeners are still notified
+                    permit = null;
+                } else {
+                    halfOpenPermits--;
+                    permit = new Permit(state, generation);
+                }
+            } else {
+                permit = new Permit(state, generation);
+            }
+
+            newState = state;
+        }
+
+        notifyListeners(previousState, newState);
+        return permit;
+    }
+
+    /**
+     * Releases permission acquired by {@link #tryAcquire()} without recording any result, e.g. when the request was not sent at all.
+     *
+     * @param permit Non-null {@link Permit} from {@link #tryAcquire()}
+     */
+    public synchronized void release(@NonNull Permit permit) {
+        if (permit.generation == generation && state == State.HALF_OPEN && halfOpenPermits < permittedCallsInHalfOpenState) {
+            halfOpenPermits++;
+        }
+    }
+
+    /**
+     * Records the result of a call. The result is ignored if the state has changed since the permit was acquired.
+     *
+     * @param permit        Non-null {@link Permit} from {@link #tryAcquire()}
+     * @param durationNanos Duration of the call in nanoseconds.
+     * @param failure       True if the call failed.
+     */
+    public void onResult(@NonNull Permit permit, long durationNanos, boolean failure) {
+        State previousState;
+        State newState;
+
+        synchronized (this) {
+            previousState = state;
+
+            // Stale result, e.g. of a call started while closed which completed while half-open
+            if (permit.generation != generation || state == State.OPEN) {
+                return;
+            }
+
+            record(failure, durationNanos >= Deadlines.toNanos(slowCallDuration));
+
+            if (state == State.HALF_OPEN) {
+                if (windowCount >= Math.min(permittedCallsInHalfOpenState, window.length)) {
+                    transitionTo(isAboveThresholds() ? State.OPEN : State.CLOSED);
+                }
+            } else if (windowCount >= minimumNumberOfCalls && isAboveThresholds()) {
+                transitionTo(State.OPEN);
+            }
+
+            newState = state;
+        }
+
+        notifyListeners(previousState, newState);
+    }
+
+    /**
+     * Determines if the response status code is a failure.
+     *
+     * @param statusCode The response status code.
+     *
+     * @return True if the status code is a failure.
+     */
+    public boolean isFailure(int statusCode) {
+        return failureStatusCodes.test(statusCode);
+    }
+
+    /**
+     * Gets the current state. Open circuit breaker reports {@link State#OPEN} until a request tries to acquire permission after the open duration.
+     *
+     * @return Non-null {@link State}
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the failure rate of the recorded calls.
+     *
+     * @return Rate between 0 and 1, or -1 if no calls are recorded.
+     */
+    public synchronized double getFailureRate() {
+        return windowCount == 0 ? -1 : (double) failureCount / windowCount;
+    }
+
+    /**
+     * Gets the slow call rate of the recorded calls.
+     *
+     * @return Rate between 0 and 1, or -1 if no calls are recorded.
+     */
+    public synchronized double getSlowCallRate() {
+        return windowCount == 0 ? -1 : (double) slowCallCount / windowCount;
+    }
+
+    /**
+     * Closes the circuit breaker and clears the recorded calls.
+     */
+    public void reset() {
+        State previousState;
+
+        synchronized (this) {
+            previousState = state;
+            transitionTo(State.CLOSED);
+        }
+
+        notifyListeners(previousState, State.CLOSED);
+    }
+
+    private void record(boolean failure, boolean slow) {
+        if (windowCount == window.length) {
+            byte oldest = window[windowIndex];
+            failureCount -= oldest & 1;
+            slowCallCount -= (oldest >> 1) & 1;
+        } else {
+            windowCount++;
+        }
+
+        window[windowIndex] = (byte) ((failure ? 1 : 0) | (slow ? 2 : 0));
+        failureCount += failure ? 1 : 0;
+        slowCallCount += slow ? 1 : 0;
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private boolean isAboveThresholds() {
+        return failureCount >= failureRateThreshold * windowCount || slowCallCount >= slowCallRateThreshold * windowCount;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        clearWindow();
+
+        if (newState == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+        } else if (newState == State.HALF_OPEN) {
+            halfOpenPermits = permittedCallsInHalfOpenState;
+        }
+    }
+
+    private void clearWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        failureCount = 0;
+        slowCallCount = 0;
+    }
+
+    private void notifyListeners(State previousState, State newState) {
+        if (previousState == newState) {
+            return;
+        }
+
+        for (Listener listener : listeners) {
+            listener.onStateTransition(this, previousState, newState);
+        }
+    }
+
+    private static double checkRate(double rate) {
+        if (!(rate > 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Rate must be between 0 (exclusive) and 1 (inclusive), currently is: " + rate);
+        }
+
+        return rate;
+    }
+
+    /**
+     * State of {@link CircuitBreaker}
+     */
+    public enum State {
+
+        /**
+         * Requests are sent and their results are recorded.
+         */
+        CLOSED,
+
+        /**
+         * Requests fail fast without being sent.
+         */
+        OPEN,
+
+        /**
+         * Limited number of probe requests is sent to determine if the circuit breaker should close.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Permission to send a request acquired by {@link #tryAcquire()}. Remembers the state in which it was acquired.
+     */
+    public static final class Permit {
+
+        private final @Getter State state;
+        private final long generation;
+
+        private Permit(State state, long generation) {
+            this.state = state;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Listener of {@link CircuitBreaker} state transitions
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Is called when the state of the circuit breaker changes.
+         *
+         * @param circuitBreaker The circuit breaker.
+         * @param fromState      The previous state.
+         * @param toState        The new state.
+         */
+        void onStateTransition(CircuitBreaker circuitBreaker, State fromState, State toState);
+    }
+}
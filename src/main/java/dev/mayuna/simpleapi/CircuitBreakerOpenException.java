@@ -0,0 +1,21 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is not sent, because its {@link CircuitBreaker} is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private final transient @Getter CircuitBreaker circuitBreaker;
+
+    /**
+     * Creates {@link CircuitBreakerOpenException}
+     *
+     * @param circuitBreaker The open circuit breaker.
+     */
+    public CircuitBreakerOpenException(CircuitBreaker circuitBreaker) {
+        super("Circuit breaker '" + circuitBreaker.getName() + "' is " + circuitBreaker.getState());
+        this.circuitBreaker = circuitBreaker;
+    }
+}
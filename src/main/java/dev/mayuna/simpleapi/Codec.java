@@ -0,0 +1,65 @@
+package dev.mayuna.simpleapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.http.HttpResponse;
+
+/**
+ * Serializes request bodies and deserializes response bodies of one media type, e.g. <code>application/json</code>. Codecs are registered in the
+ * {@link CodecRegistry} of {@link WrappedApi}, which chooses them by the <code>Content-Type</code> header.<br>Implementations must be thread-safe.
+ * The shipped codecs are {@link GsonCodec} and {@link MessagePackCodec}.
+ */
+public interface Codec {
+
+    /**
+     * Gets the media type of this codec, which is used as the <code>Content-Type</code> of the encoded request bodies.
+     *
+     * @return Non-null media type, e.g. <code>application/json</code>
+     */
+    String getMediaType();
+
+    /**
+     * Determines if this codec can encode and decode the media type.
+     *
+     * @param mediaType Non-null lower-case media type without parameters, e.g. <code>application/json</code>
+     *
+     * @return True if the media type is supported. Defaults to true only for {@link #getMediaType()}.
+     */
+    default boolean supportsMediaType(String mediaType) {
+        return getMediaType().equalsIgnoreCase(mediaType);
+    }
+
+    /**
+     * Determines if the media type of this codec is binary. Responses of binary media types are received as <code>byte[]</code> by
+     * {@link WrappedApi#getDefaultBodyHandler()}, since decoding them from {@link String} would corrupt them.
+     *
+     * @return True if binary. Defaults to false.
+     */
+    default boolean isBinary() {
+        return false;
+    }
+
+    /**
+     * Encodes the value into the output stream. The stream is not closed.
+     *
+     * @param value        Non-null value
+     * @param outputStream Non-null output stream, usually writing directly into the buffer of the request body
+     *
+     * @throws IOException If the value could not be encoded.
+     */
+    void encode(Object value, OutputStream outputStream) throws IOException;
+
+    /**
+     * Decodes the response body into the given type. Implementations should support {@link String}, <code>byte[]</code> and streamed bodies, e.g.
+     * using {@link ResponseBodies#openInputStream(HttpResponse)}.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     * @param type         Non-null type to decode into
+     *
+     * @return Decoded object
+     *
+     * @throws IOException If the body could not be read or decoded.
+     */
+    Object decode(HttpResponse<?> httpResponse, Type type) throws IOException;
+}
@@ -0,0 +1,37 @@
+package dev.mayuna.simpleapi;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+
+/**
+ * Implements {@link DeserializableApiResponse} using the {@link Codec} of the response's <code>Content-Type</code>, see
+ * {@link CodecRegistry#getResponseCodec(java.net.http.HttpHeaders)}. So the same response class can be received e.g. as JSON or MessagePack.
+ * Your class <strong>must have a constructor without any arguments</strong>.
+ * @param <T> The type of the API.
+ */
+public abstract class CodecApiResponse<T extends WrappedApi> extends DeserializableApiResponse<T> {
+
+    /**
+     * Deserializes the response body using the {@link Codec} of the response's <code>Content-Type</code>.
+     * @param apiRequest The API request.
+     * @param httpResponse The HTTP response.
+     * @return The deserialized object.
+     * @throws IllegalStateException If the API has no {@link Codec}.
+     */
+    @Override
+    public Object deserialize(ApiRequest<?> apiRequest, HttpResponse<?> httpResponse) {
+        CodecRegistry codecRegistry = apiRequest.getWrappedApi().getCodecRegistry();
+        Codec codec = codecRegistry != null ? codecRegistry.getResponseCodec(httpResponse.headers()) : null;
+
+        if (codec == null) {
+            throw new IllegalStateException("Cannot deserialize " + getClass().getName() + ", no codec is registered in WrappedApi#createCodecRegistry()");
+        }
+
+        try {
+            return codec.decode(httpResponse, getClass());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
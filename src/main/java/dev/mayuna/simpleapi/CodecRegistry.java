@@ -0,0 +1,208 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Codec}s of {@link WrappedApi}, see {@link WrappedApi#createCodecRegistry()}. The first registered codec is the default one - it encodes
+ * bodies set by {@link ApiRequestBuilder#withBody(Object)} and decodes responses without a <code>Content-Type</code> header, or with an unknown
+ * one. Responses are decoded by the codec of their <code>Content-Type</code>.
+ * <pre>{@code
+ * public CodecRegistry createCodecRegistry() {
+ *     return new CodecRegistry().withCodec(new GsonCodec(getGson()))
+ *                               .withCodec(new MessagePackCodec(getGson()))
+ *                               .withAcceptHeader(true);
+ * }
+ * }</pre>
+ * This class is thread-safe.
+ */
+public class CodecRegistry {
+
+    private final List<Codec> codecs = new CopyOnWriteArrayList<>();
+    private volatile @Getter boolean acceptHeader;
+
+    /**
+     * Creates empty {@link CodecRegistry}
+     */
+    public CodecRegistry() {
+    }
+
+    /**
+     * Registers the codec. Codecs registered earlier take precedence if more of them support the same media type.
+     *
+     * @param codec Non-null {@link Codec}
+     *
+     * @return This {@link CodecRegistry}
+     */
+    public CodecRegistry withCodec(@NonNull Codec codec) {
+        codecs.add(codec);
+        return this;
+    }
+
+    /**
+     * Sets if the requests should advertise the media types of the codecs using the <code>Accept</code> header, if they do not set it by
+     * themselves. The media type of the default codec is listed first.
+     *
+     * @param acceptHeader True if the <code>Accept</code> header should be sent. Defaults to false.
+     *
+     * @return This {@link CodecRegistry}
+     */
+    public CodecRegistry withAcceptHeader(boolean acceptHeader) {
+        this.acceptHeader = acceptHeader;
+        return this;
+    }
+
+    /**
+     * Gets the registered codecs.
+     *
+     * @return Non-null unmodifiable {@link List} of {@link Codec}s
+     */
+    public List<Codec> getCodecs() {
+        return Collections.unmodifiableList(codecs);
+    }
+
+    /**
+     * Gets the default codec, which was registered first.
+     *
+     * @return Nullable {@link Codec}, null if no codec is registered.
+     */
+    public Codec getDefaultCodec() {
+        return codecs.isEmpty() ? null : codecs.get(0);
+    }
+
+    /**
+     * Gets the codec supporting the media type.
+     *
+     * @param contentType Nullable media type or value of the <code>Content-Type</code> header, parameters such as <code>charset</code> are ignored.
+     *
+     * @return Nullable {@link Codec}, null if no codec supports the media type.
+     */
+    public Codec getCodec(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+
+        String mediaType = getMediaType(contentType);
+
+        for (Codec codec : codecs) {
+            if (codec.supportsMediaType(mediaType)) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the codec which should decode the response with the headers - the codec of its <code>Content-Type</code>, or the default codec.
+     *
+     * @param httpHeaders Non-null response headers
+     *
+     * @return Nullable {@link Codec}, null if no codec is registered.
+     */
+    public Codec getResponseCodec(@NonNull HttpHeaders httpHeaders) {
+        Codec codec = getCodec(httpHeaders.firstValue("Content-Type").orElse(null));
+        return codec != null ? codec : getDefaultCodec();
+    }
+
+    /**
+     * Gets the value of the <code>Accept</code> header, the media types of the codecs in order of their precedence.
+     *
+     * @return Nullable value, null if no codec is registered.
+     */
+    public String getAcceptHeaderValue() {
+        if (codecs.isEmpty()) {
+            return null;
+        }
+
+        return codecs.stream().map(Codec::getMediaType).distinct().collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Determines if some codec is binary.
+     *
+     * @return True if some {@link Codec#isBinary()} returns true.
+     */
+    boolean hasBinaryCodec() {
+        for (Codec codec : codecs) {
+            if (codec.isBinary()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates the body handler, which receives bodies of binary media types as <code>byte[]</code> and the rest of them as {@link String}.
+     *
+     * @return Non-null body handler
+     */
+    @SuppressWarnings("unchecked")
+    HttpResponse.BodyHandler<?> createBodyHandler() {
+        return responseInfo -> {
+            Codec codec = getCodec(responseInfo.headers().firstValue("Content-Type").orElse(null));
+            HttpResponse.BodySubscriber<?> bodySubscriber;
+
+            if (codec != null && codec.isBinary()) {
+                bodySubscriber = HttpResponse.BodySubscribers.ofByteArray();
+            } else {
+                bodySubscriber = HttpResponse.BodyHandlers.ofString().apply(responseInfo);
+            }
+
+            return (HttpResponse.BodySubscriber<Object>) bodySubscriber;
+        };
+    }
+
+    /**
+     * Encodes the body using the codec of the media type.
+     *
+     * @param body      Non-null body
+     * @param mediaType Nullable media type, null uses the default codec.
+     *
+     * @return Non-null body publisher of known length
+     *
+     * @throws IllegalStateException If no codec supports the media type.
+     */
+    HttpRequest.BodyPublisher encode(Object body, String mediaType) {
+        Codec codec = mediaType != null ? getCodec(mediaType) : getDefaultCodec();
+
+        if (codec == null) {
+            throw new IllegalStateException("No codec is registered for media type " + (mediaType != null ? mediaType : "of the body") + ", register it in WrappedApi#createCodecRegistry()");
+        }
+
+        ByteBufferOutputStream outputStream = new ByteBufferOutputStream(256);
+
+        try {
+            codec.encode(body, outputStream);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not encode body of type " + body.getClass().getName() + " using " + codec.getMediaType(), exception);
+        }
+
+        return outputStream.toBodyPublisher();
+    }
+
+    /**
+     * Gets the media type without parameters, in lower-case.
+     *
+     * @param contentType Non-null value of the <code>Content-Type</code> header
+     *
+     * @return Non-null media type
+     */
+    static String getMediaType(String contentType) {
+        int parametersIndex = contentType.indexOf(';');
+        String mediaType = parametersIndex >= 0 ? contentType.substring(0, parametersIndex) : contentType;
+        return mediaType.trim().toLowerCase(Locale.ROOT);
+    }
+}
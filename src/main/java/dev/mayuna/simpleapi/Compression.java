@@ -0,0 +1,231 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content encoding of {@link WrappedApi}. Override {@link WrappedApi#createCompression()} to enable it.<br>Requests advertise
+ * <code>Accept-Encoding: gzip, deflate</code> and compressed responses are decompressed while being received, before they are passed to the body
+ * handler of the request - so {@link DeserializableApiResponse#deserialize(ApiRequest, HttpResponse)} always reads the decompressed body, even
+ * when streamed. Optionally, request bodies of known length above {@link #getRequestCompressionThreshold()} are compressed using gzip while being
+ * sent.
+ * <pre>{@code
+ * public Compression createCompression() {
+ *     return new Compression().withRequestCompressionThreshold(8 * 1024);
+ * }
+ * }</pre>
+ * The received and sent bytes are counted, see {@link #getResponseCompressionRatio()} and {@link #getResponseBytesSaved()}.
+ */
+public class Compression {
+
+    /**
+     * Value of the <code>Accept-Encoding</code> header
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private @Getter int requestCompressionThreshold = -1;
+
+    private final LongAdder responseCount = new LongAdder();
+    private final LongAdder responseCompressedBytes = new LongAdder();
+    private final LongAdder responseDecompressedBytes = new LongAdder();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder requestUncompressedBytes = new LongAdder();
+    private final LongAdder requestCompressedBytes = new LongAdder();
+
+    /**
+     * Creates {@link Compression} which decompresses the responses and does not compress the request bodies
+     */
+    public Compression() {
+    }
+
+    /**
+     * Sets the minimum size of the request body to be compressed using gzip. Only bodies of known length are compressed, e.g. from
+     * {@link HttpRequest.BodyPublishers#ofString(String)}, and the server must support <code>Content-Encoding: gzip</code> of requests. Bodies of
+     * {@link FileBodyPublishers#ofMappedFile(java.nio.file.Path)} and {@link MultipartBody} are never compressed, so they are sent without copying.
+     *
+     * @param requestCompressionThreshold Minimal body size in bytes, negative disables the compression. Defaults to -1.
+     *
+     * @return This {@link Compression}
+     */
+    public Compression withRequestCompressionThreshold(int requestCompressionThreshold) {
+        this.requestCompressionThreshold = requestCompressionThreshold;
+        return this;
+    }
+
+    /**
+     * Gets the number of decompressed responses.
+     *
+     * @return Number of responses
+     */
+    public long getResponseCount() {
+        return responseCount.sum();
+    }
+
+    /**
+     * Gets the number of compressed bytes of the decompressed responses, as received over the wire.
+     *
+     * @return Number of bytes
+     */
+    public long getResponseCompressedBytes() {
+        return responseCompressedBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes of the decompressed responses, after decompression.
+     *
+     * @return Number of bytes
+     */
+    public long getResponseDecompressedBytes() {
+        return responseDecompressedBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes which were not received thanks to the compression of the responses.
+     *
+     * @return Number of bytes
+     */
+    public long getResponseBytesSaved() {
+        return getResponseDecompressedBytes() - getResponseCompressedBytes();
+    }
+
+    /**
+     * Gets the compression ratio of the responses - decompressed size divided by compressed size.
+     *
+     * @return Compression ratio, or 1 if no response was decompressed.
+     */
+    public double getResponseCompressionRatio() {
+        return getRatio(getResponseDecompressedBytes(), getResponseCompressedBytes());
+    }
+
+    /**
+     * Gets the number of compressed request bodies which were sent.
+     *
+     * @return Number of requests
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * Gets the number of bytes of the compressed request bodies, before compression.
+     *
+     * @return Number of bytes
+     */
+    public long getRequestUncompressedBytes() {
+        return requestUncompressedBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes of the compressed request bodies, as sent over the wire.
+     *
+     * @return Number of bytes
+     */
+    public long getRequestCompressedBytes() {
+        return requestCompressedBytes.sum();
+    }
+
+    /**
+     * Gets the number of bytes which were not sent thanks to the compression of the request bodies.
+     *
+     * @return Number of bytes
+     */
+    public long getRequestBytesSaved() {
+        return getRequestUncompressedBytes() - getRequestCompressedBytes();
+    }
+
+    /**
+     * Gets the compression ratio of the request bodies - uncompressed size divided by compressed size.
+     *
+     * @return Compression ratio, or 1 if no request body was compressed.
+     */
+    public double getRequestCompressionRatio() {
+        return getRatio(getRequestUncompressedBytes(), getRequestCompressedBytes());
+    }
+
+    /**
+     * Resets the statistics.
+     */
+    public void resetStatistics() {
+        responseCount.reset();
+        responseCompressedBytes.reset();
+        responseDecompressedBytes.reset();
+        requestCount.reset();
+        requestUncompressedBytes.reset();
+        requestCompressedBytes.reset();
+    }
+
+    /**
+     * Wraps the body handler, so <code>gzip</code> and <code>deflate</code> encoded bodies are decompressed before they reach it.
+     *
+     * @param bodyHandler The body handler.
+     * @param <T>         The type of the body.
+     *
+     * @return Wrapped body handler
+     */
+    <T> HttpResponse.BodyHandler<T> wrapBodyHandler(HttpResponse.BodyHandler<T> bodyHandler) {
+        return responseInfo -> {
+            HttpResponse.BodySubscriber<T> bodySubscriber = bodyHandler.apply(responseInfo);
+            String contentEncoding = responseInfo.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+
+            switch (contentEncoding) {
+                case "gzip":
+                case "x-gzip":
+                    return new DecompressingBodySubscriber<>(bodySubscriber, this, true);
+                case "deflate":
+                    return new DecompressingBodySubscriber<>(bodySubscriber, this, false);
+                default:
+                    return bodySubscriber;
+            }
+        };
+    }
+
+    /**
+     * Compresses the request body using gzip while it is being sent if it is larger than the threshold, and sets the <code>Content-Encoding</code>
+     * header.
+     *
+     * @param httpRequestBuilder The request builder.
+     * @param bodyPublisher      The body.
+     *
+     * @return The compressing body of unknown length, or the same body if it is not compressed.
+     */
+    HttpRequest.BodyPublisher compressRequestBody(HttpRequest.Builder httpRequestBuilder, HttpRequest.BodyPublisher bodyPublisher) {
+        if (bodyPublisher instanceof UncompressedBodyPublisher) {
+            return bodyPublisher;
+        }
+
+        long contentLength = bodyPublisher.contentLength();
+
+        if (requestCompressionThreshold < 0 || contentLength <= 0 || contentLength < requestCompressionThreshold) {
+            return bodyPublisher;
+        }
+
+        httpRequestBuilder.setHeader("Content-Encoding", "gzip");
+        return new GzipBodyPublisher(bodyPublisher, this);
+    }
+
+    /**
+     * {@link HttpRequest.BodyPublisher} which is never compressed, e.g. because it is sent without being copied on the heap.
+     */
+    interface UncompressedBodyPublisher extends HttpRequest.BodyPublisher {
+    }
+
+    void recordRequest(long uncompressedBytes, long compressedBytes) {
+        requestCount.increment();
+        requestUncompressedBytes.add(uncompressedBytes);
+        requestCompressedBytes.add(compressedBytes);
+    }
+
+    void recordResponse(long compressedBytes, long decompressedBytes) {
+        responseCount.increment();
+        responseCompressedBytes.add(compressedBytes);
+        responseDecompressedBytes.add(decompressedBytes);
+    }
+
+    private static double getRatio(long uncompressedBytes, long compressedBytes) {
+        return compressedBytes == 0 ? 1 : (double) uncompressedBytes / compressedBytes;
+    }
+}
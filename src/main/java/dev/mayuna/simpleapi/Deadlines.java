@@ -0,0 +1,66 @@
+package dev.mayuna.simpleapi;
+
+import java.time.Duration;
+
+/**
+ * Utility methods for computing deadlines in {@link System#nanoTime()} units, which do not overflow for huge durations, e.g. from far-future
+ * <code>Expires</code> headers
+ */
+final class Deadlines {
+
+    /**
+     * Maximum duration in nanoseconds (about 146 years). Longer durations are clamped, so deadlines can still be compared by difference of
+     * {@link System#nanoTime()} values.
+     */
+    static final long MAX_NANOS = Long.MAX_VALUE / 2;
+
+    private Deadlines() {
+    }
+
+    /**
+     * Converts the duration to nanoseconds, clamped to 0 - {@link #MAX_NANOS}.
+     *
+     * @param duration Non-null {@link Duration}
+     *
+     * @return Nanoseconds between 0 and {@link #MAX_NANOS}.
+     */
+    static long toNanos(Duration duration) {
+        if (duration.isNegative()) {
+            return 0;
+        }
+
+        if (duration.getSeconds() >= MAX_NANOS / 1_000_000_000L) {
+            return MAX_NANOS;
+        }
+
+        return Math.min(MAX_NANOS, duration.toNanos());
+    }
+
+    /**
+     * Computes the deadline after the duration, saturated to {@link Long#MAX_VALUE} instead of overflowing.
+     *
+     * @param nowNanos      Current {@link System#nanoTime()}
+     * @param durationNanos Duration in nanoseconds, clamped to 0 - {@link #MAX_NANOS}
+     *
+     * @return The deadline in {@link System#nanoTime()} units.
+     */
+    static long after(long nowNanos, long durationNanos) {
+        long clampedNanos = Math.max(0, Math.min(MAX_NANOS, durationNanos));
+        long deadlineNanos = nowNanos + clampedNanos;
+
+        // Overflows only if the current time is positive, since the duration is not negative
+        return deadlineNanos < nowNanos ? Long.MAX_VALUE : deadlineNanos;
+    }
+
+    /**
+     * Computes the deadline after the duration, saturated to {@link Long#MAX_VALUE} instead of overflowing.
+     *
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @param duration Non-null {@link Duration}, clamped to 0 - {@link #MAX_NANOS}
+     *
+     * @return The deadline in {@link System#nanoTime()} units.
+     */
+    static long after(long nowNanos, Duration duration) {
+        return after(nowNanos, toNanos(duration));
+    }
+}
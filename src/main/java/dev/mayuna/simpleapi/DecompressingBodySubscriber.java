@@ -0,0 +1,304 @@
+package dev.mayuna.simpleapi;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * {@link HttpResponse.BodySubscriber} which decompresses <code>gzip</code> or <code>deflate</code> encoded body while it is being received and
+ * passes the decompressed buffers to the wrapped subscriber. Each received list of buffers is passed as one list, so the demand of the wrapped
+ * subscriber is forwarded as it is.
+ *
+ * @param <T> The type of the body.
+ */
+final class DecompressingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+    private static final int OUTPUT_BUFFER_SIZE = 16 * 1024;
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    private static final int FLAG_HEADER_CRC = 2;
+    private static final int FLAG_EXTRA = 4;
+    private static final int FLAG_NAME = 8;
+    private static final int FLAG_COMMENT = 16;
+
+    private final HttpResponse.BodySubscriber<T> bodySubscriber;
+    private final Compression compression;
+    private final boolean gzip;
+    private final CRC32 crc32 = new CRC32();
+
+    private Inflater inflater;
+    private Flow.Subscription subscription;
+    private byte[] header = new byte[0];
+    private final byte[] trailer = new byte[GZIP_TRAILER_LENGTH];
+    private int trailerLength;
+    private long compressedBytes;
+    private long decompressedBytes;
+    private boolean failed;
+
+    /**
+     * Creates {@link DecompressingBodySubscriber}
+     *
+     * @param bodySubscriber The wrapped subscriber.
+     * @param compression    The compression, the statistics are recorded to it.
+     * @param gzip           True for <code>gzip</code>, false for <code>deflate</code> encoding.
+     */
+    DecompressingBodySubscriber(HttpResponse.BodySubscriber<T> bodySubscriber, Compression compression, boolean gzip) {
+        this.bodySubscriber = bodySubscriber;
+        this.compression = compression;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return bodySubscriber.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        bodySubscriber.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        if (failed) {
+            return;
+        }
+
+        List<ByteBuffer> decompressedItem = new ArrayList<>(item.size());
+
+        try {
+            for (ByteBuffer byteBuffer : item) {
+                compressedBytes += byteBuffer.remaining();
+                decompress(byteBuffer, decompressedItem);
+            }
+        } catch (IOException | DataFormatException exception) {
+            fail(exception);
+            return;
+        }
+
+        if (decompressedItem.isEmpty()) {
+            // Nothing for the wrapped subscriber, its demand is still not satisfied
+            subscription.request(1);
+            return;
+        }
+
+        bodySubscriber.onNext(decompressedItem);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        release();
+
+        if (!failed) {
+            bodySubscriber.onError(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (failed) {
+            return;
+        }
+
+        try {
+            if (compressedBytes == 0) {
+                // Empty body, e.g. response to HEAD request
+                bodySubscriber.onComplete();
+                return;
+            }
+
+            if (inflater == null || !inflater.finished()) {
+                throw new IOException("Compressed response body is truncated");
+            }
+
+            if (gzip) {
+                verifyTrailer();
+            }
+        } catch (IOException exception) {
+            fail(exception);
+            return;
+        }
+
+        release();
+        compression.recordResponse(compressedBytes, decompressedBytes);
+        bodySubscriber.onComplete();
+    }
+
+    private void decompress(ByteBuffer byteBuffer, List<ByteBuffer> decompressedItem) throws IOException, DataFormatException {
+        if (inflater == null) {
+            if (gzip) {
+                if (!readHeader(byteBuffer)) {
+                    return;
+                }
+
+                inflater = new Inflater(true);
+            } else {
+                if (!byteBuffer.hasRemaining()) {
+                    return;
+                }
+
+                // Servers send deflate both with and without the zlib wrapper
+                inflater = new Inflater(!hasZlibHeader(byteBuffer));
+            }
+        }
+
+        if (inflater.finished()) {
+            readTrailer(byteBuffer);
+            return;
+        }
+
+        inflater.setInput(byteBuffer);
+
+        while (!inflater.finished() && !inflater.needsInput()) {
+            ByteBuffer output = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+            int length = inflater.inflate(output);
+
+            if (length == 0 && inflater.needsDictionary()) {
+                throw new DataFormatException("Compressed response body requires a preset dictionary");
+            }
+
+            if (length > 0) {
+                output.flip();
+
+                if (gzip) {
+                    crc32.update(output.duplicate());
+                }
+
+                decompressedBytes += length;
+                decompressedItem.add(output);
+            }
+        }
+
+        if (inflater.finished()) {
+            readTrailer(byteBuffer);
+        }
+    }
+
+    /**
+     * Reads the gzip header, which may be split into more buffers.
+     *
+     * @param byteBuffer The buffer.
+     *
+     * @return True if the whole header was read.
+     */
+    private boolean readHeader(ByteBuffer byteBuffer) throws IOException {
+        while (byteBuffer.hasRemaining()) {
+            byte[] extendedHeader = new byte[header.length + 1];
+            System.arraycopy(header, 0, extendedHeader, 0, header.length);
+            extendedHeader[header.length] = byteBuffer.get();
+            header = extendedHeader;
+
+            if (isHeaderComplete()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isHeaderComplete() throws IOException {
+        if (header.length < 10) {
+            return false;
+        }
+
+        if ((header[0] & 0xFF) != 0x1F || (header[1] & 0xFF) != 0x8B || header[2] != 8) {
+            throw new IOException("Response body is not in gzip format");
+        }
+
+        int flags = header[3] & 0xFF;
+        int length = 10;
+
+        if ((flags & FLAG_EXTRA) != 0) {
+            if (header.length < length + 2) {
+                return false;
+            }
+
+            length += 2 + ((header[length] & 0xFF) | (header[length + 1] & 0xFF) << 8);
+        }
+
+        if ((flags & FLAG_NAME) != 0) {
+            length = skipZeroTerminated(length);
+        }
+
+        if ((flags & FLAG_COMMENT) != 0) {
+            length = skipZeroTerminated(length);
+        }
+
+        if ((flags & FLAG_HEADER_CRC) != 0 && length >= 0) {
+            length += 2;
+        }
+
+        return length >= 0 && header.length >= length;
+    }
+
+    private int skipZeroTerminated(int offset) {
+        if (offset < 0) {
+            return offset;
+        }
+
+        for (int i = offset; i < header.length; i++) {
+            if (header[i] == 0) {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean hasZlibHeader(ByteBuffer byteBuffer) {
+        if (byteBuffer.remaining() < 2) {
+            return (byteBuffer.get(byteBuffer.position()) & 0x0F) == 8;
+        }
+
+        int first = byteBuffer.get(byteBuffer.position()) & 0xFF;
+        int second = byteBuffer.get(byteBuffer.position() + 1) & 0xFF;
+        return (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+    }
+
+    private void readTrailer(ByteBuffer byteBuffer) {
+        while (byteBuffer.hasRemaining() && trailerLength < GZIP_TRAILER_LENGTH) {
+            trailer[trailerLength++] = byteBuffer.get();
+        }
+
+        // Anything after the trailer (e.g. another gzip member) is ignored
+        byteBuffer.position(byteBuffer.limit());
+    }
+
+    private void verifyTrailer() throws IOException {
+        if (trailerLength < GZIP_TRAILER_LENGTH) {
+            throw new IOException("Compressed response body is truncated");
+        }
+
+        long crc = readUnsignedInt(0);
+        long size = readUnsignedInt(4);
+
+        if (crc != crc32.getValue() || size != (decompressedBytes & 0xFFFFFFFFL)) {
+            throw new IOException("Compressed response body is corrupted");
+        }
+    }
+
+    private long readUnsignedInt(int offset) {
+        return (trailer[offset] & 0xFFL) | (trailer[offset + 1] & 0xFFL) << 8 | (trailer[offset + 2] & 0xFFL) << 16 | (trailer[offset + 3] & 0xFFL) << 24;
+    }
+
+    private void fail(Throwable throwable) {
+        failed = true;
+        release();
+        subscription.cancel();
+        bodySubscriber.onError(throwable);
+    }
+
+    private void release() {
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+}
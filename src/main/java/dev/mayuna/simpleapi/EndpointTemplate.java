@@ -0,0 +1,305 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled endpoint with {@link PathParameter} placeholders, e.g. <code>/users/{userId}/posts</code>. The endpoint is parsed only once into
+ * literal segments and parameter names, then it can be rendered with {@link PathParameter}s and {@link RequestQuery}s into single pre-sized
+ * buffer.<br>Path parameters and request queries are percent-encoded (UTF-8), unless they were created as already encoded.
+ */
+public final class EndpointTemplate {
+
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+    private static final Map<String, EndpointTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final @Getter String endpoint;
+    private final String[] literals;
+    private final String[] parameterNames;
+    private final Set<String> uniqueParameterNames;
+    private final boolean containsQuery;
+    private final int literalsLength;
+
+    private EndpointTemplate(String endpoint, String[] literals, String[] parameterNames) {
+        this.endpoint = endpoint;
+        this.literals = literals;
+        this.parameterNames = parameterNames;
+        this.containsQuery = endpoint.indexOf('?') != -1;
+
+        Set<String> names = new LinkedHashSet<>();
+        Collections.addAll(names, parameterNames);
+        this.uniqueParameterNames = Collections.unmodifiableSet(names);
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    /**
+     * Gets the compiled {@link EndpointTemplate} of the endpoint from cache, compiling it if necessary.
+     *
+     * @param endpoint Non-null endpoint
+     *
+     * @return Non-null {@link EndpointTemplate}
+     */
+    public static EndpointTemplate of(@NonNull String endpoint) {
+        EndpointTemplate template = CACHE.get(endpoint);
+
+        if (template != null) {
+            return template;
+        }
+
+        template = compile(endpoint);
+
+        if (CACHE.size() < MAX_CACHED_TEMPLATES) {
+            EndpointTemplate existingTemplate = CACHE.putIfAbsent(endpoint, template);
+
+            if (existingTemplate != null) {
+                return existingTemplate;
+            }
+        }
+
+        return template;
+    }
+
+    /**
+     * Compiles the endpoint without using the cache. Placeholders are in format <code>{parameterName}</code>, unclosed or empty braces are kept as
+     * they are.
+     *
+     * @param endpoint Non-null endpoint
+     *
+     * @return Non-null {@link EndpointTemplate}
+     */
+    public static EndpointTemplate compile(@NonNull String endpoint) {
+        List<String> literals = new ArrayList<>();
+        List<String> parameterNames = new ArrayList<>();
+
+        int literalStart = 0;
+        int index = 0;
+
+        while (index < endpoint.length()) {
+            int openIndex = endpoint.indexOf('{', index);
+
+            if (openIndex == -1) {
+                break;
+            }
+
+            int closeIndex = endpoint.indexOf('}', openIndex + 1);
+
+            if (closeIndex == -1) {
+                break;
+            }
+
+            if (closeIndex == openIndex + 1) {
+                index = closeIndex + 1;
+                continue;
+            }
+
+            literals.add(endpoint.substring(literalStart, openIndex));
+            parameterNames.add(endpoint.substring(openIndex + 1, closeIndex));
+            literalStart = closeIndex + 1;
+            index = literalStart;
+        }
+
+        literals.add(endpoint.substring(literalStart));
+
+        return new EndpointTemplate(endpoint, literals.toArray(new String[0]), parameterNames.toArray(new String[0]));
+    }
+
+    /**
+     * Gets the names of the parameters used in this template, in order of their first occurrence.
+     *
+     * @return Non-null unmodifiable {@link Set} of parameter names
+     */
+    public Set<String> getParameterNames() {
+        return uniqueParameterNames;
+    }
+
+    /**
+     * Checks if all parameters of this template have a {@link PathParameter} and if all {@link PathParameter}s are used.
+     *
+     * @param pathParameters Nullable {@link PathParameter}s
+     *
+     * @throws IllegalArgumentException If some parameter is missing or some {@link PathParameter} is not used.
+     */
+    public void validate(PathParameter[] pathParameters) {
+        Set<String> providedNames = new LinkedHashSet<>();
+
+        if (pathParameters != null) {
+            for (PathParameter pathParameter : pathParameters) {
+                providedNames.add(pathParameter.getId());
+            }
+        }
+
+        for (String parameterName : uniqueParameterNames) {
+            if (!providedNames.contains(parameterName)) {
+                throw new IllegalArgumentException("Missing path parameter {" + parameterName + "} for endpoint " + endpoint);
+            }
+        }
+
+        for (String providedName : providedNames) {
+            if (!uniqueParameterNames.contains(providedName)) {
+                throw new IllegalArgumentException("Path parameter {" + providedName + "} is not used in endpoint " + endpoint);
+            }
+        }
+    }
+
+    /**
+     * Renders this template with the {@link PathParameter}s and appends the {@link RequestQuery}s. Placeholders without {@link PathParameter} are
+     * kept as they are.
+     *
+     * @param pathParameters Nullable {@link PathParameter}s
+     * @param requestQueries Nullable {@link RequestQuery}s
+     *
+     * @return Non-null rendered endpoint
+     */
+    public String render(PathParameter[] pathParameters, RequestQuery[] requestQueries) {
+        boolean hasPathParameters = pathParameters != null && pathParameters.length > 0;
+        boolean hasRequestQueries = requestQueries != null && requestQueries.length > 0;
+
+        if (!hasRequestQueries && (!hasPathParameters || parameterNames.length == 0)) {
+            return endpoint;
+        }
+
+        String[] replacements = new String[parameterNames.length];
+        int capacity = literalsLength;
+
+        for (int i = 0; i < parameterNames.length; i++) {
+            PathParameter pathParameter = hasPathParameters ? findPathParameter(pathParameters, parameterNames[i]) : null;
+
+            if (pathParameter == null) {
+                replacements[i] = "{" + parameterNames[i] + "}";
+            } else {
+                replacements[i] = pathParameter.isEncoded() ? pathParameter.getReplacement() : encode(pathParameter.getReplacement(), false);
+            }
+
+            capacity += replacements[i].length();
+        }
+
+        if (hasRequestQueries) {
+            for (RequestQuery requestQuery : requestQueries) {
+                // Separator, equals sign and some space for encoding
+                capacity += requestQuery.getName().length() + requestQuery.getValue().length() + 8;
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(capacity);
+
+        for (int i = 0; i < parameterNames.length; i++) {
+            builder.append(literals[i]).append(replacements[i]);
+        }
+
+        builder.append(literals[literals.length - 1]);
+
+        if (hasRequestQueries) {
+            boolean first = !containsQuery;
+
+            for (RequestQuery requestQuery : requestQueries) {
+                builder.append(first ? '?' : '&');
+                first = false;
+
+                if (requestQuery.isEncoded()) {
+                    builder.append(requestQuery.getName()).append('=').append(requestQuery.getValue());
+                } else {
+                    appendEncoded(builder, requestQuery.getName(), true);
+                    builder.append('=');
+                    appendEncoded(builder, requestQuery.getValue(), true);
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static PathParameter findPathParameter(PathParameter[] pathParameters, String name) {
+        for (PathParameter pathParameter : pathParameters) {
+            if (pathParameter.getId().equals(name)) {
+                return pathParameter;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Percent-encodes the value using UTF-8.
+     *
+     * @param value Non-null value
+     * @param query True if the value is part of query (sub-delimiters are encoded), false if it is path segment
+     *
+     * @return Non-null encoded value
+     */
+    static String encode(String value, boolean query) {
+        if (!requiresEncoding(value, query)) {
+            return value;
+        }
+
+        StringBuilder builder = new StringBuilder(value.length() + 16);
+        appendEncoded(builder, value, query);
+        return builder.toString();
+    }
+
+    private static void appendEncoded(StringBuilder builder, String value, boolean query) {
+        if (!requiresEncoding(value, query)) {
+            builder.append(value);
+            return;
+        }
+
+        for (byte character : value.getBytes(StandardCharsets.UTF_8)) {
+            if (isAllowed((char) (character & 0xFF), query)) {
+                builder.append((char) character);
+            } else {
+                builder.append('%').append(HEX_DIGITS[(character >> 4) & 0xF]).append(HEX_DIGITS[character & 0xF]);
+            }
+        }
+    }
+
+    private static boolean requiresEncoding(String value, boolean query) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isAllowed(value.charAt(i), query)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isAllowed(char character, boolean query) {
+        if ((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || (character >= '0' && character <= '9')) {
+            return true;
+        }
+
+        switch (character) {
+            case '-':
+            case '.':
+            case '_':
+            case '~':
+                return true;
+            case '!':
+            case '$':
+            case '\'':
+            case '(':
+            case ')':
+            case '*':
+            case ',':
+            case ';':
+            case ':':
+            case '@':
+                return !query;
+            default:
+                return false;
+        }
+    }
+}
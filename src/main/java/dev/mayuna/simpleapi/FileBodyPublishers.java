@@ -0,0 +1,172 @@
+package dev.mayuna.simpleapi;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link HttpRequest.BodyPublisher}s of files which do not copy the file on the heap, used by {@link ApiRequestBuilder#withFileUpload(Path)}.
+ * The file is memory-mapped and published in slices of the mapping, so the data is read straight from the page cache.
+ */
+public final class FileBodyPublishers {
+
+    private static final int SLICE_SIZE = 256 * 1024;
+
+    private FileBodyPublishers() {
+    }
+
+    /**
+     * Creates {@link HttpRequest.BodyPublisher} of the memory-mapped file. The file is mapped when the body is sent, so it may be sent again, e.g.
+     * when the request is retried.
+     *
+     * @param path Non-null path of the file
+     *
+     * @return Non-null {@link HttpRequest.BodyPublisher} with known content length
+     *
+     * @throws UncheckedIOException If the size of the file cannot be read.
+     */
+    public static HttpRequest.BodyPublisher ofMappedFile(@NonNull Path path) {
+        return ofMappedFile(path, null);
+    }
+
+    /**
+     * Creates {@link HttpRequest.BodyPublisher} of the memory-mapped file. The file is mapped when the body is sent, so it may be sent again, e.g.
+     * when the request is retried.
+     *
+     * @param path             Non-null path of the file
+     * @param progressListener Nullable listener of the upload progress. The progress is reported when the data is passed to the HTTP client.
+     *
+     * @return Non-null {@link HttpRequest.BodyPublisher} with known content length
+     *
+     * @throws UncheckedIOException If the size of the file cannot be read.
+     */
+    public static HttpRequest.BodyPublisher ofMappedFile(@NonNull Path path, ProgressListener progressListener) {
+        long size;
+
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = fileChannel.size();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not open " + path, exception);
+        }
+
+        return new MappedFileBodyPublisher(path, size, progressListener);
+    }
+
+    private static final class MappedFileBodyPublisher implements Compression.UncompressedBodyPublisher {
+
+        private final Path path;
+        private final long size;
+        private final ProgressListener progressListener;
+
+        private MappedFileBodyPublisher(Path path, long size, ProgressListener progressListener) {
+            this.path = path;
+            this.size = size;
+            this.progressListener = progressListener;
+        }
+
+        @Override
+        public long contentLength() {
+            return size;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            subscriber.onSubscribe(new MappedFileSubscription(subscriber));
+        }
+
+        /**
+         * Publishes the slices on demand. The file is mapped in regions of at most {@link Integer#MAX_VALUE} bytes.
+         */
+        private final class MappedFileSubscription implements Flow.Subscription {
+
+            private final Flow.Subscriber<? super ByteBuffer> subscriber;
+            private final AtomicLong demand = new AtomicLong();
+            private final AtomicBoolean draining = new AtomicBoolean();
+
+            private volatile boolean done;
+            private long position;
+            private MappedByteBuffer region;
+            private long regionStart;
+
+            private MappedFileSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+                this.subscriber = subscriber;
+            }
+
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException("Requested number of items must be positive, currently is: " + n));
+                    return;
+                }
+
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+
+            private void drain() {
+                // Re-entrant requests from onNext are served by the loop of the first caller
+                while (draining.compareAndSet(false, true)) {
+                    try {
+                        while (!done && demand.get() > 0) {
+                            if (position >= size) {
+                                done = true;
+                                subscriber.onComplete();
+                                return;
+                            }
+
+                            ByteBuffer slice = nextSlice();
+                            demand.decrementAndGet();
+                            subscriber.onNext(slice);
+
+                            if (progressListener != null) {
+                                progressListener.onProgress(position, size);
+                            }
+                        }
+                    } catch (IOException | RuntimeException exception) {
+                        done = true;
+                        subscriber.onError(exception);
+                        return;
+                    } finally {
+                        draining.set(false);
+                    }
+
+                    if (done || demand.get() == 0) {
+                        return;
+                    }
+                }
+            }
+
+            private ByteBuffer nextSlice() throws IOException {
+                if (region == null || position - regionStart >= region.capacity()) {
+                    try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                        regionStart = position;
+                        region = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Integer.MAX_VALUE));
+                    }
+                }
+
+                int offset = (int) (position - regionStart);
+                int length = (int) Math.min(SLICE_SIZE, region.capacity() - offset);
+                ByteBuffer slice = region.duplicate();
+                slice.position(offset).limit(offset + length);
+                position += length;
+                return slice.slice();
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Download of the response body into a file, set by {@link ApiRequestBuilder#withFileDownload(FileDownload)}. The body is written into a
+ * {@link FileChannel} while being received, without buffering it on the heap, and the response class should be {@link FileResponse}.
+ * <pre>{@code
+ * FileResponse export = ApiRequest.builder(api, FileResponse.class)
+ *                                 .withEndpoint("/exports/{id}")
+ *                                 .withPathParameter(PathParameter.of("id", exportId))
+ *                                 .withRequestMethod(RequestMethod.GET)
+ *                                 .withFileDownload(FileDownload.to(Path.of("export.zip")).withResume(true))
+ *                                 .build()
+ *                                 .send();
+ * }</pre>
+ * Only successful responses (<code>2xx</code>) are written into the file, bodies of other responses are discarded.
+ */
+public class FileDownload {
+
+    private final @Getter Path path;
+    private @Getter boolean resume;
+    private @Getter ProgressListener progressListener;
+
+    private FileDownload(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Creates {@link FileDownload} into the file. The file is created or overwritten.
+     *
+     * @param path Non-null path of the file
+     *
+     * @return Non-null {@link FileDownload}
+     */
+    public static FileDownload to(@NonNull Path path) {
+        return new FileDownload(path);
+    }
+
+    /**
+     * Sets if the download should be resumed. If the file exists, the rest of it is requested using <code>Range: bytes=size-</code> header. If the
+     * server ignores the header and sends the whole body, the file is overwritten.
+     *
+     * @param resume True if the download should be resumed. Defaults to false.
+     *
+     * @return This {@link FileDownload}
+     */
+    public FileDownload withResume(boolean resume) {
+        this.resume = resume;
+        return this;
+    }
+
+    /**
+     * Sets the listener of the download progress.
+     *
+     * @param progressListener Nullable {@link ProgressListener}
+     *
+     * @return This {@link FileDownload}
+     */
+    public FileDownload withProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Applies the <code>Range</code> header if the download should be resumed and the file is not empty. Uncompressed response is requested, since
+     * the range of compressed response would not match the file.
+     *
+     * @param httpRequestBuilder The request builder.
+     */
+    void applyHeaders(HttpRequest.Builder httpRequestBuilder) {
+        if (!resume) {
+            return;
+        }
+
+        long size;
+
+        try {
+            size = Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not get size of " + path, exception);
+        }
+
+        if (size > 0) {
+            httpRequestBuilder.setHeader("Range", "bytes=" + size + "-");
+            httpRequestBuilder.setHeader("Accept-Encoding", "identity");
+        }
+    }
+
+    /**
+     * Creates the body handler writing the body into the file.
+     *
+     * @return Non-null body handler
+     */
+    HttpResponse.BodyHandler<Result> getBodyHandler() {
+        return responseInfo -> {
+            int statusCode = responseInfo.statusCode();
+
+            if (statusCode == 416 && resume) {
+                // The file is already complete
+                return HttpResponse.BodySubscribers.replacing(new Result(path, 0, getFileSize(), true));
+            }
+
+            if (statusCode < 200 || statusCode >= 300) {
+                return HttpResponse.BodySubscribers.replacing(null);
+            }
+
+            long position = 0;
+            long totalBytes = responseInfo.headers().firstValueAsLong("Content-Length").orElse(-1);
+
+            if (statusCode == 206) {
+                long[] contentRange = parseContentRange(responseInfo.headers().firstValue("Content-Range").orElse(null));
+
+                if (contentRange != null) {
+                    position = contentRange[0];
+                    totalBytes = contentRange[1];
+                }
+            } else if (totalBytes >= 0 && responseInfo.headers().firstValue("Content-Encoding").isPresent()) {
+                // Content-Length is the compressed size
+                totalBytes = -1;
+            }
+
+            return new FileBodySubscriber(position, totalBytes);
+        };
+    }
+
+    private long getFileSize() {
+        try {
+            return Files.size(path);
+        } catch (IOException exception) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses the <code>Content-Range: bytes start-end/total</code> header.
+     *
+     * @param contentRange Nullable header value
+     *
+     * @return Start and total (-1 if unknown), or null if the header is missing or invalid.
+     */
+    private static long[] parseContentRange(String contentRange) {
+        if (contentRange == null || !contentRange.trim().startsWith("bytes ")) {
+            return null;
+        }
+
+        String range = contentRange.trim().substring("bytes ".length()).trim();
+        int dashIndex = range.indexOf('-');
+        int slashIndex = range.indexOf('/');
+
+        if (dashIndex <= 0 || slashIndex < dashIndex) {
+            return null;
+        }
+
+        try {
+            long start = Long.parseLong(range.substring(0, dashIndex).trim());
+            String total = range.substring(slashIndex + 1).trim();
+            return new long[]{start, total.equals("*") ? -1 : Long.parseLong(total)};
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Result of the download, the body of the response
+     */
+    public static final class Result {
+
+        private final @Getter Path path;
+        private final @Getter long byteCount;
+        private final @Getter long fileSize;
+        private final @Getter boolean resumed;
+
+        private Result(Path path, long byteCount, long fileSize, boolean resumed) {
+            this.path = path;
+            this.byteCount = byteCount;
+            this.fileSize = fileSize;
+            this.resumed = resumed;
+        }
+    }
+
+    /**
+     * Writes the received buffers into the file using gathering writes, requesting the next buffers only after the previous ones are written
+     */
+    private final class FileBodySubscriber implements HttpResponse.BodySubscriber<Result> {
+
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private final long position;
+        private final long totalBytes;
+
+        private FileChannel fileChannel;
+        private Flow.Subscription subscription;
+        private long byteCount;
+
+        private FileBodySubscriber(long position, long totalBytes) {
+            this.position = position;
+            this.totalBytes = totalBytes;
+        }
+
+        @Override
+        public CompletionStage<Result> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+
+            try {
+                fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                // Drops the rest of the file, e.g. when the server ignored the range and sends the whole body
+                fileChannel.truncate(position);
+                fileChannel.position(position);
+            } catch (IOException exception) {
+                subscription.cancel();
+                fail(exception);
+                return;
+            }
+
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            try {
+                ByteBuffer[] byteBuffers = item.toArray(new ByteBuffer[0]);
+                long length = 0;
+
+                for (ByteBuffer byteBuffer : byteBuffers) {
+                    length += byteBuffer.remaining();
+                }
+
+                for (long written = 0; written < length; ) {
+                    written += fileChannel.write(byteBuffers);
+                }
+
+                byteCount += length;
+            } catch (IOException exception) {
+                subscription.cancel();
+                fail(exception);
+                return;
+            }
+
+            if (progressListener != null) {
+                progressListener.onProgress(position + byteCount, totalBytes);
+            }
+
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                fileChannel.close();
+            } catch (IOException exception) {
+                fail(exception);
+                return;
+            }
+
+            result.complete(new Result(path, byteCount, position + byteCount, position > 0));
+        }
+
+        private void fail(Throwable throwable) {
+            if (fileChannel != null) {
+                try {
+                    fileChannel.close();
+                } catch (IOException exception) {
+                    throwable.addSuppressed(exception);
+                }
+            }
+
+            result.completeExceptionally(throwable);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+/**
+ * Response of a {@link FileDownload}. Exposes the path of the file and the number of written bytes instead of the content.<br>If the response was
+ * not successful, nothing is written and {@link #getPath()} is null.
+ */
+public class FileResponse extends DeserializableApiResponse<WrappedApi> {
+
+    private @Getter Path path;
+    private @Getter long byteCount = -1;
+    private @Getter long fileSize = -1;
+    private @Getter boolean resumed;
+
+    /**
+     * Creates empty {@link FileResponse}, it is filled by {@link #deserialize(ApiRequest, HttpResponse)}
+     */
+    public FileResponse() {
+    }
+
+    /**
+     * Fills this response with the {@link FileDownload.Result} body.
+     *
+     * @param apiRequest   The API request.
+     * @param httpResponse The HTTP response.
+     *
+     * @return This response
+     *
+     * @throws IllegalArgumentException If the request does not have {@link FileDownload}.
+     */
+    @Override
+    public Object deserialize(ApiRequest<?> apiRequest, HttpResponse<?> httpResponse) {
+        Object responseBody = httpResponse.body();
+
+        if (responseBody == null) {
+            return this;
+        }
+
+        if (!(responseBody instanceof FileDownload.Result)) {
+            throw new IllegalArgumentException("FileResponse requires request with FileDownload, response body is: " + responseBody.getClass());
+        }
+
+        FileDownload.Result result = (FileDownload.Result) responseBody;
+        this.path = result.getPath();
+        this.byteCount = result.getByteCount();
+        this.fileSize = result.getFileSize();
+        this.resumed = result.isResumed();
+        return this;
+    }
+}
@@ -11,21 +11,28 @@ import java.net.http.HttpResponse;
 public abstract class GsonApiResponse<T extends WrappedApi> extends DeserializableApiResponse<T> {
 
     /**
-     * Get a Gson instance.
+     * Get a Gson instance. If the API is {@link GsonWrappedApi}, its shared {@link Gson} instance is used, otherwise a shared default instance.
      * @return A Gson instance.
      */
     public Gson getGson() {
-        return new Gson();
+        return GsonSupport.getGson(getWrappedApi());
     }
 
+    /**
+     * Deserializes the response body using {@link #getGson()}. String bodies are parsed directly, streamed bodies (e.g. from
+     * {@link HttpResponse.BodyHandlers#ofInputStream()}) are parsed while being read, without buffering the whole body in memory.
+     * @param apiRequest The API request.
+     * @param httpResponse The HTTP response.
+     * @return The deserialized object.
+     */
     @Override
     public Object deserialize(ApiRequest<?> apiRequest, HttpResponse<?> httpResponse) {
         Object responseBody = httpResponse.body();
 
-        if (!(responseBody instanceof String)) {
-            throw new IllegalArgumentException("Response body must be a string, currently is: " + responseBody.getClass());
+        if (responseBody instanceof String) {
+            return getGson().fromJson((String) responseBody, getClass());
         }
 
-        return getGson().fromJson((String) responseBody, getClass());
+        return GsonSupport.fromJson(getGson(), httpResponse, getClass());
     }
 }
@@ -0,0 +1,72 @@
+package dev.mayuna.simpleapi;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link Codec} of <code>application/json</code> using {@link Gson}. It also supports <code>text/json</code> and <code>+json</code> media types,
+ * e.g. <code>application/problem+json</code>. Bodies are encoded as UTF-8, directly into the buffer of the request body.<br>It is the default codec
+ * of {@link WrappedApi#createCodecRegistry()} if {@link Gson} is on the classpath.
+ */
+public class GsonCodec implements Codec {
+
+    /**
+     * Media type of JSON
+     */
+    public static final String MEDIA_TYPE = "application/json";
+
+    private final @Getter Gson gson;
+
+    /**
+     * Creates {@link GsonCodec}
+     *
+     * @param gson Non-null {@link Gson}, e.g. {@link GsonWrappedApi#getGson()}
+     */
+    public GsonCodec(@NonNull Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public boolean supportsMediaType(String mediaType) {
+        return mediaType.equals(MEDIA_TYPE) || mediaType.equals("text/json") || mediaType.endsWith("+json");
+    }
+
+    @Override
+    public void encode(Object value, OutputStream outputStream) throws IOException {
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+
+        try {
+            gson.toJson(value, writer);
+        } catch (JsonIOException exception) {
+            throw new IOException(exception.getMessage(), exception);
+        }
+
+        writer.flush();
+    }
+
+    @Override
+    public Object decode(HttpResponse<?> httpResponse, Type type) {
+        Object responseBody = httpResponse.body();
+
+        if (responseBody instanceof String) {
+            return gson.fromJson((String) responseBody, type);
+        }
+
+        return GsonSupport.fromJson(gson, httpResponse, type);
+    }
+}
@@ -0,0 +1,109 @@
+package dev.mayuna.simpleapi;
+
+import com.google.gson.Gson;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.http.HttpResponse;
+
+/**
+ * Implements {@link StreamingApiResponse} using {@link Gson} library. Supports both JSON array responses (<code>[{...}, {...}]</code>) and
+ * newline-delimited JSON responses (<code>{...}\n{...}</code>), elements are deserialized one by one while reading the body. Your class <strong>must
+ * have a constructor without any arguments</strong>.
+ * <pre>{@code
+ * public class UsersResponse extends GsonStreamingApiResponse<MyApi, User> {
+ * }
+ * }</pre>
+ *
+ * @param <T> The type of the API.
+ * @param <E> The type of the elements.
+ */
+public abstract class GsonStreamingApiResponse<T extends WrappedApi, E> extends StreamingApiResponse<T, E> {
+
+    private transient Gson gson;
+    private transient Type elementType;
+    private transient JsonReader jsonReader;
+    private transient boolean jsonArray;
+    private transient boolean empty;
+
+    /**
+     * Get a Gson instance. If the API is {@link GsonWrappedApi}, its shared {@link Gson} instance is used, otherwise a shared default instance.
+     *
+     * @return A Gson instance.
+     */
+    public Gson getGson() {
+        return GsonSupport.getGson(getWrappedApi());
+    }
+
+    /**
+     * Gets the type of the elements. By default, it is resolved from the type argument of your class, override this method if your class is
+     * generic.
+     *
+     * @return Non-null element type
+     */
+    public Type getElementType() {
+        Class<?> currentClass = getClass();
+
+        while (currentClass.getSuperclass() != GsonStreamingApiResponse.class) {
+            currentClass = currentClass.getSuperclass();
+        }
+
+        Type superclass = currentClass.getGenericSuperclass();
+
+        if (!(superclass instanceof ParameterizedType)) {
+            throw new IllegalStateException("Cannot resolve element type of " + getClass().getName() + ", override getElementType()");
+        }
+
+        return ((ParameterizedType) superclass).getActualTypeArguments()[1];
+    }
+
+    @Override
+    protected void openBody(ApiRequest<?> apiRequest, HttpResponse<?> httpResponse) throws IOException {
+        gson = getGson();
+        elementType = getElementType();
+        jsonReader = gson.newJsonReader(ResponseBodies.openReader(httpResponse));
+        // Lenient mode allows multiple top-level values, which is newline-delimited JSON
+        jsonReader.setStrictness(Strictness.LENIENT);
+
+        try {
+            jsonArray = jsonReader.peek() == JsonToken.BEGIN_ARRAY;
+        } catch (EOFException exception) {
+            empty = true;
+            return;
+        }
+
+        if (jsonArray) {
+            jsonReader.beginArray();
+        }
+    }
+
+    @Override
+    protected boolean hasNextElement() throws IOException {
+        if (empty) {
+            return false;
+        }
+
+        if (jsonArray) {
+            return jsonReader.hasNext();
+        }
+
+        return jsonReader.peek() != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    protected E readNextElement() throws IOException {
+        return gson.fromJson(jsonReader, elementType);
+    }
+
+    @Override
+    protected void closeBody() throws IOException {
+        if (jsonReader != null) {
+            jsonReader.close();
+        }
+    }
+}
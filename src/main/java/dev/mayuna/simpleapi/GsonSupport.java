@@ -0,0 +1,121 @@
+package dev.mayuna.simpleapi;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.http.HttpResponse;
+
+/**
+ * Access to {@link Gson}, which is an optional dependency. This class can be loaded even if {@link Gson} is not on the classpath, but only
+ * {@link #isAvailable()} may be called in that case. Always check it first.
+ */
+final class GsonSupport {
+
+    private static final boolean AVAILABLE = isClassPresent("com.google.gson.Gson");
+
+    private GsonSupport() {
+    }
+
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, GsonSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Determines if {@link Gson} is on the classpath.
+     *
+     * @return True if {@link Gson} can be used.
+     */
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Gets the {@link Gson} instance of the {@link WrappedApi}. If the {@link WrappedApi} is not {@link GsonWrappedApi}, a shared default
+     * {@link Gson} instance is returned.
+     *
+     * @param wrappedApi Nullable {@link WrappedApi}
+     *
+     * @return Non-null {@link Gson}
+     */
+    static Gson getGson(WrappedApi wrappedApi) {
+        if (wrappedApi instanceof GsonWrappedApi) {
+            return ((GsonWrappedApi) wrappedApi).getGson();
+        }
+
+        return Holder.GSON;
+    }
+
+    /**
+     * Creates the {@link GsonCodec} using the {@link Gson} instance of the {@link WrappedApi}.
+     *
+     * @param wrappedApi Nullable {@link WrappedApi}
+     *
+     * @return Non-null {@link Codec}
+     */
+    static Codec createCodec(WrappedApi wrappedApi) {
+        return new GsonCodec(getGson(wrappedApi));
+    }
+
+    /**
+     * Deserializes the JSON into the given type using the {@link Gson} instance of the {@link WrappedApi}.
+     *
+     * @param wrappedApi Nullable {@link WrappedApi}
+     * @param json       Non-null JSON
+     * @param type       Non-null type
+     *
+     * @return Deserialized object
+     */
+    static Object fromJson(WrappedApi wrappedApi, String json, Type type) {
+        return getGson(wrappedApi).fromJson(json, type);
+    }
+
+    /**
+     * Deserializes the response body into the given type using the {@link Gson} instance of the {@link WrappedApi}. The body is closed afterwards.
+     *
+     * @param wrappedApi   Nullable {@link WrappedApi}
+     * @param httpResponse Non-null {@link HttpResponse}
+     * @param type         Non-null type
+     *
+     * @return Deserialized object
+     */
+    static Object fromJson(WrappedApi wrappedApi, HttpResponse<?> httpResponse, Type type) {
+        Object responseBody = httpResponse.body();
+
+        if (responseBody instanceof String) {
+            return fromJson(wrappedApi, (String) responseBody, type);
+        }
+
+        return fromJson(getGson(wrappedApi), httpResponse, type);
+    }
+
+    /**
+     * Deserializes the response body into the given type while reading it, using {@link ResponseBodies#openReader(HttpResponse)}. The body is
+     * closed afterwards.
+     *
+     * @param gson         Non-null {@link Gson}
+     * @param httpResponse Non-null {@link HttpResponse}
+     * @param type         Non-null type
+     *
+     * @return Deserialized object
+     */
+    static Object fromJson(Gson gson, HttpResponse<?> httpResponse, Type type) {
+        try (Reader reader = ResponseBodies.openReader(httpResponse)) {
+            return gson.fromJson(gson.newJsonReader(reader), type);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static final class Holder {
+
+        private static final Gson GSON = new Gson();
+    }
+}
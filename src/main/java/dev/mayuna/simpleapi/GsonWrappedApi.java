@@ -0,0 +1,77 @@
+package dev.mayuna.simpleapi;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+
+/**
+ * {@link WrappedApi} which deserializes its responses using single shared {@link Gson} instance, so the {@link Gson}'s type adapter cache is kept
+ * between responses. Used by {@link GsonApiResponse} and by {@link #deserializeResponseBody(ApiRequest, java.net.http.HttpResponse, Type)}.
+ */
+public interface GsonWrappedApi extends WrappedApi {
+
+    /**
+     * Configures the {@link GsonBuilder} used to create the {@link Gson} instance of this API. You may override this method to set naming policies,
+     * register custom type adapters, etc.
+     *
+     * @param gsonBuilder The {@link GsonBuilder} to configure.
+     */
+    default void configureGson(GsonBuilder gsonBuilder) {
+    }
+
+    /**
+     * Creates the {@link Gson} instance of this API using {@link #configureGson(GsonBuilder)}.<br>This method is called only once, when the
+     * {@link Gson} instance is created.
+     *
+     * @return Non-null {@link Gson}
+     */
+    default Gson createGson() {
+        GsonBuilder gsonBuilder = new GsonBuilder();
+        configureGson(gsonBuilder);
+        return gsonBuilder.create();
+    }
+
+    /**
+     * Gets the shared {@link Gson} instance of this API. It is created once per {@link WrappedApi} instance using {@link #createGson()}.
+     *
+     * @return Non-null {@link Gson}
+     */
+    default Gson getGson() {
+        return WrappedApiState.of(this).getOrCreate(Gson.class, this::createGson);
+    }
+
+    /**
+     * Determines if {@link #prewarmGson()} should be called in {@link #start()}.
+     *
+     * @return True if the type adapters should be resolved on start. Defaults to true.
+     */
+    default boolean isPrewarmingGson() {
+        return true;
+    }
+
+    /**
+     * Resolves {@link Gson}'s type adapters of all {@link #getRegisteredResponseTypes()}, so the first response of each type is not slowed down by
+     * creating its type adapter.
+     */
+    default void prewarmGson() {
+        Gson gson = getGson();
+
+        for (Type responseType : getRegisteredResponseTypes()) {
+            gson.getAdapter(TypeToken.get(responseType));
+        }
+    }
+
+    /**
+     * Starts resources of this API and pre-warms the {@link Gson} instance, if {@link #isPrewarmingGson()} returns true.
+     */
+    @Override
+    default void start() {
+        WrappedApi.super.start();
+
+        if (isPrewarmingGson()) {
+            prewarmGson();
+        }
+    }
+}
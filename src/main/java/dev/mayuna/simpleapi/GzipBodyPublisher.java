@@ -0,0 +1,249 @@
+package dev.mayuna.simpleapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link HttpRequest.BodyPublisher} which compresses the wrapped body using gzip while it is being sent. The wrapped body is requested one buffer at
+ * a time, only when the compressed buffers were passed on, so at most about one buffer of the body is held on the heap. The content length is
+ * unknown, so the body is sent using chunked transfer encoding.
+ */
+final class GzipBodyPublisher implements HttpRequest.BodyPublisher {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final HttpRequest.BodyPublisher bodyPublisher;
+    private final Compression compression;
+
+    /**
+     * Creates {@link GzipBodyPublisher}
+     *
+     * @param bodyPublisher The wrapped body.
+     * @param compression   The compression, the statistics are recorded to it.
+     */
+    GzipBodyPublisher(HttpRequest.BodyPublisher bodyPublisher, Compression compression) {
+        this.bodyPublisher = bodyPublisher;
+        this.compression = compression;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        GzipSubscription gzipSubscription = new GzipSubscription(subscriber);
+        subscriber.onSubscribe(gzipSubscription);
+        bodyPublisher.subscribe(gzipSubscription);
+    }
+
+    /**
+     * Subscription of the downstream subscriber and subscriber of the wrapped body. The wrapped body is compressed in {@link #onNext(ByteBuffer)},
+     * the compressed buffers are passed to the downstream subscriber in {@link #drain()}.
+     */
+    private final class GzipSubscription implements Flow.Subscription, Flow.Subscriber<ByteBuffer> {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final Queue<ByteBuffer> compressedBuffers = new ConcurrentLinkedQueue<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger workInProgress = new AtomicInteger();
+        private final GZIPOutputStream gzipOutputStream;
+
+        private volatile Flow.Subscription subscription;
+        private volatile boolean requested;
+        private volatile boolean finished;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        private boolean terminated;
+        private byte[] copyBuffer;
+        private long uncompressedBytes;
+        private long compressedBytes;
+
+        private GzipSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+
+            try {
+                this.gzipOutputStream = new GZIPOutputStream(new OutputStream() {
+                    @Override
+                    public void write(int b) {
+                        write(new byte[] {(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] bytes, int offset, int length) {
+                        ByteBuffer compressedBuffer = ByteBuffer.allocate(length);
+                        compressedBuffer.put(bytes, offset, length).flip();
+                        compressedBytes += length;
+                        compressedBuffers.add(compressedBuffer);
+                    }
+                }, BUFFER_SIZE);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Could not compress request body", exception);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested non-positive number of items: " + n));
+                return;
+            }
+
+            demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Flow.Subscription subscription = this.subscription;
+
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+
+            if (cancelled) {
+                subscription.cancel();
+                return;
+            }
+
+            drain();
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            uncompressedBytes += item.remaining();
+
+            try {
+                if (item.hasArray()) {
+                    gzipOutputStream.write(item.array(), item.arrayOffset() + item.position(), item.remaining());
+                } else {
+                    if (copyBuffer == null) {
+                        copyBuffer = new byte[BUFFER_SIZE];
+                    }
+
+                    while (item.hasRemaining()) {
+                        int length = Math.min(item.remaining(), copyBuffer.length);
+                        item.get(copyBuffer, 0, length);
+                        gzipOutputStream.write(copyBuffer, 0, length);
+                    }
+                }
+            } catch (IOException exception) {
+                fail(new UncheckedIOException("Could not compress request body", exception));
+                return;
+            }
+
+            requested = false;
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                gzipOutputStream.close();
+            } catch (IOException exception) {
+                fail(new UncheckedIOException("Could not compress request body", exception));
+                return;
+            }
+
+            compression.recordRequest(uncompressedBytes, compressedBytes);
+            finished = true;
+            drain();
+        }
+
+        private void fail(Throwable throwable) {
+            error = throwable;
+            Flow.Subscription subscription = this.subscription;
+
+            if (subscription != null) {
+                subscription.cancel();
+            }
+
+            drain();
+        }
+
+        /**
+         * Passes the compressed buffers to the downstream subscriber and requests the next buffer of the wrapped body once all of them were passed on.
+         * Only one thread drains at a time, calls made while draining are repeated by the draining thread.
+         */
+        private void drain() {
+            if (workInProgress.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+
+            do {
+                if (!terminated) {
+                    if (cancelled) {
+                        terminated = true;
+                        compressedBuffers.clear();
+                    } else if (error != null) {
+                        terminated = true;
+                        compressedBuffers.clear();
+                        subscriber.onError(error);
+                    } else {
+                        emit();
+                    }
+                }
+
+                missed = workInProgress.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            // Read before polling, all compressed buffers are queued once it is set
+            boolean finished = this.finished;
+            long requestedItems = demand.get();
+            long emittedItems = 0;
+            ByteBuffer compressedBuffer;
+
+            while (emittedItems != requestedItems && (compressedBuffer = compressedBuffers.poll()) != null) {
+                subscriber.onNext(compressedBuffer);
+                emittedItems++;
+            }
+
+            if (emittedItems != 0 && requestedItems != Long.MAX_VALUE) {
+                demand.addAndGet(-emittedItems);
+            }
+
+            if (!compressedBuffers.isEmpty()) {
+                return;
+            }
+
+            if (finished) {
+                terminated = true;
+                subscriber.onComplete();
+                return;
+            }
+
+            Flow.Subscription subscription = this.subscription;
+
+            if (subscription != null && !requested && demand.get() > 0) {
+                requested = true;
+                subscription.request(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Settings of the {@link ManagedHttpClient}. Override {@link WrappedApi#getHttpClientSettings()} to change them.
+ */
+public class HttpClientSettings {
+
+    private @Getter HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+    private @Getter HttpClient.Redirect followRedirects = HttpClient.Redirect.NEVER;
+    private @Getter Duration connectTimeout = Duration.ofSeconds(10);
+    private @Getter Executor executor = null;
+    private @Getter Duration keepAliveTimeout = null;
+    private @Getter int maxConnectionPoolSize = 0;
+
+    /**
+     * Creates {@link HttpClientSettings} with default values
+     */
+    public HttpClientSettings() {
+    }
+
+    /**
+     * Sets the preferred HTTP version. Defaults to {@link HttpClient.Version#HTTP_2}, which falls back to HTTP/1.1 if the server does not support it.
+     *
+     * @param httpVersion The HTTP version.
+     *
+     * @return The {@link HttpClientSettings} instance.
+     */
+    public HttpClientSettings withHttpVersion(@NonNull HttpClient.Version httpVersion) {
+        this.httpVersion = httpVersion;
+        return this;
+    }
+
+    /**
+     * Sets the redirect policy. Defaults to {@link HttpClient.Redirect#NEVER}.
+     *
+     * @param followRedirects The redirect policy.
+     *
+     * @return The {@link HttpClientSettings} instance.
+     */
+    public HttpClientSettings withFollowRedirects(@NonNull HttpClient.Redirect followRedirects) {
+        this.followRedirects = followRedirects;
+        return this;
+    }
+
+    /**
+     * Sets the connect timeout. Defaults to 10 seconds.
+     *
+     * @param connectTimeout Nullable connect timeout. If null, the connect timeout is not limited.
+     *
+     * @return The {@link HttpClientSettings} instance.
+     */
+    public HttpClientSettings withConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the {@link Executor} used by the {@link HttpClient} for asynchronous tasks.
+     *
+     * @param executor Nullable executor. If null, the {@link HttpClient}'s default executor is used.
+     *
+     * @return The {@link HttpClientSettings} instance.
+     */
+    public HttpClientSettings withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets how long idle connections are kept in the connection pool.<br><br>Note: The JDK's {@link HttpClient} reads this setting from the
+     * {@code jdk.httpclient.keepalive.timeout} system property, which is JVM-wide and is only read once, before the first {@link HttpClient} is
+     * created. The property is not overwritten if it was already set.
+     *
+     * @param keepAliveTimeout Nullable keep alive timeout. If null, the JDK's default is used.
+     *
+     * @return The {@link HttpClientSettings} instance.
+     */
+    public HttpClientSettings withKeepAliveTimeout(Duration keepAliveTimeout) {
+        this.keepAliveTimeout = keepAliveTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of idle connections kept in the connection pool.<br><br>Note: The JDK's {@link HttpClient} reads this setting from
+     * the {@code jdk.httpclient.connectionPoolSize} system property, which is JVM-wide and is only read once, before the first {@link HttpClient} is
+     * created. The property is not overwritten if it was already set.
+     *
+     * @param maxConnectionPoolSize The maximum pool size. Zero or less means the JDK's default (unlimited).
+     *
+     * @return The {@link HttpClientSettings} instance.
+     */
+    public HttpClientSettings withMaxConnectionPoolSize(int maxConnectionPoolSize) {
+        this.maxConnectionPoolSize = maxConnectionPoolSize;
+        return this;
+    }
+}
@@ -0,0 +1,55 @@
+package dev.mayuna.simpleapi;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility methods for {@link HttpRequest}s
+ */
+final class HttpRequests {
+
+    private HttpRequests() {
+    }
+
+    /**
+     * Copies the {@link HttpRequest} and sets the given headers, replacing existing headers with the same names.
+     *
+     * @param httpRequest Non-null {@link HttpRequest}
+     * @param headers     Non-null headers to set
+     *
+     * @return Non-null copy of the {@link HttpRequest}
+     */
+    static HttpRequest withHeaders(HttpRequest httpRequest, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(httpRequest.uri())
+                                                 .method(httpRequest.method(), httpRequest.bodyPublisher().orElseGet(HttpRequest.BodyPublishers::noBody))
+                                                 .expectContinue(httpRequest.expectContinue());
+
+        httpRequest.timeout().ifPresent(builder::timeout);
+        httpRequest.version().ifPresent(builder::version);
+
+        for (Map.Entry<String, List<String>> header : httpRequest.headers().map().entrySet()) {
+            if (containsIgnoreCase(headers, header.getKey())) {
+                continue;
+            }
+
+            for (String value : header.getValue()) {
+                builder.header(header.getKey(), value);
+            }
+        }
+
+        headers.forEach(builder::header);
+
+        return builder.build();
+    }
+
+    private static boolean containsIgnoreCase(Map<String, String> headers, String name) {
+        for (String headerName : headers.keySet()) {
+            if (headerName.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,118 @@
+package dev.mayuna.simpleapi;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Utility methods for reading headers of {@link HttpResponse}s
+ */
+final class HttpResponses {
+
+    /**
+     * Values of <code>X-RateLimit-Reset</code> greater than this are epoch seconds, smaller are seconds from now
+     */
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    /**
+     * Maximum delay read from the headers. Longer delays, e.g. far-future dates or misconfigured servers, are capped, so the requests are not
+     * blocked forever and the delay can be converted to nanoseconds.
+     */
+    static final Duration MAX_DELAY = Duration.ofDays(1);
+
+    private HttpResponses() {
+    }
+
+    /**
+     * Gets the delay from the <code>Retry-After</code> header, which is either number of seconds or HTTP date.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     *
+     * @return Nullable non-negative delay capped to {@link #MAX_DELAY}, null if the header is missing or invalid.
+     */
+    static Duration getRetryAfter(HttpResponse<?> httpResponse) {
+        String value = httpResponse.headers().firstValue("Retry-After").orElse(null);
+
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return capped(Duration.ofSeconds(Long.parseLong(value.trim())));
+        } catch (NumberFormatException ignored) {
+            // Not number of seconds, may be HTTP date
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return capped(Duration.between(ZonedDateTime.now(date.getZone()), date));
+        } catch (DateTimeParseException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the value of the <code>X-RateLimit-Remaining</code> header.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     *
+     * @return Number of remaining requests, or -1 if the header is missing or invalid.
+     */
+    static long getRateLimitRemaining(HttpResponse<?> httpResponse) {
+        String value = httpResponse.headers().firstValue("X-RateLimit-Remaining").orElse(null);
+
+        if (value == null) {
+            return -1;
+        }
+
+        try {
+            return Math.max(0, (long) Double.parseDouble(value.trim()));
+        } catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the delay until the rate limit resets from the <code>X-RateLimit-Reset</code> header. Both epoch seconds and seconds from now are
+     * supported.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     *
+     * @return Nullable non-negative delay capped to {@link #MAX_DELAY}, null if the header is missing or invalid.
+     */
+    static Duration getRateLimitReset(HttpResponse<?> httpResponse) {
+        String value = httpResponse.headers().firstValue("X-RateLimit-Reset").orElse(null);
+
+        if (value == null) {
+            return null;
+        }
+
+        double seconds;
+
+        try {
+            seconds = Double.parseDouble(value.trim());
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+
+        if (seconds > EPOCH_SECONDS_THRESHOLD) {
+            seconds -= System.currentTimeMillis() / 1000d;
+        }
+
+        if (Double.isNaN(seconds)) {
+            return null;
+        }
+
+        return capped(Duration.ofMillis((long) (Math.min(seconds, MAX_DELAY.getSeconds()) * 1000)));
+    }
+
+    private static Duration capped(Duration duration) {
+        if (duration.isNegative()) {
+            return Duration.ZERO;
+        }
+
+        return duration.compareTo(MAX_DELAY) > 0 ? MAX_DELAY : duration;
+    }
+}
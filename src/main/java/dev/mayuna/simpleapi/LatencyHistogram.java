@@ -0,0 +1,187 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed buckets. Each power of two from 1 microsecond to about 137 seconds is split into two buckets, so the
+ * relative error of the percentiles is at most 50 %. Recording is a few bit operations and one {@link LongAdder} increment, so it is cheap even
+ * under high contention.
+ */
+public class LatencyHistogram {
+
+    private static final int MIN_POWER = 10;
+    private static final int MAX_POWER = 36;
+    private static final int BUCKET_COUNT = (MAX_POWER - MIN_POWER + 1) * 2 + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates empty {@link LatencyHistogram}
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the latency.
+     *
+     * @param nanos Latency in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+
+        buckets[getBucketIndex(value)].increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Creates a snapshot of the histogram. Concurrent recording may be partially included.
+     *
+     * @return Non-null {@link Snapshot}
+     */
+    public Snapshot getSnapshot() {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+
+        return new Snapshot(counts, count, totalNanos.sum(), maxNanos.get());
+    }
+
+    private static int getBucketIndex(long nanos) {
+        if (nanos < (1L << MIN_POWER)) {
+            return 0;
+        }
+
+        int power = 63 - Long.numberOfLeadingZeros(nanos);
+
+        if (power > MAX_POWER) {
+            return BUCKET_COUNT - 1;
+        }
+
+        int upperHalf = (int) (nanos >>> (power - 1)) & 1;
+        return (power - MIN_POWER) * 2 + upperHalf + 1;
+    }
+
+    private static long getBucketUpperBound(int bucketIndex) {
+        if (bucketIndex == 0) {
+            return 1L << MIN_POWER;
+        }
+
+        if (bucketIndex == BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        int power = (bucketIndex - 1) / 2 + MIN_POWER;
+        int upperHalf = (bucketIndex - 1) % 2;
+        return (1L << power) + ((long) (upperHalf + 1) << (power - 1));
+    }
+
+    /**
+     * Immutable snapshot of {@link LatencyHistogram}
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final @Getter long count;
+        private final @Getter long totalNanos;
+        private final @Getter long maxNanos;
+
+        private Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * Gets the mean latency.
+         *
+         * @return Non-null mean latency, zero if nothing was recorded.
+         */
+        public Duration getMean() {
+            return Duration.ofNanos(count == 0 ? 0 : totalNanos / count);
+        }
+
+        /**
+         * Gets the maximum latency.
+         *
+         * @return Non-null maximum latency, zero if nothing was recorded.
+         */
+        public Duration getMax() {
+            return Duration.ofNanos(maxNanos);
+        }
+
+        /**
+         * Gets the latency percentile - the upper bound of the bucket containing the percentile, capped by the maximum latency.
+         *
+         * @param percentile Percentile between 0 and 100, e.g. 99.
+         *
+         * @return Non-null latency, zero if nothing was recorded.
+         */
+        public Duration getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100, currently is: " + percentile);
+            }
+
+            if (count == 0) {
+                return Duration.ZERO;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long cumulativeCount = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                cumulativeCount += counts[i];
+
+                if (cumulativeCount >= rank) {
+                    return Duration.ofNanos(Math.min(getBucketUpperBound(i), maxNanos));
+                }
+            }
+
+            return Duration.ofNanos(maxNanos);
+        }
+
+        /**
+         * Gets the number of recorded latencies in each bucket.
+         *
+         * @return Non-null copy of the bucket counts.
+         */
+        public long[] getBucketCounts() {
+            return counts.clone();
+        }
+
+        /**
+         * Gets the upper bounds of the buckets in nanoseconds, in the same order as {@link #getBucketCounts()}. The last bucket is unbounded.
+         *
+         * @return Non-null bucket upper bounds
+         */
+        public long[] getBucketUpperBounds() {
+            long[] upperBounds = new long[counts.length];
+
+            for (int i = 0; i < upperBounds.length; i++) {
+                upperBounds[i] = getBucketUpperBound(i);
+            }
+
+            return upperBounds;
+        }
+
+        @Override
+        public String toString() {
+            return "LatencyHistogram.Snapshot{count=" + count + ", mean=" + getMean() + ", p50=" + getPercentile(50) + ", p99=" + getPercentile(99) +
+                    ", max=" + getMax() + "}";
+        }
+    }
+}
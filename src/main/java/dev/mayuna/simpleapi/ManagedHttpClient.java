@@ -0,0 +1,131 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.net.http.HttpClient;
+
+/**
+ * Manages single shared {@link HttpClient} of a {@link WrappedApi}, so all requests reuse its connection pool, TLS sessions and selector
+ * thread.<br>The {@link HttpClient} is created lazily on first use, or by calling {@link #start()}. After {@link #close()}, the client cannot be
+ * used anymore.
+ */
+public class ManagedHttpClient implements AutoCloseable {
+
+    private final @Getter HttpClientSettings settings;
+
+    private volatile HttpClient httpClient;
+    private volatile @Getter boolean closed;
+
+    /**
+     * Creates {@link ManagedHttpClient} with the given settings. The {@link HttpClient} is not created until {@link #start()} is called.
+     *
+     * @param settings Non-null {@link HttpClientSettings}
+     */
+    public ManagedHttpClient(@NonNull HttpClientSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Creates the {@link HttpClient}, if it was not created yet.
+     *
+     * @return The {@link ManagedHttpClient} instance.
+     *
+     * @throws IllegalStateException If this {@link ManagedHttpClient} was closed.
+     */
+    public synchronized ManagedHttpClient start() {
+        if (closed) {
+            throw new IllegalStateException("ManagedHttpClient was already closed");
+        }
+
+        if (httpClient == null) {
+            httpClient = createHttpClient();
+        }
+
+        return this;
+    }
+
+    /**
+     * Determines if the {@link HttpClient} was created and not closed yet.
+     *
+     * @return True if started.
+     */
+    public boolean isStarted() {
+        return httpClient != null;
+    }
+
+    /**
+     * Gets the shared {@link HttpClient}, starting this {@link ManagedHttpClient} if necessary.
+     *
+     * @return Non-null {@link HttpClient}
+     *
+     * @throws IllegalStateException If this {@link ManagedHttpClient} was closed.
+     */
+    public HttpClient getHttpClient() {
+        HttpClient currentHttpClient = httpClient;
+
+        if (currentHttpClient != null) {
+            return currentHttpClient;
+        }
+
+        return start().httpClient;
+    }
+
+    /**
+     * Creates the {@link HttpClient} from the {@link HttpClientSettings}.
+     *
+     * @return Non-null {@link HttpClient}
+     */
+    protected HttpClient createHttpClient() {
+        applyConnectionPoolProperties();
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                                               .version(settings.getHttpVersion())
+                                               .followRedirects(settings.getFollowRedirects());
+
+        if (settings.getConnectTimeout() != null) {
+            builder.connectTimeout(settings.getConnectTimeout());
+        }
+
+        if (settings.getExecutor() != null) {
+            builder.executor(settings.getExecutor());
+        }
+
+        return builder.build();
+    }
+
+    private void applyConnectionPoolProperties() {
+        if (settings.getKeepAliveTimeout() != null && System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(Math.max(1, settings.getKeepAliveTimeout().toSeconds())));
+        }
+
+        if (settings.getMaxConnectionPoolSize() > 0 && System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+            System.setProperty("jdk.httpclient.connectionPoolSize", String.valueOf(settings.getMaxConnectionPoolSize()));
+        }
+    }
+
+    /**
+     * Closes the {@link HttpClient}. On Java 21 and newer, this waits for the in-flight requests to finish. On older versions, the
+     * {@link HttpClient} is released and its selector thread stops once it is garbage collected.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        HttpClient closingHttpClient = httpClient;
+        httpClient = null;
+
+        //noinspection ConstantValue
+        if (closingHttpClient instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) closingHttpClient).close();
+            } catch (Exception ignored) {
+                // The client is discarded anyway
+            }
+        }
+    }
+}
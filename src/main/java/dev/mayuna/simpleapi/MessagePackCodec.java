@@ -0,0 +1,434 @@
+package dev.mayuna.simpleapi;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * {@link Codec} of <code>application/msgpack</code>, the compact binary <a href="https://msgpack.org">MessagePack</a> format. Objects are mapped
+ * by {@link Gson} - its type adapters, naming policies etc. apply the same way as for JSON, but no JSON text is produced or parsed: the values are
+ * written as MessagePack maps, arrays, integers, floats and strings.<br>Binary values (<code>bin</code>) are decoded as arrays of bytes, so they
+ * can be deserialized into <code>byte[]</code>. Extension types are not supported.
+ */
+public class MessagePackCodec implements Codec {
+
+    /**
+     * Media type of MessagePack
+     */
+    public static final String MEDIA_TYPE = "application/msgpack";
+
+    private static final int MAX_DEPTH = 512;
+
+    private final @Getter Gson gson;
+
+    /**
+     * Creates {@link MessagePackCodec}
+     *
+     * @param gson Non-null {@link Gson}, which maps the objects, e.g. {@link GsonWrappedApi#getGson()}
+     */
+    public MessagePackCodec(@NonNull Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public boolean supportsMediaType(String mediaType) {
+        return mediaType.equals(MEDIA_TYPE) || mediaType.equals("application/x-msgpack") || mediaType.equals("application/vnd.msgpack");
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public void encode(Object value, OutputStream outputStream) throws IOException {
+        JsonElement jsonElement;
+
+        try {
+            jsonElement = gson.toJsonTree(value);
+        } catch (JsonParseException exception) {
+            throw new IOException(exception.getMessage(), exception);
+        }
+
+        new Encoder(outputStream).write(jsonElement);
+    }
+
+    @Override
+    public Object decode(HttpResponse<?> httpResponse, Type type) throws IOException {
+        Object responseBody = httpResponse.body();
+
+        if (responseBody instanceof String) {
+            throw new IOException("MessagePack response body was received as String, use byte[] or InputStream body handler");
+        }
+
+        JsonElement jsonElement;
+
+        try (InputStream inputStream = ResponseBodies.openInputStream(httpResponse)) {
+            boolean buffered = responseBody instanceof byte[] || responseBody instanceof PooledBody;
+            Decoder decoder = new Decoder(buffered ? inputStream : new BufferedInputStream(inputStream));
+            int prefix = decoder.inputStream.read();
+
+            if (prefix == -1) {
+                // Empty body, e.g. 204 No Content
+                return null;
+            }
+
+            jsonElement = decoder.read(prefix, 0);
+
+            if (decoder.inputStream.read() != -1) {
+                throw new IOException("MessagePack response body contains data after the value");
+            }
+        }
+
+        try {
+            return gson.fromJson(jsonElement, type);
+        } catch (JsonParseException exception) {
+            throw new IOException(exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Writes {@link JsonElement}s in MessagePack format
+     */
+    private static final class Encoder {
+
+        private final OutputStream outputStream;
+        private final byte[] scratch = new byte[9];
+
+        private Encoder(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        private void write(JsonElement jsonElement) throws IOException {
+            if (jsonElement == null || jsonElement.isJsonNull()) {
+                outputStream.write(0xC0);
+            } else if (jsonElement.isJsonObject()) {
+                JsonObject jsonObject = jsonElement.getAsJsonObject();
+                writeHeader(jsonObject.size(), 0x80, 16, 0xDE, 0xDF);
+
+                for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+                    writeString(entry.getKey());
+                    write(entry.getValue());
+                }
+            } else if (jsonElement.isJsonArray()) {
+                JsonArray jsonArray = jsonElement.getAsJsonArray();
+                writeHeader(jsonArray.size(), 0x90, 16, 0xDC, 0xDD);
+
+                for (JsonElement element : jsonArray) {
+                    write(element);
+                }
+            } else {
+                JsonPrimitive jsonPrimitive = jsonElement.getAsJsonPrimitive();
+
+                if (jsonPrimitive.isBoolean()) {
+                    outputStream.write(jsonPrimitive.getAsBoolean() ? 0xC3 : 0xC2);
+                } else if (jsonPrimitive.isNumber()) {
+                    writeNumber(jsonPrimitive.getAsNumber());
+                } else {
+                    writeString(jsonPrimitive.getAsString());
+                }
+            }
+        }
+
+        private void writeNumber(Number number) throws IOException {
+            if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+                writeInteger(number.longValue());
+            } else if (number instanceof Float) {
+                scratch[0] = (byte) 0xCA;
+                writeBigEndian(Float.floatToIntBits(number.floatValue()), 4);
+            } else if (number instanceof Double) {
+                writeDouble(number.doubleValue());
+            } else {
+                // BigInteger, BigDecimal, lazily parsed numbers etc.
+                BigDecimal bigDecimal = new BigDecimal(number.toString());
+
+                try {
+                    writeInteger(bigDecimal.longValueExact());
+                } catch (ArithmeticException exception) {
+                    if (bigDecimal.signum() > 0 && bigDecimal.scale() <= 0 && bigDecimal.toBigInteger().bitLength() <= 64) {
+                        scratch[0] = (byte) 0xCF;
+                        writeBigEndian(bigDecimal.toBigInteger().longValue(), 8);
+                    } else {
+                        writeDouble(bigDecimal.doubleValue());
+                    }
+                }
+            }
+        }
+
+        private void writeInteger(long value) throws IOException {
+            if (value >= -32 && value <= 127) {
+                outputStream.write((int) value);
+            } else if (value >= 0) {
+                if (value <= 0xFF) {
+                    scratch[0] = (byte) 0xCC;
+                    writeBigEndian(value, 1);
+                } else if (value <= 0xFFFF) {
+                    scratch[0] = (byte) 0xCD;
+                    writeBigEndian(value, 2);
+                } else if (value <= 0xFFFFFFFFL) {
+                    scratch[0] = (byte) 0xCE;
+                    writeBigEndian(value, 4);
+                } else {
+                    scratch[0] = (byte) 0xCF;
+                    writeBigEndian(value, 8);
+                }
+            } else if (value >= Byte.MIN_VALUE) {
+                scratch[0] = (byte) 0xD0;
+                writeBigEndian(value, 1);
+            } else if (value >= Short.MIN_VALUE) {
+                scratch[0] = (byte) 0xD1;
+                writeBigEndian(value, 2);
+            } else if (value >= Integer.MIN_VALUE) {
+                scratch[0] = (byte) 0xD2;
+                writeBigEndian(value, 4);
+            } else {
+                scratch[0] = (byte) 0xD3;
+                writeBigEndian(value, 8);
+            }
+        }
+
+        private void writeDouble(double value) throws IOException {
+            scratch[0] = (byte) 0xCB;
+            writeBigEndian(Double.doubleToLongBits(value), 8);
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            if (bytes.length < 32) {
+                outputStream.write(0xA0 | bytes.length);
+            } else if (bytes.length <= 0xFF) {
+                scratch[0] = (byte) 0xD9;
+                writeBigEndian(bytes.length, 1);
+            } else {
+                writeHeader(bytes.length, 0, 0, 0xDA, 0xDB);
+            }
+
+            outputStream.write(bytes);
+        }
+
+        /**
+         * Writes the header of map, array or string
+         */
+        private void writeHeader(int size, int fixPrefix, int fixLimit, int prefix16, int prefix32) throws IOException {
+            if (size < fixLimit) {
+                outputStream.write(fixPrefix | size);
+            } else if (size <= 0xFFFF) {
+                scratch[0] = (byte) prefix16;
+                writeBigEndian(size, 2);
+            } else {
+                scratch[0] = (byte) prefix32;
+                writeBigEndian(size, 4);
+            }
+        }
+
+        /**
+         * Writes the prefix in the scratch and the value in big-endian order
+         */
+        private void writeBigEndian(long value, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                scratch[length - i] = (byte) (value >>> (8 * i));
+            }
+
+            outputStream.write(scratch, 0, length + 1);
+        }
+    }
+
+    /**
+     * Reads MessagePack values into {@link JsonElement}s
+     */
+    private static final class Decoder {
+
+        private final InputStream inputStream;
+
+        private Decoder(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        private JsonElement read(int depth) throws IOException {
+            return read(readByte(), depth);
+        }
+
+        private JsonElement read(int prefix, int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new IOException("MessagePack value is nested too deeply");
+            }
+
+            if (prefix <= 0x7F) {
+                return new JsonPrimitive(prefix);
+            }
+
+            if (prefix >= 0xE0) {
+                return new JsonPrimitive((byte) prefix);
+            }
+
+            if (prefix <= 0x8F) {
+                return readMap(prefix & 0x0F, depth);
+            }
+
+            if (prefix <= 0x9F) {
+                return readArray(prefix & 0x0F, depth);
+            }
+
+            if (prefix <= 0xBF) {
+                return new JsonPrimitive(readString(prefix & 0x1F));
+            }
+
+            switch (prefix) {
+                case 0xC0:
+                    return JsonNull.INSTANCE;
+                case 0xC2:
+                    return new JsonPrimitive(false);
+                case 0xC3:
+                    return new JsonPrimitive(true);
+                case 0xC4:
+                    return readBinary(readLength(1));
+                case 0xC5:
+                    return readBinary(readLength(2));
+                case 0xC6:
+                    return readBinary(readLength(4));
+                case 0xCA:
+                    return new JsonPrimitive(Float.intBitsToFloat((int) readBigEndian(4)));
+                case 0xCB:
+                    return new JsonPrimitive(Double.longBitsToDouble(readBigEndian(8)));
+                case 0xCC:
+                    return new JsonPrimitive((int) readBigEndian(1));
+                case 0xCD:
+                    return new JsonPrimitive((int) readBigEndian(2));
+                case 0xCE:
+                    return new JsonPrimitive(readBigEndian(4));
+                case 0xCF:
+                    long unsigned = readBigEndian(8);
+                    return new JsonPrimitive(unsigned >= 0 ? (Number) unsigned : new BigInteger(Long.toUnsignedString(unsigned)));
+                case 0xD0:
+                    return new JsonPrimitive((byte) readBigEndian(1));
+                case 0xD1:
+                    return new JsonPrimitive((short) readBigEndian(2));
+                case 0xD2:
+                    return new JsonPrimitive((int) readBigEndian(4));
+                case 0xD3:
+                    return new JsonPrimitive(readBigEndian(8));
+                case 0xD9:
+                    return new JsonPrimitive(readString(readLength(1)));
+                case 0xDA:
+                    return new JsonPrimitive(readString(readLength(2)));
+                case 0xDB:
+                    return new JsonPrimitive(readString(readLength(4)));
+                case 0xDC:
+                    return readArray(readLength(2), depth);
+                case 0xDD:
+                    return readArray(readLength(4), depth);
+                case 0xDE:
+                    return readMap(readLength(2), depth);
+                case 0xDF:
+                    return readMap(readLength(4), depth);
+                default:
+                    throw new IOException("Unsupported MessagePack type 0x" + Integer.toHexString(prefix));
+            }
+        }
+
+        private JsonObject readMap(int size, int depth) throws IOException {
+            JsonObject jsonObject = new JsonObject();
+
+            for (int i = 0; i < size; i++) {
+                JsonElement key = read(depth + 1);
+
+                if (!key.isJsonPrimitive()) {
+                    throw new IOException("MessagePack map keys must be strings, numbers or booleans");
+                }
+
+                jsonObject.add(key.getAsString(), read(depth + 1));
+            }
+
+            return jsonObject;
+        }
+
+        private JsonArray readArray(int size, int depth) throws IOException {
+            JsonArray jsonArray = new JsonArray(Math.min(size, 1024));
+
+            for (int i = 0; i < size; i++) {
+                jsonArray.add(read(depth + 1));
+            }
+
+            return jsonArray;
+        }
+
+        private JsonArray readBinary(int length) throws IOException {
+            byte[] bytes = readBytes(length);
+            JsonArray jsonArray = new JsonArray(bytes.length);
+
+            for (byte value : bytes) {
+                jsonArray.add(value);
+            }
+
+            return jsonArray;
+        }
+
+        private String readString(int length) throws IOException {
+            return new String(readBytes(length), StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes(int length) throws IOException {
+            byte[] bytes = inputStream.readNBytes(length);
+
+            if (bytes.length < length) {
+                throw new EOFException("MessagePack response body is truncated");
+            }
+
+            return bytes;
+        }
+
+        private int readLength(int byteCount) throws IOException {
+            long length = readBigEndian(byteCount);
+
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IOException("MessagePack value is too large");
+            }
+
+            return (int) length;
+        }
+
+        private long readBigEndian(int byteCount) throws IOException {
+            long value = 0;
+
+            for (int i = 0; i < byteCount; i++) {
+                value = (value << 8) | readByte();
+            }
+
+            return value;
+        }
+
+        private int readByte() throws IOException {
+            int value = inputStream.read();
+
+            if (value == -1) {
+                throw new EOFException("MessagePack response body is truncated");
+            }
+
+            return value;
+        }
+    }
+}
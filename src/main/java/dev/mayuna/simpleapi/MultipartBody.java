@@ -0,0 +1,215 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+/**
+ * Streaming <code>multipart/form-data</code> body, set by {@link ApiRequestBuilder#withMultipartBody(MultipartBody)}. The parts are read one after
+ * another while the body is being sent, so files are not loaded on the heap.
+ * <pre>{@code
+ * MultipartBody multipartBody = new MultipartBody().withPart("description", "Monthly import")
+ *                                                  .withFilePart("file", Path.of("import.csv"), "text/csv");
+ * }</pre>
+ */
+public class MultipartBody {
+
+    private final @Getter String boundary;
+    private final List<Part> parts = new ArrayList<>();
+
+    /**
+     * Creates empty {@link MultipartBody} with random boundary
+     */
+    public MultipartBody() {
+        this("----SimpleJavaApiWrapper" + UUID.randomUUID().toString().replace("-", ""));
+    }
+
+    /**
+     * Creates empty {@link MultipartBody}
+     *
+     * @param boundary Non-null boundary, which must not occur in any part
+     */
+    public MultipartBody(@NonNull String boundary) {
+        this.boundary = boundary;
+    }
+
+    /**
+     * Adds text part.
+     *
+     * @param name  Non-null name of the part
+     * @param value Non-null value, sent as UTF-8
+     *
+     * @return This {@link MultipartBody}
+     */
+    public MultipartBody withPart(@NonNull String name, @NonNull String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        parts.add(new Part(name, null, "text/plain; charset=UTF-8", () -> new ByteArrayInputStream(bytes)));
+        return this;
+    }
+
+    /**
+     * Adds file part. The file is read while the body is being sent.
+     *
+     * @param name        Non-null name of the part
+     * @param path        Non-null path of the file
+     * @param contentType Non-null content type of the file, e.g. <code>application/octet-stream</code>
+     *
+     * @return This {@link MultipartBody}
+     */
+    public MultipartBody withFilePart(@NonNull String name, @NonNull Path path, @NonNull String contentType) {
+        parts.add(new Part(name, path.getFileName().toString(), contentType, () -> {
+            try {
+                return Files.newInputStream(path);
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Could not open " + path, exception);
+            }
+        }));
+        return this;
+    }
+
+    /**
+     * Adds part with content from the stream supplier. The supplier is called each time the body is sent, e.g. again when the request is retried.
+     *
+     * @param name                Non-null name of the part
+     * @param fileName            Nullable file name
+     * @param contentType         Non-null content type of the part
+     * @param inputStreamSupplier Non-null supplier of the content, the stream is closed after it is read.
+     *
+     * @return This {@link MultipartBody}
+     */
+    public MultipartBody withStreamPart(@NonNull String name, String fileName, @NonNull String contentType, @NonNull Supplier<InputStream> inputStreamSupplier) {
+        parts.add(new Part(name, fileName, contentType, inputStreamSupplier));
+        return this;
+    }
+
+    /**
+     * Gets the value of the <code>Content-Type</code> header.
+     *
+     * @return Non-null content type with the boundary
+     */
+    public String getContentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    /**
+     * Creates the streaming {@link HttpRequest.BodyPublisher} of the parts. The content length is unknown, so the body is sent using chunked
+     * transfer encoding.
+     *
+     * @return Non-null {@link HttpRequest.BodyPublisher}
+     */
+    public HttpRequest.BodyPublisher createBodyPublisher() {
+        List<Part> parts = new ArrayList<>(this.parts);
+        return new MultipartBodyPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> new SequenceInputStream(createStreams(parts))));
+    }
+
+    private Enumeration<InputStream> createStreams(List<Part> parts) {
+        Iterator<Part> partIterator = parts.iterator();
+
+        // Streams of the parts are opened lazily, when the previous part is sent
+        return new Enumeration<>() {
+            private int state;
+            private Part part;
+
+            @Override
+            public boolean hasMoreElements() {
+                return state != 3;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                switch (state) {
+                    case 0:
+                        if (!partIterator.hasNext()) {
+                            state = 3;
+                            return toStream("--" + boundary + "--\r\n");
+                        }
+
+                        part = partIterator.next();
+                        state = 1;
+                        return toStream("--" + boundary + "\r\n" + part.getHeaders());
+                    case 1:
+                        state = 2;
+                        return part.inputStreamSupplier.get();
+                    case 2:
+                        state = 0;
+                        return toStream("\r\n");
+                    default:
+                        throw new NoSuchElementException();
+                }
+            }
+        };
+    }
+
+    private static InputStream toStream(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class Part {
+
+        private final String name;
+        private final String fileName;
+        private final String contentType;
+        private final Supplier<InputStream> inputStreamSupplier;
+
+        private Part(String name, String fileName, String contentType, Supplier<InputStream> inputStreamSupplier) {
+            this.name = name;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.inputStreamSupplier = inputStreamSupplier;
+        }
+
+        private String getHeaders() {
+            String contentDisposition = "Content-Disposition: form-data; name=\"" + escape(name) + "\"";
+
+            if (fileName != null) {
+                contentDisposition += "; filename=\"" + escape(fileName) + "\"";
+            }
+
+            return contentDisposition + "\r\nContent-Type: " + contentType + "\r\n\r\n";
+        }
+
+        private static String escape(String value) {
+            return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+        }
+    }
+
+    /**
+     * Streaming body of the parts, never compressed by {@link Compression}
+     */
+    private static final class MultipartBodyPublisher implements Compression.UncompressedBodyPublisher {
+
+        private final HttpRequest.BodyPublisher bodyPublisher;
+
+        private MultipartBodyPublisher(HttpRequest.BodyPublisher bodyPublisher) {
+            this.bodyPublisher = bodyPublisher;
+        }
+
+        @Override
+        public long contentLength() {
+            return bodyPublisher.contentLength();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            bodyPublisher.subscribe(subscriber);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package dev.mayuna.simpleapi;
+
+import lombok.NonNull;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Derives the request of the next page from the response of the current page. Used by {@link ApiRequestBuilder#paginate(PaginationStrategy)}.
+ * <pre>{@code
+ * Paginator<UsersResponse> pages = ApiRequest.builder(api, UsersResponse.class)
+ *                                           .withEndpoint("/users")
+ *                                           .withRequestMethod(RequestMethod.GET)
+ *                                           .paginate(PaginationStrategy.cursor("cursor", UsersResponse::getNextCursor), 2);
+ * }</pre>
+ *
+ * @param <T> The type of the response.
+ */
+@FunctionalInterface
+public interface PaginationStrategy<T> {
+
+    /**
+     * Strategy using a cursor query parameter. The cursor of the next page is read from the response and set as the query parameter.
+     *
+     * @param queryName  Non-null name of the cursor query parameter.
+     * @param nextCursor Non-null function returning the cursor of the next page, or null or empty string if there are no more pages.
+     * @param <T>        The type of the response.
+     *
+     * @return Non-null {@link PaginationStrategy}
+     */
+    static <T> PaginationStrategy<T> cursor(@NonNull String queryName, @NonNull Function<T, String> nextCursor) {
+        return (nextPageBuilder, response, pageIndex) -> {
+            String cursor = nextCursor.apply(response);
+
+            if (cursor == null || cursor.isEmpty()) {
+                return false;
+            }
+
+            nextPageBuilder.withoutRequestQuery(queryName).withRequestQuery(RequestQuery.of(queryName, cursor));
+            return true;
+        };
+    }
+
+    /**
+     * Strategy using offset and limit query parameters. The first page starts at offset zero and the pagination ends with a page smaller than the
+     * limit.
+     *
+     * @param offsetQueryName Non-null name of the offset query parameter.
+     * @param limitQueryName  Non-null name of the limit query parameter.
+     * @param limit           Positive number of items per page.
+     * @param pageSize        Non-null function returning the number of items of the page.
+     * @param <T>             The type of the response.
+     *
+     * @return Non-null {@link PaginationStrategy}
+     */
+    static <T> PaginationStrategy<T> offset(@NonNull String offsetQueryName, @NonNull String limitQueryName, int limit, @NonNull ToIntFunction<T> pageSize) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive, currently is: " + limit);
+        }
+
+        return new PaginationStrategy<>() {
+            @Override
+            public void prepareFirstPage(ApiRequestBuilder<T> firstPageBuilder) {
+                setOffset(firstPageBuilder, 0);
+            }
+
+            @Override
+            public boolean prepareNextPage(ApiRequestBuilder<T> nextPageBuilder, T response, int pageIndex) {
+                if (pageSize.applyAsInt(response) < limit) {
+                    return false;
+                }
+
+                setOffset(nextPageBuilder, (long) (pageIndex + 1) * limit);
+                return true;
+            }
+
+            private void setOffset(ApiRequestBuilder<T> builder, long offset) {
+                builder.withoutRequestQuery(offsetQueryName)
+                       .withoutRequestQuery(limitQueryName)
+                       .withRequestQuery(RequestQuery.of(offsetQueryName, String.valueOf(offset)))
+                       .withRequestQuery(RequestQuery.of(limitQueryName, String.valueOf(limit)));
+            }
+        };
+    }
+
+    /**
+     * Strategy using the <code>Link</code> response header (RFC 8288) with <code>rel="next"</code>, as used by e.g. GitHub API. The URL of the next
+     * page, resolved against the URI of the current page if relative, replaces the URL, endpoint, path parameters and queries of the request. Malformed
+     * links end the pagination. The response must extend {@link ApiResponse}.
+     *
+     * @param <T> The type of the response.
+     *
+     * @return Non-null {@link PaginationStrategy}
+     */
+    static <T extends ApiResponse<?>> PaginationStrategy<T> linkHeader() {
+        return (nextPageBuilder, response, pageIndex) -> {
+            URI nextUri;
+
+            try {
+                nextUri = findNextLink(response.getHttpHeaders());
+
+                if (nextUri == null) {
+                    return false;
+                }
+
+                // Relative targets are relative to the URI of the current page
+                nextUri = resolve(nextPageBuilder.computeUri(), nextUri);
+            } catch (IllegalArgumentException exception) {
+                // Malformed link, the next page cannot be requested
+                return false;
+            }
+
+            if (nextUri.getScheme() == null || nextUri.getRawAuthority() == null) {
+                return false;
+            }
+
+            nextPageBuilder.withUrl(nextUri.getScheme() + "://" + nextUri.getRawAuthority())
+                           .withEndpoint(nextUri.getRawPath() == null || nextUri.getRawPath().isEmpty() ? "/" : nextUri.getRawPath())
+                           .withoutPathParameters()
+                           .withoutRequestQueries();
+
+            if (nextUri.getRawQuery() != null) {
+                for (String query : nextUri.getRawQuery().split("&")) {
+                    int separatorIndex = query.indexOf('=');
+
+                    if (separatorIndex < 0) {
+                        nextPageBuilder.withRequestQuery(RequestQuery.ofEncoded(query, ""));
+                    } else {
+                        nextPageBuilder.withRequestQuery(RequestQuery.ofEncoded(query.substring(0, separatorIndex), query.substring(separatorIndex + 1)));
+                    }
+                }
+            }
+
+            return true;
+        };
+    }
+
+    /**
+     * Resolves the link against the URI of the current page as specified by RFC 3986. Unlike {@link URI#resolve(URI)}, a reference with only a query,
+     * e.g. <code>?page=2</code>, keeps the whole path of the current page.
+     *
+     * @param baseUri Non-null {@link URI} of the current page.
+     * @param link    Non-null {@link URI} of the link.
+     *
+     * @return Non-null resolved {@link URI}
+     */
+    private static URI resolve(URI baseUri, URI link) {
+        if (link.getScheme() == null && link.getRawAuthority() == null && (link.getRawPath() == null || link.getRawPath().isEmpty()) && link.getRawQuery() != null) {
+            return URI.create(baseUri.getScheme() + "://" + baseUri.getRawAuthority() + baseUri.getRawPath() + "?" + link.getRawQuery());
+        }
+
+        return baseUri.resolve(link);
+    }
+
+    /**
+     * Finds the URI with <code>rel="next"</code> in the <code>Link</code> headers.
+     *
+     * @param httpHeaders Nullable {@link HttpHeaders}
+     *
+     * @return Nullable {@link URI} of the next page.
+     */
+    private static URI findNextLink(HttpHeaders httpHeaders) {
+        if (httpHeaders == null) {
+            return null;
+        }
+
+        for (String header : httpHeaders.allValues("Link")) {
+            for (String link : header.split(",(?=\\s*<)")) {
+                int uriEnd = link.indexOf('>');
+
+                if (link.indexOf('<') < 0 || uriEnd < 0) {
+                    continue;
+                }
+
+                for (String parameter : link.substring(uriEnd + 1).split(";")) {
+                    String[] nameAndValue = parameter.trim().split("=", 2);
+
+                    if (nameAndValue.length != 2 || !nameAndValue[0].trim().equalsIgnoreCase("rel")) {
+                        continue;
+                    }
+
+                    for (String rel : nameAndValue[1].trim().replace("\"", "").split("\\s+")) {
+                        if (rel.equalsIgnoreCase("next")) {
+                            return URI.create(link.substring(link.indexOf('<') + 1, uriEnd).trim());
+                        }
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Prepares the request of the first page. Does nothing by default.
+     *
+     * @param firstPageBuilder Non-null builder of the first page.
+     */
+    default void prepareFirstPage(ApiRequestBuilder<T> firstPageBuilder) {
+    }
+
+    /**
+     * Prepares the request of the next page.
+     *
+     * @param nextPageBuilder Non-null copy of the builder of the current page, which should be changed to request the next page.
+     * @param response        Non-null response of the current page.
+     * @param pageIndex       Index of the current page, starting from zero.
+     *
+     * @return True if there is a next page, false if the current page is the last one.
+     */
+    boolean prepareNextPage(ApiRequestBuilder<T> nextPageBuilder, T response, int pageIndex);
+}
@@ -0,0 +1,203 @@
+package dev.mayuna.simpleapi;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterator over the pages of a paginated request, created by {@link ApiRequestBuilder#paginate(PaginationStrategy, int)}. The pages are
+ * requested using {@link ApiRequest#sendAsync()} - when a page arrives, the request of the next page is derived from it and sent right away, up to
+ * the prefetch depth ahead of the page which is being processed.<br>If a page fails, {@link #next()} throws {@link CompletionException} and the
+ * pagination ends. Close the paginator when it is not iterated to the end, so prefetched requests are cancelled.
+ *
+ * @param <T> The type of the response.
+ */
+public class Paginator<T> implements Iterator<T>, AutoCloseable {
+
+    private final PaginationStrategy<T> paginationStrategy;
+    private final int prefetchDepth;
+    private final Deque<CompletableFuture<T>> pages = new ArrayDeque<>();
+
+    private ApiRequestBuilder<T> nextPageBuilder;
+    private int requestedPageCount;
+    private int consumedPageCount;
+    private boolean fetching;
+    private boolean closed;
+
+    Paginator(ApiRequestBuilder<T> firstPageBuilder, PaginationStrategy<T> paginationStrategy, int prefetchDepth) {
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("Prefetch depth must not be negative, currently is: " + prefetchDepth);
+        }
+
+        this.paginationStrategy = paginationStrategy;
+        this.prefetchDepth = prefetchDepth;
+
+        paginationStrategy.prepareFirstPage(firstPageBuilder);
+        this.nextPageBuilder = firstPageBuilder;
+    }
+
+    /**
+     * Determines if there is another page. Waits until the next page arrives.
+     *
+     * @return True if there is another page.
+     */
+    @Override
+    public boolean hasNext() {
+        CompletableFuture<T> page;
+
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+
+            // The page may be consumed before the next page is derived from it
+            while (pages.isEmpty() && fetching && !closed) {
+                try {
+                    wait();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(exception);
+                }
+            }
+
+            if (pages.isEmpty()) {
+                if (nextPageBuilder == null || closed) {
+                    return false;
+                }
+
+                fetchNextPage();
+            }
+
+            page = pages.peekFirst();
+        }
+
+        try {
+            if (page.join() != null) {
+                return true;
+            }
+        } catch (CompletionException exception) {
+            // The exception is thrown by next()
+            return true;
+        }
+
+        // Null page means the request failed and exceptions are not re-thrown
+        synchronized (this) {
+            pages.clear();
+            nextPageBuilder = null;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the next page and starts prefetching the following pages.
+     *
+     * @return Non-null page
+     *
+     * @throws CompletionException    If the request of the page failed.
+     * @throws NoSuchElementException If there are no more pages.
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        CompletableFuture<T> page;
+
+        synchronized (this) {
+            page = pages.pollFirst();
+            consumedPageCount++;
+            prefetch();
+        }
+
+        return page.join();
+    }
+
+    /**
+     * Gets the lazy sequential {@link Stream} of the pages. Closing the stream closes this paginator.
+     *
+     * @return Non-null {@link Stream}
+     */
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Stops the pagination and cancels the prefetched pages.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+        nextPageBuilder = null;
+
+        for (CompletableFuture<T> page : pages) {
+            page.cancel(false);
+        }
+
+        pages.clear();
+    }
+
+    private void prefetch() {
+        if (!closed && !fetching && nextPageBuilder != null && requestedPageCount < consumedPageCount + prefetchDepth) {
+            fetchNextPage();
+        }
+    }
+
+    private void fetchNextPage() {
+        ApiRequestBuilder<T> pageBuilder = nextPageBuilder;
+        int pageIndex = requestedPageCount;
+        CompletableFuture<T> page;
+
+        nextPageBuilder = null;
+        fetching = true;
+        requestedPageCount++;
+
+        try {
+            page = pageBuilder.build().sendAsync();
+        } catch (Throwable throwable) {
+            page = CompletableFuture.failedFuture(throwable);
+        }
+
+        pages.addLast(page);
+        page.whenComplete((response, throwable) -> onPageFetched(pageBuilder, pageIndex, response, throwable));
+    }
+
+    private synchronized void onPageFetched(ApiRequestBuilder<T> pageBuilder, int pageIndex, T response, Throwable throwable) {
+        fetching = false;
+
+        try {
+            deriveNextPage(pageBuilder, pageIndex, response, throwable);
+        } finally {
+            notifyAll();
+        }
+    }
+
+    private void deriveNextPage(ApiRequestBuilder<T> pageBuilder, int pageIndex, T response, Throwable throwable) {
+        if (closed || throwable != null || response == null) {
+            return;
+        }
+
+        ApiRequestBuilder<T> builder = pageBuilder.copy();
+
+        try {
+            if (paginationStrategy.prepareNextPage(builder, response, pageIndex)) {
+                nextPageBuilder = builder;
+            }
+        } catch (Throwable strategyThrowable) {
+            pages.addLast(CompletableFuture.failedFuture(strategyThrowable));
+            return;
+        }
+
+        prefetch();
+    }
+}
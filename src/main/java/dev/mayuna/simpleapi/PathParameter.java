@@ -11,19 +11,31 @@ public class PathParameter {
 
     private final @Getter String id;
     private final @Getter String replacement;
+    private final @Getter boolean encoded;
 
-    private PathParameter(String id, String replacement) {
+    private PathParameter(String id, String replacement, boolean encoded) {
         this.id = id;
         this.replacement = replacement;
+        this.encoded = encoded;
     }
 
     /**
-     * Creates {@link PathParameter} with parameter name and its replacement
+     * Creates {@link PathParameter} with parameter name and its replacement. The replacement will be percent-encoded
      * @param id Non-null parameter name. Must be without <code>{}</code> symbols
      * @param replacement Non-null replacement which will replace your path parameter
      * @return Non-null {@link PathParameter} instance
      */
     public static PathParameter of(@NotNull String id, @NonNull String replacement) {
-        return new PathParameter(id, replacement);
+        return new PathParameter(id, replacement, false);
+    }
+
+    /**
+     * Creates {@link PathParameter} with parameter name and its already percent-encoded replacement, which is used as it is
+     * @param id Non-null parameter name. Must be without <code>{}</code> symbols
+     * @param replacement Non-null percent-encoded replacement which will replace your path parameter
+     * @return Non-null {@link PathParameter} instance
+     */
+    public static PathParameter ofEncoded(@NotNull String id, @NonNull String replacement) {
+        return new PathParameter(id, replacement, true);
     }
 }
@@ -0,0 +1,91 @@
+package dev.mayuna.simpleapi;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Response body received into a buffer of {@link BufferPool}, see {@link BufferPool#bodyHandler()}. Deserializers read it through read-only views
+ * from {@link #getByteBuffer()}, or using {@link ResponseBodies#openInputStream(java.net.http.HttpResponse)} and
+ * {@link ResponseBodies#openReader(java.net.http.HttpResponse)}.<br>The buffer is returned to the pool by {@link #close()}, afterwards it may be
+ * reused by another response - so neither the views nor anything reading them may be kept after the response is handled.
+ */
+public final class PooledBody implements AutoCloseable {
+
+    private final BufferPool bufferPool;
+    private final ByteBuffer byteBuffer;
+    private final BufferPool.LeakTracker leakTracker;
+    private final int size;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    PooledBody(BufferPool bufferPool, ByteBuffer byteBuffer, BufferPool.LeakTracker leakTracker) {
+        this.bufferPool = bufferPool;
+        this.byteBuffer = byteBuffer;
+        this.leakTracker = leakTracker;
+        this.size = byteBuffer.remaining();
+    }
+
+    /**
+     * Gets the size of the body.
+     *
+     * @return Number of bytes
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Determines if the body was released.
+     *
+     * @return True if {@link #close()} was called.
+     */
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    /**
+     * Gets new read-only view of the body, positioned at its start.
+     *
+     * @return Non-null read-only {@link ByteBuffer}
+     *
+     * @throws IllegalStateException If the body was released.
+     */
+    public ByteBuffer getByteBuffer() {
+        ensureNotReleased();
+        return byteBuffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Opens {@link InputStream} of the body, reading a read-only view of it.
+     *
+     * @return Non-null {@link InputStream}
+     *
+     * @throws IllegalStateException If the body was released.
+     */
+    public InputStream openInputStream() {
+        return new ByteBufferInputStream(getByteBuffer());
+    }
+
+    /**
+     * Releases the buffer back to the {@link BufferPool}. Calling it more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (!released.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (leakTracker != null) {
+            leakTracker.release();
+        }
+
+        bufferPool.onReleased();
+        bufferPool.release(byteBuffer);
+    }
+
+    private void ensureNotReleased() {
+        if (released.get()) {
+            throw new IllegalStateException("PooledBody was already released");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package dev.mayuna.simpleapi;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link HttpResponse.BodySubscriber} which aggregates the body into one buffer of {@link BufferPool}. The buffer is acquired by the
+ * <code>Content-Length</code>, if known, up to {@link BufferPool#MAX_BUFFER_SIZE}, and replaced by a larger one from the pool when it is full.
+ */
+final class PooledBodySubscriber implements HttpResponse.BodySubscriber<PooledBody> {
+
+    private final CompletableFuture<PooledBody> result = new CompletableFuture<>();
+    private final BufferPool bufferPool;
+    private final long contentLength;
+
+    private ByteBuffer byteBuffer;
+    private Flow.Subscription subscription;
+
+    /**
+     * Creates {@link PooledBodySubscriber}
+     *
+     * @param bufferPool    The pool of the buffers.
+     * @param contentLength Length of the body, or -1 if unknown. It is only a hint, e.g. for compressed bodies.
+     */
+    PooledBodySubscriber(BufferPool bufferPool, long contentLength) {
+        this.bufferPool = bufferPool;
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public CompletionStage<PooledBody> getBody() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        if (result.isDone()) {
+            return;
+        }
+
+        try {
+            long length = 0;
+
+            for (ByteBuffer itemBuffer : item) {
+                length += itemBuffer.remaining();
+            }
+
+            if (length == 0) {
+                return;
+            }
+
+            ensureCapacity(length);
+
+            for (ByteBuffer itemBuffer : item) {
+                byteBuffer.put(itemBuffer);
+            }
+        } catch (Throwable throwable) {
+            subscription.cancel();
+            onError(throwable);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (byteBuffer != null) {
+            bufferPool.release(byteBuffer);
+            byteBuffer = null;
+        }
+
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (result.isDone()) {
+            return;
+        }
+
+        // Empty body does not need any buffer of the pool
+        ByteBuffer body = byteBuffer != null ? byteBuffer.flip() : bufferPool.acquire(0);
+        result.complete(bufferPool.createBody(body));
+    }
+
+    private void ensureCapacity(long length) {
+        if (byteBuffer != null && byteBuffer.remaining() >= length) {
+            return;
+        }
+
+        long position = byteBuffer != null ? byteBuffer.position() : 0;
+        // Content-Length is not trusted beyond the largest size class, larger bodies grow from the bytes actually received
+        long capacity = Math.max(position + length, Math.min(contentLength, BufferPool.MAX_BUFFER_SIZE));
+
+        if (byteBuffer != null) {
+            // Grows at least twice, so the body is copied only a few times
+            capacity = Math.max(capacity, position * 2);
+        }
+
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Response body is too large for a buffer");
+        }
+
+        ByteBuffer grownByteBuffer = bufferPool.acquire((int) capacity);
+
+        if (byteBuffer != null) {
+            byteBuffer.flip();
+            grownByteBuffer.put(byteBuffer);
+            bufferPool.release(byteBuffer);
+        }
+
+        byteBuffer = grownByteBuffer;
+    }
+}
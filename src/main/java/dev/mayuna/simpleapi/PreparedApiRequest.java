@@ -0,0 +1,272 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable request template created by {@link ApiRequestBuilder#prepare()}, like JDBC's prepared statement. The URL and the endpoint are resolved,
+ * the {@link EndpointTemplate} is parsed and the {@link RequestHeader}s are merged with {@link WrappedApi#getDefaultRequestHeaders()} once, when the
+ * template is prepared. Each {@link #bind(PathParameter...)} only renders the endpoint and builds the {@link HttpRequest} from a copy of the
+ * prepared {@link HttpRequest.Builder}, so sending the bound request does not rebuild anything - except for {@link FileDownload}, whose
+ * <code>Range</code> header is computed each time the request is sent, from the current size of the file.
+ * <pre>{@code
+ * PreparedApiRequest<UserResponse> getUser = ApiRequest.builder(api, UserResponse.class)
+ *                                                      .withEndpoint("/users/{id}")
+ *                                                      .withRequestMethod(RequestMethod.GET)
+ *                                                      .prepare();
+ *
+ * UserResponse user = getUser.bind(PathParameter.of("id", "42")).send();
+ * }</pre>
+ * The endpoint is rendered using {@link EndpointTemplate} and the headers are applied using {@link ApiRequest#applyHeadersToHttpRequestBuilder}
+ * when the template is prepared - overridden {@link WrappedApi#computeEndpoint(ApiRequest)} and {@link WrappedApi#createHttpRequest(ApiRequest)}
+ * are not called for the bound requests. This class is thread-safe.
+ *
+ * @param <T> The type of the response.
+ */
+public class PreparedApiRequest<T> {
+
+    private final @Getter ApiRequest<T> template;
+    private final String url;
+    private final EndpointTemplate endpointTemplate;
+    private final HttpRequest.Builder httpRequestBuilder;
+
+    PreparedApiRequest(ApiRequest<T> template) {
+        this.template = template;
+
+        String url = template.getUrl();
+        this.url = url != null ? url : template.getWrappedApi().getDefaultUrl();
+        this.endpointTemplate = template.getEndpoint() != null ? EndpointTemplate.of(template.getEndpoint()) : null;
+
+        HttpRequest.Builder httpRequestBuilder = template.createHttpRequestBuilderInstance();
+        httpRequestBuilder.timeout(template.getWrappedApi().getTimeoutDuration());
+        template.applyHeadersToHttpRequestBuilder(httpRequestBuilder, template.getRequestHeaders());
+        this.httpRequestBuilder = httpRequestBuilder;
+    }
+
+    /**
+     * Binds the path parameters, creating a request with the body of the template.
+     *
+     * @param pathParameters The {@link PathParameter}s which were not set when the template was prepared.
+     *
+     * @return Non-null bound {@link ApiRequest}
+     *
+     * @throws IllegalArgumentException If the endpoint contains a parameter without {@link PathParameter}.
+     */
+    public ApiRequest<T> bind(PathParameter... pathParameters) {
+        return bind(pathParameters, null, null);
+    }
+
+    /**
+     * Binds the path parameters and request queries, creating a request with the body of the template.
+     *
+     * @param pathParameters Nullable {@link PathParameter}s which were not set when the template was prepared.
+     * @param requestQueries Nullable {@link RequestQuery}s, appended after the queries of the template.
+     *
+     * @return Non-null bound {@link ApiRequest}
+     *
+     * @throws IllegalArgumentException If the endpoint contains a parameter without {@link PathParameter}.
+     */
+    public ApiRequest<T> bind(PathParameter[] pathParameters, RequestQuery[] requestQueries) {
+        return bind(pathParameters, requestQueries, null);
+    }
+
+    /**
+     * Binds the path parameters, request queries and body.
+     *
+     * @param pathParameters Nullable {@link PathParameter}s which were not set when the template was prepared.
+     * @param requestQueries Nullable {@link RequestQuery}s, appended after the queries of the template.
+     * @param bodyPublisher  Nullable body, null uses the body of the template.
+     *
+     * @return Non-null bound {@link ApiRequest}
+     *
+     * @throws IllegalArgumentException If the endpoint contains a parameter without {@link PathParameter}.
+     */
+    public ApiRequest<T> bind(PathParameter[] pathParameters, RequestQuery[] requestQueries, HttpRequest.BodyPublisher bodyPublisher) {
+        PathParameter[] boundPathParameters = concat(template.getPathParameters(), pathParameters, PathParameter[]::new);
+        RequestQuery[] boundRequestQueries = concat(template.getRequestQueries(), requestQueries, RequestQuery[]::new);
+        HttpRequest.BodyPublisher boundBodyPublisher = bodyPublisher != null ? bodyPublisher : template.getBodyPublisher();
+        String computedEndpoint = "";
+
+        if (endpointTemplate != null) {
+            for (String parameterName : endpointTemplate.getParameterNames()) {
+                if (!containsPathParameter(boundPathParameters, parameterName)) {
+                    throw new IllegalArgumentException("Missing path parameter {" + parameterName + "} for endpoint " + template.getEndpoint());
+                }
+            }
+
+            computedEndpoint = endpointTemplate.render(boundPathParameters, boundRequestQueries);
+        }
+
+        String requestUrl = url + computedEndpoint;
+        HttpRequest.Builder boundHttpRequestBuilder = httpRequestBuilder.copy();
+        Compression compression = template.getWrappedApi().getCompression();
+        HttpRequest.BodyPublisher sentBodyPublisher = boundBodyPublisher;
+
+        if (compression != null) {
+            sentBodyPublisher = compression.compressRequestBody(boundHttpRequestBuilder, boundBodyPublisher);
+        }
+
+        HttpRequest httpRequest;
+
+        try {
+            httpRequest = boundHttpRequestBuilder.uri(new URI(requestUrl)).method(template.getRequestMethod().getName(), sentBodyPublisher).build();
+        } catch (IllegalArgumentException | URISyntaxException e) {
+            throw new RuntimeException("Invalid URI " + requestUrl, e);
+        }
+
+        // Headers of the file download depend on the size of the file when the request is sent
+        HttpRequest.Builder downloadHttpRequestBuilder = template.getFileDownload() != null ? boundHttpRequestBuilder : null;
+
+        return new BoundApiRequest(boundPathParameters, boundRequestQueries, boundBodyPublisher, computedEndpoint, httpRequest, downloadHttpRequestBuilder);
+    }
+
+    private static boolean containsPathParameter(PathParameter[] pathParameters, String name) {
+        if (pathParameters != null) {
+            for (PathParameter pathParameter : pathParameters) {
+                if (pathParameter.getId().equals(name)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static <E> E[] concat(E[] first, E[] second, IntFunction<E[]> arrayFactory) {
+        if (first == null || first.length == 0) {
+            return second != null && second.length != 0 ? second.clone() : null;
+        }
+
+        if (second == null || second.length == 0) {
+            return first;
+        }
+
+        E[] result = arrayFactory.apply(first.length + second.length);
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * {@link ApiRequest} with bound parameters and pre-built {@link HttpRequest}
+     */
+    private final class BoundApiRequest implements ApiRequest<T> {
+
+        private final PathParameter[] pathParameters;
+        private final RequestQuery[] requestQueries;
+        private final HttpRequest.BodyPublisher bodyPublisher;
+        private final String computedEndpoint;
+        private final HttpRequest httpRequest;
+        private final HttpRequest.Builder downloadHttpRequestBuilder;
+
+        private BoundApiRequest(PathParameter[] pathParameters, RequestQuery[] requestQueries, HttpRequest.BodyPublisher bodyPublisher, String computedEndpoint, HttpRequest httpRequest, HttpRequest.Builder downloadHttpRequestBuilder) {
+            this.pathParameters = pathParameters;
+            this.requestQueries = requestQueries;
+            this.bodyPublisher = bodyPublisher;
+            this.computedEndpoint = computedEndpoint;
+            this.httpRequest = httpRequest;
+            this.downloadHttpRequestBuilder = downloadHttpRequestBuilder;
+        }
+
+        @Override
+        public @NotNull Class<T> getResponseClass() {
+            return template.getResponseClass();
+        }
+
+        @Override
+        public @NotNull Type getResponseType() {
+            return template.getResponseType();
+        }
+
+        @Override
+        public @NotNull WrappedApi getWrappedApi() {
+            return template.getWrappedApi();
+        }
+
+        @Override
+        public @NotNull String getUrl() {
+            return url;
+        }
+
+        @Override
+        public @NotNull String getEndpoint() {
+            return template.getEndpoint();
+        }
+
+        @Override
+        public @NotNull RequestMethod getRequestMethod() {
+            return template.getRequestMethod();
+        }
+
+        @Override
+        public @Nullable RetryPolicy getRetryPolicy() {
+            return template.getRetryPolicy();
+        }
+
+        @Override
+        public @Nullable PathParameter[] getPathParameters() {
+            return pathParameters;
+        }
+
+        @Override
+        public @Nullable RequestQuery[] getRequestQueries() {
+            return requestQueries;
+        }
+
+        @Override
+        public @Nullable RequestHeader[] getRequestHeaders() {
+            return template.getRequestHeaders();
+        }
+
+        @Override
+        public @NonNull HttpRequest.BodyPublisher getBodyPublisher() {
+            return bodyPublisher;
+        }
+
+        @Override
+        public @NonNull HttpResponse.BodyHandler<?> getBodyHandler() {
+            return template.getBodyHandler();
+        }
+
+        @Override
+        public @Nullable FileDownload getFileDownload() {
+            return template.getFileDownload();
+        }
+
+        @Override
+        public @NotNull RequestPriority getPriority() {
+            return template.getPriority();
+        }
+
+        @Override
+        public @Nullable Duration getDeadline() {
+            return template.getDeadline();
+        }
+
+        @Override
+        public String getComputedEndpoint() {
+            return computedEndpoint;
+        }
+
+        @Override
+        public HttpRequest createHttpRequest() {
+            if (downloadHttpRequestBuilder == null) {
+                return httpRequest;
+            }
+
+            HttpRequest.Builder httpRequestBuilder = downloadHttpRequestBuilder.copy();
+            template.getFileDownload().applyHeaders(httpRequestBuilder);
+            return httpRequestBuilder.build();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dev.mayuna.simpleapi;
+
+/**
+ * Listener of the progress of a file transfer, see {@link FileDownload} and {@link FileBodyPublishers}. It is called from the thread which
+ * transfers the data, so it should return quickly.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Is called after a chunk of data is transferred.
+     *
+     * @param transferredBytes Number of bytes transferred so far, including the bytes of the file which were already present when a download
+     *                         was resumed.
+     * @param totalBytes       Total number of bytes, or -1 if unknown.
+     */
+    void onProgress(long transferredBytes, long totalBytes);
+}
@@ -0,0 +1,186 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter of {@link WrappedApi}. The bucket holds up to {@code permits} tokens and is refilled continuously at the rate of
+ * {@code permits} per {@code period}, each request takes one token.<br>Tokens are reserved in advance, so requests which do not fit into the
+ * bucket are delayed - {@link WrappedApi#send(ApiRequest)} blocks the calling thread while {@link WrappedApi#sendAsync(ApiRequest)} schedules the
+ * request without blocking any thread.<br>The limiter adapts to rate limit headers of the responses - <code>Retry-After</code>,
+ * <code>X-RateLimit-Remaining</code> and <code>X-RateLimit-Reset</code>.
+ * <pre>{@code
+ * public class MyApi implements WrappedApi {
+ *
+ *     @Override
+ *     public RateLimiter createRateLimiter() {
+ *         return RateLimiter.of(50, Duration.ofSeconds(1));
+ *     }
+ *
+ *     @Override
+ *     public RateLimiter createRateLimiter(String endpoint) {
+ *         return endpoint.startsWith("/search") ? RateLimiter.of(10, Duration.ofMinutes(1)) : null;
+ *     }
+ * }
+ * }</pre>
+ */
+public class RateLimiter {
+
+    private final @Getter int permits;
+    private final @Getter Duration period;
+    private final double nanosPerToken;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long blockedUntilNanos;
+
+    /**
+     * Creates {@link RateLimiter}
+     *
+     * @param permits Number of requests per period, also the maximum burst. Must be positive.
+     * @param period  Non-null positive period
+     */
+    public RateLimiter(int permits, @NonNull Duration period) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Permits must be positive, currently is: " + permits);
+        }
+
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period must be positive, currently is: " + period);
+        }
+
+        this.permits = permits;
+        this.period = period;
+        this.nanosPerToken = (double) period.toNanos() / permits;
+        this.tokens = permits;
+        this.lastRefillNanos = System.nanoTime();
+        this.blockedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Creates {@link RateLimiter} which allows {@code permits} requests per {@code period}
+     *
+     * @param permits Number of requests per period, also the maximum burst. Must be positive.
+     * @param period  Non-null positive period
+     *
+     * @return Non-null {@link RateLimiter}
+     */
+    public static RateLimiter of(int permits, @NonNull Duration period) {
+        return new RateLimiter(permits, period);
+    }
+
+    /**
+     * Reserves one token. The request may be sent after the returned delay.
+     *
+     * @return Delay in nanoseconds, zero if the request may be sent immediately.
+     */
+    public synchronized long reserve() {
+        long nowNanos = System.nanoTime();
+        refill(nowNanos);
+
+        tokens -= 1;
+
+        // The refill starts at the end of the block, if any
+        long tokenDelayNanos = tokens >= 0 ? 0 : (long) Math.ceil(-tokens * nanosPerToken);
+        return Math.max(0, Math.max(lastRefillNanos - nowNanos + tokenDelayNanos, blockedUntilNanos - nowNanos));
+    }
+
+    /**
+     * Reserves one token and waits until the request may be sent.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        long delayNanos = reserve();
+
+        if (delayNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+    }
+
+    /**
+     * Returns the token reserved by {@link #reserve()}, e.g. when the request was not sent because the thread was interrupted while waiting.
+     */
+    synchronized void cancelReservation() {
+        refill(System.nanoTime());
+        tokens = Math.min(permits, tokens + 1);
+    }
+
+    /**
+     * Adapts the limiter to the rate limit headers of the response. <code>Retry-After</code> blocks all requests for the given time,
+     * <code>X-RateLimit-Remaining</code> caps the available tokens and if it is zero, requests are blocked until <code>X-RateLimit-Reset</code>.
+     * Requests are blocked for at most one day. The tokens are drained while the requests are blocked, so the requests waiting for the block are
+     * paced from its end instead of being sent at once.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     */
+    public void update(@NonNull HttpResponse<?> httpResponse) {
+        Duration retryAfter = HttpResponses.getRetryAfter(httpResponse);
+        long remaining = HttpResponses.getRateLimitRemaining(httpResponse);
+        Duration reset = remaining == 0 ? HttpResponses.getRateLimitReset(httpResponse) : null;
+
+        if (retryAfter == null && remaining < 0 && reset == null) {
+            return;
+        }
+
+        synchronized (this) {
+            long nowNanos = System.nanoTime();
+            refill(nowNanos);
+
+            if (remaining >= 0 && tokens > remaining) {
+                tokens = remaining;
+            }
+
+            if (retryAfter != null) {
+                blockUntil(nowNanos, retryAfter);
+            }
+
+            if (reset != null) {
+                blockUntil(nowNanos, reset);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of currently available tokens. Negative if there are requests waiting for tokens.
+     *
+     * @return Number of available tokens.
+     */
+    public synchronized double getAvailableTokens() {
+        refill(System.nanoTime());
+        return tokens;
+    }
+
+    /**
+     * Gets the remaining time for which the requests are blocked due to <code>Retry-After</code> or <code>X-RateLimit-Reset</code> headers.
+     *
+     * @return Non-null duration, zero if the requests are not blocked.
+     */
+    public synchronized Duration getBlockedDuration() {
+        return Duration.ofNanos(Math.max(0, blockedUntilNanos - System.nanoTime()));
+    }
+
+    private void refill(long nowNanos) {
+        long elapsedNanos = nowNanos - lastRefillNanos;
+
+        if (elapsedNanos > 0) {
+            tokens = Math.min(permits, tokens + elapsedNanos / nanosPerToken);
+            lastRefillNanos = nowNanos;
+        }
+    }
+
+    private void blockUntil(long nowNanos, Duration delay) {
+        long untilNanos = Deadlines.after(nowNanos, delay);
+
+        if (untilNanos - blockedUntilNanos > 0) {
+            blockedUntilNanos = untilNanos;
+            // Reservations made before are kept (as negative tokens), no tokens are refilled until the block ends
+            tokens = Math.min(tokens, 0);
+            lastRefillNanos = untilNanos;
+        }
+    }
+}
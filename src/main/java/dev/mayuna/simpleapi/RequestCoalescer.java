@@ -0,0 +1,129 @@
+package dev.mayuna.simpleapi;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks in-flight requests of a {@link WrappedApi}, so identical requests can share one HTTP exchange. Used when
+ * {@link WrappedApi#isCoalescingRequests()} returns true.
+ */
+final class RequestCoalescer {
+
+    private final Map<Key, CompletableFuture<Object>> inFlightRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the {@link RequestCoalescer} of the {@link WrappedApi}.
+     *
+     * @param wrappedApi The API.
+     *
+     * @return Non-null {@link RequestCoalescer}
+     */
+    static RequestCoalescer of(WrappedApi wrappedApi) {
+        return WrappedApiState.of(wrappedApi).getOrCreate(RequestCoalescer.class, RequestCoalescer::new);
+    }
+
+    /**
+     * Determines if the request may be coalesced - its request method is idempotent, it has no body, and the response is not streamed.
+     *
+     * @param apiRequest  The request.
+     * @param httpRequest The built HTTP request.
+     *
+     * @return True if the request may be coalesced.
+     */
+    static boolean isCoalescable(ApiRequest<?> apiRequest, HttpRequest httpRequest) {
+        if (!RequestMethod.of(httpRequest.method()).isIdempotent()) {
+            return false;
+        }
+
+        if (httpRequest.bodyPublisher().map(bodyPublisher -> bodyPublisher.contentLength() != 0).orElse(false)) {
+            return false;
+        }
+
+        return !ResponseFactory.of(apiRequest.getResponseClass()).isStreamingApiResponse() && apiRequest.getFileDownload() == null;
+    }
+
+    /**
+     * Creates the key identifying the request.
+     *
+     * @param apiRequest  The request.
+     * @param httpRequest The built HTTP request.
+     *
+     * @return Non-null key
+     */
+    static Object createKey(ApiRequest<?> apiRequest, HttpRequest httpRequest) {
+        return new Key(httpRequest.method(), httpRequest.uri(), httpRequest.headers().map(), apiRequest.getResponseType());
+    }
+
+    /**
+     * Registers the future of the request as in flight, unless an identical request is already in flight.
+     *
+     * @param key    The key from {@link #createKey(ApiRequest, HttpRequest)}.
+     * @param future The future which will be completed with the result of the request.
+     *
+     * @return Null if the future was registered and the request should be sent, otherwise the future of the identical in-flight request.
+     */
+    CompletableFuture<Object> join(Object key, CompletableFuture<Object> future) {
+        return inFlightRequests.putIfAbsent((Key) key, future);
+    }
+
+    /**
+     * Removes the request from in-flight requests and completes its future.
+     *
+     * @param key       The key from {@link #createKey(ApiRequest, HttpRequest)}.
+     * @param future    The future registered by {@link #join(Object, CompletableFuture)}.
+     * @param result    The result of the request.
+     * @param throwable The exception, or null if the request did not fail.
+     */
+    void complete(Object key, CompletableFuture<Object> future, Object result, Throwable throwable) {
+        inFlightRequests.remove((Key) key, future);
+
+        if (throwable != null) {
+            future.completeExceptionally(RequestPipeline.unwrap(throwable));
+        } else {
+            future.complete(result);
+        }
+    }
+
+    private static final class Key {
+
+        private final String method;
+        private final URI uri;
+        private final Map<String, List<String>> headers;
+        private final Type responseType;
+        private final int hashCode;
+
+        private Key(String method, URI uri, Map<String, List<String>> headers, Type responseType) {
+            this.method = method;
+            this.uri = uri;
+            this.headers = headers;
+            this.responseType = responseType;
+            this.hashCode = Objects.hash(method, uri, headers, responseType);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) object;
+            return hashCode == key.hashCode && method.equals(key.method) && uri.equals(key.uri) && headers.equals(key.headers)
+                    && responseType.equals(key.responseType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution context of a single send of {@link ApiRequest}, created once per {@link ApiRequest#send()} or {@link ApiRequest#sendAsync()} and passed
+ * to all lifecycle hooks of {@link WrappedApi}, e.g. {@link WrappedApi#onApiRequest(RequestContext)}. It carries the {@link System#nanoTime()}
+ * timestamps of the pipeline {@link Phase}s, the attempt number, the computed {@link URI} and user attributes, so tracing and profiling do not need
+ * any extra maps or {@link ThreadLocal}s.
+ * <pre>{@code
+ * public <T> void onAfterHandledApiRequest(RequestContext<T> context, T response) {
+ *     System.out.println(context.getUri() + " took " + context.getDuration(RequestContext.Phase.SENT, RequestContext.Phase.DESERIALIZED));
+ * }
+ * }</pre>
+ *
+ * @param <T> The type of the response.
+ */
+public class RequestContext<T> {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+    private static final Phase[] PHASES = Phase.values();
+
+    private final @Getter long id = NEXT_ID.getAndIncrement();
+    private final @Getter ApiRequest<T> apiRequest;
+    private final long[] timestamps = new long[PHASES.length];
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    private volatile int reachedPhases;
+    private volatile @Getter URI uri;
+    private volatile @Getter int attempt;
+    private volatile @Getter int statusCode = -1;
+    private volatile @Getter long responseBodySize = -1;
+
+    /**
+     * Creates {@link RequestContext} of the request, the {@link Phase#CREATED} phase is reached.
+     *
+     * @param apiRequest Non-null request
+     */
+    RequestContext(@NonNull ApiRequest<T> apiRequest) {
+        this.apiRequest = apiRequest;
+        reach(Phase.CREATED);
+    }
+
+    /**
+     * Gets the API of the request.
+     *
+     * @return Non-null {@link WrappedApi}
+     */
+    public WrappedApi getWrappedApi() {
+        return apiRequest.getWrappedApi();
+    }
+
+    /**
+     * Determines if the phase was reached. Phases of retried requests are reached again by each attempt.
+     *
+     * @param phase Non-null phase
+     *
+     * @return True if the phase was reached.
+     */
+    public boolean hasReached(@NonNull Phase phase) {
+        return (reachedPhases & (1 << phase.ordinal())) != 0;
+    }
+
+    /**
+     * Gets the {@link System#nanoTime()} timestamp when the phase was last reached.
+     *
+     * @param phase Non-null phase
+     *
+     * @return Timestamp in nanoseconds, or {@link Long#MIN_VALUE} if the phase was not reached.
+     */
+    public long getTimestamp(@NonNull Phase phase) {
+        return hasReached(phase) ? timestamps[phase.ordinal()] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets the duration between the phases, e.g. {@link Phase#SENT} and {@link Phase#FIRST_BYTE} is the time to first byte of the last attempt.
+     *
+     * @param fromPhase Non-null start phase
+     * @param toPhase   Non-null end phase
+     *
+     * @return Duration between the phases, or null if any of them was not reached.
+     */
+    public Duration getDuration(@NonNull Phase fromPhase, @NonNull Phase toPhase) {
+        if (!hasReached(fromPhase) || !hasReached(toPhase)) {
+            return null;
+        }
+
+        return Duration.ofNanos(timestamps[toPhase.ordinal()] - timestamps[fromPhase.ordinal()]);
+    }
+
+    /**
+     * Gets the user attribute.
+     *
+     * @param key Non-null key
+     * @param <V> The type of the attribute.
+     *
+     * @return Nullable attribute
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V getAttribute(@NonNull String key) {
+        return (V) attributes.get(key);
+    }
+
+    /**
+     * Sets the user attribute, e.g. correlation ID or tracing span.
+     *
+     * @param key   Non-null key
+     * @param value Nullable value, null removes the attribute.
+     * @param <V>   The type of the attribute.
+     *
+     * @return The previous value of the attribute, may be null.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V setAttribute(@NonNull String key, Object value) {
+        if (value == null) {
+            return (V) attributes.remove(key);
+        }
+
+        return (V) attributes.put(key, value);
+    }
+
+    /**
+     * Gets the user attributes.
+     *
+     * @return Non-null modifiable map of the attributes.
+     */
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Records the timestamp of the phase.
+     *
+     * @param phase The phase.
+     */
+    void reach(Phase phase) {
+        timestamps[phase.ordinal()] = System.nanoTime();
+        // Volatile write publishes the timestamp
+        reachedPhases |= 1 << phase.ordinal();
+    }
+
+    void setUri(URI uri) {
+        this.uri = uri;
+        reach(Phase.BUILT);
+    }
+
+    /**
+     * Starts a new attempt, the phases of the previous attempt are forgotten.
+     *
+     * @param attempt The attempt number, starting from 1.
+     */
+    void startAttempt(int attempt) {
+        this.attempt = attempt;
+        this.statusCode = -1;
+        this.responseBodySize = -1;
+        reachedPhases &= (1 << Phase.CREATED.ordinal()) | (1 << Phase.BUILT.ordinal()) | (1 << Phase.DISPATCHED.ordinal());
+    }
+
+    void completeBody(HttpResponse<?> httpResponse) {
+        statusCode = httpResponse.statusCode();
+        reach(Phase.BODY_COMPLETE);
+    }
+
+    /**
+     * Wraps the body handler to record {@link Phase#FIRST_BYTE} and the response body size.
+     *
+     * @param bodyHandler The body handler.
+     * @param <B>         The type of the body.
+     *
+     * @return Wrapped body handler
+     */
+    <B> HttpResponse.BodyHandler<B> wrapBodyHandler(HttpResponse.BodyHandler<B> bodyHandler) {
+        return responseInfo -> {
+            reach(Phase.FIRST_BYTE);
+            statusCode = responseInfo.statusCode();
+            responseBodySize = 0;
+            return new CountingBodySubscriber<>(bodyHandler.apply(responseInfo));
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "RequestContext{id=" + id + ", uri=" + uri + ", attempt=" + attempt + ", statusCode=" + statusCode + ", responseBodySize=" +
+                responseBodySize + "}";
+    }
+
+    /**
+     * Phases of the request pipeline, in order
+     */
+    public enum Phase {
+        /**
+         * The send was started.
+         */
+        CREATED,
+        /**
+         * The {@link java.net.http.HttpRequest} was built - the endpoint computed and the headers applied.
+         */
+        BUILT,
+        /**
+         * The request was dispatched by the {@link RequestScheduler}, after waiting in its queue. Reached only if the API has a
+         * {@link WrappedApi#getRequestScheduler()}.
+         */
+        DISPATCHED,
+        /**
+         * The request was passed to the {@link java.net.http.HttpClient}, after waiting for rate limits.
+         */
+        SENT,
+        /**
+         * The status and headers of the response were received.
+         */
+        FIRST_BYTE,
+        /**
+         * The {@link java.net.http.HttpClient} completed the response. For streamed responses, this is before the body is read.
+         */
+        BODY_COMPLETE,
+        /**
+         * The response was handled - the instance of the response class was created and deserialized.
+         */
+        DESERIALIZED
+    }
+
+    /**
+     * Counts the received bytes and delegates everything to the wrapped subscriber
+     */
+    private final class CountingBodySubscriber<B> implements HttpResponse.BodySubscriber<B> {
+
+        private final HttpResponse.BodySubscriber<B> bodySubscriber;
+
+        private CountingBodySubscriber(HttpResponse.BodySubscriber<B> bodySubscriber) {
+            this.bodySubscriber = bodySubscriber;
+        }
+
+        @Override
+        public CompletionStage<B> getBody() {
+            return bodySubscriber.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            bodySubscriber.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            long size = 0;
+
+            for (ByteBuffer byteBuffer : item) {
+                size += byteBuffer.remaining();
+            }
+
+            // Called serially by the HttpClient
+            responseBodySize += size;
+            bodySubscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            bodySubscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            bodySubscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is not sent, because it waited in the queue of {@link RequestScheduler} longer than its
+ * {@linkplain ApiRequest#getDeadline() deadline}.
+ */
+public class RequestDeadlineExceededException extends RuntimeException {
+
+    private final @Getter Duration deadline;
+
+    /**
+     * Creates {@link RequestDeadlineExceededException}
+     *
+     * @param deadline The exceeded deadline.
+     */
+    public RequestDeadlineExceededException(Duration deadline) {
+        super("Request was not dispatched within its deadline of " + deadline);
+        this.deadline = deadline;
+    }
+}
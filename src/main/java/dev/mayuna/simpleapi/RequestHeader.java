@@ -31,4 +31,22 @@ public class RequestHeader {
     public static @NonNull RequestHeader ofContentType(@NonNull String value) {
         return new RequestHeader("Content-Type", value);
     }
+
+    /**
+     * Determines if the headers contain a header with the key, ignoring case.
+     * @param requestHeaders Nullable headers
+     * @param key Non-null Header key
+     * @return True if the header is present
+     */
+    static boolean contains(RequestHeader[] requestHeaders, String key) {
+        if (requestHeaders != null) {
+            for (RequestHeader requestHeader : requestHeaders) {
+                if (requestHeader.getKey().equalsIgnoreCase(key)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
 }
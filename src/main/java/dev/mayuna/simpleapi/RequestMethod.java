@@ -2,6 +2,8 @@ package dev.mayuna.simpleapi;
 
 import lombok.Getter;
 
+import java.util.Locale;
+
 public class RequestMethod {
 
     public static final RequestMethod GET = new RequestMethod("GET");
@@ -15,6 +17,27 @@ public class RequestMethod {
         this.name = name;
     }
 
+    /**
+     * Determines if the request method is idempotent, as defined by RFC 9110 - sending the same request multiple times has the same effect as
+     * sending it once. These are <code>GET</code>, <code>HEAD</code>, <code>OPTIONS</code>, <code>TRACE</code>, <code>PUT</code> and
+     * <code>DELETE</code>.
+     *
+     * @return True if idempotent.
+     */
+    public boolean isIdempotent() {
+        switch (name.toUpperCase(Locale.ROOT)) {
+            case "GET":
+            case "HEAD":
+            case "OPTIONS":
+            case "TRACE":
+            case "PUT":
+            case "DELETE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Creates {@link RequestMethod} with request method name
      * @param name Non-null {@link RequestMethod} name
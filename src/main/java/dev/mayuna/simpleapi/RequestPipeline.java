@@ -0,0 +1,897 @@
+package dev.mayuna.simpleapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Default implementation of {@link WrappedApi#send(ApiRequest)} and {@link WrappedApi#sendAsync(ApiRequest)}.
+ */
+final class RequestPipeline {
+
+    private static final ClassValue<Boolean> API_REQUESTS_OVERRIDING_SEND = overriding(ApiRequest.class, "send");
+    private static final ClassValue<Boolean> WRAPPED_APIS_OVERRIDING_SEND = overriding(WrappedApi.class, "send", ApiRequest.class);
+
+    private RequestPipeline() {
+    }
+
+    /**
+     * Creates {@link ClassValue} which determines if the class overrides the default method of the interface.
+     *
+     * @param interfaceClass The interface declaring the default method.
+     * @param name           The name of the method.
+     * @param parameterTypes The parameter types of the method.
+     *
+     * @return Non-null {@link ClassValue}
+     */
+    private static ClassValue<Boolean> overriding(Class<?> interfaceClass, String name, Class<?>... parameterTypes) {
+        return new ClassValue<>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                try {
+                    return type.getMethod(name, parameterTypes).getDeclaringClass() != interfaceClass;
+                } catch (NoSuchMethodException exception) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /**
+     * Sends the request synchronously.
+     *
+     * @param apiRequest The request.
+     * @param <T>        The type of the response.
+     *
+     * @return The instance of the response class, or null if the request failed and the exceptions should not be re-thrown.
+     */
+    static <T> T send(ApiRequest<T> apiRequest) throws IOException, InterruptedException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        WrappedApi wrappedApi = apiRequest.getWrappedApi();
+        RequestContext<T> context = new RequestContext<>(apiRequest);
+        Call<T> call;
+
+        try {
+            call = new Call<>(context);
+        } catch (Throwable throwable) {
+            wrappedApi.onException(context, throwable);
+
+            if (wrappedApi.rethrowExceptions()) {
+                throw throwable;
+            } else {
+                return null;
+            }
+        }
+
+        if (call.isCachedResponseFresh()) {
+            return call.getCachedResponse();
+        }
+
+        if (!call.isCoalesced()) {
+            return dispatch(call);
+        }
+
+        RequestCoalescer requestCoalescer = RequestCoalescer.of(wrappedApi);
+        Object key = RequestCoalescer.createKey(apiRequest, call.httpRequest);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightFuture = requestCoalescer.join(key, future);
+
+        if (inFlightFuture != null) {
+            return awaitCoalesced(inFlightFuture);
+        }
+
+        T response = null;
+        Throwable failure = null;
+
+        try {
+            response = dispatch(call);
+            return response;
+        } catch (Throwable throwable) {
+            failure = throwable;
+            throw throwable;
+        } finally {
+            requestCoalescer.complete(key, future, response, failure);
+        }
+    }
+
+    /**
+     * Waits until the request is dispatched by {@link WrappedApi#getRequestScheduler()}, if any, and sends it.
+     */
+    private static <T> T dispatch(Call<T> call) throws IOException, InterruptedException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        RequestScheduler requestScheduler = call.apiRequest.getWrappedApi().getRequestScheduler();
+
+        if (requestScheduler == null) {
+            return send(call);
+        }
+
+        CompletableFuture<Void> dispatchFuture = requestScheduler.acquire(call.apiRequest);
+
+        try {
+            dispatchFuture.get();
+        } catch (InterruptedException exception) {
+            requestScheduler.cancel(dispatchFuture);
+            Thread.currentThread().interrupt();
+            WrappedApi wrappedApi = call.apiRequest.getWrappedApi();
+            wrappedApi.onException(call.context, exception);
+
+            if (wrappedApi.rethrowExceptions()) {
+                throw exception;
+            } else {
+                return null;
+            }
+        } catch (ExecutionException exception) {
+            // Rejected or expired
+            RuntimeException cause = (RuntimeException) unwrap(exception);
+            WrappedApi wrappedApi = call.apiRequest.getWrappedApi();
+            wrappedApi.onException(call.context, cause);
+
+            if (wrappedApi.rethrowExceptions()) {
+                throw cause;
+            } else {
+                return null;
+            }
+        }
+
+        call.context.reach(RequestContext.Phase.DISPATCHED);
+
+        try {
+            return send(call);
+        } finally {
+            requestScheduler.release();
+        }
+    }
+
+    private static <T> T send(Call<T> call) throws IOException, InterruptedException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        ApiRequest<T> apiRequest = call.apiRequest;
+        RequestContext<T> context = call.context;
+        WrappedApi wrappedApi = apiRequest.getWrappedApi();
+        HttpResponse<?> httpResponse;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Before the rate limits, so rejected requests do not wait for a token and do not take it
+                call.acquireCircuitBreakers();
+            } catch (CircuitBreakerOpenException exception) {
+                wrappedApi.onException(context, exception);
+
+                if (wrappedApi.rethrowExceptions()) {
+                    throw exception;
+                } else {
+                    return null;
+                }
+            }
+
+            long attemptStartNanos;
+
+            try {
+                long rateLimitDelayNanos = call.reserveRateLimits();
+
+                if (rateLimitDelayNanos > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(rateLimitDelayNanos);
+                    } catch (InterruptedException exception) {
+                        // The request is not sent, so its tokens can be used by other requests
+                        call.cancelRateLimitReservations();
+                        Thread.currentThread().interrupt();
+                        throw exception;
+                    }
+                }
+
+                context.startAttempt(attempt);
+                wrappedApi.onApiRequest(context);
+                attemptStartNanos = call.startExchange();
+            } catch (Throwable throwable) {
+                // Handled like in sendAsync(), where the failure completes the future using failed()
+                call.releaseCircuitBreakers();
+                wrappedApi.onException(context, throwable);
+
+                if (wrappedApi.rethrowExceptions()) {
+                    throw throwable;
+                } else {
+                    return null;
+                }
+            }
+
+            try {
+                httpResponse = apiRequest.createHttpClientInstance().send(call.getSentHttpRequest(), call.getBodyHandler());
+            } catch (Throwable throwable) {
+                call.completeExchange(attemptStartNanos, null, throwable);
+                long retryDelayNanos = call.getRetryDelay(attempt, null, throwable);
+
+                if (retryDelayNanos >= 0) {
+                    if (!sleepBeforeRetry(call, retryDelayNanos)) {
+                        return null;
+                    }
+
+                    continue;
+                }
+
+                wrappedApi.onException(context, throwable);
+
+                if (wrappedApi.rethrowExceptions()) {
+                    throw throwable;
+                } else {
+                    return null;
+                }
+            }
+
+            call.completeExchange(attemptStartNanos, httpResponse, null);
+            call.updateRateLimits(httpResponse);
+            long retryDelayNanos = call.getRetryDelay(attempt, httpResponse, null);
+
+            if (retryDelayNanos < 0) {
+                break;
+            }
+
+            ResponseBodies.closeQuietly(httpResponse);
+
+            if (!sleepBeforeRetry(call, retryDelayNanos)) {
+                return null;
+            }
+        }
+
+        wrappedApi.onAfterApiRequest(context);
+
+        T response;
+
+        try {
+            response = call.handleResponse(httpResponse);
+            wrappedApi.onAfterHandledApiRequest(context, response);
+        } catch (Throwable throwable) {
+            wrappedApi.onException(context, throwable);
+
+            if (wrappedApi.rethrowExceptions()) {
+                throw throwable;
+            } else {
+                return null;
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Waits before the next attempt. If the thread is interrupted, the interrupt flag is restored and
+     * {@link WrappedApi#onException(RequestContext, Throwable)} is called, like for other failures.
+     *
+     * @param call            The call.
+     * @param retryDelayNanos The delay in nanoseconds.
+     *
+     * @return True if the next attempt should be sent, false if the thread was interrupted and the exceptions should not be re-thrown.
+     *
+     * @throws InterruptedException If the thread was interrupted and the exceptions should be re-thrown.
+     */
+    private static boolean sleepBeforeRetry(Call<?> call, long retryDelayNanos) throws InterruptedException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(retryDelayNanos);
+            return true;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            WrappedApi wrappedApi = call.apiRequest.getWrappedApi();
+            wrappedApi.onException(call.context, exception);
+
+            if (wrappedApi.rethrowExceptions()) {
+                throw exception;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Sends the request asynchronously using {@link java.net.http.HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)}. No thread is blocked
+     * while waiting for the response, the response is handled in the {@link java.net.http.HttpClient}'s executor. Streamed responses are handled
+     * using {@link WrappedApi#runAsync(Runnable)}, since reading them blocks. The number of requests in flight is
+     * bounded by {@link WrappedApi#getApiExecutor()}.<br>If {@link ApiRequest#send()} or
+     * {@link WrappedApi#send(ApiRequest)} is overridden, the overridden method is run using {@link WrappedApi#runAsync(Runnable)} instead, so both
+     * paths send the request the same way.
+     *
+     * @param apiRequest The request.
+     * @param <T>        The type of the response.
+     *
+     * @return {@link CompletableFuture} completed with the instance of the response class. If the request failed, it is completed exceptionally,
+     * or with null if the exceptions should not be re-thrown.
+     */
+    static <T> CompletableFuture<T> sendAsync(ApiRequest<T> apiRequest) {
+        if (API_REQUESTS_OVERRIDING_SEND.get(apiRequest.getClass()) || WRAPPED_APIS_OVERRIDING_SEND.get(apiRequest.getWrappedApi().getClass())) {
+            return sendOverridden(apiRequest);
+        }
+
+        RequestContext<T> context = new RequestContext<>(apiRequest);
+        Call<T> call;
+
+        try {
+            call = new Call<>(context);
+        } catch (Throwable throwable) {
+            return failed(context, throwable);
+        }
+
+        if (call.isCachedResponseFresh()) {
+            return CompletableFuture.completedFuture(call.getCachedResponse());
+        }
+
+        if (!call.isCoalesced()) {
+            return dispatchAsync(call);
+        }
+
+        RequestCoalescer requestCoalescer = RequestCoalescer.of(apiRequest.getWrappedApi());
+        Object key = RequestCoalescer.createKey(apiRequest, call.httpRequest);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlightFuture = requestCoalescer.join(key, future);
+
+        if (inFlightFuture != null) {
+            return inFlightFuture.thenApply(RequestPipeline::cast);
+        }
+
+        return dispatchAsync(call).whenComplete((response, throwable) -> requestCoalescer.complete(key, future, response, throwable));
+    }
+
+    /**
+     * Runs the overridden {@link ApiRequest#send()} using {@link WrappedApi#runAsync(Runnable)}. The hooks are called by the send itself.
+     */
+    private static <T> CompletableFuture<T> sendOverridden(ApiRequest<T> apiRequest) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+            apiRequest.getWrappedApi().runAsync(() -> {
+                try {
+                    future.complete(apiRequest.send());
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+        } catch (Throwable throwable) {
+            return failed(new RequestContext<>(apiRequest), throwable);
+        }
+
+        return future;
+    }
+
+    /**
+     * Sends the request once it is dispatched by {@link WrappedApi#getRequestScheduler()}, if any. No thread is blocked while it waits in the queue.
+     */
+    private static <T> CompletableFuture<T> dispatchAsync(Call<T> call) {
+        RequestScheduler requestScheduler = call.apiRequest.getWrappedApi().getRequestScheduler();
+
+        if (requestScheduler == null) {
+            return sendAsync(call);
+        }
+
+        CompletableFuture<Void> dispatchFuture;
+
+        try {
+            dispatchFuture = requestScheduler.acquire(call.apiRequest);
+        } catch (Throwable throwable) {
+            return failed(call.context, throwable);
+        }
+
+        return dispatchFuture.handle((ignored, throwable) -> {
+            if (throwable != null) {
+                return RequestPipeline.<T>failed(call.context, throwable);
+            }
+
+            call.context.reach(RequestContext.Phase.DISPATCHED);
+            return sendAsync(call).whenComplete((response, responseThrowable) -> requestScheduler.release());
+        }).thenCompose(future -> future);
+    }
+
+    /**
+     * Sends the request using {@link ApiExecutor#executeAsync(Supplier)} of {@link WrappedApi#getApiExecutor()}, so the number of requests in flight
+     * is bounded.
+     */
+    private static <T> CompletableFuture<T> sendAsync(Call<T> call) {
+        try {
+            return call.apiRequest.getWrappedApi().getApiExecutor().executeAsync(() -> sendAsync(call, 1));
+        } catch (Throwable throwable) {
+            return failed(call.context, throwable);
+        }
+    }
+
+    private static <T> CompletableFuture<T> sendAsync(Call<T> call, int attempt) {
+        long rateLimitDelayNanos;
+
+        try {
+            // Before the rate limits, so rejected requests do not wait for a token and do not take it
+            call.acquireCircuitBreakers();
+        } catch (Throwable throwable) {
+            return failed(call.context, throwable);
+        }
+
+        try {
+            rateLimitDelayNanos = call.reserveRateLimits();
+        } catch (Throwable throwable) {
+            call.releaseCircuitBreakers();
+            return failed(call.context, throwable);
+        }
+
+        return schedule(call, rateLimitDelayNanos, () -> exchangeAsync(call, attempt), throwable -> {
+            call.cancelRateLimitReservations();
+            call.releaseCircuitBreakers();
+            return failed(call.context, throwable);
+        });
+    }
+
+    private static <T> CompletableFuture<T> exchangeAsync(Call<T> call, int attempt) {
+        ApiRequest<T> apiRequest = call.apiRequest;
+        RequestContext<T> context = call.context;
+        WrappedApi wrappedApi = apiRequest.getWrappedApi();
+        CompletableFuture<? extends HttpResponse<?>> httpResponseFuture;
+
+        long attemptStartNanos;
+
+        try {
+            context.startAttempt(attempt);
+            wrappedApi.onApiRequest(context);
+            attemptStartNanos = call.startExchange();
+        } catch (Throwable throwable) {
+            call.releaseCircuitBreakers();
+            return failed(context, throwable);
+        }
+
+        try {
+            httpResponseFuture = apiRequest.createHttpClientInstance().sendAsync(call.getSentHttpRequest(), call.getBodyHandler());
+        } catch (Throwable throwable) {
+            call.completeExchange(attemptStartNanos, null, throwable);
+            return failed(context, throwable);
+        }
+
+        return httpResponseFuture.handle((httpResponse, throwable) -> {
+            call.completeExchange(attemptStartNanos, httpResponse, throwable);
+
+            if (throwable != null) {
+                long retryDelayNanos = call.getRetryDelay(attempt, null, throwable);
+
+                if (retryDelayNanos >= 0) {
+                    return schedule(call, retryDelayNanos, () -> sendAsync(call, attempt + 1), rejection -> failed(context, rejection));
+                }
+
+                return RequestPipeline.<T>failed(context, throwable);
+            }
+
+            call.updateRateLimits(httpResponse);
+            long retryDelayNanos = call.getRetryDelay(attempt, httpResponse, null);
+
+            if (retryDelayNanos >= 0) {
+                ResponseBodies.closeQuietly(httpResponse);
+                return schedule(call, retryDelayNanos, () -> sendAsync(call, attempt + 1), rejection -> failed(context, rejection));
+            }
+
+            if (!(httpResponse.body() instanceof InputStream)) {
+                return handleResponseAsync(call, httpResponse);
+            }
+
+            // Reading the streamed body blocks, so it must not block the HttpClient's executor
+            try {
+                return CompletableFuture.supplyAsync(() -> handleResponseAsync(call, httpResponse), wrappedApi::runAsync).thenCompose(future -> future);
+            } catch (Throwable runThrowable) {
+                ResponseBodies.closeQuietly(httpResponse);
+                return RequestPipeline.<T>failed(context, runThrowable);
+            }
+        }).thenCompose(future -> future);
+    }
+
+    /**
+     * Handles the response of the last attempt and calls the hooks.
+     *
+     * @param call         The call.
+     * @param httpResponse The response.
+     * @param <T>          The type of the response.
+     *
+     * @return Completed future of the response.
+     */
+    private static <T> CompletableFuture<T> handleResponseAsync(Call<T> call, HttpResponse<?> httpResponse) {
+        RequestContext<T> context = call.context;
+        WrappedApi wrappedApi = call.apiRequest.getWrappedApi();
+        T response;
+
+        try {
+            wrappedApi.onAfterApiRequest(context);
+            response = call.handleResponse(httpResponse);
+            wrappedApi.onAfterHandledApiRequest(context, response);
+        } catch (Throwable throwable) {
+            return failed(context, throwable);
+        }
+
+        return CompletableFuture.completedFuture(response);
+    }
+
+    /**
+     * Runs the task after the delay. No thread is blocked while waiting, the task is run using {@link WrappedApi#runAsync(Runnable)}.
+     *
+     * @param call       The call.
+     * @param delayNanos The delay in nanoseconds. If not positive, the task is run immediately in the current thread.
+     * @param task       The task.
+     * @param onRejected Called instead of the task if {@link WrappedApi#runAsync(Runnable)} rejects it, e.g. when the queue of
+     *                   {@link ApiExecutor} is full.
+     * @param <T>        The type of the response.
+     *
+     * @return The future of the task.
+     */
+    private static <T> CompletableFuture<T> schedule(Call<T> call, long delayNanos, Supplier<CompletableFuture<T>> task, Function<Throwable, CompletableFuture<T>> onRejected) {
+        if (delayNanos <= 0) {
+            return task.get();
+        }
+
+        CompletableFuture<CompletableFuture<T>> scheduled = new CompletableFuture<>();
+        WrappedApi wrappedApi = call.apiRequest.getWrappedApi();
+
+        // The rejection is thrown in the timer's thread, where it would be lost and the future would never complete
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, Runnable::run).execute(() -> {
+            try {
+                wrappedApi.runAsync(() -> {
+                    try {
+                        scheduled.complete(task.get());
+                    } catch (Throwable throwable) {
+                        scheduled.completeExceptionally(throwable);
+                    }
+                });
+            } catch (Throwable throwable) {
+                scheduled.complete(onRejected.apply(throwable));
+            }
+        });
+
+        return scheduled.thenCompose(future -> future);
+    }
+
+    /**
+     * Waits for the result of the identical in-flight request and re-throws its exception.
+     *
+     * @param inFlightFuture The future of the identical in-flight request.
+     * @param <T>            The type of the response.
+     *
+     * @return The shared instance of the response class.
+     */
+    private static <T> T awaitCoalesced(CompletableFuture<Object> inFlightFuture) throws IOException, InterruptedException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        try {
+            return cast(inFlightFuture.get());
+        } catch (ExecutionException exception) {
+            Throwable cause = unwrap(exception);
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof InvocationTargetException) {
+                throw (InvocationTargetException) cause;
+            } else if (cause instanceof NoSuchMethodException) {
+                throw (NoSuchMethodException) cause;
+            } else if (cause instanceof InstantiationException) {
+                throw (InstantiationException) cause;
+            } else if (cause instanceof IllegalAccessException) {
+                throw (IllegalAccessException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException("Coalesced request failed", cause);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object response) {
+        return (T) response;
+    }
+
+    /**
+     * Calls {@link WrappedApi#onException(RequestContext, Throwable)} and creates a future with the result according to
+     * {@link WrappedApi#rethrowExceptions()}.
+     *
+     * @param context   The context of the request.
+     * @param throwable The exception, may be wrapped in {@link CompletionException}.
+     * @param <T>       The type of the response.
+     *
+     * @return Failed {@link CompletableFuture}, or completed with null.
+     */
+    static <T> CompletableFuture<T> failed(RequestContext<T> context, Throwable throwable) {
+        WrappedApi wrappedApi = context.getWrappedApi();
+        Throwable cause = unwrap(throwable);
+
+        try {
+            wrappedApi.onException(context, cause);
+        } catch (Throwable hookThrowable) {
+            cause.addSuppressed(hookThrowable);
+        }
+
+        if (wrappedApi.rethrowExceptions()) {
+            return CompletableFuture.failedFuture(cause);
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Unwraps {@link CompletionException} and {@link ExecutionException}.
+     *
+     * @param throwable The exception.
+     *
+     * @return The cause.
+     */
+    static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+
+        return throwable;
+    }
+
+    /**
+     * State of a single request send - the {@link RequestContext}, the built {@link HttpRequest}, its {@link ResponseCache} entry, {@link RateLimiter}s, {@link RetryPolicy}, {@link CircuitBreaker}s, {@link ApiMetrics} and {@link Compression}.
+     *
+     * @param <T> The type of the response.
+     */
+    private static final class Call<T> {
+
+        private final RequestContext<T> context;
+        private final ApiRequest<T> apiRequest;
+        private final HttpRequest httpRequest;
+        private final ResponseCache responseCache;
+        private final ResponseCache.Entry cacheEntry;
+        private final long startNanos = System.nanoTime();
+        private final CircuitBreaker hostCircuitBreaker;
+        private final CircuitBreaker endpointCircuitBreaker;
+        private final ApiMetrics.EndpointMetrics endpointMetrics;
+        private final Compression compression;
+
+        // Permits of the current attempt, attempts never overlap
+        private CircuitBreaker.Permit hostPermit;
+        private CircuitBreaker.Permit endpointPermit;
+
+        private Call(RequestContext<T> context) {
+            this.context = context;
+            this.apiRequest = context.getApiRequest();
+            this.httpRequest = apiRequest.createHttpRequest();
+            context.setUri(httpRequest.uri());
+
+            ResponseCache apiResponseCache = apiRequest.getWrappedApi().getResponseCache();
+
+            if (apiResponseCache != null && apiResponseCache.isCacheable(httpRequest) && apiRequest.getFileDownload() == null
+                    && !ResponseFactory.of(apiRequest.getResponseClass()).isStreamingApiResponse()) {
+                this.responseCache = apiResponseCache;
+                this.cacheEntry = apiResponseCache.lookup(httpRequest, apiRequest.getResponseType());
+            } else {
+                this.responseCache = null;
+                this.cacheEntry = null;
+            }
+
+            WrappedApi wrappedApi = apiRequest.getWrappedApi();
+            String host = httpRequest.uri().getAuthority();
+            this.hostCircuitBreaker = host != null ? wrappedApi.getHostCircuitBreaker(host) : null;
+            this.endpointCircuitBreaker = apiRequest.getEndpoint() != null ? wrappedApi.getEndpointCircuitBreaker(apiRequest.getEndpoint()) : null;
+
+            ApiMetrics apiMetrics = wrappedApi.getApiMetrics();
+            this.endpointMetrics = apiMetrics != null ? apiMetrics.getEndpointMetrics(apiRequest.getEndpoint()) : null;
+            this.compression = wrappedApi.getCompression();
+        }
+
+        private boolean isCoalesced() {
+            return apiRequest.getWrappedApi().isCoalescingRequests() && RequestCoalescer.isCoalescable(apiRequest, httpRequest);
+        }
+
+        private boolean isCachedResponseFresh() {
+            return cacheEntry != null && cacheEntry.isFresh();
+        }
+
+        @SuppressWarnings("unchecked")
+        private T getCachedResponse() {
+            return (T) cacheEntry.getResponse();
+        }
+
+        private HttpRequest getSentHttpRequest() {
+            if (cacheEntry != null) {
+                return responseCache.createConditionalRequest(httpRequest, cacheEntry);
+            }
+
+            return httpRequest;
+        }
+
+        /**
+         * Gets the body handler of the request, decompressing the body if {@link Compression} is enabled and recording it in the
+         * {@link RequestContext}.
+         *
+         * @return The body handler.
+         */
+        private HttpResponse.BodyHandler<?> getBodyHandler() {
+            HttpResponse.BodyHandler<?> bodyHandler = apiRequest.getBodyHandler();
+
+            if (compression != null) {
+                bodyHandler = compression.wrapBodyHandler(bodyHandler);
+            }
+
+            return context.wrapBodyHandler(bodyHandler);
+        }
+
+        private long reserveRateLimits() {
+            WrappedApi wrappedApi = apiRequest.getWrappedApi();
+            RateLimiter rateLimiter = wrappedApi.getRateLimiter();
+            RateLimiter endpointRateLimiter = apiRequest.getEndpoint() != null ? wrappedApi.getRateLimiter(apiRequest.getEndpoint()) : null;
+            long delayNanos = 0;
+
+            if (rateLimiter != null) {
+                delayNanos = rateLimiter.reserve();
+            }
+
+            if (endpointRateLimiter != null) {
+                delayNanos = Math.max(delayNanos, endpointRateLimiter.reserve());
+            }
+
+            return delayNanos;
+        }
+
+        private void cancelRateLimitReservations() {
+            WrappedApi wrappedApi = apiRequest.getWrappedApi();
+            RateLimiter rateLimiter = wrappedApi.getRateLimiter();
+            RateLimiter endpointRateLimiter = apiRequest.getEndpoint() != null ? wrappedApi.getRateLimiter(apiRequest.getEndpoint()) : null;
+
+            if (rateLimiter != null) {
+                rateLimiter.cancelReservation();
+            }
+
+            if (endpointRateLimiter != null) {
+                endpointRateLimiter.cancelReservation();
+            }
+        }
+
+        private void updateRateLimits(HttpResponse<?> httpResponse) {
+            WrappedApi wrappedApi = apiRequest.getWrappedApi();
+            RateLimiter rateLimiter = wrappedApi.getRateLimiter();
+            RateLimiter endpointRateLimiter = apiRequest.getEndpoint() != null ? wrappedApi.getRateLimiter(apiRequest.getEndpoint()) : null;
+
+            if (rateLimiter != null) {
+                rateLimiter.update(httpResponse);
+            }
+
+            if (endpointRateLimiter != null) {
+                endpointRateLimiter.update(httpResponse);
+            }
+        }
+
+        /**
+         * Acquires permissions of the {@link CircuitBreaker}s. Must be followed by {@link #startExchange()} and
+         * {@link #completeExchange(long, HttpResponse, Throwable)}, or by {@link #releaseCircuitBreakers()} if the request is not sent.
+         *
+         * @throws CircuitBreakerOpenException If a circuit breaker is open.
+         */
+        private void acquireCircuitBreakers() {
+            hostPermit = null;
+            endpointPermit = null;
+
+            if (hostCircuitBreaker != null && (hostPermit = hostCircuitBreaker.tryAcquire()) == null) {
+                throw new CircuitBreakerOpenException(hostCircuitBreaker);
+            }
+
+            if (endpointCircuitBreaker != null && (endpointPermit = endpointCircuitBreaker.tryAcquire()) == null) {
+                if (hostPermit != null) {
+                    hostCircuitBreaker.release(hostPermit);
+                    hostPermit = null;
+                }
+
+                throw new CircuitBreakerOpenException(endpointCircuitBreaker);
+            }
+        }
+
+        /**
+         * Releases permissions acquired by {@link #acquireCircuitBreakers()} when the request is not sent.
+         */
+        private void releaseCircuitBreakers() {
+            if (hostPermit != null) {
+                hostCircuitBreaker.release(hostPermit);
+                hostPermit = null;
+            }
+
+            if (endpointPermit != null) {
+                endpointCircuitBreaker.release(endpointPermit);
+                endpointPermit = null;
+            }
+        }
+
+        /**
+         * Records the start of the exchange.
+         *
+         * @return Start of the exchange in nanoseconds.
+         */
+        private long startExchange() {
+            if (endpointMetrics != null) {
+                endpointMetrics.onExchangeStarted();
+            }
+
+            context.reach(RequestContext.Phase.SENT);
+            return context.getTimestamp(RequestContext.Phase.SENT);
+        }
+
+        /**
+         * Records the result of the exchange in the {@link CircuitBreaker}s and {@link ApiMetrics}.
+         *
+         * @param exchangeStartNanos Start of the exchange from {@link #startExchange()}.
+         * @param httpResponse       The response, null if the exchange failed.
+         * @param throwable          The exception, null if the response was received.
+         */
+        private void completeExchange(long exchangeStartNanos, HttpResponse<?> httpResponse, Throwable throwable) {
+            if (httpResponse != null) {
+                context.completeBody(httpResponse);
+            }
+
+            long durationNanos = System.nanoTime() - exchangeStartNanos;
+
+            if (hostPermit != null) {
+                hostCircuitBreaker.onResult(hostPermit, durationNanos, throwable != null || hostCircuitBreaker.isFailure(httpResponse.statusCode()));
+                hostPermit = null;
+            }
+
+            if (endpointPermit != null) {
+                endpointCircuitBreaker.onResult(endpointPermit, durationNanos, throwable != null || endpointCircuitBreaker.isFailure(httpResponse.statusCode()));
+                endpointPermit = null;
+            }
+
+            if (endpointMetrics != null) {
+                if (throwable != null) {
+                    endpointMetrics.onExchangeFailed();
+                } else {
+                    endpointMetrics.onExchangeCompleted(durationNanos, httpResponse.statusCode());
+                }
+            }
+        }
+
+        private long getRetryDelay(int attempt, HttpResponse<?> httpResponse, Throwable throwable) {
+            RetryPolicy retryPolicy = apiRequest.getRetryPolicy();
+
+            if (retryPolicy == null || !retryPolicy.isRetryable(RequestMethod.of(httpRequest.method()))) {
+                return -1;
+            }
+
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            Duration retryDelay = retryPolicy.getRetryDelay(attempt, elapsed, httpResponse, throwable != null ? unwrap(throwable) : null);
+            return retryDelay != null ? Deadlines.toNanos(retryDelay) : -1;
+        }
+
+        private T handleResponse(HttpResponse<?> httpResponse) throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+            if (cacheEntry != null && httpResponse.statusCode() == 304) {
+                ResponseBodies.closeQuietly(httpResponse);
+                responseCache.revalidated(cacheEntry, httpResponse);
+                context.reach(RequestContext.Phase.DESERIALIZED);
+                return getCachedResponse();
+            }
+
+            T response;
+
+            try {
+                if (endpointMetrics != null) {
+                    long deserializationStartNanos = System.nanoTime();
+
+                    try {
+                        response = apiRequest.handleResponse(httpResponse);
+                    } catch (Throwable throwable) {
+                        endpointMetrics.onDeserializationFailed();
+                        throw throwable;
+                    }
+
+                    endpointMetrics.onDeserialized(System.nanoTime() - deserializationStartNanos, httpResponse.statusCode());
+                } else {
+                    response = apiRequest.handleResponse(httpResponse);
+                }
+            } finally {
+                if (httpResponse.body() instanceof PooledBody) {
+                    // Even if ApiRequest#handleResponse() is overridden and does not close the body
+                    ((PooledBody) httpResponse.body()).close();
+                }
+            }
+
+            context.reach(RequestContext.Phase.DESERIALIZED);
+
+            if (responseCache != null) {
+                responseCache.store(httpRequest, apiRequest.getResponseType(), httpResponse, response);
+            }
+
+            return response;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package dev.mayuna.simpleapi;
+
+/**
+ * Priority class of {@link ApiRequest}, see {@link ApiRequestBuilder#withPriority(RequestPriority)}. The {@link RequestScheduler} dispatches
+ * waiting requests of higher priority first, so background requests cannot delay the latency-critical ones.
+ */
+public enum RequestPriority {
+
+    /**
+     * Requests which must not wait behind any other requests, e.g. authentication
+     */
+    CRITICAL,
+
+    /**
+     * User-facing requests
+     */
+    HIGH,
+
+    /**
+     * Default priority
+     */
+    NORMAL,
+
+    /**
+     * Requests which may wait, e.g. prefetching
+     */
+    LOW,
+
+    /**
+     * Background requests, e.g. synchronization, which are dispatched only when no other request waits
+     */
+    BACKGROUND
+}
@@ -7,19 +7,31 @@ public class RequestQuery {
 
     private final @Getter String name;
     private final @Getter String value;
+    private final @Getter boolean encoded;
 
-    private RequestQuery(String name, String value) {
+    private RequestQuery(String name, String value, boolean encoded) {
         this.name = name;
         this.value = value;
+        this.encoded = encoded;
     }
 
     /**
-     * Creates {@link RequestQuery} with name and value
+     * Creates {@link RequestQuery} with name and value. The name and value will be percent-encoded
      * @param name Non-null {@link RequestQuery} name
      * @param value Non-null {@link RequestQuery} value
      * @return Non-null {@link RequestQuery} with name and value
      */
     public static @NotNull RequestQuery of(@NotNull String name, @NotNull String value) {
-        return new RequestQuery(name, value);
+        return new RequestQuery(name, value, false);
+    }
+
+    /**
+     * Creates {@link RequestQuery} with already percent-encoded name and value, which are used as they are
+     * @param name Non-null percent-encoded {@link RequestQuery} name
+     * @param value Non-null percent-encoded {@link RequestQuery} value
+     * @return Non-null {@link RequestQuery} with name and value
+     */
+    public static @NotNull RequestQuery ofEncoded(@NotNull String name, @NotNull String value) {
+        return new RequestQuery(name, value, true);
     }
 }
@@ -0,0 +1,458 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scheduler of requests sent by {@link WrappedApi#send(ApiRequest)} and {@link WrappedApi#sendAsync(ApiRequest)}. Override
+ * {@link WrappedApi#createRequestScheduler()} to enable it - at most {@link #getMaxConcurrency()} requests are then in flight at once, other
+ * requests wait in a bounded queue and are dispatched:
+ * <ul>
+ *     <li>by their {@link RequestPriority}, set by {@link ApiRequestBuilder#withPriority(RequestPriority)} - waiting requests of higher priority are
+ *     always dispatched first,</li>
+ *     <li>fairly across the endpoint templates within the same priority - each {@link ApiRequest#getEndpoint()} gets the share of dispatches
+ *     proportional to its weight, see {@link #withEndpointWeight(String, int)}, so one busy endpoint cannot starve the others,</li>
+ *     <li>in order of sending within the same endpoint template.</li>
+ * </ul>
+ * Requests which are not dispatched within their {@linkplain ApiRequestBuilder#withDeadline(Duration) deadline} fail with
+ * {@link RequestDeadlineExceededException}. When the queue is full, the waiting request of the lowest priority is rejected with
+ * {@link RejectedExecutionException} to make room for a request of higher priority, otherwise the new request is rejected.
+ * <pre>{@code
+ * public RequestScheduler createRequestScheduler() {
+ *     return new RequestScheduler(16, 1000).withEndpointWeight("/search", 4);
+ * }
+ *
+ * ApiRequest.builder(api, Sync.class).withEndpoint("/sync").withPriority(RequestPriority.BACKGROUND).build().sendAsync();
+ * }</pre>
+ * Slots are held until the response is handled, including retries. Cached and coalesced responses do not take any slot. The time requests waited in
+ * the queue is recorded by {@link #getQueueWaitTime(RequestPriority)} and by {@link RequestContext.Phase#DISPATCHED}. This class is thread-safe.
+ */
+public class RequestScheduler {
+
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+    private static final ScheduledThreadPoolExecutor DEADLINE_TIMER = createDeadlineTimer();
+
+    private final @Getter int maxConcurrency;
+    private final @Getter int queueCapacity;
+    private final Map<String, Integer> endpointWeights = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final TreeSet<Entry> queue = new TreeSet<>();
+    private final int[] queuedCounts = new int[PRIORITIES.length];
+    private final double[] virtualTimes = new double[PRIORITIES.length];
+    private final Map<String, Double>[] finishTags;
+    private long nextSequence;
+    private int runningCount;
+
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final LatencyHistogram queueWaitTime = new LatencyHistogram();
+    private final LatencyHistogram[] priorityQueueWaitTimes = new LatencyHistogram[PRIORITIES.length];
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    /**
+     * Creates {@link RequestScheduler}
+     *
+     * @param maxConcurrency Maximum number of requests in flight at once, must be positive
+     * @param queueCapacity  Capacity of the queue for waiting requests, must not be negative
+     */
+    @SuppressWarnings("unchecked")
+    public RequestScheduler(int maxConcurrency, int queueCapacity) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive, currently is: " + maxConcurrency);
+        }
+
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity must not be negative, currently is: " + queueCapacity);
+        }
+
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.finishTags = new Map[PRIORITIES.length];
+
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            finishTags[i] = new HashMap<>();
+            priorityQueueWaitTimes[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Sets the weight of the endpoint template. When requests of more endpoint templates wait with the same priority, each endpoint template is
+     * dispatched proportionally to its weight.
+     *
+     * @param endpoint Non-null endpoint template, as in {@link ApiRequest#getEndpoint()}
+     * @param weight   Positive weight. Defaults to 1.
+     *
+     * @return This {@link RequestScheduler}
+     */
+    public RequestScheduler withEndpointWeight(@NonNull String endpoint, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive, currently is: " + weight);
+        }
+
+        endpointWeights.put(endpoint, weight);
+        return this;
+    }
+
+    /**
+     * Gets the weight of the endpoint template.
+     *
+     * @param endpoint Nullable endpoint template
+     *
+     * @return Weight of the endpoint template
+     */
+    public int getEndpointWeight(String endpoint) {
+        return endpoint != null ? endpointWeights.getOrDefault(endpoint, 1) : 1;
+    }
+
+    /**
+     * Gets the number of requests waiting in the queue.
+     *
+     * @return Number of requests
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of requests waiting in the queue with the priority.
+     *
+     * @param priority Non-null priority
+     *
+     * @return Number of requests
+     */
+    public synchronized int getQueuedCount(@NonNull RequestPriority priority) {
+        return queuedCounts[priority.ordinal()];
+    }
+
+    /**
+     * Gets the number of dispatched requests in flight.
+     *
+     * @return Number of requests
+     */
+    public synchronized int getRunningCount() {
+        return runningCount;
+    }
+
+    /**
+     * Gets the number of dispatched requests.
+     *
+     * @return Number of requests
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.sum();
+    }
+
+    /**
+     * Gets the number of requests rejected because the queue was full.
+     *
+     * @return Number of requests
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Gets the number of requests which were not dispatched within their deadline.
+     *
+     * @return Number of requests
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * Gets the time the dispatched requests waited in the queue. Requests dispatched without waiting are recorded as well.
+     *
+     * @return Non-null {@link LatencyHistogram.Snapshot}
+     */
+    public LatencyHistogram.Snapshot getQueueWaitTime() {
+        return queueWaitTime.getSnapshot();
+    }
+
+    /**
+     * Gets the time the dispatched requests of the priority waited in the queue.
+     *
+     * @param priority Non-null priority
+     *
+     * @return Non-null {@link LatencyHistogram.Snapshot}
+     */
+    public LatencyHistogram.Snapshot getQueueWaitTime(@NonNull RequestPriority priority) {
+        return priorityQueueWaitTimes[priority.ordinal()].getSnapshot();
+    }
+
+    /**
+     * Enqueues the request. The returned future is completed when the request is dispatched, then its slot must be released using
+     * {@link #release()}. It is completed exceptionally with {@link RejectedExecutionException} if the request was rejected, or with
+     * {@link RequestDeadlineExceededException} if it was not dispatched within its deadline.
+     *
+     * @param apiRequest Non-null request
+     *
+     * @return Non-null future
+     */
+    CompletableFuture<Void> acquire(ApiRequest<?> apiRequest) {
+        RequestPriority priority = apiRequest.getPriority();
+        Duration deadline = apiRequest.getDeadline();
+        String endpoint = apiRequest.getEndpoint();
+        long nowNanos = System.nanoTime();
+
+        Entry entry;
+        Entry evictedEntry = null;
+
+        synchronized (this) {
+            double startTag = nextStartTag(priority.ordinal(), endpoint);
+
+            if (runningCount < maxConcurrency && queue.isEmpty()) {
+                runningCount++;
+                virtualTimes[priority.ordinal()] = startTag;
+                pruneFinishTags(priority.ordinal());
+                recordDispatch(priority, 0);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            if (queue.size() >= queueCapacity) {
+                evictedEntry = queue.isEmpty() ? null : queue.last();
+
+                if (evictedEntry == null || evictedEntry.priority.ordinal() <= priority.ordinal()) {
+                    rejectedCount.increment();
+                    return CompletableFuture.failedFuture(new RejectedExecutionException("Request queue of " + queueCapacity + " requests is full"));
+                }
+
+                dequeue(evictedEntry);
+            }
+
+            entry = new Entry(priority, startTag, nextSequence++, nowNanos, deadline);
+            queue.add(entry);
+            queuedCounts[priority.ordinal()]++;
+        }
+
+        if (evictedEntry != null) {
+            rejectedCount.increment();
+            evictedEntry.future.completeExceptionally(new RejectedExecutionException("Request was rejected from the full queue by a request of higher priority"));
+        }
+
+        ScheduledFuture<?> deadlineTimer = null;
+
+        if (deadline != null) {
+            Executor executor = apiRequest.getWrappedApi()::runAsync;
+            deadlineTimer = DEADLINE_TIMER.schedule(() -> expire(entry, executor), deadline.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        ScheduledFuture<?> entryDeadlineTimer = deadlineTimer;
+
+        entry.future.whenComplete((ignored, throwable) -> {
+            // Dispatched, rejected or expired, so the timer does not hold the request until its deadline
+            if (entryDeadlineTimer != null) {
+                entryDeadlineTimer.cancel(false);
+            }
+
+            // Cancelled while waiting, e.g. when the thread waiting for it was interrupted
+            if (throwable != null) {
+                dequeue(entry);
+            }
+        });
+
+        // A slot might have been released while the request was enqueued
+        drain();
+        return entry.future;
+    }
+
+    /**
+     * Releases the slot of the dispatched request and dispatches the next waiting request.
+     */
+    void release() {
+        synchronized (this) {
+            runningCount--;
+        }
+
+        drain();
+    }
+
+    /**
+     * Cancels the request, e.g. when the thread waiting for it is interrupted. Releases its slot if it was already dispatched.
+     *
+     * @param future Non-null future returned by {@link #acquire(ApiRequest)}
+     */
+    void cancel(CompletableFuture<Void> future) {
+        if (!future.cancel(false) && !future.isCompletedExceptionally()) {
+            release();
+        }
+    }
+
+    /**
+     * Dispatches the waiting requests while there are free slots. Only one thread dispatches at once, requests to dispatch from other threads - or
+     * from the same thread, when the dispatched request completes synchronously - are handled by its loop, so the stack does not grow.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+
+        do {
+            while (true) {
+                Entry entry;
+
+                synchronized (this) {
+                    if (runningCount >= maxConcurrency || (entry = queue.pollFirst()) == null) {
+                        break;
+                    }
+
+                    queuedCounts[entry.priority.ordinal()]--;
+                    virtualTimes[entry.priority.ordinal()] = entry.startTag;
+                    pruneFinishTags(entry.priority.ordinal());
+                    runningCount++;
+                }
+
+                if (!dispatch(entry)) {
+                    synchronized (this) {
+                        runningCount--;
+                    }
+                }
+            }
+        } while (drainRequests.decrementAndGet() != 0);
+    }
+
+    /**
+     * Completes the future of the dequeued request.
+     *
+     * @return True if the request was dispatched, false if it expired or was cancelled, so its slot is free.
+     */
+    private boolean dispatch(Entry entry) {
+        long waitNanos = System.nanoTime() - entry.enqueuedNanos;
+
+        if (entry.deadline != null && waitNanos >= entry.deadline.toNanos()) {
+            expiredCount.increment();
+            entry.future.completeExceptionally(new RequestDeadlineExceededException(entry.deadline));
+            return false;
+        }
+
+        if (entry.future.isDone()) {
+            return false;
+        }
+
+        recordDispatch(entry.priority, waitNanos);
+        return entry.future.complete(null);
+    }
+
+    /**
+     * Fails the request if it still waits in the queue after its deadline. The future is completed using the executor, so its dependent actions do
+     * not run on the timer thread.
+     */
+    private void expire(Entry entry, Executor executor) {
+        if (!dequeue(entry)) {
+            return;
+        }
+
+        expiredCount.increment();
+        RequestDeadlineExceededException exception = new RequestDeadlineExceededException(entry.deadline);
+
+        try {
+            executor.execute(() -> entry.future.completeExceptionally(exception));
+        } catch (RejectedExecutionException rejectedException) {
+            entry.future.completeExceptionally(exception);
+        }
+    }
+
+    private void recordDispatch(RequestPriority priority, long waitNanos) {
+        dispatchedCount.increment();
+        queueWaitTime.record(waitNanos);
+        priorityQueueWaitTimes[priority.ordinal()].record(waitNanos);
+    }
+
+    /**
+     * Computes the start tag of the next request of the endpoint template using start-time fair queueing - the request starts at the current virtual
+     * time of its priority, or after the previous request of the same endpoint template, which advances the virtual time by the inverse of its weight.
+     * Requests are dispatched in order of their start tags, so endpoint templates with more waiting requests do not get more dispatches.
+     */
+    private double nextStartTag(int priorityIndex, String endpoint) {
+        Map<String, Double> priorityFinishTags = finishTags[priorityIndex];
+        double startTag = Math.max(virtualTimes[priorityIndex], priorityFinishTags.getOrDefault(endpoint, 0d));
+        priorityFinishTags.put(endpoint, startTag + 1d / getEndpointWeight(endpoint));
+        return startTag;
+    }
+
+    /**
+     * Forgets the finish tags of the priority if none of its requests waits, so the map does not grow with the number of endpoints used over time.
+     */
+    private void pruneFinishTags(int priorityIndex) {
+        if (queuedCounts[priorityIndex] == 0) {
+            finishTags[priorityIndex].clear();
+        }
+    }
+
+    /**
+     * Removes the request from the queue.
+     *
+     * @return True if the request was waiting in the queue.
+     */
+    private synchronized boolean dequeue(Entry entry) {
+        if (!queue.remove(entry)) {
+            return false;
+        }
+
+        queuedCounts[entry.priority.ordinal()]--;
+        return true;
+    }
+
+    private static ScheduledThreadPoolExecutor createDeadlineTimer() {
+        ScheduledThreadPoolExecutor deadlineTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "simple-api-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Timers of dispatched requests are removed when cancelled, not when their deadline passes
+        deadlineTimer.setRemoveOnCancelPolicy(true);
+        return deadlineTimer;
+    }
+
+    /**
+     * Request waiting in the queue, ordered by priority, start tag and order of sending. The order is total, so the queue finds and removes the
+     * request in logarithmic time.
+     */
+    private static final class Entry implements Comparable<Entry> {
+
+        private final RequestPriority priority;
+        private final double startTag;
+        private final long sequence;
+        private final long enqueuedNanos;
+        private final Duration deadline;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Entry(RequestPriority priority, double startTag, long sequence, long enqueuedNanos, Duration deadline) {
+            this.priority = priority;
+            this.startTag = startTag;
+            this.sequence = sequence;
+            this.enqueuedNanos = enqueuedNanos;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority.ordinal(), other.priority.ordinal());
+            }
+
+            if (startTag != other.startTag) {
+                return Double.compare(startTag, other.startTag);
+            }
+
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
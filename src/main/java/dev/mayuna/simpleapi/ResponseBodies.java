@@ -0,0 +1,138 @@
+package dev.mayuna.simpleapi;
+
+import lombok.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+
+/**
+ * Utility methods for reading response bodies of different types, so {@link DeserializableApiResponse}s can support both buffered bodies
+ * ({@link String}, <code>byte[]</code>, {@link PooledBody}) and streamed bodies ({@link InputStream}) from
+ * {@link HttpResponse.BodyHandlers#ofInputStream()}.
+ */
+public final class ResponseBodies {
+
+    private ResponseBodies() {
+    }
+
+    /**
+     * Gets the charset from the <code>Content-Type</code> header of the response.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     *
+     * @return Non-null charset, UTF-8 if the header does not specify any or it is not supported.
+     */
+    public static Charset getCharset(@NonNull HttpResponse<?> httpResponse) {
+        String contentType = httpResponse.headers().firstValue("Content-Type").orElse(null);
+
+        if (contentType == null) {
+            return StandardCharsets.UTF_8;
+        }
+
+        for (String parameter : contentType.split(";")) {
+            String trimmedParameter = parameter.trim();
+
+            if (trimmedParameter.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                String charsetName = trimmedParameter.substring("charset=".length()).replace("\"", "").trim();
+
+                try {
+                    return Charset.forName(charsetName);
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException exception) {
+                    return StandardCharsets.UTF_8;
+                }
+            }
+        }
+
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Opens {@link InputStream} of the response body. Supports {@link InputStream}, <code>byte[]</code>, {@link PooledBody} and {@link String}
+     * bodies.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     *
+     * @return Non-null {@link InputStream}, should be closed after reading.
+     *
+     * @throws IllegalArgumentException If the body type is not supported.
+     */
+    public static InputStream openInputStream(@NonNull HttpResponse<?> httpResponse) {
+        Object responseBody = httpResponse.body();
+
+        if (responseBody instanceof InputStream) {
+            return (InputStream) responseBody;
+        }
+
+        if (responseBody instanceof byte[]) {
+            return new ByteArrayInputStream((byte[]) responseBody);
+        }
+
+        if (responseBody instanceof PooledBody) {
+            return ((PooledBody) responseBody).openInputStream();
+        }
+
+        if (responseBody instanceof String) {
+            return new ByteArrayInputStream(((String) responseBody).getBytes(getCharset(httpResponse)));
+        }
+
+        throw new IllegalArgumentException("Response body must be an InputStream, byte array, PooledBody or string, currently is: " + getBodyClass(responseBody));
+    }
+
+    /**
+     * Opens {@link Reader} of the response body, decoded using {@link #getCharset(HttpResponse)}. Supports {@link Reader}, {@link String},
+     * {@link InputStream}, <code>byte[]</code> and {@link PooledBody} bodies.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     *
+     * @return Non-null {@link Reader}, should be closed after reading.
+     *
+     * @throws IllegalArgumentException If the body type is not supported.
+     */
+    public static Reader openReader(@NonNull HttpResponse<?> httpResponse) {
+        Object responseBody = httpResponse.body();
+
+        if (responseBody instanceof Reader) {
+            return (Reader) responseBody;
+        }
+
+        if (responseBody instanceof String) {
+            return new StringReader((String) responseBody);
+        }
+
+        if (responseBody instanceof InputStream || responseBody instanceof byte[] || responseBody instanceof PooledBody) {
+            return new InputStreamReader(openInputStream(httpResponse), getCharset(httpResponse));
+        }
+
+        throw new IllegalArgumentException("Response body must be a string, InputStream, Reader, byte array or PooledBody, currently is: " + getBodyClass(responseBody));
+    }
+
+    /**
+     * Closes the response body if it is a stream. Exceptions are ignored.
+     *
+     * @param httpResponse Non-null {@link HttpResponse}
+     */
+    public static void closeQuietly(@NonNull HttpResponse<?> httpResponse) {
+        Object responseBody = httpResponse.body();
+
+        if (responseBody instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) responseBody).close();
+            } catch (Exception ignored) {
+                // Body is not needed anymore
+            }
+        }
+    }
+
+    private static Class<?> getBodyClass(Object responseBody) {
+        return responseBody == null ? null : responseBody.getClass();
+    }
+}
@@ -0,0 +1,527 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.lang.reflect.Type;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of deserialized responses, following HTTP caching semantics. Enable it by overriding {@link WrappedApi#createResponseCache()}.
+ * <ul>
+ *     <li>Only <code>GET</code> and <code>HEAD</code> requests with <code>200</code> responses are cached.</li>
+ *     <li>Freshness is computed from <code>Cache-Control: max-age</code> (minus <code>Age</code>) or <code>Expires</code>. Responses with
+ *     <code>Cache-Control: no-store</code> are not cached, responses with <code>no-cache</code> are always revalidated.</li>
+ *     <li>Stale responses with <code>ETag</code> or <code>Last-Modified</code> are revalidated using <code>If-None-Match</code> and
+ *     <code>If-Modified-Since</code>. On <code>304 Not Modified</code>, the cached response is returned.</li>
+ *     <li>Entries are keyed by request method, URI and response type. Responses with <code>Vary</code> header are stored as separate variants
+ *     under the same key, selected by the values of the listed request headers - e.g. responses to different <code>Accept</code> headers do not
+ *     replace each other.</li>
+ *     <li>The cache is bounded by number of entries and bytes (from <code>Content-Length</code> or buffered body size), least recently used
+ *     entries are evicted first. Entries are also evicted after {@link #getTimeToLive()}.</li>
+ * </ul>
+ * The same deserialized response instance is returned to all callers, so it should not be modified. Cached {@link ApiResponse}s hold their
+ * {@link WrappedApi} weakly, so the cache does not prevent the {@link WrappedApi} from being garbage collected.
+ */
+public class ResponseCache {
+
+    private final @Getter int maxEntries;
+    private final @Getter long maxBytes;
+    private final @Getter Duration timeToLive;
+
+    private final LinkedHashMap<String, List<Entry>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int entryCount;
+    private long currentBytes;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder revalidationCount = new LongAdder();
+    private final LongAdder storeCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates {@link ResponseCache}
+     *
+     * @param maxEntries Maximum number of cached responses
+     * @param maxBytes   Maximum total size of cached responses in bytes
+     * @param timeToLive Non-null maximum time the response is kept in the cache, regardless of its freshness
+     */
+    public ResponseCache(int maxEntries, long maxBytes, @NonNull Duration timeToLive) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Max entries and max bytes must be positive");
+        }
+
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Creates {@link ResponseCache} with time to live of one hour
+     *
+     * @param maxEntries Maximum number of cached responses
+     * @param maxBytes   Maximum total size of cached responses in bytes
+     */
+    public ResponseCache(int maxEntries, long maxBytes) {
+        this(maxEntries, maxBytes, Duration.ofHours(1));
+    }
+
+    /**
+     * Determines if the request can be served from the cache.
+     *
+     * @param httpRequest Non-null {@link HttpRequest}
+     *
+     * @return True if the request method is <code>GET</code> or <code>HEAD</code> and the request does not forbid caching.
+     */
+    public boolean isCacheable(@NonNull HttpRequest httpRequest) {
+        String method = httpRequest.method();
+
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return false;
+        }
+
+        for (String cacheControl : httpRequest.headers().allValues("Cache-Control")) {
+            String lowerCaseCacheControl = cacheControl.toLowerCase(Locale.ROOT);
+
+            if (lowerCaseCacheControl.contains("no-store") || lowerCaseCacheControl.contains("no-cache")) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Looks up the cached entry for the request.
+     *
+     * @param httpRequest  Non-null {@link HttpRequest}
+     * @param responseType Non-null response type
+     *
+     * @return Nullable {@link Entry}. Check {@link Entry#isFresh()} to determine if it must be revalidated.
+     */
+    public Entry lookup(@NonNull HttpRequest httpRequest, @NonNull Type responseType) {
+        String key = createKey(httpRequest, responseType);
+        Entry entry;
+
+        synchronized (this) {
+            entry = findVariant(key, httpRequest);
+        }
+
+        if (entry == null || !entry.isFresh()) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+
+        return entry;
+    }
+
+    /**
+     * Adds <code>If-None-Match</code> and <code>If-Modified-Since</code> headers to the request, so the server can respond with <code>304 Not
+     * Modified</code>.
+     *
+     * @param httpRequest Non-null {@link HttpRequest}
+     * @param entry       Non-null stale {@link Entry}
+     *
+     * @return Non-null conditional {@link HttpRequest}
+     */
+    public HttpRequest createConditionalRequest(@NonNull HttpRequest httpRequest, @NonNull Entry entry) {
+        Map<String, String> conditionalHeaders = new HashMap<>();
+
+        if (entry.getEntityTag() != null) {
+            conditionalHeaders.put("If-None-Match", entry.getEntityTag());
+        }
+
+        if (entry.getLastModified() != null) {
+            conditionalHeaders.put("If-Modified-Since", entry.getLastModified());
+        }
+
+        if (conditionalHeaders.isEmpty()) {
+            return httpRequest;
+        }
+
+        return HttpRequests.withHeaders(httpRequest, conditionalHeaders);
+    }
+
+    /**
+     * Marks the entry as revalidated by <code>304 Not Modified</code> response, updating its freshness from the response headers.
+     *
+     * @param entry        Non-null {@link Entry}
+     * @param httpResponse Non-null <code>304</code> {@link HttpResponse}
+     */
+    public void revalidated(@NonNull Entry entry, @NonNull HttpResponse<?> httpResponse) {
+        revalidationCount.increment();
+
+        CacheControl cacheControl = CacheControl.of(httpResponse.headers());
+
+        synchronized (this) {
+            entry.freshUntilNanos = cacheControl.computeFreshUntilNanos();
+            entry.alwaysRevalidate = cacheControl.noCache;
+        }
+    }
+
+    /**
+     * Stores the deserialized response, if the response is cacheable.
+     *
+     * @param httpRequest  Non-null {@link HttpRequest} which was sent, without conditional headers
+     * @param responseType Non-null response type
+     * @param httpResponse Non-null {@link HttpResponse}
+     * @param response     Nullable deserialized response, null responses are not stored
+     */
+    public void store(@NonNull HttpRequest httpRequest, @NonNull Type responseType, @NonNull HttpResponse<?> httpResponse, Object response) {
+        if (response == null || httpResponse.statusCode() != 200) {
+            return;
+        }
+
+        HttpHeaders headers = httpResponse.headers();
+        CacheControl cacheControl = CacheControl.of(headers);
+
+        if (cacheControl.noStore) {
+            return;
+        }
+
+        String entityTag = headers.firstValue("ETag").orElse(null);
+        String lastModified = headers.firstValue("Last-Modified").orElse(null);
+        long freshUntilNanos = cacheControl.computeFreshUntilNanos();
+
+        boolean hasValidators = entityTag != null || lastModified != null;
+
+        if (!hasValidators && (cacheControl.noCache || freshUntilNanos - System.nanoTime() <= 0)) {
+            // Could never be used
+            return;
+        }
+
+        List<String> varyHeaderNames = new ArrayList<>();
+
+        for (String vary : headers.allValues("Vary")) {
+            for (String headerName : vary.split(",")) {
+                String trimmedHeaderName = headerName.trim();
+
+                if (trimmedHeaderName.equals("*")) {
+                    return;
+                }
+
+                if (!trimmedHeaderName.isEmpty()) {
+                    varyHeaderNames.add(trimmedHeaderName);
+                }
+            }
+        }
+
+        Map<String, List<String>> varyHeaderValues = new HashMap<>();
+
+        for (String varyHeaderName : varyHeaderNames) {
+            varyHeaderValues.put(varyHeaderName.toLowerCase(Locale.ROOT), httpRequest.headers().allValues(varyHeaderName));
+        }
+
+        long sizeBytes = estimateSize(httpResponse);
+
+        if (sizeBytes > maxBytes) {
+            return;
+        }
+
+        if (response instanceof ApiResponse) {
+            // The cache is a resource of the WrappedApi, so it must not hold it strongly
+            ((ApiResponse<?>) response).holdWrappedApiWeakly();
+        }
+
+        Entry entry = new Entry(response, entityTag, lastModified, freshUntilNanos, cacheControl.noCache, Deadlines.after(System.nanoTime(), timeToLive),
+                                sizeBytes, varyHeaderValues
+        );
+
+        String key = createKey(httpRequest, responseType);
+
+        synchronized (this) {
+            List<Entry> variants = entries.computeIfAbsent(key, ignored -> new ArrayList<>(1));
+
+            // Replaces the variant selected by the same request headers, or the entry without Vary header
+            for (Iterator<Entry> iterator = variants.iterator(); iterator.hasNext(); ) {
+                Entry variant = iterator.next();
+
+                if (variant.matchesVary(httpRequest)) {
+                    iterator.remove();
+                    removed(variant);
+                }
+            }
+
+            variants.add(entry);
+            entryCount++;
+            currentBytes += sizeBytes;
+            storeCount.increment();
+            evictIfNecessary();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        entryCount = 0;
+        currentBytes = 0;
+    }
+
+    /**
+     * Gets statistics of this cache.
+     *
+     * @return Non-null {@link Statistics}
+     */
+    public synchronized Statistics getStatistics() {
+        return new Statistics(hitCount.sum(), missCount.sum(), revalidationCount.sum(), storeCount.sum(), evictionCount.sum(), entryCount,
+                              currentBytes
+        );
+    }
+
+    private static String createKey(HttpRequest httpRequest, Type responseType) {
+        return httpRequest.method() + " " + httpRequest.uri() + " " + responseType.getTypeName();
+    }
+
+    private static long estimateSize(HttpResponse<?> httpResponse) {
+        Object body = httpResponse.body();
+
+        if (body instanceof String) {
+            return ((String) body).length();
+        }
+
+        if (body instanceof byte[]) {
+            return ((byte[]) body).length;
+        }
+
+        if (body instanceof PooledBody) {
+            return ((PooledBody) body).getSize();
+        }
+
+        return Math.max(0, httpResponse.headers().firstValueAsLong("Content-Length").orElse(0));
+    }
+
+    /**
+     * Finds the newest variant under the key matching the request headers, removing the expired variants.
+     */
+    private Entry findVariant(String key, HttpRequest httpRequest) {
+        List<Entry> variants = entries.get(key);
+
+        if (variants == null) {
+            return null;
+        }
+
+        Entry matchingVariant = null;
+
+        for (Iterator<Entry> iterator = variants.iterator(); iterator.hasNext(); ) {
+            Entry variant = iterator.next();
+
+            if (variant.isExpired()) {
+                iterator.remove();
+                removed(variant);
+                evictionCount.increment();
+            } else if (variant.matchesVary(httpRequest)) {
+                matchingVariant = variant;
+            }
+        }
+
+        if (variants.isEmpty()) {
+            entries.remove(key);
+        }
+
+        return matchingVariant;
+    }
+
+    private void removed(Entry entry) {
+        entryCount--;
+        currentBytes -= entry.sizeBytes;
+    }
+
+    private void evictIfNecessary() {
+        Iterator<List<Entry>> iterator = entries.values().iterator();
+
+        while ((entryCount > maxEntries || currentBytes > maxBytes) && iterator.hasNext()) {
+            List<Entry> variants = iterator.next();
+
+            // Oldest variants of the least recently used key first
+            while (!variants.isEmpty() && (entryCount > maxEntries || currentBytes > maxBytes)) {
+                removed(variants.remove(0));
+                evictionCount.increment();
+            }
+
+            if (variants.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Cached response
+     */
+    public static final class Entry {
+
+        private final @Getter Object response;
+        private final @Getter String entityTag;
+        private final @Getter String lastModified;
+        private final long expiresAtNanos;
+        private final long sizeBytes;
+        private final Map<String, List<String>> varyHeaderValues;
+
+        private volatile long freshUntilNanos;
+        private volatile boolean alwaysRevalidate;
+
+        private Entry(Object response, String entityTag, String lastModified, long freshUntilNanos, boolean alwaysRevalidate, long expiresAtNanos, long sizeBytes, Map<String, List<String>> varyHeaderValues) {
+            this.response = response;
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+            this.freshUntilNanos = freshUntilNanos;
+            this.alwaysRevalidate = alwaysRevalidate;
+            this.expiresAtNanos = expiresAtNanos;
+            this.sizeBytes = sizeBytes;
+            this.varyHeaderValues = varyHeaderValues;
+        }
+
+        /**
+         * Determines if the response can be used without revalidation.
+         *
+         * @return True if fresh.
+         */
+        public boolean isFresh() {
+            return !alwaysRevalidate && freshUntilNanos - System.nanoTime() > 0;
+        }
+
+        private boolean isExpired() {
+            return expiresAtNanos - System.nanoTime() <= 0;
+        }
+
+        private boolean matchesVary(HttpRequest httpRequest) {
+            for (Map.Entry<String, List<String>> varyHeader : varyHeaderValues.entrySet()) {
+                if (!varyHeader.getValue().equals(httpRequest.headers().allValues(varyHeader.getKey()))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Snapshot of {@link ResponseCache} statistics
+     */
+    public static final class Statistics {
+
+        private final @Getter long hitCount;
+        private final @Getter long missCount;
+        private final @Getter long revalidationCount;
+        private final @Getter long storeCount;
+        private final @Getter long evictionCount;
+        private final @Getter int entryCount;
+        private final @Getter long sizeBytes;
+
+        private Statistics(long hitCount, long missCount, long revalidationCount, long storeCount, long evictionCount, int entryCount, long sizeBytes) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.revalidationCount = revalidationCount;
+            this.storeCount = storeCount;
+            this.evictionCount = evictionCount;
+            this.entryCount = entryCount;
+            this.sizeBytes = sizeBytes;
+        }
+
+        /**
+         * Gets the ratio of fresh hits to all lookups.
+         *
+         * @return Hit rate between 0 and 1.
+         */
+        public double getHitRate() {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 0 : (double) hitCount / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "ResponseCache.Statistics{hits=" + hitCount + ", misses=" + missCount + ", revalidations=" + revalidationCount + ", stores=" + storeCount +
+                    ", evictions=" + evictionCount + ", entries=" + entryCount + ", bytes=" + sizeBytes + "}";
+        }
+    }
+
+    /**
+     * Parsed caching headers of a response
+     */
+    private static final class CacheControl {
+
+        private boolean noStore;
+        private boolean noCache;
+        private long maxAgeSeconds = -1;
+        private long ageSeconds;
+        private ZonedDateTime expires;
+        private ZonedDateTime date;
+
+        private static CacheControl of(HttpHeaders headers) {
+            CacheControl cacheControl = new CacheControl();
+
+            for (String value : headers.allValues("Cache-Control")) {
+                for (String directive : value.split(",")) {
+                    String trimmedDirective = directive.trim().toLowerCase(Locale.ROOT);
+
+                    if (trimmedDirective.equals("no-store")) {
+                        cacheControl.noStore = true;
+                    } else if (trimmedDirective.equals("no-cache") || trimmedDirective.startsWith("no-cache=")) {
+                        cacheControl.noCache = true;
+                    } else if (trimmedDirective.startsWith("max-age=")) {
+                        cacheControl.maxAgeSeconds = parseSeconds(trimmedDirective.substring("max-age=".length()));
+                    }
+                }
+            }
+
+            cacheControl.ageSeconds = Math.max(0, headers.firstValue("Age").map(CacheControl::parseSeconds).orElse(0L));
+            // Invalid Expires dates, e.g. "0", mean already expired
+            cacheControl.expires = headers.firstValue("Expires").map(value -> {
+                ZonedDateTime expires = parseDate(value);
+                return expires != null ? expires : ZonedDateTime.now().minusYears(1);
+            }).orElse(null);
+            cacheControl.date = headers.firstValue("Date").map(CacheControl::parseDate).orElse(null);
+
+            return cacheControl;
+        }
+
+        private long computeFreshUntilNanos() {
+            long now = System.nanoTime();
+            long freshnessSeconds;
+
+            if (maxAgeSeconds >= 0) {
+                freshnessSeconds = maxAgeSeconds - ageSeconds;
+            } else if (expires != null) {
+                ZonedDateTime responseDate = date != null ? date : ZonedDateTime.now();
+                freshnessSeconds = Duration.between(responseDate, expires).getSeconds();
+            } else {
+                freshnessSeconds = 0;
+            }
+
+            // Far-future Expires or huge max-age would overflow, so the freshness is clamped
+            return Deadlines.after(now, Duration.ofSeconds(Math.max(0, freshnessSeconds)));
+        }
+
+        private static long parseSeconds(String value) {
+            try {
+                return Long.parseLong(value.replace("\"", "").trim());
+            } catch (NumberFormatException exception) {
+                return 0;
+            }
+        }
+
+        private static ZonedDateTime parseDate(String value) {
+            try {
+                return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            } catch (DateTimeParseException exception) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Creates instances of a response class. The no-args constructor is looked up only once per class and turned into a generated {@link Supplier}
+ * (or {@link MethodHandle} if that is not possible), so no reflection is used when creating responses. Factories are cached per class, use
+ * {@link #of(Class)} to get them.
+ *
+ * @param <T> The type of the response.
+ */
+public final class ResponseFactory<T> {
+
+    private static final ClassValue<ResponseFactory<?>> FACTORIES = new ClassValue<>() {
+        @Override
+        protected ResponseFactory<?> computeValue(Class<?> type) {
+            return new ResponseFactory<>(type);
+        }
+    };
+
+    private final @Getter Class<T> responseClass;
+    private final @Getter boolean apiResponse;
+    private final @Getter boolean deserializableApiResponse;
+    private final @Getter boolean streamingApiResponse;
+    private final @Getter boolean directlyDeserialized;
+
+    private final Supplier<Object> constructor;
+    private final ReflectiveOperationException constructorLookupException;
+
+    private ResponseFactory(Class<T> responseClass) {
+        this.responseClass = responseClass;
+        this.apiResponse = ApiResponse.class.isAssignableFrom(responseClass);
+        this.deserializableApiResponse = DeserializableApiResponse.class.isAssignableFrom(responseClass);
+        this.streamingApiResponse = StreamingApiResponse.class.isAssignableFrom(responseClass);
+        this.directlyDeserialized = responseClass.isArray() || Collection.class.isAssignableFrom(responseClass) || Map.class.isAssignableFrom(responseClass);
+
+        Supplier<Object> foundConstructor = null;
+        ReflectiveOperationException lookupException = null;
+
+        try {
+            foundConstructor = createConstructor(responseClass);
+        } catch (ReflectiveOperationException exception) {
+            lookupException = exception;
+        }
+
+        this.constructor = foundConstructor;
+        this.constructorLookupException = lookupException;
+    }
+
+    /**
+     * Gets the cached {@link ResponseFactory} of the response class.
+     *
+     * @param responseClass Non-null response class
+     * @param <T>           The type of the response.
+     *
+     * @return Non-null {@link ResponseFactory}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ResponseFactory<T> of(@NonNull Class<T> responseClass) {
+        return (ResponseFactory<T>) FACTORIES.get(responseClass);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> createConstructor(Class<?> responseClass) throws ReflectiveOperationException {
+        if (responseClass.isArray() || responseClass.isPrimitive()) {
+            return null;
+        }
+
+        if (responseClass.isInterface() || Modifier.isAbstract(responseClass.getModifiers())) {
+            throw new InstantiationException("Cannot create instance of abstract class or interface " + responseClass.getName());
+        }
+
+        MethodHandles.Lookup lookup;
+
+        try {
+            lookup = MethodHandles.privateLookupIn(responseClass, MethodHandles.lookup());
+        } catch (IllegalAccessException exception) {
+            lookup = MethodHandles.publicLookup();
+        }
+
+        MethodHandle constructorHandle = lookup.findConstructor(responseClass, MethodType.methodType(void.class));
+
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                                                              constructorHandle, MethodType.methodType(responseClass)
+            );
+
+            return (Supplier<Object>) callSite.getTarget().invokeExact();
+        } catch (Throwable throwable) {
+            // Lambda cannot be generated for this class (e.g. insufficient access), use the method handle directly
+            MethodHandle objectConstructorHandle = constructorHandle.asType(MethodType.methodType(Object.class));
+
+            return () -> {
+                try {
+                    return objectConstructorHandle.invokeExact();
+                } catch (RuntimeException | Error exception) {
+                    throw exception;
+                } catch (Throwable constructorThrowable) {
+                    throw new ConstructorException(constructorThrowable);
+                }
+            };
+        }
+    }
+
+    /**
+     * Determines if instances of the response class can be created using {@link #newInstance()}.
+     *
+     * @return True if the response class has accessible no-args constructor.
+     */
+    public boolean isInstantiable() {
+        return constructor != null;
+    }
+
+    /**
+     * Creates new instance of the response class.
+     *
+     * @return Non-null instance of the response class.
+     *
+     * @throws NoSuchMethodException     Is thrown if the response class does not have a default constructor.
+     * @throws InvocationTargetException Is thrown if the constructor of the response class throws an exception.
+     * @throws InstantiationException    Is thrown if the response class is abstract or interface.
+     * @throws IllegalAccessException    Is thrown if the constructor of the response class is not accessible.
+     */
+    public T newInstance() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
+        if (constructor == null) {
+            if (responseClass.isArray()) {
+                throw new RuntimeException("Cannot create instance of array");
+            }
+
+            rethrowConstructorLookupException();
+        }
+
+        try {
+            return responseClass.cast(constructor.get());
+        } catch (ConstructorException exception) {
+            throw new InvocationTargetException(exception.getCause());
+        } catch (Throwable throwable) {
+            // Generated supplier re-throws anything thrown by the constructor as it is
+            throw new InvocationTargetException(throwable);
+        }
+    }
+
+    private void rethrowConstructorLookupException() throws NoSuchMethodException, InstantiationException, IllegalAccessException {
+        if (constructorLookupException instanceof NoSuchMethodException) {
+            throw (NoSuchMethodException) constructorLookupException;
+        }
+
+        if (constructorLookupException instanceof InstantiationException) {
+            throw (InstantiationException) constructorLookupException;
+        }
+
+        if (constructorLookupException instanceof IllegalAccessException) {
+            throw (IllegalAccessException) constructorLookupException;
+        }
+
+        if (constructorLookupException != null) {
+            throw new InstantiationException("Cannot create instance of " + responseClass.getName() + ": " + constructorLookupException);
+        }
+
+        throw new InstantiationException("Cannot create instance of " + responseClass.getName());
+    }
+
+    /**
+     * Wraps checked exception thrown by a constructor
+     */
+    private static final class ConstructorException extends RuntimeException {
+
+        private ConstructorException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+
+/**
+ * Represents generic response type, e.g. <code>List&lt;Foo&gt;</code>, which cannot be represented by {@link Class}. Create it as an anonymous
+ * subclass:
+ * <pre>{@code
+ * ApiRequest.builder(api, new ResponseType<List<Foo>>() {})
+ * }</pre>
+ * Responses of such types are deserialized directly by {@link WrappedApi#deserializeResponseBody(ApiRequest, java.net.http.HttpResponse,
+ * Type)}, without any wrapper object.
+ *
+ * @param <T> The type of the response.
+ */
+public abstract class ResponseType<T> {
+
+    private final @Getter Type type;
+    private final @Getter Class<T> rawType;
+
+    /**
+     * Creates {@link ResponseType} from the type argument of the anonymous subclass
+     */
+    protected ResponseType() {
+        Type superclass = getClass().getGenericSuperclass();
+
+        if (!(superclass instanceof ParameterizedType)) {
+            throw new IllegalStateException("ResponseType must be created with type argument, e.g. new ResponseType<List<Foo>>() {}");
+        }
+
+        this.type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+        this.rawType = getRawType(type);
+    }
+
+    private ResponseType(Type type) {
+        this.type = type;
+        this.rawType = getRawType(type);
+    }
+
+    /**
+     * Creates {@link ResponseType} of the given {@link Type}
+     *
+     * @param type Non-null type
+     * @param <T>  The type of the response.
+     *
+     * @return Non-null {@link ResponseType}
+     */
+    public static <T> ResponseType<T> of(@NonNull Type type) {
+        return new ResponseType<>(type) {
+        };
+    }
+
+    /**
+     * Gets the raw {@link Class} of the {@link Type}.
+     *
+     * @param type Non-null type
+     * @param <T>  The type of the class.
+     *
+     * @return Non-null raw class
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Class<T> getRawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<T>) type;
+        }
+
+        if (type instanceof ParameterizedType) {
+            return getRawType(((ParameterizedType) type).getRawType());
+        }
+
+        if (type instanceof GenericArrayType) {
+            Class<?> componentType = getRawType(((GenericArrayType) type).getGenericComponentType());
+            return (Class<T>) Array.newInstance(componentType, 0).getClass();
+        }
+
+        if (type instanceof WildcardType) {
+            return getRawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+
+        if (type instanceof TypeVariable) {
+            return (Class<T>) Object.class;
+        }
+
+        throw new IllegalArgumentException("Unsupported type " + type);
+    }
+}
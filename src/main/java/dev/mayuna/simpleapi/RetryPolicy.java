@@ -0,0 +1,264 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Declarative retry policy of requests. Override {@link WrappedApi#getRetryPolicy()} or use {@link ApiRequestBuilder#withRetryPolicy(RetryPolicy)}
+ * to enable retries.<br>Failed attempts are retried after exponential backoff with full jitter - random delay between zero and
+ * <code>initialBackoff * multiplier^(attempt - 1)</code>, capped by <code>maxBackoff</code>. The delay is prolonged by the <code>Retry-After</code>
+ * header of the response, up to one day. No attempt is made if it would not start within the time budget.<br>Only requests with
+ * {@linkplain RequestMethod#isIdempotent() idempotent} request method are retried, unless {@link #withRetryingNonIdempotent(boolean)} is set.
+ * <pre>{@code
+ * RetryPolicy retryPolicy = new RetryPolicy().withMaxAttempts(5)
+ *                                            .withInitialBackoff(Duration.ofMillis(200))
+ *                                            .withTimeBudget(Duration.ofSeconds(20));
+ * }</pre>
+ */
+public class RetryPolicy {
+
+    private @Getter int maxAttempts = 3;
+    private @Getter Duration initialBackoff = Duration.ofMillis(100);
+    private @Getter Duration maxBackoff = Duration.ofSeconds(10);
+    private @Getter double multiplier = 2;
+    private @Getter Duration timeBudget = Duration.ofSeconds(30);
+    private @Getter boolean retryingNonIdempotent = false;
+    private @Getter boolean respectingRetryAfter = true;
+    private final @Getter Set<Integer> retryableStatusCodes = new HashSet<>(List.of(408, 429, 500, 502, 503, 504));
+    private final @Getter List<Class<? extends Throwable>> retryableExceptions = new ArrayList<>(Collections.singletonList(IOException.class));
+
+    /**
+     * Creates {@link RetryPolicy} with default values - 3 attempts, backoff from 100 milliseconds to 10 seconds, 30 seconds budget, retrying status
+     * codes 408, 429, 500, 502, 503, 504 and {@link IOException}s.
+     */
+    public RetryPolicy() {
+    }
+
+    /**
+     * Sets the maximum number of attempts, including the first one. Defaults to 3.
+     *
+     * @param maxAttempts Positive number of attempts.
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    public RetryPolicy withMaxAttempts(int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive, currently is: " + maxAttempts);
+        }
+
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the upper bound of the delay before the first retry. Defaults to 100 milliseconds.
+     *
+     * @param initialBackoff Non-null non-negative backoff
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    public RetryPolicy withInitialBackoff(@NonNull Duration initialBackoff) {
+        if (initialBackoff.isNegative()) {
+            throw new IllegalArgumentException("Initial backoff must not be negative, currently is: " + initialBackoff);
+        }
+
+        this.initialBackoff = initialBackoff;
+        return this;
+    }
+
+    /**
+     * Sets the maximum upper bound of the delay between attempts. Defaults to 10 seconds.
+     *
+     * @param maxBackoff Non-null non-negative backoff
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    public RetryPolicy withMaxBackoff(@NonNull Duration maxBackoff) {
+        if (maxBackoff.isNegative()) {
+            throw new IllegalArgumentException("Max backoff must not be negative, currently is: " + maxBackoff);
+        }
+
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    /**
+     * Sets the multiplier of the backoff for each next attempt. Defaults to 2.
+     *
+     * @param multiplier Multiplier, at least 1.
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    public RetryPolicy withMultiplier(double multiplier) {
+        if (!(multiplier >= 1)) {
+            throw new IllegalArgumentException("Multiplier must be at least 1, currently is: " + multiplier);
+        }
+
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    /**
+     * Sets the total time budget, measured from the start of the first attempt. No retry is attempted if it would start after the budget is spent.
+     * Defaults to 30 seconds.
+     *
+     * @param timeBudget Non-null time budget
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    public RetryPolicy withTimeBudget(@NonNull Duration timeBudget) {
+        this.timeBudget = timeBudget;
+        return this;
+    }
+
+    /**
+     * Sets if requests with non-idempotent request methods, such as <code>POST</code>, should be retried. Defaults to false.
+     *
+     * @param retryingNonIdempotent True if non-idempotent requests should be retried.
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    public RetryPolicy withRetryingNonIdempotent(boolean retryingNonIdempotent) {
+        this.retryingNonIdempotent = retryingNonIdempotent;
+        return this;
+    }
+
+    /**
+     * Sets if the delay should be prolonged to the <code>Retry-After</code> header of the response. Defaults to true.
+     *
+     * @param respectingRetryAfter True if the <code>Retry-After</code> header should be respected.
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    public RetryPolicy withRespectingRetryAfter(boolean respectingRetryAfter) {
+        this.respectingRetryAfter = respectingRetryAfter;
+        return this;
+    }
+
+    /**
+     * Sets the HTTP status codes which are retried, replacing the current ones.
+     *
+     * @param statusCodes The status codes.
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    public RetryPolicy withRetryableStatusCodes(int... statusCodes) {
+        this.retryableStatusCodes.clear();
+
+        for (int statusCode : statusCodes) {
+            this.retryableStatusCodes.add(statusCode);
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets the exceptions which are retried, replacing the current ones. Subclasses of the exceptions are retried as well.
+     *
+     * @param exceptions The exception classes.
+     *
+     * @return The {@link RetryPolicy} instance.
+     */
+    @SafeVarargs
+    public final RetryPolicy withRetryableExceptions(@NonNull Class<? extends Throwable>... exceptions) {
+        this.retryableExceptions.clear();
+        Collections.addAll(this.retryableExceptions, exceptions);
+        return this;
+    }
+
+    /**
+     * Determines if requests with the request method may be retried.
+     *
+     * @param requestMethod Non-null {@link RequestMethod}
+     *
+     * @return True if the request may be retried.
+     */
+    public boolean isRetryable(@NonNull RequestMethod requestMethod) {
+        return retryingNonIdempotent || requestMethod.isIdempotent();
+    }
+
+    /**
+     * Determines if the HTTP status code should be retried.
+     *
+     * @param statusCode The HTTP status code.
+     *
+     * @return True if the status code is retryable.
+     */
+    public boolean isRetryable(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * Determines if the exception should be retried.
+     *
+     * @param throwable Non-null exception
+     *
+     * @return True if the exception is retryable.
+     */
+    public boolean isRetryable(@NonNull Throwable throwable) {
+        for (Class<? extends Throwable> retryableException : retryableExceptions) {
+            if (retryableException.isInstance(throwable)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Computes the delay before next attempt.
+     *
+     * @param attempt      Number of the failed attempt, starting from 1.
+     * @param elapsed      Non-null time elapsed since the start of the first attempt.
+     * @param httpResponse Nullable response of the failed attempt.
+     * @param throwable    Nullable exception of the failed attempt.
+     *
+     * @return Nullable delay, null if the request should not be retried.
+     */
+    public Duration getRetryDelay(int attempt, @NonNull Duration elapsed, HttpResponse<?> httpResponse, Throwable throwable) {
+        if (attempt >= maxAttempts) {
+            return null;
+        }
+
+        if (throwable != null ? !isRetryable(throwable) : httpResponse == null || !isRetryable(httpResponse.statusCode())) {
+            return null;
+        }
+
+        Duration delay = computeBackoff(attempt);
+
+        if (respectingRetryAfter && httpResponse != null) {
+            Duration retryAfter = HttpResponses.getRetryAfter(httpResponse);
+
+            if (retryAfter != null && retryAfter.compareTo(delay) > 0) {
+                delay = retryAfter;
+            }
+        }
+
+        if (elapsed.plus(delay).compareTo(timeBudget) > 0) {
+            return null;
+        }
+
+        return delay;
+    }
+
+    private Duration computeBackoff(int attempt) {
+        double upperBoundNanos = initialBackoff.toNanos() * Math.pow(multiplier, attempt - 1);
+        long cappedUpperBoundNanos = (long) Math.min(upperBoundNanos, maxBackoff.toNanos());
+
+        if (cappedUpperBoundNanos <= 0) {
+            return Duration.ZERO;
+        }
+
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(cappedUpperBoundNanos + 1));
+    }
+}
@@ -0,0 +1,314 @@
+package dev.mayuna.simpleapi;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An API response which is consumed element by element while the body is being downloaded, so arbitrarily large responses can be processed in
+ * constant memory. Requests with this response type use {@link HttpResponse.BodyHandlers#ofInputStream()} by default.<br>The elements can be
+ * consumed only once, using {@link #iterator()}, {@link #stream()} or {@link #toPublisher(Executor)}. The response body stays open until all
+ * elements are read or {@link #close()} is called, so always close the response. Your class <strong>must have a constructor without any
+ * arguments</strong>.
+ *
+ * @param <T> The type of the wrapped API.
+ * @param <E> The type of the elements.
+ */
+public abstract class StreamingApiResponse<T extends WrappedApi, E> extends DeserializableApiResponse<T> implements Iterable<E>, AutoCloseable {
+
+    private final transient AtomicBoolean consumed = new AtomicBoolean();
+    private final transient AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Opens the response body for reading elements.
+     *
+     * @param apiRequest   The API request.
+     * @param httpResponse The HTTP response.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    protected abstract void openBody(ApiRequest<?> apiRequest, HttpResponse<?> httpResponse) throws IOException;
+
+    /**
+     * Determines if there is another element in the response body.
+     *
+     * @return True if there is another element.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    protected abstract boolean hasNextElement() throws IOException;
+
+    /**
+     * Reads next element from the response body.
+     *
+     * @return The element.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    protected abstract E readNextElement() throws IOException;
+
+    /**
+     * Closes the response body.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    protected abstract void closeBody() throws IOException;
+
+    /**
+     * Opens the response body and returns this instance. No elements are read yet.
+     *
+     * @param apiRequest   The API request.
+     * @param httpResponse The HTTP response.
+     *
+     * @return This instance.
+     */
+    @Override
+    public Object deserialize(ApiRequest<?> apiRequest, HttpResponse<?> httpResponse) {
+        try {
+            openBody(apiRequest, httpResponse);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets the iterator over the elements. Can be called only once. The response is closed after the last element is read.
+     *
+     * @return Non-null {@link Iterator}
+     *
+     * @throws IllegalStateException If the elements were already consumed.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        if (!consumed.compareAndSet(false, true)) {
+            throw new IllegalStateException("Elements of StreamingApiResponse can be consumed only once");
+        }
+
+        return new ElementIterator();
+    }
+
+    /**
+     * Gets the lazy sequential {@link Stream} of the elements. Can be called only once. Closing the stream closes the response.
+     *
+     * @return Non-null {@link Stream}
+     *
+     * @throws IllegalStateException If the elements were already consumed.
+     */
+    public Stream<E> stream() {
+        Spliterator<E> spliterator = Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Gets {@link Flow.Publisher} of the elements. Elements are read only when the subscriber requests them, so slow subscriber does not cause
+     * buffering. Only one subscriber is allowed. The response is closed when the last element is published, on error or on cancellation. If the
+     * subscriber's {@link Flow.Subscriber#onNext(Object)} throws, the response is closed and the exception is passed to
+     * {@link Flow.Subscriber#onError(Throwable)}.
+     *
+     * @param executor Non-null {@link Executor} which reads the elements and calls the subscriber.
+     *
+     * @return Non-null {@link Flow.Publisher}
+     */
+    public Flow.Publisher<E> toPublisher(@NonNull Executor executor) {
+        return subscriber -> {
+            Iterator<E> iterator;
+
+            try {
+                iterator = iterator();
+            } catch (IllegalStateException exception) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(exception);
+                return;
+            }
+
+            ElementSubscription subscription = new ElementSubscription(subscriber, iterator, executor);
+            subscriber.onSubscribe(subscription);
+        };
+    }
+
+    /**
+     * Determines if this response was closed.
+     *
+     * @return True if closed.
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Closes the response body. Remaining elements are discarded.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            closeBody();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private final class ElementIterator implements Iterator<E> {
+
+        @Override
+        public boolean hasNext() {
+            if (closed.get()) {
+                return false;
+            }
+
+            try {
+                if (hasNextElement()) {
+                    return true;
+                }
+            } catch (IOException exception) {
+                closeQuietly();
+                throw new UncheckedIOException(exception);
+            }
+
+            close();
+            return false;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                return readNextElement();
+            } catch (IOException exception) {
+                closeQuietly();
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (RuntimeException ignored) {
+            // Original exception is more important
+        }
+    }
+
+    private final class ElementSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super E> subscriber;
+        private final Iterator<E> iterator;
+        private final Executor executor;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger workInProgress = new AtomicInteger();
+        private volatile boolean done;
+
+        private ElementSubscription(Flow.Subscriber<? super E> subscriber, Iterator<E> iterator, Executor executor) {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (done) {
+                return;
+            }
+
+            if (n <= 0) {
+                finish(new IllegalArgumentException("Requested number of elements must be positive, currently is: " + n));
+                return;
+            }
+
+            demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            closeQuietly();
+        }
+
+        private void schedule() {
+            if (workInProgress.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException exception) {
+                    finish(exception);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                while (!done && demand.get() > 0) {
+                    E element;
+
+                    try {
+                        if (!iterator.hasNext()) {
+                            finish(null);
+                            return;
+                        }
+
+                        element = iterator.next();
+                    } catch (Throwable throwable) {
+                        finish(throwable);
+                        return;
+                    }
+
+                    demand.decrementAndGet();
+
+                    try {
+                        subscriber.onNext(element);
+                    } catch (Throwable throwable) {
+                        // The subscriber is broken, so the stream is cancelled instead of being stalled
+                        finish(throwable);
+                        return;
+                    }
+                }
+            } while (workInProgress.decrementAndGet() != 0);
+        }
+
+        private void finish(Throwable throwable) {
+            if (done) {
+                return;
+            }
+
+            done = true;
+            closeQuietly();
+
+            if (throwable == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(throwable);
+            }
+        }
+    }
+}
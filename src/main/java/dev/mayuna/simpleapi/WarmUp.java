@@ -0,0 +1,377 @@
+package dev.mayuna.simpleapi;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warm-up of {@link WrappedApi} before it starts serving traffic, see {@link WrappedApi#warmUp(Duration)}. Within the time budget, it:
+ * <ul>
+ *     <li>starts the API using {@link WrappedApi#start()}, which creates the {@link java.net.http.HttpClient} (and pre-warms
+ *     {@link com.google.gson.Gson} of {@link GsonWrappedApi}),</li>
+ *     <li>opens connections to {@link WrappedApi#getDefaultUrl()} and the URLs added by {@link #withUrl(String)} using <code>HEAD</code> requests,
+ *     which resolves DNS and performs TCP and TLS handshakes and HTTP/2 negotiation - the connections are then kept alive in the connection pool,</li>
+ *     <li>touches every {@linkplain WrappedApi#getRegisteredResponseTypes() registered response type} - creates its {@link ResponseFactory} and
+ *     builds a request of it,</li>
+ *     <li>deserializes a synthetic empty response (<code>{}</code> or <code>[]</code> encoded by the default {@link Codec}) of every registered
+ *     response type repeatedly, so the classes are loaded, type adapters created and the deserialization path compiled by JIT.</li>
+ * </ul>
+ * No hooks are called for the warm-up requests and their responses are discarded. Failures do not stop the warm-up, they are reported in the
+ * {@link Result}.
+ * <pre>{@code
+ * public WarmUp createWarmUp() {
+ *     return new WarmUp().withUrl("https://cdn.example.com").withConnectionsPerHost(4);
+ * }
+ *
+ * WarmUp.Result result = api.warmUp(Duration.ofSeconds(5));
+ * readiness.set(result.isCompleted());
+ * }</pre>
+ */
+public class WarmUp {
+
+    private final Set<String> urls = new LinkedHashSet<>();
+    private @Getter int connectionsPerHost = 1;
+    private @Getter int deserializationIterations = 1000;
+
+    /**
+     * Creates {@link WarmUp} of the default URL of the API
+     */
+    public WarmUp() {
+    }
+
+    /**
+     * Adds the URL of another host, to which the connections should be opened as well, e.g. URL used by {@link ApiRequestBuilder#withUrl(String)}.
+     *
+     * @param url Non-null URL
+     *
+     * @return This {@link WarmUp}
+     */
+    public WarmUp withUrl(@NonNull String url) {
+        urls.add(url);
+        return this;
+    }
+
+    /**
+     * Sets the number of concurrent connections opened to each host. HTTP/2 uses one connection per host, so more connections are useful only for
+     * HTTP/1.1.
+     *
+     * @param connectionsPerHost Number of connections, zero disables opening connections. Defaults to 1.
+     *
+     * @return This {@link WarmUp}
+     */
+    public WarmUp withConnectionsPerHost(int connectionsPerHost) {
+        this.connectionsPerHost = connectionsPerHost;
+        return this;
+    }
+
+    /**
+     * Sets how many times the synthetic response of each registered response type is deserialized, if the budget allows it.
+     *
+     * @param deserializationIterations Number of iterations, zero disables the synthetic deserialization. Defaults to 1000.
+     *
+     * @return This {@link WarmUp}
+     */
+    public WarmUp withDeserializationIterations(int deserializationIterations) {
+        this.deserializationIterations = deserializationIterations;
+        return this;
+    }
+
+    /**
+     * Gets the added URLs of other hosts.
+     *
+     * @return Non-null unmodifiable {@link Set} of URLs
+     */
+    public Set<String> getUrls() {
+        return Collections.unmodifiableSet(urls);
+    }
+
+    /**
+     * Warms up the API. Blocks until the warm-up is completed, or the budget is exhausted.
+     *
+     * @param wrappedApi Non-null {@link WrappedApi}
+     * @param budget     Non-null maximum duration of the warm-up
+     *
+     * @return Non-null {@link Result}
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting for the connections.
+     */
+    public Result run(@NonNull WrappedApi wrappedApi, @NonNull Duration budget) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long deadlineNanos = Deadlines.after(startNanos, budget);
+
+        wrappedApi.start();
+
+        Map<String, CompletableFuture<?>> connectionFutures = openConnections(wrappedApi, budget);
+        Map<Type, Throwable> failedResponseTypes = new LinkedHashMap<>();
+        List<Type> warmedResponseTypes = new ArrayList<>();
+        boolean completed = warmUpResponseTypes(wrappedApi, deadlineNanos, warmedResponseTypes, failedResponseTypes);
+
+        List<String> connectedUrls = new ArrayList<>();
+        Map<String, Throwable> failedUrls = new LinkedHashMap<>();
+
+        for (Map.Entry<String, CompletableFuture<?>> entry : connectionFutures.entrySet()) {
+            long remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+
+            try {
+                entry.getValue().get(remainingNanos, TimeUnit.NANOSECONDS);
+                connectedUrls.add(entry.getKey());
+            } catch (ExecutionException exception) {
+                failedUrls.put(entry.getKey(), exception.getCause());
+            } catch (TimeoutException exception) {
+                failedUrls.put(entry.getKey(), exception);
+                completed = false;
+            }
+        }
+
+        return new Result(Duration.ofNanos(System.nanoTime() - startNanos), completed, connectedUrls, failedUrls, warmedResponseTypes,
+                          failedResponseTypes
+        );
+    }
+
+    private Map<String, CompletableFuture<?>> openConnections(WrappedApi wrappedApi, Duration budget) {
+        Map<String, CompletableFuture<?>> connectionFutures = new LinkedHashMap<>();
+
+        if (connectionsPerHost <= 0) {
+            return connectionFutures;
+        }
+
+        Set<String> allUrls = new LinkedHashSet<>();
+        allUrls.add(wrappedApi.getDefaultUrl());
+        allUrls.addAll(urls);
+
+        HttpClient httpClient = wrappedApi.createHttpClientInstance();
+        // Clamped, so a huge budget does not overflow the deadline of the request
+        Duration timeout = Duration.ofNanos(Math.max(Deadlines.toNanos(budget), TimeUnit.MILLISECONDS.toNanos(1)));
+
+        for (String url : allUrls) {
+            CompletableFuture<?>[] futures = new CompletableFuture[connectionsPerHost];
+
+            try {
+                HttpRequest httpRequest = HttpRequest.newBuilder(new URI(url))
+                                                     .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                                                     .timeout(timeout)
+                                                     .build();
+
+                for (int i = 0; i < connectionsPerHost; i++) {
+                    // Any response means the connection was established
+                    futures[i] = httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding());
+                }
+
+                connectionFutures.put(url, CompletableFuture.allOf(futures));
+            } catch (Exception exception) {
+                connectionFutures.put(url, CompletableFuture.failedFuture(exception));
+            }
+        }
+
+        return connectionFutures;
+    }
+
+    /**
+     * Touches the registered response types and deserializes their synthetic responses, round-robin, until the iterations are done or the deadline
+     * passes.
+     *
+     * @return True if all iterations were done.
+     */
+    private boolean warmUpResponseTypes(WrappedApi wrappedApi, long deadlineNanos, List<Type> warmedResponseTypes, Map<Type, Throwable> failedResponseTypes) {
+        List<SyntheticResponse> syntheticResponses = new ArrayList<>();
+
+        for (Type responseType : new ArrayList<>(wrappedApi.getRegisteredResponseTypes())) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+
+            try {
+                SyntheticResponse syntheticResponse = createSyntheticResponse(wrappedApi, responseType);
+
+                if (syntheticResponse != null) {
+                    syntheticResponses.add(syntheticResponse);
+                }
+
+                warmedResponseTypes.add(responseType);
+            } catch (Throwable throwable) {
+                failedResponseTypes.put(responseType, throwable);
+            }
+        }
+
+        for (int iteration = 0; iteration < deserializationIterations && !syntheticResponses.isEmpty(); iteration++) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+
+            for (int i = syntheticResponses.size() - 1; i >= 0; i--) {
+                SyntheticResponse syntheticResponse = syntheticResponses.get(i);
+
+                try {
+                    syntheticResponse.apiRequest.handleResponse(syntheticResponse);
+                } catch (Throwable throwable) {
+                    // Response class which cannot be deserialized from empty body, e.g. it requires some fields
+                    failedResponseTypes.put(syntheticResponse.apiRequest.getResponseType(), throwable);
+                    warmedResponseTypes.remove(syntheticResponse.apiRequest.getResponseType());
+                    syntheticResponses.remove(i);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Touches the response type and creates its synthetic response.
+     *
+     * @return Nullable {@link SyntheticResponse}, null if the responses of the type cannot be deserialized synthetically.
+     */
+    private static SyntheticResponse createSyntheticResponse(WrappedApi wrappedApi, Type responseType) {
+        ApiRequest<Object> apiRequest = ApiRequestBuilder.ofResponse(wrappedApi, ResponseType.of(responseType))
+                                                         .withEndpoint("/")
+                                                         .withRequestMethod(RequestMethod.GET)
+                                                         .build();
+
+        Class<Object> responseClass = apiRequest.getResponseClass();
+        ResponseFactory<Object> responseFactory = ResponseFactory.of(responseClass);
+        HttpRequest httpRequest = apiRequest.createHttpRequest();
+
+        if (responseFactory.isStreamingApiResponse() || FileResponse.class.isAssignableFrom(responseClass)) {
+            // Their bodies are not buffered, so there is nothing to deserialize
+            return null;
+        }
+
+        boolean array = responseClass.isArray() || Collection.class.isAssignableFrom(responseClass);
+        CodecRegistry codecRegistry = wrappedApi.getCodecRegistry();
+        Codec codec = codecRegistry != null ? codecRegistry.getDefaultCodec() : null;
+
+        if (codec == null) {
+            return new SyntheticResponse(apiRequest, httpRequest, GsonCodec.MEDIA_TYPE, array ? "[]" : "{}");
+        }
+
+        ByteBufferOutputStream outputStream = new ByteBufferOutputStream(16);
+
+        try {
+            codec.encode(array ? List.of() : Map.of(), outputStream);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        byte[] body = outputStream.toByteArray();
+        return new SyntheticResponse(apiRequest, httpRequest, codec.getMediaType(), codec.isBinary() ? body : new String(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Result of the warm-up
+     */
+    public static final class Result {
+
+        private final @Getter Duration duration;
+        private final boolean completed;
+        private final @Getter List<String> connectedUrls;
+        private final @Getter Map<String, Throwable> failedUrls;
+        private final @Getter List<Type> warmedResponseTypes;
+        private final @Getter Map<Type, Throwable> failedResponseTypes;
+
+        private Result(Duration duration, boolean completed, List<String> connectedUrls, Map<String, Throwable> failedUrls, List<Type> warmedResponseTypes, Map<Type, Throwable> failedResponseTypes) {
+            this.duration = duration;
+            this.completed = completed;
+            this.connectedUrls = Collections.unmodifiableList(connectedUrls);
+            this.failedUrls = Collections.unmodifiableMap(failedUrls);
+            this.warmedResponseTypes = Collections.unmodifiableList(warmedResponseTypes);
+            this.failedResponseTypes = Collections.unmodifiableMap(failedResponseTypes);
+        }
+
+        /**
+         * Determines if the warm-up was completed within the budget. Failed connections and response types do not make it incomplete.
+         *
+         * @return True if completed.
+         */
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        @Override
+        public String toString() {
+            return "WarmUp.Result{duration=" + duration + ", completed=" + completed + ", connectedUrls=" + connectedUrls + ", failedUrls="
+                    + failedUrls.keySet() + ", warmedResponseTypes=" + warmedResponseTypes.size() + ", failedResponseTypes=" + failedResponseTypes.keySet()
+                    + "}";
+        }
+    }
+
+    /**
+     * Successful in-memory response with empty body of the default {@link Codec}
+     */
+    private static final class SyntheticResponse implements HttpResponse<Object> {
+
+        private final ApiRequest<Object> apiRequest;
+        private final HttpRequest httpRequest;
+        private final HttpHeaders headers;
+        private final Object body;
+
+        private SyntheticResponse(ApiRequest<Object> apiRequest, HttpRequest httpRequest, String mediaType, Object body) {
+            this.apiRequest = apiRequest;
+            this.httpRequest = httpRequest;
+            this.headers = HttpHeaders.of(Map.of("Content-Type", List.of(mediaType)), (name, value) -> true);
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return httpRequest;
+        }
+
+        @Override
+        public Optional<HttpResponse<Object>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public Object body() {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return httpRequest.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package dev.mayuna.simpleapi;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 public interface WrappedApi {
 
@@ -28,42 +39,37 @@ public interface WrappedApi {
     }
 
     /**
-     * Computers the endpoint of this {@link ApiRequest}.<br>If the {@link ApiRequest#getComputedEndpoint()} is overridden, this method may not be
+     * Gets the response types registered for this API. Types are registered by {@link ApiRequestBuilder#prepare()} and
+     * {@link #registerResponseTypes(Type...)}, they are kept after {@link #shutdown()}. Used for pre-warming, e.g. {@link GsonWrappedApi#prewarmGson()}.
+     *
+     * @return Non-null unmodifiable {@link Set} of response types
+     */
+    default Set<Type> getRegisteredResponseTypes() {
+        return Collections.unmodifiableSet(WrappedApiState.of(this).getRegisteredResponseTypes());
+    }
+
+    /**
+     * Registers response types of this API. You may call this method in your API's constructor with all of your response classes, so they can be
+     * pre-warmed before their first request is built.
+     *
+     * @param responseTypes The response types to register.
+     */
+    default void registerResponseTypes(Type... responseTypes) {
+        Collections.addAll(WrappedApiState.of(this).getRegisteredResponseTypes(), responseTypes);
+    }
+
+    /**
+     * Computers the endpoint of this {@link ApiRequest}. The endpoint is parsed only once into cached {@link EndpointTemplate}.<br>If the {@link ApiRequest#getComputedEndpoint()} is overridden, this method may not be
      * called, depending on the implementation.
      *
      * @param apiRequest The {@link ApiRequest} to compute the endpoint of.
      * @param <T>        The type of the response.
      *
-     * @return The computed endpoint of this {@link ApiRequest} with all {@link PathParameter}s replaces and {@link RequestQuery}s added.
+     * @return The computed endpoint of this {@link ApiRequest} with all {@link PathParameter}s replaced and {@link RequestQuery}s added, both
+     * percent-encoded.
      */
     default <T> String computeEndpoint(ApiRequest<T> apiRequest) {
-        String computedEndpoint = apiRequest.getEndpoint();
-
-        PathParameter[] pathParameters = apiRequest.getPathParameters();
-        if (pathParameters != null && pathParameters.length > 0) {
-            for (PathParameter pathParameter : apiRequest.getPathParameters()) {
-                //noinspection DataFlowIssue
-                computedEndpoint = computedEndpoint.replace("{" + pathParameter.getId() + "}", pathParameter.getReplacement());
-            }
-        }
-
-        RequestQuery[] requestQueries = apiRequest.getRequestQueries();
-
-        if (requestQueries != null && requestQueries.length > 0) {
-            for (int i = 0; i < requestQueries.length; i++) {
-                RequestQuery requestQuery = requestQueries[i];
-
-                String querySymbol = "&";
-
-                if (i == 0) {
-                    querySymbol = "?";
-                }
-
-                computedEndpoint += querySymbol + requestQuery.getName() + "=" + requestQuery.getValue();
-            }
-        }
-
-        return computedEndpoint;
+        return EndpointTemplate.of(apiRequest.getEndpoint()).render(apiRequest.getPathParameters(), apiRequest.getRequestQueries());
     }
 
     /**
@@ -90,16 +96,147 @@ public interface WrappedApi {
                 httpRequestBuilder.header(defaultRequestHeader.getKey(), defaultRequestHeader.getValue());
             }
         }
+
+        CodecRegistry codecRegistry = apiRequest.getWrappedApi().getCodecRegistry();
+
+        if (codecRegistry != null && codecRegistry.isAcceptHeader() && !RequestHeader.contains(requestHeaders, "Accept")
+                && !RequestHeader.contains(defaultRequestHeaders, "Accept")) {
+            String acceptHeaderValue = codecRegistry.getAcceptHeaderValue();
+
+            if (acceptHeaderValue != null) {
+                httpRequestBuilder.header("Accept", acceptHeaderValue);
+            }
+        }
+
+        if (apiRequest.getWrappedApi().getCompression() != null && !RequestHeader.contains(requestHeaders, "Accept-Encoding")
+                && !RequestHeader.contains(defaultRequestHeaders, "Accept-Encoding")) {
+            httpRequestBuilder.header("Accept-Encoding", Compression.ACCEPT_ENCODING);
+        }
     }
 
     /**
-     * Creates a new {@link HttpClient} instance that will be used for sending requests.<br>If the {@link ApiRequest#createHttpClientInstance()} is
-     * overridden, this method may not be called, depending on the implementation.
+     * Gets the {@link HttpClientSettings} used when creating the {@link ManagedHttpClient} of this API. You may override this method to change the
+     * HTTP version, connect timeout, executor, etc.<br>This method is called only once, when the {@link ManagedHttpClient} is created.
+     *
+     * @return Non-null {@link HttpClientSettings}
+     */
+    default HttpClientSettings getHttpClientSettings() {
+        return new HttpClientSettings();
+    }
+
+    /**
+     * Gets the {@link ManagedHttpClient} of this API. It is created once per {@link WrappedApi} instance, so all requests share the same
+     * connection pool.
      *
-     * @return The created {@link HttpClient} instance.
+     * @return Non-null {@link ManagedHttpClient}
+     */
+    default ManagedHttpClient getManagedHttpClient() {
+        return WrappedApiState.of(this).getOrCreate(ManagedHttpClient.class, () -> new ManagedHttpClient(getHttpClientSettings()));
+    }
+
+    /**
+     * Gets the {@link HttpClient} instance that will be used for sending requests. By default, it is the shared client of
+     * {@link #getManagedHttpClient()}.<br>If the {@link ApiRequest#createHttpClientInstance()} is overridden, this method may not be called,
+     * depending on the implementation.
+     *
+     * @return The {@link HttpClient} instance.
      */
     default HttpClient createHttpClientInstance() {
-        return HttpClient.newBuilder().build();
+        return getManagedHttpClient().getHttpClient();
+    }
+
+    /**
+     * Starts resources of this API, e.g., the {@link ManagedHttpClient}. Calling this method is optional, resources are started lazily on first
+     * use.
+     */
+    default void start() {
+        getManagedHttpClient().start();
+    }
+
+    /**
+     * Creates the {@link WarmUp} used by {@link #warmUp(Duration)}. Override this method to add URLs of other hosts or to change the number of
+     * connections.
+     *
+     * @return Non-null {@link WarmUp}
+     */
+    default WarmUp createWarmUp() {
+        return new WarmUp();
+    }
+
+    /**
+     * Warms up this API before it starts serving traffic - starts it, opens connections to {@link #getDefaultUrl()} and other hosts of
+     * {@link #createWarmUp()}, and deserializes synthetic responses of all {@link #getRegisteredResponseTypes()}, so the first requests do not pay
+     * for handshakes, class loading and cold caches. Register your response types using {@link #registerResponseTypes(Type...)} before calling
+     * this method.
+     *
+     * @param budget Maximum duration of the warm-up
+     *
+     * @return Non-null {@link WarmUp.Result}, which reports whether the warm-up was completed within the budget.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting for the connections.
+     */
+    default WarmUp.Result warmUp(Duration budget) throws InterruptedException {
+        return createWarmUp().run(this, budget);
+    }
+
+    /**
+     * Closes all resources of this API, e.g., the {@link ManagedHttpClient} and {@link ApiExecutor}. Requests sent after this method will create new resources.
+     * The {@link #getRegisteredResponseTypes()} are kept, so the API can be pre-warmed again after it is restarted.
+     */
+    default void shutdown() {
+        WrappedApiState.release(this);
+    }
+
+    /**
+     * Determines if responses are streamed by default. If true, {@link #getDefaultBodyHandler()} returns
+     * {@link HttpResponse.BodyHandlers#ofInputStream()}, so the responses are deserialized while being read, without buffering the whole body in
+     * memory. Useful for large responses.
+     *
+     * @return True if responses should be streamed. Defaults to false.
+     */
+    default boolean isStreamingResponses() {
+        return false;
+    }
+
+    /**
+     * Determines if identical requests, which are in flight at the same time, should be coalesced into one HTTP exchange. Requests are identical when
+     * they have the same request method, URI, headers and response type. Only requests with {@linkplain RequestMethod#isIdempotent() idempotent}
+     * request method and without a body are coalesced, and never requests with {@link StreamingApiResponse} or {@link FileDownload}.<br>Coalesced
+     * requests share one instance of the response class, or the same exception, and the hooks are called only for the request which was sent.
+     *
+     * @return True if the requests should be coalesced. Defaults to false.
+     */
+    default boolean isCoalescingRequests() {
+        return false;
+    }
+
+    /**
+     * Gets the default {@link HttpResponse.BodyHandler} for requests which do not specify any.<br>If the {@link ApiRequest#getBodyHandler()} is
+     * overridden, this method may not be called, depending on the implementation.
+     *
+     * @return {@link HttpResponse.BodyHandlers#ofInputStream()} if {@link #isStreamingResponses()} returns true, otherwise
+     * {@link BufferPool#bodyHandler()} if {@link #getBufferPool()} is not null, otherwise {@link HttpResponse.BodyHandlers#ofString()}. If some
+     * {@linkplain Codec#isBinary() binary} codec is registered, bodies of its media type are received as <code>byte[]</code> instead of
+     * {@link String}.
+     */
+    default HttpResponse.BodyHandler<?> getDefaultBodyHandler() {
+        if (isStreamingResponses()) {
+            return HttpResponse.BodyHandlers.ofInputStream();
+        }
+
+        BufferPool bufferPool = getBufferPool();
+
+        if (bufferPool != null) {
+            return bufferPool.bodyHandler();
+        }
+
+        CodecRegistry codecRegistry = getCodecRegistry();
+
+        if (codecRegistry != null && codecRegistry.hasBinaryCodec()) {
+            return codecRegistry.createBodyHandler();
+        }
+
+        return HttpResponse.BodyHandlers.ofString();
     }
 
     /**
@@ -122,13 +259,291 @@ public interface WrappedApi {
     }
 
     /**
-     * This method is used for async requests. You may override this method to change the way async requests are sent, for example, using a thread
-     * pool, etc.
+     * Creates the {@link ApiExecutor} used by {@link #runAsync(Runnable)} and {@link #sendAsync(ApiRequest)}. By default, it is a bounded pool of 64
+     * daemon threads with queue of 1024 tasks, which rejects further tasks with {@link java.util.concurrent.RejectedExecutionException} when the
+     * queue is full. Requests sent asynchronously are bounded the same way - at most 64 of them are in flight at once and 1024 wait in the queue,
+     * further requests fail right away, so the load stays bounded under overload. {@link ApiExecutor.RejectionPolicy#BLOCK} is not used by default,
+     * since the tasks are also submitted from the {@link java.net.http.HttpClient}'s threads, which must not be blocked. You may override this method
+     * to use virtual threads, your own {@link java.util.concurrent.Executor}, other {@link ApiExecutor.RejectionPolicy}, etc.<br>This method is
+     * called only once, when the {@link ApiExecutor} is created.
+     *
+     * @return Non-null {@link ApiExecutor}
+     */
+    default ApiExecutor createApiExecutor() {
+        return ApiExecutor.boundedPool(64, 1024, ApiExecutor.RejectionPolicy.FAIL_FAST);
+    }
+
+    /**
+     * Gets the {@link ApiExecutor} of this API. It is created once per {@link WrappedApi} instance using {@link #createApiExecutor()}.
+     *
+     * @return Non-null {@link ApiExecutor}
+     */
+    default ApiExecutor getApiExecutor() {
+        return WrappedApiState.of(this).getOrCreate(ApiExecutor.class, this::createApiExecutor);
+    }
+
+    /**
+     * Creates the {@link ResponseCache} of this API. Responses are not cached by default, override this method to enable the cache.<br>This method
+     * is called only once, when the {@link ResponseCache} is created.
+     *
+     * @return Nullable {@link ResponseCache}. If null, responses are not cached.
+     */
+    default ResponseCache createResponseCache() {
+        return null;
+    }
+
+    /**
+     * Gets the {@link ResponseCache} of this API. It is created once per {@link WrappedApi} instance using {@link #createResponseCache()}.<br>Fresh
+     * cached responses are returned without sending the request and without calling any hooks.
+     *
+     * @return Nullable {@link ResponseCache}
+     */
+    default ResponseCache getResponseCache() {
+        return WrappedApiState.of(this).getOrCreate(ResponseCache.class, this::createResponseCache);
+    }
+
+    /**
+     * Gets the default {@link RetryPolicy} of the requests. Requests are not retried by default. Can be overridden per request using
+     * {@link ApiRequestBuilder#withRetryPolicy(RetryPolicy)}.<br>Retried attempts call {@link #onApiRequest(ApiRequest)} again, while
+     * {@link #onException(ApiRequest, Throwable)} is called only when the last attempt fails.
+     *
+     * @return Nullable {@link RetryPolicy}. If null, requests are not retried.
+     */
+    default RetryPolicy getRetryPolicy() {
+        return null;
+    }
+
+    /**
+     * Creates the {@link RateLimiter} shared by all requests of this API. Requests are not rate limited by default.<br>This method is called only
+     * once, when the {@link RateLimiter} is created.
+     *
+     * @return Nullable {@link RateLimiter}. If null, requests are not limited by API-wide limiter.
+     */
+    default RateLimiter createRateLimiter() {
+        return null;
+    }
+
+    /**
+     * Creates the {@link RateLimiter} for requests with the given endpoint. The endpoint is not computed, so all requests with the same endpoint
+     * template (e.g. <code>/users/{id}</code>) share the same limiter. Requests must have a token from both API-wide and per-endpoint limiter.
+     * <br>This method is called only once per endpoint.
+     *
+     * @param endpoint Non-null endpoint template
+     *
+     * @return Nullable {@link RateLimiter}. If null, requests with this endpoint are not limited by per-endpoint limiter.
+     */
+    default RateLimiter createRateLimiter(String endpoint) {
+        return null;
+    }
+
+    /**
+     * Gets the API-wide {@link RateLimiter}. It is created once per {@link WrappedApi} instance using {@link #createRateLimiter()}.
+     *
+     * @return Nullable {@link RateLimiter}
+     */
+    default RateLimiter getRateLimiter() {
+        return WrappedApiState.of(this).getOrCreate(RateLimiter.class, this::createRateLimiter);
+    }
+
+    /**
+     * Gets the {@link RateLimiter} of the endpoint. It is created once per {@link WrappedApi} instance and endpoint using
+     * {@link #createRateLimiter(String)}.
+     *
+     * @param endpoint Non-null endpoint template
+     *
+     * @return Nullable {@link RateLimiter}
+     */
+    default RateLimiter getRateLimiter(String endpoint) {
+        return WrappedApiState.of(this).getOrCreate(List.of(RateLimiter.class, endpoint), RateLimiter.class, () -> createRateLimiter(endpoint));
+    }
+
+    /**
+     * Creates the {@link CircuitBreaker} for requests to the given host. Requests are not guarded by circuit breakers by default.<br>This method is
+     * called only once per host, it should return a new instance every time.
+     *
+     * @param host Non-null host with port, if specified, e.g. <code>api.example.com</code>
+     *
+     * @return Nullable {@link CircuitBreaker}. If null, requests to this host are not guarded by per-host circuit breaker.
+     */
+    default CircuitBreaker createHostCircuitBreaker(String host) {
+        return null;
+    }
+
+    /**
+     * Creates the {@link CircuitBreaker} for requests with the given endpoint. The endpoint is not computed, so all requests with the same endpoint
+     * template share the same circuit breaker. Requests must be permitted by both per-host and per-endpoint circuit breaker.<br>This method is
+     * called only once per endpoint, it should return a new instance every time.
+     *
+     * @param endpoint Non-null endpoint template
+     *
+     * @return Nullable {@link CircuitBreaker}. If null, requests with this endpoint are not guarded by per-endpoint circuit breaker.
+     */
+    default CircuitBreaker createEndpointCircuitBreaker(String endpoint) {
+        return null;
+    }
+
+    /**
+     * Gets the {@link CircuitBreaker} of the host. It is created once per {@link WrappedApi} instance and host using
+     * {@link #createHostCircuitBreaker(String)} and its state transitions are passed to
+     * {@link #onCircuitBreakerStateTransition(CircuitBreaker, CircuitBreaker.State, CircuitBreaker.State)}.
+     *
+     * @param host Non-null host with port, if specified
+     *
+     * @return Nullable {@link CircuitBreaker}
+     */
+    default CircuitBreaker getHostCircuitBreaker(String host) {
+        return WrappedApiState.of(this).getOrCreate(List.of(CircuitBreaker.class, "host", host), CircuitBreaker.class,
+                                                    () -> withStateTransitionHook(createHostCircuitBreaker(host))
+        );
+    }
+
+    /**
+     * Gets the {@link CircuitBreaker} of the endpoint. It is created once per {@link WrappedApi} instance and endpoint using
+     * {@link #createEndpointCircuitBreaker(String)} and its state transitions are passed to
+     * {@link #onCircuitBreakerStateTransition(CircuitBreaker, CircuitBreaker.State, CircuitBreaker.State)}.
+     *
+     * @param endpoint Non-null endpoint template
+     *
+     * @return Nullable {@link CircuitBreaker}
+     */
+    default CircuitBreaker getEndpointCircuitBreaker(String endpoint) {
+        return WrappedApiState.of(this).getOrCreate(List.of(CircuitBreaker.class, "endpoint", endpoint), CircuitBreaker.class,
+                                                    () -> withStateTransitionHook(createEndpointCircuitBreaker(endpoint))
+        );
+    }
+
+    private CircuitBreaker withStateTransitionHook(CircuitBreaker circuitBreaker) {
+        if (circuitBreaker == null) {
+            return null;
+        }
+
+        // The circuit breaker is a resource of this API, so its listener must not hold this API strongly
+        WeakReference<WrappedApi> wrappedApiReference = new WeakReference<>(this);
+
+        return circuitBreaker.withListener((transitionedCircuitBreaker, fromState, toState) -> {
+            WrappedApi wrappedApi = wrappedApiReference.get();
+
+            if (wrappedApi != null) {
+                wrappedApi.onCircuitBreakerStateTransition(transitionedCircuitBreaker, fromState, toState);
+            }
+        });
+    }
+
+    /**
+     * Creates the {@link Compression} of this API. Requests do not advertise <code>Accept-Encoding</code> by default, override this method to
+     * enable the decompression of responses and optionally the compression of request bodies.<br>This method is called only once, the instance is
+     * remembered by {@link #getCompression()}.
+     *
+     * @return Nullable {@link Compression}
+     */
+    default Compression createCompression() {
+        return null;
+    }
+
+    /**
+     * Gets the {@link Compression} of this API. It is created once per {@link WrappedApi} instance using {@link #createCompression()}.
+     *
+     * @return Nullable {@link Compression}
+     */
+    default Compression getCompression() {
+        return WrappedApiState.of(this).getOrCreate(Compression.class, this::createCompression);
+    }
+
+    /**
+     * Creates the {@link CodecRegistry} of this API, which encodes bodies set by {@link ApiRequestBuilder#withBody(Object)} and decodes responses of
+     * {@link CodecApiResponse}s, arrays, collections, maps and generic {@link ResponseType}s. By default, it contains {@link GsonCodec} if
+     * {@link com.google.gson.Gson} is on the classpath. Override this method to register other codecs, e.g. {@link MessagePackCodec}.<br>This method
+     * is called only once, the instance is remembered by {@link #getCodecRegistry()}.
+     *
+     * @return Nullable {@link CodecRegistry}
+     */
+    default CodecRegistry createCodecRegistry() {
+        CodecRegistry codecRegistry = new CodecRegistry();
+
+        if (GsonSupport.isAvailable()) {
+            codecRegistry.withCodec(GsonSupport.createCodec(this));
+        }
+
+        return codecRegistry;
+    }
+
+    /**
+     * Gets the {@link CodecRegistry} of this API. It is created once per {@link WrappedApi} instance using {@link #createCodecRegistry()}.
+     *
+     * @return Nullable {@link CodecRegistry}
+     */
+    default CodecRegistry getCodecRegistry() {
+        return WrappedApiState.of(this).getOrCreate(CodecRegistry.class, this::createCodecRegistry);
+    }
+
+    /**
+     * Creates the {@link BufferPool} of this API. Responses are received as {@link String}s by default, override this method to receive them into
+     * pooled buffers instead, see {@link #getDefaultBodyHandler()}. Your {@link DeserializableApiResponse}s must then read the body using
+     * {@link ResponseBodies} or {@link PooledBody}.<br>This method is called only once, the instance is remembered by {@link #getBufferPool()}.
+     *
+     * @return Nullable {@link BufferPool}
+     */
+    default BufferPool createBufferPool() {
+        return null;
+    }
+
+    /**
+     * Gets the {@link BufferPool} of this API. It is created once per {@link WrappedApi} instance using {@link #createBufferPool()}.
+     *
+     * @return Nullable {@link BufferPool}
+     */
+    default BufferPool getBufferPool() {
+        return WrappedApiState.of(this).getOrCreate(BufferPool.class, this::createBufferPool);
+    }
+
+    /**
+     * Creates the {@link RequestScheduler} of this API. Requests are dispatched immediately by default, override this method to dispatch them
+     * by their {@link RequestPriority} with bounded concurrency instead.<br>This method is called only once, the instance is remembered by
+     * {@link #getRequestScheduler()}.
+     *
+     * @return Nullable {@link RequestScheduler}
+     */
+    default RequestScheduler createRequestScheduler() {
+        return null;
+    }
+
+    /**
+     * Gets the {@link RequestScheduler} of this API. It is created once per {@link WrappedApi} instance using {@link #createRequestScheduler()}.
+     *
+     * @return Nullable {@link RequestScheduler}
+     */
+    default RequestScheduler getRequestScheduler() {
+        return WrappedApiState.of(this).getOrCreate(RequestScheduler.class, this::createRequestScheduler);
+    }
+
+    /**
+     * Creates the {@link ApiMetrics} of this API. Metrics are not recorded by default, override this method to enable them.<br>This method is
+     * called only once, when the {@link ApiMetrics} are created.
+     *
+     * @return Nullable {@link ApiMetrics}. If null, metrics are not recorded.
+     */
+    default ApiMetrics createApiMetrics() {
+        return null;
+    }
+
+    /**
+     * Gets the {@link ApiMetrics} of this API. They are created once per {@link WrappedApi} instance using {@link #createApiMetrics()}.
+     *
+     * @return Nullable {@link ApiMetrics}
+     */
+    default ApiMetrics getApiMetrics() {
+        return WrappedApiState.of(this).getOrCreate(ApiMetrics.class, this::createApiMetrics);
+    }
+
+    /**
+     * This method is used for running asynchronous tasks of this API. Requests sent by {@link #sendAsync(ApiRequest)} do not use this method, since
+     * they do not block any thread - they are bounded by {@link ApiExecutor#executeAsync(java.util.function.Supplier)} instead. By default, the task
+     * is run by {@link #getApiExecutor()}, so the number of threads is bounded.
      *
      * @param runnable The runnable to run.
      */
     default void runAsync(Runnable runnable) {
-        new Thread(runnable).start();
+        getApiExecutor().execute(runnable);
     }
 
     /**
@@ -146,11 +561,39 @@ public interface WrappedApi {
      * @throws IllegalAccessException    Is thrown if the constructor of the response class is not accessible.
      */
     default <T> T createInstanceOfResponseClass(Class<T> responseClass) throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
-        if (responseClass.isArray()) {
-            throw new RuntimeException("Cannot create instance of array");
+        return ResponseFactory.of(responseClass).newInstance();
+    }
+
+    /**
+     * Deserializes the response body directly into the given type, without creating instance of the response class. This is used for arrays,
+     * collections, maps and generic {@link ResponseType}s.<br>By default, the body is decoded by the {@link Codec} of its <code>Content-Type</code>
+     * from {@link #getCodecRegistry()}. Without any codec, it is deserialized as JSON using {@link com.google.gson.Gson}, if it is on the classpath.
+     * If this API is {@link GsonWrappedApi}, its shared {@link com.google.gson.Gson} instance is used.
+     *
+     * @param apiRequest   The {@link ApiRequest} to deserialize the response for.
+     * @param httpResponse The {@link HttpResponse} to deserialize.
+     * @param responseType The type to deserialize into.
+     * @param <T>          The type of the response.
+     *
+     * @return The deserialized object.
+     */
+    default <T> Object deserializeResponseBody(ApiRequest<T> apiRequest, HttpResponse<?> httpResponse, Type responseType) {
+        CodecRegistry codecRegistry = apiRequest.getWrappedApi().getCodecRegistry();
+        Codec codec = codecRegistry != null ? codecRegistry.getResponseCodec(httpResponse.headers()) : null;
+
+        if (codec != null) {
+            try {
+                return codec.decode(httpResponse, responseType);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
         }
 
-        return responseClass.getDeclaredConstructor().newInstance();
+        if (!GsonSupport.isAvailable()) {
+            throw new UnsupportedOperationException("Cannot deserialize response of type " + responseType + ", Gson is not on the classpath. Override WrappedApi#deserializeResponseBody() to deserialize it.");
+        }
+
+        return GsonSupport.fromJson(apiRequest.getWrappedApi(), httpResponse, responseType);
     }
 
     /**
@@ -170,39 +613,67 @@ public interface WrappedApi {
      */
     @SuppressWarnings({"rawtypes", "unchecked"})
     default <T> T handleResponse(ApiRequest<T> apiRequest, HttpResponse<?> httpResponse) throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        ResponseFactory<T> responseFactory = ResponseFactory.of(apiRequest.getResponseClass());
+        boolean keepBodyOpen = false;
+
+        try {
+            T response = handleResponseBody(apiRequest, httpResponse, responseFactory);
+            // StreamingApiResponse reads the body lazily and closes it by itself
+            keepBodyOpen = responseFactory.isStreamingApiResponse() && response != null;
+            return response;
+        } finally {
+            if (!keepBodyOpen) {
+                // Streamed bodies must be closed, otherwise the connection is not returned to the pool
+                ResponseBodies.closeQuietly(httpResponse);
+            }
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private <T> T handleResponseBody(ApiRequest<T> apiRequest, HttpResponse<?> httpResponse, ResponseFactory<T> responseFactory) throws InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        Type responseType = apiRequest.getResponseType();
+
+        if (responseFactory.isDirectlyDeserialized() || responseType != apiRequest.getResponseClass()) {
+            return (T) apiRequest.getWrappedApi().deserializeResponseBody(apiRequest, httpResponse, responseType);
+        }
+
         T responseInstance = apiRequest.createInstanceOfResponseClass();
 
-        if (responseInstance instanceof ApiResponse) {
+        if (responseFactory.isApiResponse()) {
             ApiResponse apiResponse = (ApiResponse) responseInstance;
 
             apiResponse.setHttpStatusCode(httpResponse.statusCode());
             apiResponse.setWrappedApi(apiRequest.getWrappedApi());
+            apiResponse.setHttpHeaders(httpResponse.headers());
         }
 
-        if (responseInstance instanceof DeserializableApiResponse) {
-            responseInstance = (T) ((DeserializableApiResponse) responseInstance).deserialize(apiRequest, httpResponse);
+        if (responseFactory.isDeserializableApiResponse()) {
+            Object deserializedInstance = ((DeserializableApiResponse) responseInstance).deserialize(apiRequest, httpResponse);
+
+            if (deserializedInstance != responseInstance && deserializedInstance instanceof ApiResponse) {
+                ApiResponse apiResponse = (ApiResponse) deserializedInstance;
+
+                apiResponse.setHttpStatusCode(httpResponse.statusCode());
+                apiResponse.setWrappedApi(apiRequest.getWrappedApi());
+                apiResponse.setHttpHeaders(httpResponse.headers());
+            }
+
+            responseInstance = (T) deserializedInstance;
         }
 
         return responseInstance;
     }
 
     /**
-     * Sends the request synchronously.<br>If the {@link ApiRequest#send()} is overridden, this method may not be called, depending on the
-     * implementation.
+     * Creates the {@link HttpRequest} of this {@link ApiRequest} - computes the URI, applies the {@link RequestHeader}s, request method, body and
+     * timeout.<br>If the {@link ApiRequest#createHttpRequest()} is overridden, this method may not be called, depending on the implementation.
      *
-     * @param apiRequest The request to send.
+     * @param apiRequest The {@link ApiRequest} to create the {@link HttpRequest} for.
      * @param <T>        The type of the response.
      *
-     * @return The instance of the response class.
-     *
-     * @throws IOException               If an I/O error occurs.
-     * @throws InterruptedException      If the operation is interrupted.
-     * @throws NoSuchMethodException     Is thrown if the response class does not have a default constructor.
-     * @throws InvocationTargetException Is thrown if the constructor of the response class throws an exception.
-     * @throws InstantiationException    Is thrown if the response class is abstract or interface.
-     * @throws IllegalAccessException    Is thrown if the constructor of the response class is not accessible.
+     * @return The created {@link HttpRequest}.
      */
-    default <T> T send(ApiRequest<T> apiRequest) throws IOException, InterruptedException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+    default <T> HttpRequest createHttpRequest(ApiRequest<T> apiRequest) {
         String url = apiRequest.getUrl();
 
         if (url == null) {
@@ -211,8 +682,7 @@ public interface WrappedApi {
 
         String requestUrl = url + apiRequest.getComputedEndpoint();
 
-        HttpClient httpClient = createHttpClientInstance();
-        HttpRequest.Builder httpRequestBuilder = createHttpRequestBuilderInstance();
+        HttpRequest.Builder httpRequestBuilder = apiRequest.createHttpRequestBuilderInstance();
         httpRequestBuilder.timeout(getTimeoutDuration());
 
         try {
@@ -222,43 +692,131 @@ public interface WrappedApi {
         }
 
         apiRequest.applyHeadersToHttpRequestBuilder(httpRequestBuilder, apiRequest.getRequestHeaders());
-        httpRequestBuilder.method(apiRequest.getRequestMethod().getName(), apiRequest.getBodyPublisher());
 
-        apiRequest.getWrappedApi().onApiRequest(apiRequest);
+        if (apiRequest.getFileDownload() != null) {
+            apiRequest.getFileDownload().applyHeaders(httpRequestBuilder);
+        }
 
-        HttpResponse<?> httpResponse;
+        HttpRequest.BodyPublisher bodyPublisher = apiRequest.getBodyPublisher();
+        Compression compression = apiRequest.getWrappedApi().getCompression();
 
-        try {
-            httpResponse = httpClient.send(httpRequestBuilder.build(), apiRequest.getBodyHandler());
-        } catch (Throwable throwable) {
-            apiRequest.getWrappedApi().onException(apiRequest, throwable);
-
-            if (apiRequest.getWrappedApi().rethrowExceptions()) {
-                throw throwable;
-            } else {
-                return null;
-            }
+        if (compression != null) {
+            bodyPublisher = compression.compressRequestBody(httpRequestBuilder, bodyPublisher);
         }
 
-        apiRequest.getWrappedApi().onAfterApiRequest(apiRequest);
+        httpRequestBuilder.method(apiRequest.getRequestMethod().getName(), bodyPublisher);
 
-        T response;
+        return httpRequestBuilder.build();
+    }
+
+    /**
+     * Sends the request synchronously.<br>If the {@link ApiRequest#send()} is overridden, this method may not be called, depending on the
+     * implementation.
+     *
+     * @param apiRequest The request to send.
+     * @param <T>        The type of the response.
+     *
+     * @return The instance of the response class.
+     *
+     * @throws IOException               If an I/O error occurs.
+     * @throws InterruptedException      If the operation is interrupted.
+     * @throws NoSuchMethodException     Is thrown if the response class does not have a default constructor.
+     * @throws InvocationTargetException Is thrown if the constructor of the response class throws an exception.
+     * @throws InstantiationException    Is thrown if the response class is abstract or interface.
+     * @throws IllegalAccessException    Is thrown if the constructor of the response class is not accessible.
+     */
+    default <T> T send(ApiRequest<T> apiRequest) throws IOException, InterruptedException, InvocationTargetException, NoSuchMethodException, InstantiationException, IllegalAccessException {
+        return RequestPipeline.send(apiRequest);
+    }
+
+    /**
+     * Sends the request asynchronously using {@link HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)}, so no thread is blocked while
+     * waiting for the response. The response is handled and the hooks are called in the {@link HttpClient}'s executor, or using
+     * {@link #runAsync(Runnable)} if the response body is streamed as {@link java.io.InputStream}. The number of requests in
+     * flight is bounded by {@link #getApiExecutor()}.<br>If the request fails, the
+     * returned future is completed exceptionally when {@link #rethrowExceptions()} returns true, otherwise it is completed with null.<br>If
+     * {@link #send(ApiRequest)} or {@link ApiRequest#send()} is overridden, the overridden method is run using {@link #runAsync(Runnable)} instead.
+     * If the {@link ApiRequest#sendAsync()} is overridden, this method may not be called, depending on the implementation.
+     *
+     * @param apiRequest The request to send.
+     * @param <T>        The type of the response.
+     *
+     * @return A {@link CompletableFuture} that will be completed with the instance of response class.
+     */
+    default <T> CompletableFuture<T> sendAsync(ApiRequest<T> apiRequest) {
+        return RequestPipeline.sendAsync(apiRequest);
+    }
+
+    /**
+     * Sends the requests and waits for all of them to complete. See {@link #sendAllAsync(Collection, int, boolean)}.
+     *
+     * @param apiRequests    Non-null requests to send.
+     * @param maxParallelism Maximum number of requests in flight at once.
+     * @param failFast       If true, the first failed request cancels the remaining requests.
+     * @param <T>            The type of the responses.
+     *
+     * @return Non-null {@link BulkResult} with results in the order of the requests.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting. Remaining requests are cancelled.
+     */
+    default <T> BulkResult<T> sendAll(Collection<? extends ApiRequest<T>> apiRequests, int maxParallelism, boolean failFast) throws InterruptedException {
+        CompletableFuture<BulkResult<T>> future = sendAllAsync(apiRequests, maxParallelism, failFast);
 
         try {
-            response = apiRequest.handleResponse(httpResponse);
-        } catch (Throwable throwable) {
-            apiRequest.getWrappedApi().onException(apiRequest, throwable);
-
-            if (apiRequest.getWrappedApi().rethrowExceptions()) {
-                throw throwable;
-            } else {
-                return null;
+            return future.get();
+        } catch (InterruptedException exception) {
+            future.cancel(false);
+            throw exception;
+        } catch (ExecutionException exception) {
+            // Failures of the requests are reported in the items, so only an overridden sendAllAsync() may fail
+            Throwable cause = exception.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
             }
+
+            throw new CompletionException(cause);
         }
+    }
 
-        apiRequest.getWrappedApi().onAfterHandledApiRequest(apiRequest, response);
+    /**
+     * Sends the requests with at most 16 requests in flight at once and waits for all of them to complete. See
+     * {@link #sendAllAsync(Collection, int, boolean)}.
+     *
+     * @param apiRequests Non-null requests to send.
+     * @param <T>         The type of the responses.
+     *
+     * @return Non-null {@link BulkResult} with results in the order of the requests.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting. Remaining requests are cancelled.
+     */
+    default <T> BulkResult<T> sendAll(Collection<? extends ApiRequest<T>> apiRequests) throws InterruptedException {
+        return sendAll(apiRequests, 16, false);
+    }
+
+    /**
+     * Sends the requests using {@link ApiRequest#sendAsync()}, with at most {@code maxParallelism} requests in flight at once - next request is sent
+     * when one of the in-flight requests completes. No thread is blocked while waiting.<br>Failure of one request does not fail the batch, it is
+     * reported in its {@link BulkResult.Item}. If {@code failFast} is true, the first failed request cancels the in-flight requests and the
+     * remaining requests are not sent. Cancelling the returned future cancels the remaining requests as well.
+     *
+     * @param apiRequests    Non-null requests to send.
+     * @param maxParallelism Maximum number of requests in flight at once, must be positive.
+     * @param failFast       If true, the first failed request cancels the remaining requests.
+     * @param <T>            The type of the responses.
+     *
+     * @return {@link CompletableFuture} completed with {@link BulkResult} with results in the order of the requests.
+     */
+    default <T> CompletableFuture<BulkResult<T>> sendAllAsync(Collection<? extends ApiRequest<T>> apiRequests, int maxParallelism, boolean failFast) {
+        if (maxParallelism <= 0) {
+            throw new IllegalArgumentException("Max parallelism must be positive, currently is: " + maxParallelism);
+        }
 
-        return response;
+        return new BulkSender<T>(new ArrayList<>(apiRequests), maxParallelism, failFast).start();
     }
 
     /**
@@ -270,6 +828,16 @@ public interface WrappedApi {
     default <T> void onApiRequest(ApiRequest<T> request) {
     }
 
+    /**
+     * Is called before each attempt of the request is sent. By default, calls {@link #onApiRequest(ApiRequest)}.
+     *
+     * @param context The context of the request.
+     * @param <T>     The type of the response.
+     */
+    default <T> void onApiRequest(RequestContext<T> context) {
+        onApiRequest(context.getApiRequest());
+    }
+
     /**
      * It is called after the request is sent but before the response is handled.<br>If the request send fails with exception, this method is not
      * called.
@@ -280,6 +848,16 @@ public interface WrappedApi {
     default <T> void onAfterApiRequest(ApiRequest<T> request) {
     }
 
+    /**
+     * It is called after the request is sent but before the response is handled. By default, calls {@link #onAfterApiRequest(ApiRequest)}.
+     *
+     * @param context The context of the request.
+     * @param <T>     The type of the response.
+     */
+    default <T> void onAfterApiRequest(RequestContext<T> context) {
+        onAfterApiRequest(context.getApiRequest());
+    }
+
     /**
      * It is called after the request's response is handled.<br>If the request send and/or request's response handler fails with exception, this
      * method is not called.
@@ -291,6 +869,28 @@ public interface WrappedApi {
     default <T> void onAfterHandledApiRequest(ApiRequest<T> request, T response) {
     }
 
+    /**
+     * It is called after the request's response is handled. By default, calls {@link #onAfterHandledApiRequest(ApiRequest, Object)}.
+     *
+     * @param context  The context of the request.
+     * @param response The response.
+     * @param <T>      The type of the response.
+     */
+    default <T> void onAfterHandledApiRequest(RequestContext<T> context, T response) {
+        onAfterHandledApiRequest(context.getApiRequest(), response);
+    }
+
+    /**
+     * Is called when the state of a {@link CircuitBreaker} of this API changes, e.g. when it opens after too many failures. Requests rejected by
+     * open circuit breaker are passed to {@link #onException(ApiRequest, Throwable)} with {@link CircuitBreakerOpenException}.
+     *
+     * @param circuitBreaker The circuit breaker.
+     * @param fromState      The previous state.
+     * @param toState        The new state.
+     */
+    default void onCircuitBreakerStateTransition(CircuitBreaker circuitBreaker, CircuitBreaker.State fromState, CircuitBreaker.State toState) {
+    }
+
     /**
      * It is called when any exception occurs when sending the request or handling the response.<br><br>Note: This method does not catch any
      * exceptions.<br>All exceptions are re-thrown after this method is called, if the {@link #rethrowExceptions()} returns {@code true}.
@@ -302,6 +902,18 @@ public interface WrappedApi {
     default <T> void onException(ApiRequest<T> request, Throwable throwable) {
     }
 
+    /**
+     * It is called when any exception occurs when sending the request or handling the response. By default, calls
+     * {@link #onException(ApiRequest, Throwable)}.
+     *
+     * @param context   The context of the request.
+     * @param throwable The exception.
+     * @param <T>       The type of the response.
+     */
+    default <T> void onException(RequestContext<T> context, Throwable throwable) {
+        onException(context.getApiRequest(), throwable);
+    }
+
     /**
      * Determines if exceptions should be re-thrown after {@link #onException(ApiRequest, Throwable)} is called.<br>Also, if this method returns
      * false, all responses that failed to be sent or handled will be {@code null}.
@@ -0,0 +1,174 @@
+package dev.mayuna.simpleapi;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds resources of {@link WrappedApi} instances, since {@link WrappedApi} is an interface and cannot hold any state by itself.<br>Instances are
+ * held by identity and weakly, so the resources do not prevent the {@link WrappedApi} from being garbage collected. Resources should not hold a
+ * strong reference to their {@link WrappedApi}.
+ */
+final class WrappedApiState {
+
+    private static final Map<Key, WrappedApiState> STATES = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<WrappedApi> REFERENCE_QUEUE = new ReferenceQueue<>();
+
+    private static final Object NO_RESOURCE = new Object();
+
+    private final Map<Object, Object> resources = new ConcurrentHashMap<>();
+    private final Set<Type> registeredResponseTypes = ConcurrentHashMap.newKeySet();
+
+    private WrappedApiState() {
+    }
+
+    /**
+     * Gets the {@link WrappedApiState} of the given {@link WrappedApi}, creating it if necessary.
+     *
+     * @param wrappedApi The {@link WrappedApi}.
+     *
+     * @return Non-null {@link WrappedApiState}.
+     */
+    static WrappedApiState of(WrappedApi wrappedApi) {
+        WrappedApiState state = STATES.get(new Key(wrappedApi, null));
+
+        if (state != null) {
+            return state;
+        }
+
+        expungeStaleStates();
+        return STATES.computeIfAbsent(new Key(wrappedApi, REFERENCE_QUEUE), key -> new WrappedApiState());
+    }
+
+    /**
+     * Closes all resources of the given {@link WrappedApi}. The registered response types are kept, the {@link WrappedApiState} itself is removed
+     * once the {@link WrappedApi} is garbage collected.
+     *
+     * @param wrappedApi The {@link WrappedApi}.
+     */
+    static void release(WrappedApi wrappedApi) {
+        WrappedApiState state = STATES.get(new Key(wrappedApi, null));
+
+        if (state != null) {
+            state.close();
+        }
+    }
+
+    private static void expungeStaleStates() {
+        Object reference;
+
+        while ((reference = REFERENCE_QUEUE.poll()) != null) {
+            WrappedApiState state = STATES.remove(reference);
+
+            if (state != null) {
+                state.close();
+            }
+        }
+    }
+
+    /**
+     * Gets the resource under the given key, creating it with the factory if it does not exist yet.
+     *
+     * @param key     The resource key.
+     * @param type    The resource type.
+     * @param factory The factory to create the resource with. May return null, which is remembered as well, so optional resources are not created
+     *                again.
+     * @param <R>     The resource type.
+     *
+     * @return Nullable resource.
+     */
+    <R> R getOrCreate(Object key, Class<R> type, Supplier<R> factory) {
+        Object resource = resources.get(key);
+
+        if (resource == null) {
+            synchronized (this) {
+                resource = resources.get(key);
+
+                if (resource == null) {
+                    resource = factory.get();
+                    resources.put(key, resource == null ? NO_RESOURCE : resource);
+                }
+            }
+        }
+
+        return resource == NO_RESOURCE ? null : type.cast(resource);
+    }
+
+    /**
+     * Gets the resource of the given type, creating it with the factory if it does not exist yet.
+     *
+     * @param type    The resource type, also used as the key.
+     * @param factory The factory to create the resource with.
+     * @param <R>     The resource type.
+     *
+     * @return Nullable resource.
+     */
+    <R> R getOrCreate(Class<R> type, Supplier<R> factory) {
+        return getOrCreate(type, type, factory);
+    }
+
+    /**
+     * Gets the mutable set of registered response types. It is not cleared by {@link #close()}.
+     *
+     * @return Non-null {@link Set}
+     */
+    Set<Type> getRegisteredResponseTypes() {
+        return registeredResponseTypes;
+    }
+
+    /**
+     * Closes all {@link AutoCloseable} resources and removes them.
+     */
+    synchronized void close() {
+        List<Object> closing = new ArrayList<>(resources.values());
+        resources.clear();
+
+        for (Object resource : closing) {
+            if (resource instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) resource).close();
+                } catch (Exception ignored) {
+                    // Closing should not fail other resources
+                }
+            }
+        }
+    }
+
+    /**
+     * Weak identity key of {@link WrappedApi}
+     */
+    private static final class Key extends WeakReference<WrappedApi> {
+
+        private final int hashCode;
+
+        private Key(WrappedApi wrappedApi, ReferenceQueue<WrappedApi> referenceQueue) {
+            super(wrappedApi, referenceQueue);
+            this.hashCode = System.identityHashCode(wrappedApi);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof Key)) {
+                return false;
+            }
+
+            WrappedApi wrappedApi = get();
+            return wrappedApi != null && wrappedApi == ((Key) object).get();
+        }
+    }
+}
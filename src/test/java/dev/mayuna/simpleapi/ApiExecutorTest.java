@@ -0,0 +1,65 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class ApiExecutorTest {
+
+    @Test
+    public void testQueuedAsyncTaskStartedInExecutor() {
+        List<Runnable> submitted = new ArrayList<>();
+        ApiExecutor apiExecutor = ApiExecutor.of(submitted::add, 1, 1, ApiExecutor.RejectionPolicy.CALLER_RUNS);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        List<Thread> startedBy = new ArrayList<>();
+
+        CompletableFuture<String> firstResult = apiExecutor.executeAsync(() -> first);
+        CompletableFuture<String> queuedResult = apiExecutor.executeAsync(() -> {
+            startedBy.add(Thread.currentThread());
+            return CompletableFuture.completedFuture("queued");
+        });
+
+        assertEquals(1, apiExecutor.getQueuedAsyncCount());
+
+        // Completing the first task must not start the queued task in the completing thread
+        first.complete("first");
+        assertEquals("first", firstResult.join());
+        assertTrue(startedBy.isEmpty());
+        assertEquals(1, submitted.size());
+
+        submitted.remove(0).run();
+        assertEquals("queued", queuedResult.join());
+        assertEquals(0, apiExecutor.getInFlightCount());
+    }
+
+    @Test
+    public void testCloseRejectsQueuedAsyncTasks() {
+        ApiExecutor apiExecutor = ApiExecutor.of(Runnable::run, 1, 2, ApiExecutor.RejectionPolicy.FAIL_FAST);
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+
+        CompletableFuture<String> inFlightResult = apiExecutor.executeAsync(() -> inFlight);
+        CompletableFuture<String> queuedResult = apiExecutor.executeAsync(() -> CompletableFuture.completedFuture("queued"));
+
+        apiExecutor.close();
+
+        try {
+            queuedResult.join();
+            fail("Queued task should be rejected");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof RejectedExecutionException);
+        }
+
+        assertEquals(0, apiExecutor.getQueuedAsyncCount());
+        assertThrows(RejectedExecutionException.class, () -> apiExecutor.executeAsync(() -> CompletableFuture.completedFuture("new")));
+
+        // In-flight tasks are not affected
+        inFlight.complete("in-flight");
+        assertEquals("in-flight", inFlightResult.join());
+    }
+}
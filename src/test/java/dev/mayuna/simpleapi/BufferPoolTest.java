@@ -0,0 +1,233 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BufferPoolTest {
+
+    @Test
+    public void testSizeClasses() {
+        BufferPool bufferPool = new BufferPool();
+
+        assertEquals(0, bufferPool.acquire(0).capacity());
+        assertEquals(BufferPool.MIN_BUFFER_SIZE, bufferPool.acquire(1).capacity());
+        assertEquals(BufferPool.MIN_BUFFER_SIZE, bufferPool.acquire(BufferPool.MIN_BUFFER_SIZE).capacity());
+        assertEquals(BufferPool.MIN_BUFFER_SIZE * 2, bufferPool.acquire(BufferPool.MIN_BUFFER_SIZE + 1).capacity());
+        assertEquals(BufferPool.MAX_BUFFER_SIZE, bufferPool.acquire(BufferPool.MAX_BUFFER_SIZE).capacity());
+        assertEquals(BufferPool.MAX_BUFFER_SIZE + 1, bufferPool.acquire(BufferPool.MAX_BUFFER_SIZE + 1).capacity());
+        assertEquals(5, bufferPool.getAllocatedCount());
+    }
+
+    @Test
+    public void testRecycling() {
+        BufferPool bufferPool = new BufferPool().withMaxBuffersPerSizeClass(1);
+
+        ByteBuffer first = bufferPool.acquire(100);
+        ByteBuffer second = bufferPool.acquire(100);
+        first.put((byte) 1);
+
+        bufferPool.release(first);
+        // Above the limit of the size class
+        bufferPool.release(second);
+        assertEquals(1, bufferPool.getIdleCount());
+
+        ByteBuffer reused = bufferPool.acquire(200);
+        assertSame(first, reused);
+        assertEquals(0, reused.position());
+        assertEquals(1, bufferPool.getReusedCount());
+        assertEquals(0, bufferPool.getIdleCount());
+
+        // Buffers outside the pool are not pooled
+        bufferPool.release(ByteBuffer.allocate(100));
+        bufferPool.release(bufferPool.acquire(BufferPool.MAX_BUFFER_SIZE + 1));
+        bufferPool.release(ByteBuffer.allocateDirect(BufferPool.MIN_BUFFER_SIZE));
+        assertEquals(0, bufferPool.getIdleCount());
+
+        bufferPool.release(reused);
+        bufferPool.clear();
+        assertEquals(0, bufferPool.getIdleCount());
+        assertNotSame(first, bufferPool.acquire(100));
+    }
+
+    @Test
+    public void testPooledBody() throws IOException {
+        BufferPool bufferPool = new BufferPool();
+        ByteBuffer byteBuffer = bufferPool.acquire(3).put(new byte[]{1, 2, 3}).flip();
+        PooledBody pooledBody = bufferPool.createBody(byteBuffer);
+
+        assertEquals(3, pooledBody.getSize());
+        assertEquals(1, bufferPool.getOutstandingCount());
+
+        ByteBuffer view = pooledBody.getByteBuffer();
+        assertEquals(1, view.get());
+        assertThrows(ReadOnlyBufferException.class, () -> view.put(0, (byte) 0));
+        // Each view starts at the start of the body
+        assertEquals(1, pooledBody.getByteBuffer().get());
+
+        try (InputStream inputStream = pooledBody.openInputStream()) {
+            assertArrayEquals(new byte[]{1, 2, 3}, inputStream.readAllBytes());
+        }
+
+        pooledBody.close();
+        pooledBody.close();
+
+        assertTrue(pooledBody.isReleased());
+        assertEquals(0, bufferPool.getOutstandingCount());
+        assertEquals(1, bufferPool.getIdleCount());
+        assertThrows(IllegalStateException.class, pooledBody::getByteBuffer);
+    }
+
+    @Test
+    public void testSubscriberAggregatesChunks() {
+        BufferPool bufferPool = new BufferPool();
+        PooledBodySubscriber subscriber = subscribe(bufferPool, -1);
+
+        subscriber.onNext(List.of(chunk(0, 3000), chunk(3000, 3000)));
+        subscriber.onNext(List.of(ByteBuffer.allocate(0)));
+        subscriber.onNext(List.of(chunk(6000, 10_000)));
+        subscriber.onComplete();
+
+        PooledBody pooledBody = subscriber.getBody().toCompletableFuture().join();
+        ByteBuffer body = pooledBody.getByteBuffer();
+        assertEquals(16_000, pooledBody.getSize());
+
+        for (int i = 0; i < 16_000; i++) {
+            assertEquals((byte) i, body.get());
+        }
+
+        // Grown once, the smaller buffer was returned to the pool
+        assertEquals(2, bufferPool.getAllocatedCount());
+        assertEquals(1, bufferPool.getIdleCount());
+        pooledBody.close();
+        assertEquals(2, bufferPool.getIdleCount());
+    }
+
+    @Test
+    public void testSubscriberContentLengthHint() {
+        BufferPool bufferPool = new BufferPool();
+
+        // Acquired by the Content-Length, so the buffer is not grown
+        PooledBodySubscriber subscriber = subscribe(bufferPool, 20_000);
+        subscriber.onNext(List.of(chunk(0, 100)));
+        subscriber.onNext(List.of(chunk(100, 19_900)));
+        subscriber.onComplete();
+
+        PooledBody pooledBody = subscriber.getBody().toCompletableFuture().join();
+        assertEquals(32 * 1024, pooledBody.getByteBuffer().capacity());
+        assertEquals(1, bufferPool.getAllocatedCount());
+        pooledBody.close();
+
+        // Huge Content-Length is not trusted, the buffer is grown from the received bytes
+        subscriber = subscribe(bufferPool, Integer.MAX_VALUE * 4L);
+        subscriber.onNext(List.of(chunk(0, 100)));
+        subscriber.onComplete();
+
+        pooledBody = subscriber.getBody().toCompletableFuture().join();
+        assertEquals(100, pooledBody.getSize());
+        assertTrue(pooledBody.getByteBuffer().capacity() <= BufferPool.MAX_BUFFER_SIZE);
+        pooledBody.close();
+    }
+
+    @Test
+    public void testSubscriberEmptyBody() {
+        BufferPool bufferPool = new BufferPool();
+        PooledBodySubscriber subscriber = subscribe(bufferPool, 0);
+        subscriber.onComplete();
+
+        PooledBody pooledBody = subscriber.getBody().toCompletableFuture().join();
+        assertEquals(0, pooledBody.getSize());
+        assertEquals(0, bufferPool.getAllocatedCount());
+        pooledBody.close();
+    }
+
+    @Test
+    public void testSubscriberErrorReleasesBuffer() {
+        BufferPool bufferPool = new BufferPool();
+        PooledBodySubscriber subscriber = subscribe(bufferPool, -1);
+
+        subscriber.onNext(List.of(chunk(0, 100)));
+        subscriber.onError(new IOException("Connection reset"));
+
+        assertEquals(1, bufferPool.getIdleCount());
+        assertEquals(0, bufferPool.getOutstandingCount());
+
+        try {
+            subscriber.getBody().toCompletableFuture().join();
+            fail("Body should fail");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testLeakDetection() throws InterruptedException {
+        List<Throwable> leaks = new CopyOnWriteArrayList<>();
+        BufferPool bufferPool = new BufferPool().withLeakDetection(true).withLeakListener(leaks::add);
+
+        // Released bodies are not reported
+        bufferPool.createBody(bufferPool.acquire(10)).close();
+        createLeakedBody(bufferPool);
+
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (leaks.isEmpty()) {
+            assertTrue("Leak was not detected", System.nanoTime() - deadlineNanos < 0);
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, leaks.size());
+        assertEquals(1, bufferPool.getLeakCount());
+        assertEquals(0, bufferPool.getOutstandingCount());
+
+        // The trace points to where the body was created
+        boolean createdHere = false;
+
+        for (StackTraceElement element : leaks.get(0).getStackTrace()) {
+            createdHere |= element.getMethodName().equals("createLeakedBody");
+        }
+
+        assertTrue(createdHere);
+    }
+
+    private static void createLeakedBody(BufferPool bufferPool) {
+        bufferPool.createBody(bufferPool.acquire(10));
+    }
+
+    private static PooledBodySubscriber subscribe(BufferPool bufferPool, long contentLength) {
+        PooledBodySubscriber subscriber = new PooledBodySubscriber(bufferPool, contentLength);
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        return subscriber;
+    }
+
+    private static ByteBuffer chunk(int offset, int length) {
+        ByteBuffer chunk = ByteBuffer.allocate(length);
+
+        for (int i = 0; i < length; i++) {
+            chunk.put((byte) (offset + i));
+        }
+
+        return chunk.flip();
+    }
+}
@@ -0,0 +1,184 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BulkSenderTest {
+
+    /**
+     * Futures of the sent requests by their endpoint, completed by the tests
+     */
+    private final Map<String, CompletableFuture<String>> sent = new HashMap<>();
+
+    private final WrappedApi wrappedApi = new WrappedApi() {
+        @Override
+        public String getDefaultUrl() {
+            return "http://localhost";
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> sendAsync(ApiRequest<T> apiRequest) {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            sent.put(apiRequest.getEndpoint(), future);
+            return (CompletableFuture<T>) future;
+        }
+    };
+
+    @Test
+    public void testMaxParallelism() {
+        CompletableFuture<BulkResult<String>> result = wrappedApi.sendAllAsync(requests(5), 2, false);
+
+        assertEquals(2, sent.size());
+        assertTrue(sent.containsKey("/0") && sent.containsKey("/1"));
+
+        // Each completed request lets the next one through
+        sent.get("/1").complete("1");
+        assertEquals(3, sent.size());
+        assertTrue(sent.containsKey("/2"));
+
+        sent.get("/0").complete("0");
+        sent.get("/2").complete("2");
+        assertEquals(5, sent.size());
+        assertFalse(result.isDone());
+
+        // Completed out of order, the results are still in the order of the requests
+        sent.get("/4").complete("4");
+        sent.get("/3").completeExceptionally(new IOException("Failed"));
+
+        BulkResult<String> bulkResult = result.join();
+        assertEquals(5, bulkResult.getItems().size());
+        assertEquals(Arrays.asList("0", "1", "2", null, "4"), bulkResult.getResponses());
+        assertFalse(bulkResult.isAllSuccessful());
+        assertEquals(1, bulkResult.getFailures().size());
+        assertEquals(3, bulkResult.getFailures().get(0).getIndex());
+        assertTrue(bulkResult.getFailures().get(0).getThrowable() instanceof IOException);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, bulkResult.getItems().get(i).getIndex());
+            assertEquals("/" + i, bulkResult.getItems().get(i).getApiRequest().getEndpoint());
+        }
+    }
+
+    @Test
+    public void testSynchronouslyCompletedRequests() {
+        AtomicInteger sentCount = new AtomicInteger();
+        WrappedApi completingApi = new WrappedApi() {
+            @Override
+            public String getDefaultUrl() {
+                return "http://localhost";
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> CompletableFuture<T> sendAsync(ApiRequest<T> apiRequest) {
+                return (CompletableFuture<T>) CompletableFuture.completedFuture(String.valueOf(sentCount.getAndIncrement()));
+            }
+        };
+
+        // Same endpoint, so the cache of the endpoint templates is not filled
+        ApiRequest<String> apiRequest = ApiRequest.builder(completingApi, String.class).withEndpoint("/items").withRequestMethod(RequestMethod.GET).build();
+
+        // Completed in the sending thread, the drain loop must not recurse for each of them
+        BulkResult<String> bulkResult = completingApi.sendAllAsync(Collections.nCopies(10_000, apiRequest), 1, false).join();
+
+        assertTrue(bulkResult.isAllSuccessful());
+        assertEquals(10_000, bulkResult.getItems().size());
+        assertEquals("9999", bulkResult.getResponses().get(9_999));
+    }
+
+    @Test
+    public void testFailFast() {
+        CompletableFuture<BulkResult<String>> result = wrappedApi.sendAllAsync(requests(5), 2, true);
+
+        sent.get("/0").completeExceptionally(new IOException("Failed"));
+
+        // In-flight request is cancelled, remaining requests are not sent
+        assertTrue(sent.get("/1").isCancelled());
+        assertEquals(2, sent.size());
+
+        BulkResult<String> bulkResult = result.join();
+        assertTrue(bulkResult.getItems().get(0).isFailure());
+
+        for (int i = 1; i < 5; i++) {
+            assertTrue(bulkResult.getItems().get(i).isCancelled());
+            assertFalse(bulkResult.getItems().get(i).isFailure());
+        }
+
+        assertEquals(1, bulkResult.getFailures().size());
+    }
+
+    @Test
+    public void testWithoutFailFast() {
+        CompletableFuture<BulkResult<String>> result = wrappedApi.sendAllAsync(requests(3), 3, false);
+
+        sent.get("/0").completeExceptionally(new IOException("Failed"));
+        assertFalse(sent.get("/1").isDone());
+
+        sent.get("/1").complete("1");
+        sent.get("/2").complete("2");
+
+        assertEquals(Arrays.asList(null, "1", "2"), result.join().getResponses());
+    }
+
+    @Test
+    public void testCancellation() {
+        CompletableFuture<BulkResult<String>> result = wrappedApi.sendAllAsync(requests(4), 2, false);
+
+        result.cancel(false);
+
+        assertTrue(sent.get("/0").isCancelled());
+        assertTrue(sent.get("/1").isCancelled());
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testEmptyAndInvalid() {
+        assertTrue(wrappedApi.<String>sendAllAsync(new ArrayList<>(), 1, false).join().getItems().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> wrappedApi.sendAllAsync(requests(1), 0, false));
+    }
+
+    @Test
+    public void testSendAllRethrowsCause() {
+        WrappedApi failingApi = new WrappedApi() {
+            @Override
+            public String getDefaultUrl() {
+                return "http://localhost";
+            }
+
+            @Override
+            public <T> CompletableFuture<BulkResult<T>> sendAllAsync(Collection<? extends ApiRequest<T>> apiRequests, int maxParallelism, boolean failFast) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Failed"));
+            }
+        };
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> failingApi.sendAll(requests(failingApi, 1)));
+        assertEquals("Failed", exception.getMessage());
+    }
+
+    private List<ApiRequest<String>> requests(int count) {
+        return requests(wrappedApi, count);
+    }
+
+    private static List<ApiRequest<String>> requests(WrappedApi wrappedApi, int count) {
+        List<ApiRequest<String>> apiRequests = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            apiRequests.add(ApiRequest.builder(wrappedApi, String.class).withEndpoint("/" + i).withRequestMethod(RequestMethod.GET).build());
+        }
+
+        return apiRequests;
+    }
+}
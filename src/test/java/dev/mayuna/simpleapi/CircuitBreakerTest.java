@@ -0,0 +1,166 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST_NANOS = Duration.ofMillis(10).toNanos();
+    private static final long SLOW_NANOS = Duration.ofSeconds(10).toNanos();
+
+    @Test
+    public void testOpensOnFailureRate() {
+        List<String> transitions = new ArrayList<>();
+        CircuitBreaker circuitBreaker = createCircuitBreaker(Duration.ofHours(1)).withListener((breaker, fromState, toState) -> transitions.add(fromState + "->" + toState));
+
+        record(circuitBreaker, 3, false);
+        record(circuitBreaker, 1, true);
+        // Not evaluated before the minimum number of calls
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        record(circuitBreaker, 1, true);
+        // 2 of 5 calls failed, below 0.5
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0.4, circuitBreaker.getFailureRate(), 0.001);
+
+        record(circuitBreaker, 1, true);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertNull(circuitBreaker.tryAcquire());
+        assertEquals(List.of("CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    public void testHalfOpenCloses() {
+        List<String> transitions = new ArrayList<>();
+        CircuitBreaker circuitBreaker = createCircuitBreaker(Duration.ZERO).withListener((breaker, fromState, toState) -> transitions.add(fromState + "->" + toState));
+
+        open(circuitBreaker);
+
+        CircuitBreaker.Permit first = circuitBreaker.tryAcquire();
+        CircuitBreaker.Permit second = circuitBreaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, first.getState());
+
+        // Only the permitted number of probe calls
+        assertNull(circuitBreaker.tryAcquire());
+
+        // Released permit can be acquired again
+        circuitBreaker.release(second);
+        second = circuitBreaker.tryAcquire();
+        assertNotNull(second);
+
+        circuitBreaker.onResult(first, FAST_NANOS, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onResult(second, FAST_NANOS, false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    public void testHalfOpenReopens() {
+        CircuitBreaker circuitBreaker = createCircuitBreaker(Duration.ZERO);
+
+        open(circuitBreaker);
+
+        CircuitBreaker.Permit first = circuitBreaker.tryAcquire();
+        CircuitBreaker.Permit second = circuitBreaker.tryAcquire();
+        circuitBreaker.onResult(first, FAST_NANOS, true);
+        circuitBreaker.onResult(second, FAST_NANOS, false);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testStaleResultsIgnored() {
+        CircuitBreaker circuitBreaker = createCircuitBreaker(Duration.ZERO);
+
+        // Started while closed, completes after the circuit breaker opened and became half-open
+        CircuitBreaker.Permit closedPermit = circuitBreaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.CLOSED, closedPermit.getState());
+
+        open(circuitBreaker);
+
+        CircuitBreaker.Permit first = circuitBreaker.tryAcquire();
+        CircuitBreaker.Permit second = circuitBreaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.onResult(closedPermit, SLOW_NANOS, true);
+        circuitBreaker.release(closedPermit);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(-1, circuitBreaker.getFailureRate(), 0);
+        assertNull(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onResult(first, FAST_NANOS, false);
+        circuitBreaker.onResult(second, FAST_NANOS, false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // Probe started while half-open, completes after the circuit breaker was reset
+        open(circuitBreaker);
+        CircuitBreaker.Permit probe = circuitBreaker.tryAcquire();
+        circuitBreaker.reset();
+        circuitBreaker.onResult(probe, FAST_NANOS, true);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(-1, circuitBreaker.getFailureRate(), 0);
+    }
+
+    @Test
+    public void testSlowCallRate() {
+        CircuitBreaker circuitBreaker = createCircuitBreaker(Duration.ofHours(1)).withSlowCallRateThreshold(0.5).withSlowCallDuration(Duration.ofSeconds(1));
+
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onResult(circuitBreaker.tryAcquire(), FAST_NANOS, false);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onResult(circuitBreaker.tryAcquire(), SLOW_NANOS, false);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(3 / 7d, circuitBreaker.getSlowCallRate(), 0.001);
+
+        circuitBreaker.onResult(circuitBreaker.tryAcquire(), Duration.ofSeconds(1).toNanos(), false);
+        // Opened by the slow calls only, none of the calls failed
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        CircuitBreaker circuitBreaker = createCircuitBreaker(Duration.ofHours(1)).withSlidingWindowSize(4).withMinimumNumberOfCalls(4);
+
+        record(circuitBreaker, 1, true);
+        record(circuitBreaker, 4, false);
+
+        // The failure was pushed out of the window
+        assertEquals(0, circuitBreaker.getFailureRate(), 0);
+
+        record(circuitBreaker, 1, true);
+        assertEquals(0.25, circuitBreaker.getFailureRate(), 0.001);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private static CircuitBreaker createCircuitBreaker(Duration openDuration) {
+        return new CircuitBreaker("test").withMinimumNumberOfCalls(5)
+                                         .withSlidingWindowSize(10)
+                                         .withFailureRateThreshold(0.5)
+                                         .withOpenDuration(openDuration)
+                                         .withPermittedCallsInHalfOpenState(2);
+    }
+
+    private static void open(CircuitBreaker circuitBreaker) {
+        record(circuitBreaker, 5, true);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private static void record(CircuitBreaker circuitBreaker, int calls, boolean failure) {
+        for (int i = 0; i < calls; i++) {
+            CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+            assertNotNull(permit);
+            circuitBreaker.onResult(permit, FAST_NANOS, failure);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package dev.mayuna.simpleapi;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CodecRegistryTest {
+
+    private final GsonCodec gsonCodec = new GsonCodec(new Gson());
+    private final MessagePackCodec messagePackCodec = new MessagePackCodec(new Gson());
+    private final CodecRegistry codecRegistry = new CodecRegistry().withCodec(gsonCodec).withCodec(messagePackCodec);
+
+    @Test
+    public void testMediaTypeSelection() {
+        assertSame(gsonCodec, codecRegistry.getDefaultCodec());
+        assertSame(gsonCodec, codecRegistry.getCodec("application/json"));
+        assertSame(gsonCodec, codecRegistry.getCodec("Application/JSON; charset=UTF-8"));
+        assertSame(messagePackCodec, codecRegistry.getCodec("application/msgpack"));
+        assertSame(messagePackCodec, codecRegistry.getCodec(" application/x-msgpack ; q=1"));
+        assertSame(messagePackCodec, codecRegistry.getCodec("application/vnd.msgpack"));
+        assertNull(codecRegistry.getCodec("text/plain"));
+        assertNull(codecRegistry.getCodec(null));
+        assertNull(new CodecRegistry().getDefaultCodec());
+    }
+
+    @Test
+    public void testResponseCodec() {
+        assertSame(messagePackCodec, codecRegistry.getResponseCodec(headers("Content-Type", "application/msgpack")));
+        assertSame(gsonCodec, codecRegistry.getResponseCodec(headers("Content-Type", "text/plain")));
+        assertSame(gsonCodec, codecRegistry.getResponseCodec(headers("X-Other", "value")));
+    }
+
+    @Test
+    public void testAcceptHeaderValue() {
+        assertEquals("application/json, application/msgpack", codecRegistry.getAcceptHeaderValue());
+        assertNull(new CodecRegistry().getAcceptHeaderValue());
+        assertTrue(codecRegistry.hasBinaryCodec());
+        assertFalse(new CodecRegistry().withCodec(gsonCodec).hasBinaryCodec());
+    }
+
+    @Test
+    public void testBodyContentType() {
+        WrappedApi wrappedApi = new WrappedApi() {
+            @Override
+            public String getDefaultUrl() {
+                return "http://localhost";
+            }
+
+            @Override
+            public CodecRegistry createCodecRegistry() {
+                return codecRegistry;
+            }
+        };
+
+        Map<String, Integer> body = Map.of("id", 1);
+
+        assertEquals("application/json", getContentType(builder(wrappedApi).withBody(body).build()));
+        assertEquals("application/msgpack", getContentType(builder(wrappedApi).withBody(body, MessagePackCodec.MEDIA_TYPE).build()));
+        assertEquals("application/x-msgpack", getContentType(builder(wrappedApi).withBody(body, "application/x-msgpack").build()));
+        assertEquals("application/json; charset=UTF-8", getContentType(builder(wrappedApi).withRequestHeaders(RequestHeader.of("content-type", "application/json; charset=UTF-8"))
+                                                                                          .withBody(body)
+                                                                                          .build()));
+
+        assertEquals(5, builder(wrappedApi).withBody(body, MessagePackCodec.MEDIA_TYPE).build().getBodyPublisher().contentLength());
+        assertNull(getContentType(builder(wrappedApi).withBody(body).withBodyPublisher(HttpRequest.BodyPublishers.noBody()).build()));
+
+        try {
+            builder(wrappedApi).withBody(body, "text/plain").build();
+            fail("Body of media type without codec should not be encoded");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    private static ApiRequestBuilder<Object> builder(WrappedApi wrappedApi) {
+        return ApiRequest.builder(wrappedApi, Object.class).withEndpoint("/items").withRequestMethod(RequestMethod.POST);
+    }
+
+    private static String getContentType(ApiRequest<?> apiRequest) {
+        String contentType = null;
+
+        if (apiRequest.getRequestHeaders() != null) {
+            for (RequestHeader requestHeader : apiRequest.getRequestHeaders()) {
+                if (requestHeader.getKey().equalsIgnoreCase("Content-Type")) {
+                    assertNull("Content-Type must be set once", contentType);
+                    contentType = requestHeader.getValue();
+                }
+            }
+        }
+
+        return contentType;
+    }
+
+    private static HttpHeaders headers(String name, String value) {
+        return HttpHeaders.of(Map.of(name, List.of(value)), (headerName, headerValue) -> true);
+    }
+}
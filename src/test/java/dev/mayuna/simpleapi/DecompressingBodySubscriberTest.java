@@ -0,0 +1,228 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class DecompressingBodySubscriberTest {
+
+    private static final byte[] BODY = createBody();
+
+    @Test
+    public void testGzipHeaderSplitIntoBuffers() {
+        Compression compression = new Compression();
+        byte[] compressed = gzip(BODY);
+
+        assertArrayEquals(BODY, decompress(compression, true, split(compressed, 1)).join());
+        assertEquals(1, compression.getResponseCount());
+        assertEquals(compressed.length, compression.getResponseCompressedBytes());
+        assertEquals(BODY.length, compression.getResponseDecompressedBytes());
+    }
+
+    @Test
+    public void testGzipExtraAndNameFields() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        // Magic, deflate, FEXTRA | FNAME, modification time, extra flags, OS
+        compressed.writeBytes(new byte[] {0x1F, (byte) 0x8B, 8, 4 | 8, 0, 0, 0, 0, 0, 3});
+        compressed.writeBytes(new byte[] {3, 0, 'a', 'b', 'c'});
+        compressed.writeBytes("body.txt\0".getBytes(StandardCharsets.ISO_8859_1));
+        compressed.writeBytes(deflate(BODY, true));
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(BODY);
+        compressed.writeBytes(littleEndian((int) crc32.getValue()));
+        compressed.writeBytes(littleEndian(BODY.length));
+
+        assertArrayEquals(BODY, decompress(new Compression(), true, split(compressed.toByteArray(), 3)).join());
+    }
+
+    @Test
+    public void testGzipBadCrc() {
+        byte[] compressed = gzip(BODY);
+        compressed[compressed.length - 8] ^= 1;
+
+        assertFailsWithIOException(decompress(new Compression(), true, split(compressed, 1024)));
+    }
+
+    @Test
+    public void testTruncatedBody() {
+        byte[] compressed = gzip(BODY);
+
+        assertFailsWithIOException(decompress(new Compression(), true, split(Arrays.copyOf(compressed, compressed.length - 4), 1024)));
+        assertFailsWithIOException(decompress(new Compression(), true, split(Arrays.copyOf(compressed, compressed.length / 2), 1024)));
+        assertFailsWithIOException(decompress(new Compression(), false, split(Arrays.copyOf(deflate(BODY, false), 100), 1024)));
+    }
+
+    @Test
+    public void testRawAndZlibDeflate() {
+        assertArrayEquals(BODY, decompress(new Compression(), false, split(deflate(BODY, true), 1000)).join());
+        assertArrayEquals(BODY, decompress(new Compression(), false, split(deflate(BODY, false), 1000)).join());
+        assertArrayEquals(BODY, decompress(new Compression(), false, split(deflate(BODY, false), 1)).join());
+    }
+
+    @Test
+    public void testEmptyBody() {
+        assertArrayEquals(new byte[0], decompress(new Compression(), true, List.of()).join());
+    }
+
+    @Test
+    public void testCompressedRequestBodyRoundTrip() {
+        Compression compression = new Compression().withRequestCompressionThreshold(0);
+        HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder();
+        HttpRequest.BodyPublisher bodyPublisher = compression.compressRequestBody(httpRequestBuilder, HttpRequest.BodyPublishers.ofByteArray(BODY));
+
+        assertEquals(-1, bodyPublisher.contentLength());
+        assertEquals("gzip", httpRequestBuilder.uri(URI.create("http://localhost")).build().headers().firstValue("Content-Encoding").orElse(null));
+
+        byte[] compressed = readBody(bodyPublisher).join();
+
+        assertArrayEquals(BODY, decompress(new Compression(), true, split(compressed, 4096)).join());
+        assertEquals(1, compression.getRequestCount());
+        assertEquals(BODY.length, compression.getRequestUncompressedBytes());
+        assertEquals(compressed.length, compression.getRequestCompressedBytes());
+
+        // Sent again, e.g. when retried
+        assertArrayEquals(compressed, readBody(bodyPublisher).join());
+    }
+
+    private static CompletableFuture<byte[]> decompress(Compression compression, boolean gzip, List<List<ByteBuffer>> items) {
+        DecompressingBodySubscriber<byte[]> bodySubscriber = new DecompressingBodySubscriber<>(HttpResponse.BodySubscribers.ofByteArray(), compression, gzip);
+        List<List<ByteBuffer>> remainingItems = new ArrayList<>(items);
+
+        bodySubscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+                remainingItems.clear();
+            }
+        });
+
+        while (!remainingItems.isEmpty()) {
+            bodySubscriber.onNext(remainingItems.remove(0));
+        }
+
+        bodySubscriber.onComplete();
+        return bodySubscriber.getBody().toCompletableFuture();
+    }
+
+    private static CompletableFuture<byte[]> readBody(HttpRequest.BodyPublisher bodyPublisher) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+
+        bodyPublisher.subscribe(new Flow.Subscriber<>() {
+            private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                body.writeBytes(bytes);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(body.toByteArray());
+            }
+        });
+
+        return future;
+    }
+
+    private static void assertFailsWithIOException(CompletableFuture<byte[]> future) {
+        try {
+            future.join();
+            fail("Body should not be decompressed");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof IOException);
+        }
+    }
+
+    private static List<List<ByteBuffer>> split(byte[] bytes, int bufferSize) {
+        List<List<ByteBuffer>> items = new ArrayList<>();
+
+        for (int offset = 0; offset < bytes.length; offset += bufferSize) {
+            items.add(List.of(ByteBuffer.wrap(Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + bufferSize)))));
+        }
+
+        return items;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(bytes);
+        } catch (IOException exception) {
+            throw new AssertionError(exception);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] bytes, boolean raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+        deflater.setInput(bytes);
+        deflater.finish();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+
+        deflater.end();
+        return compressed.toByteArray();
+    }
+
+    private static byte[] littleEndian(int value) {
+        return new byte[] {(byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24)};
+    }
+
+    private static byte[] createBody() {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            body.writeBytes(("{\"id\":" + i + ",\"name\":\"user-" + random.nextInt(100) + "\"},").getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] randomBytes = new byte[64 * 1024];
+        random.nextBytes(randomBytes);
+        body.writeBytes(randomBytes);
+        return body.toByteArray();
+    }
+}
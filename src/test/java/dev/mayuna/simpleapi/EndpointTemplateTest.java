@@ -0,0 +1,57 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.*;
+
+public class EndpointTemplateTest {
+
+    @Test
+    public void testParameterNames() {
+        EndpointTemplate template = EndpointTemplate.of("/users/{userId}/posts/{postId}/{userId}");
+
+        assertEquals(new LinkedHashSet<>(Arrays.asList("userId", "postId")), template.getParameterNames());
+        assertSame(template, EndpointTemplate.of("/users/{userId}/posts/{postId}/{userId}"));
+    }
+
+    @Test
+    public void testRender() {
+        EndpointTemplate template = EndpointTemplate.of("/users/{userId}/posts");
+
+        String rendered = template.render(new PathParameter[]{PathParameter.of("userId", "john doe/1")},
+                                          new RequestQuery[]{RequestQuery.of("q", "a&b=c"), RequestQuery.of("page", "2")}
+        );
+
+        assertEquals("/users/john%20doe%2F1/posts?q=a%26b%3Dc&page=2", rendered);
+    }
+
+    @Test
+    public void testRenderEncoded() {
+        EndpointTemplate template = EndpointTemplate.of("/search?fixed=1");
+
+        String rendered = template.render(null, new RequestQuery[]{RequestQuery.ofEncoded("q", "a%20b")});
+
+        assertEquals("/search?fixed=1&q=a%20b", rendered);
+    }
+
+    @Test
+    public void testRenderMissingParameter() {
+        EndpointTemplate template = EndpointTemplate.of("/{a}/{b}");
+
+        assertEquals("/x/{b}", template.render(new PathParameter[]{PathParameter.of("a", "x")}, null));
+        assertEquals("/{a}/{b}", template.render(null, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidateMissingParameter() {
+        EndpointTemplate.of("/{a}/{b}").validate(new PathParameter[]{PathParameter.of("a", "x")});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidateUnusedParameter() {
+        EndpointTemplate.of("/{a}").validate(new PathParameter[]{PathParameter.of("a", "x"), PathParameter.of("b", "y")});
+    }
+}
@@ -0,0 +1,45 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 100; i++) {
+            latencyHistogram.record(Duration.ofMillis(i).toNanos());
+        }
+
+        LatencyHistogram.Snapshot snapshot = latencyHistogram.getSnapshot();
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(Duration.ofMillis(100), snapshot.getMax());
+        assertEquals(Duration.ofNanos(Duration.ofMillis(5050).toNanos() / 100), snapshot.getMean());
+
+        long median = snapshot.getPercentile(50).toMillis();
+        assertTrue(median >= 50 && median <= 75);
+        assertEquals(Duration.ofMillis(100), snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void testEmptyAndOutOfRange() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        assertEquals(Duration.ZERO, latencyHistogram.getSnapshot().getPercentile(99));
+
+        latencyHistogram.record(-1);
+        latencyHistogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = latencyHistogram.getSnapshot();
+        long[] bucketCounts = snapshot.getBucketCounts();
+
+        assertEquals(1, bucketCounts[0]);
+        assertEquals(1, bucketCounts[bucketCounts.length - 1]);
+        assertEquals(Duration.ofNanos(Long.MAX_VALUE), snapshot.getPercentile(100));
+    }
+}
@@ -0,0 +1,267 @@
+package dev.mayuna.simpleapi;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class MessagePackCodecTest {
+
+    private final MessagePackCodec messagePackCodec = new MessagePackCodec(new Gson());
+
+    @Test
+    public void testIntegerBoundaries() throws IOException {
+        assertInteger(0, 0x00, 1);
+        assertInteger(127, 0x7F, 1);
+        assertInteger(128, 0xCC, 2);
+        assertInteger(255, 0xCC, 2);
+        assertInteger(256, 0xCD, 3);
+        assertInteger(65535, 0xCD, 3);
+        assertInteger(65536, 0xCE, 5);
+        assertInteger(0xFFFFFFFFL, 0xCE, 5);
+        assertInteger(0x100000000L, 0xCF, 9);
+        assertInteger(Long.MAX_VALUE, 0xCF, 9);
+        assertInteger(-1, 0xFF, 1);
+        assertInteger(-32, 0xE0, 1);
+        assertInteger(-33, 0xD0, 2);
+        assertInteger(Byte.MIN_VALUE, 0xD0, 2);
+        assertInteger(Byte.MIN_VALUE - 1, 0xD1, 3);
+        assertInteger(Short.MIN_VALUE, 0xD1, 3);
+        assertInteger(Short.MIN_VALUE - 1, 0xD2, 5);
+        assertInteger(Integer.MIN_VALUE, 0xD2, 5);
+        assertInteger(Integer.MIN_VALUE - 1L, 0xD3, 9);
+        assertInteger(Long.MIN_VALUE, 0xD3, 9);
+    }
+
+    @Test
+    public void testUnsignedInteger64() throws IOException {
+        BigInteger maxUnsignedLong = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        byte[] encoded = encode(maxUnsignedLong);
+
+        byte[] expected = new byte[9];
+        Arrays.fill(expected, (byte) 0xFF);
+        expected[0] = (byte) 0xCF;
+
+        assertArrayEquals(expected, encoded);
+        assertEquals(maxUnsignedLong, decode(encoded, BigInteger.class));
+    }
+
+    @Test
+    public void testStringBoundaries() throws IOException {
+        assertString(0, 0xA0, 1);
+        assertString(31, 0xBF, 1);
+        assertString(32, 0xD9, 2);
+        assertString(255, 0xD9, 2);
+        assertString(256, 0xDA, 3);
+        assertString(65535, 0xDA, 3);
+        assertString(65536, 0xDB, 5);
+    }
+
+    @Test
+    public void testMapBoundaries() throws IOException {
+        assertMap(15, 0x8F);
+        assertMap(16, 0xDE);
+        assertMap(65535, 0xDE);
+        assertMap(65536, 0xDF);
+    }
+
+    @Test
+    public void testArrayBoundaries() throws IOException {
+        assertArray(15, 0x9F);
+        assertArray(16, 0xDC);
+        assertArray(65535, 0xDC);
+        assertArray(65536, 0xDD);
+    }
+
+    @Test
+    public void testBinaryBoundaries() throws IOException {
+        assertBinary(0xC4, 1, 0);
+        assertBinary(0xC4, 1, 255);
+        assertBinary(0xC5, 2, 256);
+        assertBinary(0xC5, 2, 65535);
+        assertBinary(0xC6, 4, 65536);
+    }
+
+    @Test
+    public void testFloatsBooleansAndNull() throws IOException {
+        byte[] encoded = encode(new Object[] {1.5, 2.5f, true, false, null});
+
+        assertEquals(0x95, encoded[0] & 0xFF);
+        assertEquals(0xCB, encoded[1] & 0xFF);
+        assertEquals(0xCA, encoded[10] & 0xFF);
+
+        JsonArray decoded = decode(encoded, JsonArray.class);
+        assertEquals(1.5, decoded.get(0).getAsDouble(), 0);
+        assertEquals(2.5f, decoded.get(1).getAsFloat(), 0);
+        assertTrue(decoded.get(2).getAsBoolean());
+        assertFalse(decoded.get(3).getAsBoolean());
+        assertTrue(decoded.get(4).isJsonNull());
+    }
+
+    @Test
+    public void testEmptyAndTruncatedBody() throws IOException {
+        assertNull(decode(new byte[0], String.class));
+
+        try {
+            decode(Arrays.copyOf(encode("some string"), 5), String.class);
+            fail("Truncated body should not be decoded");
+        } catch (EOFException ignored) {
+        }
+
+        try {
+            decode(new byte[] {1, 2}, Integer.class);
+            fail("Body with data after the value should not be decoded");
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void assertInteger(long value, int prefix, int length) throws IOException {
+        byte[] encoded = encode(value);
+
+        assertEquals("Prefix of " + value, prefix, encoded[0] & 0xFF);
+        assertEquals("Length of " + value, length, encoded.length);
+        assertEquals(Long.valueOf(value), decode(encoded, Long.class));
+    }
+
+    private void assertString(int length, int prefix, int headerLength) throws IOException {
+        char[] characters = new char[length];
+        Arrays.fill(characters, 'a');
+        String value = new String(characters);
+        byte[] encoded = encode(value);
+
+        assertEquals("Prefix of string of length " + length, prefix, encoded[0] & 0xFF);
+        assertEquals(headerLength + length, encoded.length);
+        assertEquals(value, decode(encoded, String.class));
+    }
+
+    private void assertMap(int size, int prefix) throws IOException {
+        JsonObject value = new JsonObject();
+
+        for (int i = 0; i < size; i++) {
+            value.addProperty("k" + i, i);
+        }
+
+        byte[] encoded = encode(value);
+        assertEquals("Prefix of map of size " + size, prefix, encoded[0] & 0xFF);
+
+        JsonObject decoded = decode(encoded, JsonObject.class);
+        assertEquals(size, decoded.size());
+
+        for (Map.Entry<String, JsonElement> entry : value.entrySet()) {
+            assertEquals(entry.getValue().getAsInt(), decoded.get(entry.getKey()).getAsInt());
+        }
+    }
+
+    private void assertArray(int size, int prefix) throws IOException {
+        int[] value = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            value[i] = i;
+        }
+
+        byte[] encoded = encode(value);
+
+        assertEquals("Prefix of array of size " + size, prefix, encoded[0] & 0xFF);
+        assertArrayEquals(value, decode(encoded, int[].class));
+    }
+
+    private void assertBinary(int prefix, int lengthBytes, int length) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        encoded.write(prefix);
+
+        for (int i = lengthBytes - 1; i >= 0; i--) {
+            encoded.write(length >>> (8 * i));
+        }
+
+        byte[] value = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            value[i] = (byte) i;
+        }
+
+        encoded.writeBytes(value);
+        assertArrayEquals(value, decode(encoded.toByteArray(), byte[].class));
+    }
+
+    private byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        messagePackCodec.encode(value, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T decode(byte[] body, Type type) throws IOException {
+        return (T) messagePackCodec.decode(new ByteArrayHttpResponse(body), type);
+    }
+
+    /**
+     * {@link HttpResponse} with the <code>byte[]</code> body, as received by the default body handler of binary codecs
+     */
+    private static final class ByteArrayHttpResponse implements HttpResponse<byte[]> {
+
+        private final byte[] body;
+
+        private ByteArrayHttpResponse(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return HttpRequest.newBuilder(uri()).build();
+        }
+
+        @Override
+        public Optional<HttpResponse<byte[]>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of("Content-Type", List.of(MessagePackCodec.MEDIA_TYPE)), (name, value) -> true);
+        }
+
+        @Override
+        public byte[] body() {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URI.create("http://localhost/");
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
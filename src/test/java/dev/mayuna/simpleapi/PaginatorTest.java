@@ -0,0 +1,256 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class PaginatorTest {
+
+    /**
+     * Responses by the computed endpoint of the request. Exceptions fail the request, missing responses stay pending.
+     */
+    private final Map<String, Object> responses = new HashMap<>();
+    private final Map<String, CompletableFuture<Object>> sent = new LinkedHashMap<>();
+
+    private final WrappedApi wrappedApi = new WrappedApi() {
+        @Override
+        public String getDefaultUrl() {
+            return "http://localhost";
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> sendAsync(ApiRequest<T> apiRequest) {
+            String endpoint = apiRequest.getComputedEndpoint();
+            Object response = responses.get(endpoint);
+            CompletableFuture<Object> future = new CompletableFuture<>();
+
+            if (response instanceof Throwable) {
+                future.completeExceptionally((Throwable) response);
+            } else if (response != null) {
+                future.complete(response);
+            }
+
+            sent.put(endpoint, future);
+            return (CompletableFuture<T>) future;
+        }
+    };
+
+    @Test
+    public void testCursor() {
+        responses.put("/items", new Page(2, "b"));
+        responses.put("/items?cursor=b", new Page(2, "c"));
+        responses.put("/items?cursor=c", new Page(1, ""));
+
+        Paginator<Page> paginator = builder().paginate(PaginationStrategy.cursor("cursor", Page::getNextCursor));
+        List<Page> pages = paginator.stream().collect(Collectors.toList());
+
+        assertEquals(3, pages.size());
+        assertEquals("b", pages.get(0).getNextCursor());
+        assertEquals(List.of("/items", "/items?cursor=b", "/items?cursor=c"), new ArrayList<>(sent.keySet()));
+        assertFalse(paginator.hasNext());
+        assertThrows(NoSuchElementException.class, paginator::next);
+    }
+
+    @Test
+    public void testOffset() {
+        responses.put("/items?offset=0&limit=2", new Page(2, null));
+        responses.put("/items?offset=2&limit=2", new Page(2, null));
+        responses.put("/items?offset=4&limit=2", new Page(1, null));
+
+        // Queries of the strategy replace the ones set on the builder
+        Paginator<Page> paginator = builder().withRequestQuery(RequestQuery.of("offset", "10"))
+                                             .paginate(PaginationStrategy.offset("offset", "limit", 2, Page::getSize));
+
+        assertEquals(3, paginator.stream().count());
+        assertEquals(List.of("/items?offset=0&limit=2", "/items?offset=2&limit=2", "/items?offset=4&limit=2"), new ArrayList<>(sent.keySet()));
+        assertThrows(IllegalArgumentException.class, () -> PaginationStrategy.<Page>offset("offset", "limit", 0, Page::getSize));
+    }
+
+    @Test
+    public void testPrefetchDepth() {
+        responses.put("/items", new Page(1, "1"));
+
+        Paginator<Page> paginator = builder().paginate(PaginationStrategy.cursor("cursor", Page::getNextCursor), 2);
+        assertTrue(sent.isEmpty());
+
+        // The next page is sent as soon as the first page arrives
+        assertTrue(paginator.hasNext());
+        assertEquals(2, sent.size());
+
+        paginator.next();
+        complete("/items?cursor=1", new Page(1, "2"));
+        complete("/items?cursor=2", new Page(1, "3"));
+
+        // Two pages ahead of the consumed page
+        assertEquals(3, sent.size());
+
+        paginator.next();
+        assertEquals(4, sent.size());
+
+        paginator.close();
+        assertTrue(sent.get("/items?cursor=3").isCancelled());
+        assertFalse(paginator.hasNext());
+    }
+
+    @Test
+    public void testNoPrefetch() {
+        responses.put("/items", new Page(1, "1"));
+        responses.put("/items?cursor=1", new Page(1, null));
+
+        Paginator<Page> paginator = builder().paginate(PaginationStrategy.cursor("cursor", Page::getNextCursor), 0);
+
+        paginator.next();
+        assertEquals(1, sent.size());
+
+        paginator.next();
+        assertEquals(2, sent.size());
+        assertFalse(paginator.hasNext());
+    }
+
+    @Test
+    public void testFailedPage() {
+        responses.put("/items", new Page(1, "1"));
+        responses.put("/items?cursor=1", new IOException("Failed"));
+
+        Paginator<Page> paginator = builder().paginate(PaginationStrategy.cursor("cursor", Page::getNextCursor));
+
+        paginator.next();
+        assertTrue(paginator.hasNext());
+
+        try {
+            paginator.next();
+            fail("Page should fail");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof IOException);
+        }
+
+        // The pagination ends with the failed page
+        assertFalse(paginator.hasNext());
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testFailedStrategy() {
+        responses.put("/items", new Page(1, "1"));
+
+        Paginator<Page> paginator = builder().paginate((nextPageBuilder, response, pageIndex) -> {
+            throw new IllegalStateException("Failed");
+        });
+
+        paginator.next();
+
+        try {
+            paginator.next();
+            fail("Strategy should fail");
+        } catch (CompletionException exception) {
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+        }
+
+        assertFalse(paginator.hasNext());
+    }
+
+    @Test
+    public void testLinkHeader() {
+        ApiRequestBuilder<LinkPage> builder = linkBuilder();
+
+        String link = "<https://api.example.com/v2/items?page=2&per_page=10>; rel=\"next\", <https://api.example.com/v2/items?page=5>; rel=\"last\"";
+        assertTrue(prepareNextPage(builder, link));
+        assertEquals(URI.create("https://api.example.com/v2/items?page=2&per_page=10"), builder.computeUri());
+
+        // Link with multiple relation types, in the second header
+        builder = linkBuilder();
+        assertTrue(prepareNextPage(builder, "<http://localhost/items?page=1>; rel=\"prev\"", "<http://localhost/items?page=3&q=a%20b>; rel=\"next last\""));
+        assertEquals(URI.create("http://localhost/items?page=3&q=a%20b"), builder.computeUri());
+
+        // No next page
+        assertFalse(prepareNextPage(linkBuilder(), "<http://localhost/items?page=1>; rel=\"prev\""));
+        assertFalse(prepareNextPage(linkBuilder()));
+    }
+
+    @Test
+    public void testRelativeLinkHeader() {
+        ApiRequestBuilder<LinkPage> builder = linkBuilder();
+        assertTrue(prepareNextPage(builder, "<?page=2>; rel=\"next\""));
+        assertEquals(URI.create("http://localhost:8080/v1/items?page=2"), builder.computeUri());
+
+        builder = linkBuilder();
+        assertTrue(prepareNextPage(builder, "<users?page=2>; rel=\"next\""));
+        assertEquals(URI.create("http://localhost:8080/v1/users?page=2"), builder.computeUri());
+
+        builder = linkBuilder();
+        assertTrue(prepareNextPage(builder, "</v2/items>; rel=\"next\""));
+        assertEquals(URI.create("http://localhost:8080/v2/items"), builder.computeUri());
+    }
+
+    @Test
+    public void testMalformedLinkHeader() {
+        // Invalid URI
+        assertFalse(prepareNextPage(linkBuilder(), "<http://local host/items?page=2>; rel=\"next\""));
+        // Without authority
+        assertFalse(prepareNextPage(linkBuilder(), "<mailto:user@example.com>; rel=\"next\""));
+        // Without brackets or relation type
+        assertFalse(prepareNextPage(linkBuilder(), "http://localhost/items?page=2; rel=\"next\""));
+        assertFalse(prepareNextPage(linkBuilder(), "<http://localhost/items?page=2>; rel"));
+    }
+
+    private ApiRequestBuilder<Page> builder() {
+        return ApiRequest.builder(wrappedApi, Page.class).withEndpoint("/items").withRequestMethod(RequestMethod.GET);
+    }
+
+    private ApiRequestBuilder<LinkPage> linkBuilder() {
+        return ApiRequest.builder(wrappedApi, LinkPage.class)
+                         .withUrl("http://localhost:8080")
+                         .withEndpoint("/v1/items")
+                         .withRequestQuery(RequestQuery.of("page", "1"))
+                         .withRequestMethod(RequestMethod.GET);
+    }
+
+    private void complete(String endpoint, Page page) {
+        CompletableFuture<Object> future = sent.get(endpoint);
+        assertNotNull("Page " + endpoint + " was not sent", future);
+        future.complete(page);
+    }
+
+    private static boolean prepareNextPage(ApiRequestBuilder<LinkPage> builder, String... links) {
+        LinkPage linkPage = new LinkPage();
+        linkPage.setHttpHeaders(HttpHeaders.of(Map.of("Link", List.of(links)), (name, value) -> true));
+        return PaginationStrategy.<LinkPage>linkHeader().prepareNextPage(builder, linkPage, 0);
+    }
+
+    private static class Page {
+
+        private final int size;
+        private final String nextCursor;
+
+        private Page(int size, String nextCursor) {
+            this.size = size;
+            this.nextCursor = nextCursor;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    private static class LinkPage extends ApiResponse<WrappedApi> {
+
+    }
+}
@@ -0,0 +1,64 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class PreparedApiRequestTest {
+
+    private final WrappedApi wrappedApi = new WrappedApi() {
+        @Override
+        public String getDefaultUrl() {
+            return "http://localhost";
+        }
+    };
+
+    @Test
+    public void testBind() {
+        PreparedApiRequest<String> preparedApiRequest = ApiRequest.builder(wrappedApi, String.class)
+                                                                  .withEndpoint("/users/{id}")
+                                                                  .withRequestMethod(RequestMethod.GET)
+                                                                  .withRequestQuery(RequestQuery.of("a", "1"))
+                                                                  .prepare();
+
+        ApiRequest<String> apiRequest = preparedApiRequest.bind(new PathParameter[]{PathParameter.of("id", "42")}, new RequestQuery[]{RequestQuery.of("b", "2")});
+
+        assertEquals(URI.create("http://localhost/users/42?a=1&b=2"), apiRequest.createHttpRequest().uri());
+        assertSame(apiRequest.createHttpRequest(), apiRequest.createHttpRequest());
+        assertThrows(IllegalArgumentException.class, () -> preparedApiRequest.bind());
+    }
+
+    @Test
+    public void testFileDownloadRangePerSend() throws IOException {
+        Path path = Files.createTempFile("simpleapi", ".download");
+
+        try {
+            ApiRequest<FileResponse> apiRequest = ApiRequest.builder(wrappedApi, FileResponse.class)
+                                                            .withEndpoint("/file")
+                                                            .withRequestMethod(RequestMethod.GET)
+                                                            .withFileDownload(FileDownload.to(path).withResume(true))
+                                                            .prepare()
+                                                            .bind();
+
+            // Empty file is downloaded from the start
+            assertFalse(apiRequest.createHttpRequest().headers().firstValue("Range").isPresent());
+
+            // Partially downloaded after the request was bound, e.g. by a previous attempt
+            Files.write(path, new byte[3]);
+            HttpRequest httpRequest = apiRequest.createHttpRequest();
+            assertEquals("bytes=3-", httpRequest.headers().firstValue("Range").orElse(null));
+            assertEquals(URI.create("http://localhost/file"), httpRequest.uri());
+
+            Files.write(path, new byte[5]);
+            assertEquals("bytes=5-", apiRequest.createHttpRequest().headers().firstValue("Range").orElse(null));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
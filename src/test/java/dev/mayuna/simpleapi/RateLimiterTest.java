@@ -0,0 +1,198 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testRetryAfterCapped() {
+        RateLimiter rateLimiter = RateLimiter.of(10, Duration.ofSeconds(1));
+
+        rateLimiter.update(response("Retry-After", String.valueOf(Long.MAX_VALUE)));
+
+        Duration blockedDuration = rateLimiter.getBlockedDuration();
+        assertTrue(blockedDuration.compareTo(HttpResponses.MAX_DELAY) <= 0);
+        assertTrue(blockedDuration.compareTo(HttpResponses.MAX_DELAY.minusMinutes(1)) > 0);
+        // Blocked for the capped delay, then paced by the limiter
+        assertTrue(rateLimiter.reserve() <= HttpResponses.MAX_DELAY.plusSeconds(1).toNanos());
+    }
+
+    @Test
+    public void testTokens() {
+        RateLimiter rateLimiter = RateLimiter.of(2, Duration.ofSeconds(10));
+
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(0, rateLimiter.reserve());
+
+        // Third request waits for one token, the fourth one for two
+        assertDelay(Duration.ofSeconds(5), rateLimiter.reserve());
+        assertDelay(Duration.ofSeconds(10), rateLimiter.reserve());
+    }
+
+    @Test
+    public void testRequestsPacedAfterBlock() {
+        RateLimiter rateLimiter = RateLimiter.of(2, Duration.ofSeconds(10));
+
+        rateLimiter.update(response("Retry-After", "60"));
+        assertEquals(0, rateLimiter.getAvailableTokens(), 0.001);
+
+        // Tokens are not refilled during the block, so the waiting requests do not burst at its end
+        assertDelay(Duration.ofSeconds(65), rateLimiter.reserve());
+        assertDelay(Duration.ofSeconds(70), rateLimiter.reserve());
+        assertEquals(-2, rateLimiter.getAvailableTokens(), 0.001);
+
+        // Shorter block does not shorten the current one
+        rateLimiter.update(response("Retry-After", "1"));
+        assertDelay(Duration.ofSeconds(75), rateLimiter.reserve());
+    }
+
+    @Test
+    public void testInterruptedSend() throws Exception {
+        RateLimiter rateLimiter = RateLimiter.of(1, Duration.ofHours(1));
+        List<Throwable> exceptions = new CopyOnWriteArrayList<>();
+
+        try (TestHttpServer testHttpServer = new TestHttpServer()) {
+            testHttpServer.withHandler("/", exchange -> TestHttpServer.respond(exchange, 200, "application/json", "{}"));
+
+            WrappedApi wrappedApi = new WrappedApi() {
+                @Override
+                public String getDefaultUrl() {
+                    return testHttpServer.getUrl();
+                }
+
+                @Override
+                public RateLimiter createRateLimiter() {
+                    return rateLimiter;
+                }
+
+                @Override
+                public <T> void onException(ApiRequest<T> request, Throwable throwable) {
+                    exceptions.add(throwable);
+                }
+            };
+
+            ApiRequest<Map> apiRequest = ApiRequest.builder(wrappedApi, Map.class).withEndpoint("/items").withRequestMethod(RequestMethod.GET).build();
+            assertNotNull(apiRequest.send());
+            assertEquals(0, rateLimiter.getAvailableTokens(), 0.001);
+
+            AtomicReference<Throwable> thrown = new AtomicReference<>();
+            AtomicBoolean interrupted = new AtomicBoolean();
+            Thread thread = new Thread(() -> {
+                try {
+                    apiRequest.send();
+                } catch (Throwable throwable) {
+                    thrown.set(throwable);
+                }
+
+                interrupted.set(Thread.currentThread().isInterrupted());
+            });
+
+            thread.start();
+
+            // Waits for the token
+            while (rateLimiter.getAvailableTokens() > -0.5) {
+                Thread.sleep(10);
+            }
+
+            thread.interrupt();
+            thread.join(10_000);
+
+            assertTrue(thrown.get() instanceof InterruptedException);
+            assertTrue(interrupted.get());
+            assertEquals(1, exceptions.size());
+            assertSame(thrown.get(), exceptions.get(0));
+
+            // The token of the request which was not sent is returned
+            assertEquals(0, rateLimiter.getAvailableTokens(), 0.001);
+        }
+    }
+
+    @Test
+    public void testHeaderDelaysCapped() {
+        assertEquals(HttpResponses.MAX_DELAY, HttpResponses.getRetryAfter(response("Retry-After", "Fri, 31 Dec 9999 23:59:59 GMT")));
+        assertEquals(Duration.ZERO, HttpResponses.getRetryAfter(response("Retry-After", "-5")));
+        assertEquals(Duration.ofSeconds(5), HttpResponses.getRetryAfter(response("Retry-After", "5")));
+        assertNull(HttpResponses.getRetryAfter(response("Retry-After", "soon")));
+        assertEquals(HttpResponses.MAX_DELAY, HttpResponses.getRateLimitReset(response("X-RateLimit-Reset", "1e300")));
+        assertEquals(HttpResponses.MAX_DELAY, HttpResponses.getRateLimitReset(response("X-RateLimit-Reset", "Infinity")));
+        assertNull(HttpResponses.getRateLimitReset(response("X-RateLimit-Reset", "NaN")));
+    }
+
+    private static void assertDelay(Duration expected, long delayNanos) {
+        // The time passes between the calls
+        assertTrue("Delay " + Duration.ofNanos(delayNanos) + " should be close to " + expected, delayNanos <= expected.toNanos());
+        assertTrue("Delay " + Duration.ofNanos(delayNanos) + " should be close to " + expected, delayNanos > expected.minusSeconds(1).toNanos());
+    }
+
+    private static HttpResponse<String> response(String headerName, String headerValue) {
+        return new HeadersHttpResponse(HttpHeaders.of(Map.of(headerName, List.of(headerValue)), (name, value) -> true));
+    }
+
+    /**
+     * <code>429</code> {@link HttpResponse} with the given headers and empty body
+     */
+    private static final class HeadersHttpResponse implements HttpResponse<String> {
+
+        private final HttpHeaders headers;
+
+        private HeadersHttpResponse(HttpHeaders headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public int statusCode() {
+            return 429;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return HttpRequest.newBuilder(uri()).build();
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public String body() {
+            return "";
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URI.create("http://localhost/");
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RequestCoalescerTest {
+
+    private final AtomicInteger exchangeCount = new AtomicInteger();
+    private final CountDownLatch responseLatch = new CountDownLatch(1);
+    private final List<CompletableFuture<Void>> dispatchFutures = new ArrayList<>();
+
+    private TestHttpServer testHttpServer;
+    private WrappedApi wrappedApi;
+
+    @Before
+    public void setUp() throws IOException {
+        testHttpServer = new TestHttpServer().withHandler("/", exchange -> {
+            exchangeCount.incrementAndGet();
+
+            try {
+                responseLatch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+
+            boolean invalid = exchange.getRequestURI().getPath().equals("/invalid");
+            TestHttpServer.respond(exchange, 200, "application/json", invalid ? "not json" : "{\"id\":1}");
+        });
+
+        wrappedApi = new WrappedApi() {
+            @Override
+            public String getDefaultUrl() {
+                return testHttpServer.getUrl();
+            }
+
+            @Override
+            public boolean isCoalescingRequests() {
+                return true;
+            }
+
+            @Override
+            public RequestScheduler createRequestScheduler() {
+                // Records the futures of the dispatches, so they can be cancelled
+                return new RequestScheduler(8, 8) {
+                    @Override
+                    CompletableFuture<Void> acquire(ApiRequest<?> apiRequest) {
+                        CompletableFuture<Void> future = super.acquire(apiRequest);
+
+                        synchronized (dispatchFutures) {
+                            dispatchFutures.add(future);
+                        }
+
+                        return future;
+                    }
+                };
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        responseLatch.countDown();
+        testHttpServer.close();
+    }
+
+    @Test
+    public void testIdenticalRequestsCoalesced() throws InterruptedException {
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            futures.add(builder("/items").build().sendAsync());
+        }
+
+        awaitExchanges(1);
+        responseLatch.countDown();
+
+        Map<?, ?> response = futures.get(0).join();
+        assertEquals(1.0, response.get("id"));
+
+        // All callers share the one response
+        for (CompletableFuture<Map> future : futures) {
+            assertSame(response, future.join());
+        }
+
+        assertEquals(1, exchangeCount.get());
+
+        // Not in flight anymore, so sent again
+        assertNotSame(response, builder("/items").build().sendAsync().join());
+        assertEquals(2, exchangeCount.get());
+    }
+
+    @Test
+    public void testDifferentRequestsNotCoalesced() throws InterruptedException {
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+
+        futures.add(builder("/items").build().sendAsync());
+        futures.add(builder("/items").withRequestHeader(RequestHeader.of("X-Variant", "a")).build().sendAsync());
+        futures.add(builder("/items").withRequestQuery(RequestQuery.of("page", "2")).build().sendAsync());
+        futures.add(builder("/items").withRequestMethod(RequestMethod.PUT).withBodyPublisher(HttpRequest.BodyPublishers.ofString("a")).build().sendAsync());
+        futures.add(builder("/items").withRequestMethod(RequestMethod.PUT).withBodyPublisher(HttpRequest.BodyPublishers.ofString("b")).build().sendAsync());
+        futures.add(builder("/items").withRequestMethod(RequestMethod.POST).build().sendAsync());
+
+        // All of them are in flight at once, none was joined to another one
+        awaitExchanges(futures.size());
+        responseLatch.countDown();
+
+        for (CompletableFuture<Map> future : futures) {
+            assertEquals(1.0, future.join().get("id"));
+        }
+
+        assertEquals(futures.size(), exchangeCount.get());
+    }
+
+    @Test
+    public void testFailurePropagatesToJoinedCallers() throws InterruptedException {
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            futures.add(builder("/invalid").build().sendAsync());
+        }
+
+        awaitExchanges(1);
+        responseLatch.countDown();
+
+        for (CompletableFuture<Map> future : futures) {
+            try {
+                future.join();
+                fail("Response should not be deserialized");
+            } catch (CompletionException exception) {
+                assertTrue(exception.getCause() instanceof RuntimeException);
+                assertFalse(exception.getCause() instanceof CompletionException);
+            }
+        }
+
+        assertEquals(1, exchangeCount.get());
+    }
+
+    @Test
+    public void testCancellationPropagatesToJoinedCallers() {
+        RequestScheduler requestScheduler = wrappedApi.getRequestScheduler();
+
+        // Occupies all slots, so the request waits in the queue of the scheduler
+        for (int i = 0; i < 8; i++) {
+            requestScheduler.acquire(builder("/other").build());
+        }
+
+        List<CompletableFuture<Map>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            futures.add(builder("/items").build().sendAsync());
+        }
+
+        CompletableFuture<Void> dispatchFuture;
+
+        synchronized (dispatchFutures) {
+            // Only the first request was enqueued, the others joined it
+            assertEquals(9, dispatchFutures.size());
+            dispatchFuture = dispatchFutures.get(8);
+        }
+
+        requestScheduler.cancel(dispatchFuture);
+
+        for (CompletableFuture<Map> future : futures) {
+            try {
+                future.join();
+                fail("Request should be cancelled");
+            } catch (CancellationException | CompletionException exception) {
+                Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+                assertTrue(cause instanceof CancellationException);
+            }
+        }
+
+        assertEquals(0, exchangeCount.get());
+    }
+
+    private ApiRequestBuilder<Map> builder(String endpoint) {
+        return ApiRequest.builder(wrappedApi, Map.class).withEndpoint(endpoint).withRequestMethod(RequestMethod.GET);
+    }
+
+    private void awaitExchanges(int count) throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (exchangeCount.get() < count) {
+            assertTrue("Only " + exchangeCount.get() + " of " + count + " requests were sent", System.nanoTime() - deadlineNanos < 0);
+            Thread.sleep(10);
+        }
+
+        // Coalesced requests would have been sent by now
+        Thread.sleep(100);
+        assertEquals(count, exchangeCount.get());
+    }
+}
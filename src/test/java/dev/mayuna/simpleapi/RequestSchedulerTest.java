@@ -0,0 +1,175 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class RequestSchedulerTest {
+
+    private final WrappedApi wrappedApi = new WrappedApi() {
+        @Override
+        public String getDefaultUrl() {
+            return "http://localhost";
+        }
+    };
+
+    @Test
+    public void testPriorityOrder() {
+        RequestScheduler requestScheduler = new RequestScheduler(1, 10);
+        List<String> dispatched = new ArrayList<>();
+
+        assertTrue(requestScheduler.acquire(request("/running", RequestPriority.NORMAL, null)).isDone());
+
+        for (RequestPriority priority : new RequestPriority[] {RequestPriority.BACKGROUND, RequestPriority.NORMAL, RequestPriority.CRITICAL, RequestPriority.LOW, RequestPriority.HIGH}) {
+            requestScheduler.acquire(request("/items", priority, null)).thenRun(() -> dispatched.add(priority.name()));
+        }
+
+        assertEquals(5, requestScheduler.getQueuedCount());
+        assertEquals(1, requestScheduler.getQueuedCount(RequestPriority.LOW));
+
+        for (int i = 0; i < 5; i++) {
+            requestScheduler.release();
+            assertEquals(1, requestScheduler.getRunningCount());
+        }
+
+        assertEquals(List.of("CRITICAL", "HIGH", "NORMAL", "LOW", "BACKGROUND"), dispatched);
+        assertEquals(6, requestScheduler.getDispatchedCount());
+        assertEquals(0, requestScheduler.getQueuedCount());
+    }
+
+    @Test
+    public void testWeightedFairness() {
+        RequestScheduler requestScheduler = new RequestScheduler(1, 100).withEndpointWeight("/a", 2);
+        List<String> dispatched = new ArrayList<>();
+
+        requestScheduler.acquire(request("/running", RequestPriority.NORMAL, null));
+
+        for (int i = 0; i < 6; i++) {
+            requestScheduler.acquire(request("/a", RequestPriority.NORMAL, null)).thenRun(() -> dispatched.add("/a"));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            requestScheduler.acquire(request("/b", RequestPriority.NORMAL, null)).thenRun(() -> dispatched.add("/b"));
+        }
+
+        for (int i = 0; i < 9; i++) {
+            requestScheduler.release();
+        }
+
+        // "/a" has twice the weight of "/b", so it gets two of every three dispatches
+        assertEquals(List.of("/a", "/b", "/a", "/a", "/b", "/a", "/a", "/b", "/a"), dispatched);
+    }
+
+    @Test
+    public void testEviction() {
+        RequestScheduler requestScheduler = new RequestScheduler(1, 2);
+
+        requestScheduler.acquire(request("/running", RequestPriority.NORMAL, null));
+        CompletableFuture<Void> first = requestScheduler.acquire(request("/items", RequestPriority.LOW, null));
+        CompletableFuture<Void> second = requestScheduler.acquire(request("/items", RequestPriority.LOW, null));
+        CompletableFuture<Void> high = requestScheduler.acquire(request("/items", RequestPriority.HIGH, null));
+
+        // The newest request of the lowest priority makes room for the request of higher priority
+        assertFalse(first.isDone());
+        assertRejected(second);
+        assertFalse(high.isDone());
+        assertEquals(2, requestScheduler.getQueuedCount());
+
+        // Requests of the same or lower priority do not evict anything
+        assertRejected(requestScheduler.acquire(request("/items", RequestPriority.LOW, null)));
+        assertRejected(requestScheduler.acquire(request("/items", RequestPriority.BACKGROUND, null)));
+        assertEquals(3, requestScheduler.getRejectedCount());
+
+        requestScheduler.release();
+        assertTrue(high.isDone());
+        assertFalse(first.isDone());
+    }
+
+    @Test
+    public void testDeadlineExpiry() throws InterruptedException, TimeoutException {
+        RequestScheduler requestScheduler = new RequestScheduler(1, 10);
+
+        requestScheduler.acquire(request("/running", RequestPriority.NORMAL, null));
+        CompletableFuture<Void> expiring = requestScheduler.acquire(request("/items", RequestPriority.NORMAL, Duration.ofMillis(50)));
+        CompletableFuture<Void> waiting = requestScheduler.acquire(request("/items", RequestPriority.NORMAL, Duration.ofMinutes(10)));
+
+        try {
+            expiring.get(10, TimeUnit.SECONDS);
+            fail("Request should expire");
+        } catch (ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof RequestDeadlineExceededException);
+        }
+
+        assertEquals(1, requestScheduler.getExpiredCount());
+        assertEquals(1, requestScheduler.getQueuedCount());
+
+        // Dispatched before its deadline
+        requestScheduler.release();
+        assertTrue(waiting.isDone());
+        assertFalse(waiting.isCompletedExceptionally());
+        assertEquals(1, requestScheduler.getExpiredCount());
+    }
+
+    @Test
+    public void testCancellation() throws InterruptedException {
+        RequestScheduler requestScheduler = new RequestScheduler(1, 10);
+        CompletableFuture<Void> running = requestScheduler.acquire(request("/running", RequestPriority.NORMAL, null));
+        CompletableFuture<Void> waiting = requestScheduler.acquire(request("/items", RequestPriority.NORMAL, Duration.ofMinutes(10)));
+        List<Throwable> waiterFailures = new ArrayList<>();
+
+        Thread waiter = new Thread(() -> {
+            try {
+                waiting.get();
+            } catch (InterruptedException exception) {
+                requestScheduler.cancel(waiting);
+            } catch (ExecutionException exception) {
+                waiterFailures.add(exception);
+            }
+        });
+
+        waiter.start();
+        waiter.interrupt();
+        waiter.join(10_000);
+
+        assertTrue(waiterFailures.isEmpty());
+        assertTrue(waiting.isCancelled());
+        assertEquals(0, requestScheduler.getQueuedCount());
+
+        // Cancelling the dispatched request releases its slot
+        requestScheduler.cancel(running);
+        assertEquals(0, requestScheduler.getRunningCount());
+        assertEquals(1, requestScheduler.getDispatchedCount());
+    }
+
+    private ApiRequest<Object> request(String endpoint, RequestPriority priority, Duration deadline) {
+        ApiRequestBuilder<Object> builder = ApiRequest.builder(wrappedApi, Object.class)
+                                                      .withEndpoint(endpoint)
+                                                      .withRequestMethod(RequestMethod.GET)
+                                                      .withPriority(priority);
+
+        if (deadline != null) {
+            builder.withDeadline(deadline);
+        }
+
+        return builder.build();
+    }
+
+    private static void assertRejected(CompletableFuture<Void> future) {
+        assertTrue(future.isCompletedExceptionally());
+
+        try {
+            future.join();
+        } catch (Exception exception) {
+            assertTrue(exception.getCause() instanceof RejectedExecutionException);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class ResponseCacheTest {
+
+    private static final HttpRequest HTTP_REQUEST = HttpRequest.newBuilder(URI.create("http://localhost/items")).GET().build();
+
+    @Test
+    public void testHugeMaxAge() {
+        ResponseCache responseCache = new ResponseCache(10, 1024);
+
+        responseCache.store(HTTP_REQUEST, String.class, response("Cache-Control", "max-age=" + Long.MAX_VALUE), "body");
+
+        ResponseCache.Entry entry = responseCache.lookup(HTTP_REQUEST, String.class);
+        assertNotNull(entry);
+        assertTrue(entry.isFresh());
+    }
+
+    @Test
+    public void testFarFutureExpires() {
+        ResponseCache responseCache = new ResponseCache(10, 1024);
+
+        responseCache.store(HTTP_REQUEST, String.class, response("Expires", "Fri, 31 Dec 9999 23:59:59 GMT"), "body");
+
+        ResponseCache.Entry entry = responseCache.lookup(HTTP_REQUEST, String.class);
+        assertNotNull(entry);
+        assertTrue(entry.isFresh());
+
+        // Revalidation computes the freshness the same way
+        responseCache.revalidated(entry, response("Cache-Control", "max-age=" + Long.MAX_VALUE));
+        assertTrue(entry.isFresh());
+    }
+
+    @Test
+    public void testHugeTimeToLive() {
+        ResponseCache responseCache = new ResponseCache(10, 1024, Duration.ofSeconds(Long.MAX_VALUE));
+
+        responseCache.store(HTTP_REQUEST, String.class, response("Cache-Control", "max-age=60"), "body");
+
+        ResponseCache.Entry entry = responseCache.lookup(HTTP_REQUEST, String.class);
+        assertNotNull(entry);
+        assertTrue(entry.isFresh());
+        assertEquals(1, responseCache.getStatistics().getEntryCount());
+    }
+
+    @Test
+    public void testSaturatedDeadline() {
+        assertEquals(Long.MAX_VALUE, Deadlines.after(Long.MAX_VALUE - 10, Duration.ofDays(1)));
+        assertEquals(Deadlines.MAX_NANOS, Deadlines.toNanos(Duration.ofSeconds(Long.MAX_VALUE)));
+        assertEquals(0, Deadlines.toNanos(Duration.ofSeconds(-1)));
+        assertEquals(-10 + Deadlines.MAX_NANOS, Deadlines.after(-10, Long.MAX_VALUE));
+        assertEquals(1_000_000_100L, Deadlines.after(100, Duration.ofSeconds(1)));
+    }
+
+    private static HttpResponse<String> response(String headerName, String headerValue) {
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put(headerName, List.of(headerValue));
+        headers.put("ETag", List.of("\"1\""));
+
+        return new StringHttpResponse(HttpHeaders.of(headers, (name, value) -> true));
+    }
+
+    /**
+     * <code>200</code> {@link HttpResponse} with the given headers
+     */
+    private static final class StringHttpResponse implements HttpResponse<String> {
+
+        private final HttpHeaders headers;
+
+        private StringHttpResponse(HttpHeaders headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return HTTP_REQUEST;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public String body() {
+            return "body";
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return HTTP_REQUEST.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void testBackoffBounds() {
+        RetryPolicy retryPolicy = new RetryPolicy().withMaxAttempts(10)
+                                                   .withInitialBackoff(Duration.ofMillis(100))
+                                                   .withMaxBackoff(Duration.ofMillis(300))
+                                                   .withTimeBudget(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 1000; i++) {
+            Duration firstDelay = retryPolicy.getRetryDelay(1, Duration.ZERO, null, new IOException());
+            Duration cappedDelay = retryPolicy.getRetryDelay(5, Duration.ZERO, null, new IOException());
+
+            assertTrue(firstDelay.compareTo(Duration.ofMillis(100)) <= 0);
+            assertTrue(cappedDelay.compareTo(Duration.ofMillis(300)) <= 0);
+            assertFalse(firstDelay.isNegative());
+        }
+    }
+
+    @Test
+    public void testMaxAttemptsAndBudget() {
+        RetryPolicy retryPolicy = new RetryPolicy().withMaxAttempts(3).withTimeBudget(Duration.ofSeconds(1));
+
+        assertNotNull(retryPolicy.getRetryDelay(2, Duration.ZERO, null, new IOException()));
+        assertNull(retryPolicy.getRetryDelay(3, Duration.ZERO, null, new IOException()));
+        assertNull(retryPolicy.getRetryDelay(1, Duration.ofSeconds(2), null, new IOException()));
+    }
+
+    @Test
+    public void testRetryable() {
+        RetryPolicy retryPolicy = new RetryPolicy();
+
+        assertTrue(retryPolicy.isRetryable(503));
+        assertFalse(retryPolicy.isRetryable(404));
+        assertTrue(retryPolicy.isRetryable(new HttpTimeoutException("timeout")));
+        assertFalse(retryPolicy.isRetryable(new IllegalStateException()));
+        assertNull(retryPolicy.getRetryDelay(1, Duration.ZERO, null, new IllegalStateException()));
+
+        assertTrue(retryPolicy.isRetryable(RequestMethod.GET));
+        assertTrue(retryPolicy.isRetryable(RequestMethod.of("put")));
+        assertFalse(retryPolicy.isRetryable(RequestMethod.POST));
+        assertTrue(retryPolicy.withRetryingNonIdempotent(true).isRetryable(RequestMethod.POST));
+    }
+}
@@ -0,0 +1,164 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.Test;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class StreamingApiResponseTest {
+
+    @Test
+    public void testIteratorClosesAfterLastElement() {
+        ListStreamingResponse response = new ListStreamingResponse(3);
+
+        assertEquals(List.of(0, 1, 2), response.stream().collect(Collectors.toList()));
+        assertTrue(response.isClosed());
+        assertEquals(1, response.closeCount);
+        assertThrows(IllegalStateException.class, response::iterator);
+    }
+
+    @Test
+    public void testPublisherHonoursDemand() {
+        ListStreamingResponse response = new ListStreamingResponse(5);
+        RecordingSubscriber subscriber = new RecordingSubscriber(-1);
+
+        response.toPublisher(Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(2);
+        assertEquals(List.of(0, 1), subscriber.elements);
+        assertFalse(response.isClosed());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(0, 1, 2, 3, 4), subscriber.elements);
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+        assertTrue(response.isClosed());
+    }
+
+    @Test
+    public void testThrowingSubscriberReceivesError() {
+        ListStreamingResponse response = new ListStreamingResponse(5);
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+
+        response.toPublisher(Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(List.of(0, 1), subscriber.elements);
+        assertTrue(subscriber.error instanceof IllegalStateException);
+        assertFalse(subscriber.completed);
+        assertTrue(response.isClosed());
+
+        // The stream is terminated, further requests do nothing
+        subscriber.subscription.request(1);
+        assertEquals(List.of(0, 1), subscriber.elements);
+        assertEquals(1, response.closeCount);
+    }
+
+    @Test
+    public void testCancellationAndRejectedExecutor() {
+        ListStreamingResponse response = new ListStreamingResponse(5);
+        RecordingSubscriber subscriber = new RecordingSubscriber(-1);
+
+        response.toPublisher(Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        assertEquals(List.of(0), subscriber.elements);
+        assertTrue(response.isClosed());
+        assertFalse(subscriber.completed);
+
+        ListStreamingResponse rejectedResponse = new ListStreamingResponse(5);
+        RecordingSubscriber rejectedSubscriber = new RecordingSubscriber(-1);
+
+        rejectedResponse.toPublisher(runnable -> {
+            throw new RejectedExecutionException("Rejected");
+        }).subscribe(rejectedSubscriber);
+        rejectedSubscriber.subscription.request(1);
+
+        assertTrue(rejectedSubscriber.error instanceof RejectedExecutionException);
+        assertTrue(rejectedResponse.isClosed());
+    }
+
+    /**
+     * Publishes numbers from zero, does not read any HTTP response
+     */
+    public static final class ListStreamingResponse extends StreamingApiResponse<WrappedApi, Integer> {
+
+        private final int size;
+        private int next;
+        private int closeCount;
+
+        public ListStreamingResponse() {
+            this(0);
+        }
+
+        private ListStreamingResponse(int size) {
+            this.size = size;
+        }
+
+        @Override
+        protected void openBody(ApiRequest<?> apiRequest, HttpResponse<?> httpResponse) {
+        }
+
+        @Override
+        protected boolean hasNextElement() {
+            return next < size;
+        }
+
+        @Override
+        protected Integer readNextElement() {
+            return next++;
+        }
+
+        @Override
+        protected void closeBody() {
+            closeCount++;
+        }
+    }
+
+    /**
+     * Records the published elements, throws from {@link #onNext(Integer)} for the element at the given index
+     */
+    private static final class RecordingSubscriber implements Flow.Subscriber<Integer> {
+
+        private final int throwAt;
+        private final List<Integer> elements = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        private RecordingSubscriber(int throwAt) {
+            this.throwAt = throwAt;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            elements.add(item);
+
+            if (elements.size() - 1 == throwAt) {
+                throw new IllegalStateException("Subscriber failed");
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package dev.mayuna.simpleapi;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process {@link HttpServer} on the loopback interface, so the tests work offline. Each exchange is handled in its own thread, so handlers may
+ * block.
+ */
+final class TestHttpServer implements AutoCloseable {
+
+    private final HttpServer httpServer;
+    private final ExecutorService executorService;
+
+    TestHttpServer() throws IOException {
+        executorService = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "test-http-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        httpServer.setExecutor(executorService);
+        httpServer.start();
+    }
+
+    /**
+     * Handles requests of the path and all its sub-paths.
+     *
+     * @param path    The path.
+     * @param handler The handler.
+     *
+     * @return This instance.
+     */
+    TestHttpServer withHandler(String path, HttpHandler handler) {
+        httpServer.createContext(path, handler);
+        return this;
+    }
+
+    /**
+     * Gets the URL of the server, without trailing slash.
+     *
+     * @return The URL.
+     */
+    String getUrl() {
+        return "http://" + httpServer.getAddress().getHostString() + ":" + httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Reads the request body and sends the response.
+     *
+     * @param exchange    The exchange.
+     * @param statusCode  The status code.
+     * @param contentType The content type, or null.
+     * @param body        The body.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    static void respond(HttpExchange exchange, int statusCode, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().readAllBytes();
+
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+
+        exchange.sendResponseHeaders(statusCode, bytes.length == 0 ? -1 : bytes.length);
+
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,133 @@
+package dev.mayuna.simpleapi;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WarmUpTest {
+
+    private final AtomicInteger headCount = new AtomicInteger();
+
+    private TestHttpServer testHttpServer;
+    private String closedUrl;
+    private WrappedApi wrappedApi;
+
+    @Before
+    public void setUp() throws IOException {
+        testHttpServer = new TestHttpServer().withHandler("/", exchange -> {
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                headCount.incrementAndGet();
+            }
+
+            TestHttpServer.respond(exchange, 404, null, "");
+        });
+
+        // Nothing listens on the port after the server is closed
+        TestHttpServer closedHttpServer = new TestHttpServer();
+        closedUrl = closedHttpServer.getUrl();
+        closedHttpServer.close();
+
+        wrappedApi = new WrappedApi() {
+            @Override
+            public String getDefaultUrl() {
+                return testHttpServer.getUrl();
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        wrappedApi.shutdown();
+        testHttpServer.close();
+    }
+
+    @Test
+    public void testConnections() throws InterruptedException {
+        WarmUp.Result result = new WarmUp().withUrl(closedUrl).withUrl("not a url").withConnectionsPerHost(2).run(wrappedApi, Duration.ofSeconds(10));
+
+        assertTrue(result.isCompleted());
+        // Any response, even an error, means the connection was established
+        assertEquals(List.of(testHttpServer.getUrl()), result.getConnectedUrls());
+        assertEquals(2, headCount.get());
+
+        assertEquals(2, result.getFailedUrls().size());
+        assertTrue(hasCause(result.getFailedUrls().get(closedUrl), ConnectException.class));
+        assertNotNull(result.getFailedUrls().get("not a url"));
+    }
+
+    @Test
+    public void testResponseTypes() throws InterruptedException {
+        wrappedApi.registerResponseTypes(Map.class, List.class, FileResponse.class, RequiringResponse.class);
+
+        WarmUp.Result result = new WarmUp().withConnectionsPerHost(0).withDeserializationIterations(10).run(wrappedApi, Duration.ofSeconds(10));
+
+        assertTrue(result.isCompleted());
+        // Registered response types are not ordered
+        assertEquals(Set.of(Map.class, List.class, FileResponse.class), new HashSet<>(result.getWarmedResponseTypes()));
+        assertEquals(1, result.getFailedResponseTypes().size());
+
+        // Cannot be created without the fields, so it fails the synthetic deserialization
+        Throwable throwable = result.getFailedResponseTypes().get(RequiringResponse.class);
+        assertTrue(throwable instanceof InvocationTargetException);
+        assertTrue(hasCause(throwable, IllegalStateException.class));
+
+        assertTrue(result.getConnectedUrls().isEmpty());
+        assertEquals(0, headCount.get());
+    }
+
+    @Test
+    public void testHugeBudget() throws InterruptedException {
+        wrappedApi.registerResponseTypes(Map.class);
+
+        WarmUp.Result result = wrappedApi.warmUp(Duration.ofSeconds(Long.MAX_VALUE));
+
+        assertTrue(result.isCompleted());
+        assertEquals(List.of(testHttpServer.getUrl()), result.getConnectedUrls());
+        assertEquals(List.of(Map.class), result.getWarmedResponseTypes());
+    }
+
+    @Test
+    public void testExhaustedBudget() throws InterruptedException {
+        wrappedApi.registerResponseTypes(Map.class);
+
+        WarmUp.Result result = new WarmUp().withUrl(closedUrl).run(wrappedApi, Duration.ZERO);
+
+        assertFalse(result.isCompleted());
+        assertTrue(result.getWarmedResponseTypes().isEmpty());
+
+        // The connections were not awaited
+        for (Throwable throwable : result.getFailedUrls().values()) {
+            assertTrue(throwable instanceof TimeoutException || hasCause(throwable, ConnectException.class));
+        }
+    }
+
+    private static boolean hasCause(Throwable throwable, Class<? extends Throwable> causeClass) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (causeClass.isInstance(cause)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public static class RequiringResponse extends ApiResponse<WrappedApi> {
+
+        public RequiringResponse() {
+            throw new IllegalStateException("Response requires fields");
+        }
+    }
+}
@@ -3,7 +3,6 @@ package dev.mayuna.simpleapi.impl;
 import com.google.gson.JsonObject;
 import dev.mayuna.simpleapi.*;
 
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 
 public class HttpBinApi implements WrappedApi {
@@ -22,10 +21,8 @@ public class HttpBinApi implements WrappedApi {
                          .withRequestMethod(RequestMethod.GET)
                          .withPathParameters(PathParameter.of("someParameter", "anything"))
                          .withRequestQueries(RequestQuery.of("some_query", "some_query_value"))
-                         .withRequestHeaders(RequestHeader.of("SomeHeader", "SomeHeaderValue"),
-                                             RequestHeader.ofContentType("application/json")
-                         )
-                         .withBodyPublisher(HttpRequest.BodyPublishers.ofString(jsonObject.toString()))
+                         .withRequestHeaders(RequestHeader.of("SomeHeader", "SomeHeaderValue"))
+                         .withBody(jsonObject)
                          .withBodyHandler(HttpResponse.BodyHandlers.ofString())
                          .build();
     }